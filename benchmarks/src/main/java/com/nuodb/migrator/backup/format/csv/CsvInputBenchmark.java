@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.csv;
+
+import com.nuodb.migrator.backup.Column;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueType;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.*;
+import static java.lang.String.valueOf;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures chunks per second read from a CSV chunk of 1000 rows written by {@link CsvOutput}, either with
+ * {@link CsvInput} splitting records with {@link CsvTokenizer} or with commons-csv parser creating a record and a list
+ * of strings for each row, as it was done before the tokenizer was introduced.
+ *
+ * @author Sergey Bushik
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvInputBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final String ENCODING = "UTF-8";
+
+    @Param({"false", "true"})
+    private String quoting = "false";
+
+    private RowSet rowSet;
+    private Map<String, Object> attributes;
+    private byte[] chunk;
+
+    @Setup
+    public void setUp() {
+        Value[] values = new Value[]{
+                string("12345"), string("1234567890.123"), string("value"), string("a, b and \"c\""),
+                string("2014-01-01 10:00:00.0"), string(""), STRING_NULL, binary(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}),
+                string("multi\nline"), string("true")
+        };
+        rowSet = new RowSet();
+        for (int index = 0; index < values.length; index++) {
+            rowSet.addColumn("column" + index, values[index].getValueType() == BINARY ? BINARY : STRING);
+        }
+        attributes = newHashMap();
+        attributes.put(CsvFormat.ATTRIBUTE_QUOTING, quoting);
+        attributes.put(CsvFormat.ATTRIBUTE_ENCODING, ENCODING);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CsvOutput output = new CsvOutput();
+        output.setAttributes(attributes);
+        output.setRowSet(rowSet);
+        output.setOutputStream(outputStream);
+        output.init();
+        output.writeStart();
+        for (int row = 0; row < ROWS; row++) {
+            output.writeValues(values);
+        }
+        output.writeEnd();
+        output.close();
+        chunk = outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public int readWithTokenizer() {
+        CsvInput input = new CsvInput();
+        input.setAttributes(attributes);
+        input.setRowSet(rowSet);
+        input.setInputStream(new ByteArrayInputStream(chunk));
+        input.init();
+        input.readStart();
+        int rows = 0;
+        while (input.readValues() != null) {
+            rows++;
+        }
+        input.readEnd();
+        input.close();
+        return rows;
+    }
+
+    @Benchmark
+    public int readWithCommonsCsv() throws IOException {
+        CsvInput input = new CsvInput();
+        input.setAttributes(attributes);
+        input.setRowSet(rowSet);
+        CsvFormatBuilder builder = new CsvFormatBuilder(input);
+        CSVParser parser = new CSVParser(new InputStreamReader(new ByteArrayInputStream(chunk), ENCODING),
+                builder.build());
+        String doubleQuote = valueOf(builder.getQuote()) + valueOf(builder.getQuote());
+        List<ValueType> valueTypes = newArrayList();
+        for (Column column : rowSet.getColumns()) {
+            valueTypes.add(column.getValueType());
+        }
+        Iterator<CSVRecord> iterator = parser.iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+        }
+        int rows = 0;
+        while (iterator.hasNext()) {
+            readRow(iterator.next(), valueTypes, doubleQuote);
+            rows++;
+        }
+        parser.close();
+        return rows;
+    }
+
+    protected Value[] readRow(CSVRecord record, List<ValueType> valueTypes, String doubleQuote) {
+        Value[] values = new Value[valueTypes.size()];
+        int index = 0;
+        for (String value : newArrayList(record.iterator())) {
+            if (doubleQuote.equals(value)) {
+                value = StringUtils.EMPTY;
+            } else if (value != null && value.length() == 0) {
+                value = null;
+            }
+            ValueType type = valueTypes.get(index);
+            type = type != null ? type : STRING;
+            switch (type) {
+                case BINARY:
+                    values[index] = binary(BASE64.decode(value));
+                    break;
+                case STRING:
+                    values[index] = string(value);
+                    break;
+            }
+            index++;
+        }
+        fill(values, valueTypes, index);
+        return values;
+    }
+}
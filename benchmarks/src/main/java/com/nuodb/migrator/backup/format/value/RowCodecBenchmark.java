@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.model.SimpleField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.Collection;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.newBuilder;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static com.nuodb.migrator.jdbc.JdbcStubs.newConnection;
+import static com.nuodb.migrator.jdbc.JdbcStubs.newPreparedStatement;
+import static com.nuodb.migrator.jdbc.JdbcStubs.newStub;
+import static java.util.TimeZone.getDefault;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures rows per second bound to a statement and read from a result set of a 50 column row of mixed types, either
+ * with the value format of each column resolving how the column is accessed for every value, as it was done before row
+ * codecs, or with the row codec built once per table.
+ *
+ * @author Sergey Bushik
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowCodecBenchmark {
+
+    public static final int COLUMNS = 50;
+
+    private static final int[] TYPES = {
+            Types.INTEGER, Types.VARCHAR, Types.BIGINT, Types.DECIMAL, Types.TIMESTAMP,
+            Types.VARCHAR, Types.DOUBLE, Types.DATE, Types.SMALLINT, Types.BOOLEAN
+    };
+
+    private static final String[] VALUES = {
+            "12345", "value", "1234567890123", "12345.67", "2014-01-01 10:00:00.0",
+            "another value", "1.5", "2014-01-01", "123", "true"
+    };
+
+    private Value[] values;
+    private ValueHandleList statementValueHandles;
+    private RowCodec statementRowCodec;
+    private ValueHandleList resultSetValueHandles;
+    private RowCodec resultSetRowCodec;
+
+    @Setup
+    public void setUp() {
+        Collection<Field> fields = newArrayList();
+        values = new Value[COLUMNS];
+        for (int column = 0; column < COLUMNS; column++) {
+            SimpleField field = new SimpleField();
+            field.setName("column" + column);
+            field.setTypeCode(TYPES[column % TYPES.length]);
+            fields.add(field);
+            values[column] = string(VALUES[column % VALUES.length]);
+        }
+        Connection connection = newConnection();
+        statementValueHandles = build(newBuilder(connection, newPreparedStatement()), fields);
+        statementRowCodec = new RowCodec(statementValueHandles);
+        resultSetValueHandles = build(newBuilder(connection, newStub(ResultSet.class)), fields);
+        resultSetRowCodec = new RowCodec(resultSetValueHandles);
+    }
+
+    protected ValueHandleList build(ValueHandleListBuilder builder, Collection<Field> fields) {
+        return builder.withDialect(new NuoDBDialect()).withTimeZone(getDefault()).withFields(fields).
+                withValueFormatRegistry(new NuoDBValueFormatRegistry()).build();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Value[] setValuesWithValueFormats() {
+        int index = 0;
+        for (ValueHandle valueHandle : statementValueHandles) {
+            valueHandle.getValueFormat().setValue(values[index++], valueHandle.getJdbcValueAccess(),
+                    valueHandle.getJdbcValueAccessOptions());
+        }
+        return values;
+    }
+
+    @Benchmark
+    public Value[] setValuesWithRowCodec() {
+        statementRowCodec.setValues(values);
+        return values;
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Value[] getValuesWithValueFormats() {
+        Value[] values = new Value[COLUMNS];
+        int index = 0;
+        for (ValueHandle valueHandle : resultSetValueHandles) {
+            values[index++] = valueHandle.getValueFormat().getValue(valueHandle.getJdbcValueAccess(),
+                    valueHandle.getJdbcValueAccessOptions());
+        }
+        return values;
+    }
+
+    @Benchmark
+    public Value[] getValuesWithRowCodec() {
+        Value[] values = new Value[COLUMNS];
+        resultSetRowCodec.getValues(values);
+        return values;
+    }
+}
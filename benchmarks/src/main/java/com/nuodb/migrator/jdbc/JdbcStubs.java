@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newHashMap;
+
+/**
+ * Creates JDBC objects doing nothing, which stand for the driver in the benchmarks, so that the overhead of the
+ * migrator itself is measured. Each call costs the same dynamic proxy dispatch in all of the compared paths.
+ *
+ * @author Sergey Bushik
+ */
+public class JdbcStubs {
+
+    private static final Map<Class, Object> DEFAULTS = newHashMap();
+
+    static {
+        DEFAULTS.put(boolean.class, false);
+        DEFAULTS.put(byte.class, (byte) 0);
+        DEFAULTS.put(short.class, (short) 0);
+        DEFAULTS.put(int.class, 0);
+        DEFAULTS.put(long.class, 0L);
+        DEFAULTS.put(float.class, 0F);
+        DEFAULTS.put(double.class, 0D);
+    }
+
+    public static Connection newConnection() {
+        return newStub(Connection.class);
+    }
+
+    public static PreparedStatement newPreparedStatement() {
+        return newStub(PreparedStatement.class);
+    }
+
+    /**
+     * Creates object of the interface, which methods return default values of their return types, while the methods
+     * returning JDBC interfaces return stubs of these interfaces
+     *
+     * @param type interface to stub
+     * @param <T>  type of the stub
+     * @return stub
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T newStub(final Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                Class<?> returnType = method.getReturnType();
+                if (method.getName().equals("equals")) {
+                    return proxy == args[0];
+                } else if (method.getName().equals("hashCode")) {
+                    return System.identityHashCode(proxy);
+                } else if (method.getName().equals("toString")) {
+                    return type.getSimpleName();
+                } else if (returnType.isPrimitive()) {
+                    return DEFAULTS.get(returnType);
+                } else if (returnType.isInterface() && returnType.getName().startsWith("java.sql.")) {
+                    return newStub(returnType);
+                } else {
+                    return null;
+                }
+            }
+        });
+    }
+}
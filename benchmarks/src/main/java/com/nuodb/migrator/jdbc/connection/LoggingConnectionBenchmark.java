@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.connection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import static com.nuodb.migrator.jdbc.JdbcStubs.newPreparedStatement;
+import static com.nuodb.migrator.jdbc.JdbcStubs.newStub;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures rows per second bound to a prepared statement and added to its batch, either directly to the driver
+ * statement or to the statement handed out by the logging connection with query logging disabled, as it's done on the
+ * load path, or enabled, in which case every call is dispatched through the logging proxy. Logged queries are
+ * discarded, so that only the proxy overhead is measured.
+ *
+ * @author Sergey Bushik
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingConnectionBenchmark {
+
+    private static final String QUERY = "INSERT INTO T (C1, C2, C3, C4, C5, C6) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final BigDecimal DECIMAL = new BigDecimal("12345.67");
+    private static final Timestamp TIMESTAMP = Timestamp.valueOf("2014-01-01 10:00:00.0");
+
+    private PreparedStatement driverStatement;
+    private Connection disabledConnection;
+    private PreparedStatement disabledStatement;
+    private Connection enabledConnection;
+    private PreparedStatement enabledStatement;
+
+    @Setup
+    public void setUp() throws SQLException {
+        driverStatement = newPreparedStatement();
+        disabledConnection = createConnection(false);
+        disabledStatement = disabledConnection.prepareStatement(QUERY);
+        enabledConnection = createConnection(true);
+        enabledStatement = enabledConnection.prepareStatement(QUERY);
+    }
+
+    protected Connection createConnection(final boolean enabled) throws SQLException {
+        QueryLogger queryLogger = new QueryLogger() {
+            @Override
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            @Override
+            public void log(String query) {
+            }
+        };
+        return new LoggingConnectionProvider(newStub(ConnectionProvider.class),
+                new SimpleQueryFormatFactory(), queryLogger).getConnection();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        disabledConnection.close();
+        enabledConnection.close();
+    }
+
+    @Benchmark
+    public PreparedStatement bindDriverStatement() throws SQLException {
+        return bind(driverStatement);
+    }
+
+    @Benchmark
+    public PreparedStatement bindLoggingDisabled() throws SQLException {
+        return bind(disabledStatement);
+    }
+
+    @Benchmark
+    public PreparedStatement bindLoggingEnabled() throws SQLException {
+        return bind(enabledStatement);
+    }
+
+    protected PreparedStatement bind(PreparedStatement statement) throws SQLException {
+        statement.setInt(1, 12345);
+        statement.setLong(2, 1234567890123L);
+        statement.setString(3, "value");
+        statement.setBigDecimal(4, DECIMAL);
+        statement.setTimestamp(5, TIMESTAMP);
+        statement.setBoolean(6, true);
+        statement.addBatch();
+        return statement;
+    }
+}
@@ -30,6 +30,7 @@ package com.nuodb.migrator;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistryResolver;
 import com.nuodb.migrator.config.Config;
+import com.nuodb.migrator.copy.CopyJob;
 import com.nuodb.migrator.dump.DumpJob;
 import com.nuodb.migrator.jdbc.connection.ConnectionProviderFactory;
 import com.nuodb.migrator.jdbc.dialect.DialectResolver;
@@ -39,6 +40,7 @@ import com.nuodb.migrator.job.JobExecutor;
 import com.nuodb.migrator.job.TraceJobExecutionListener;
 import com.nuodb.migrator.load.LoadJob;
 import com.nuodb.migrator.schema.SchemaJob;
+import com.nuodb.migrator.spec.CopyJobSpec;
 import com.nuodb.migrator.spec.DumpJobSpec;
 import com.nuodb.migrator.spec.LoadJobSpec;
 import com.nuodb.migrator.spec.SchemaJobSpec;
@@ -73,6 +75,10 @@ public class Migrator {
         execute(new SchemaJob(jobSpec), context);
     }
 
+    public void execute(CopyJobSpec jobSpec, Map<Object, Object> context) {
+        execute(new CopyJob(jobSpec), context);
+    }
+
     public void execute(Job job, Map<Object, Object> context) {
         JobExecutor jobExecutor = createJobExecutor(job);
         jobExecutor.addListener(new TraceJobExecutionListener());
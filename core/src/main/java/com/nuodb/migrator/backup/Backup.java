@@ -43,6 +43,7 @@ public class Backup implements HasSize {
     private Long size;
     private String version = Migrator.getVersion();
     private String format;
+    private String compression;
     private Database database = new Database();
     private Collection<RowSet> rowSets = newArrayList();
 
@@ -81,6 +82,14 @@ public class Backup implements HasSize {
         return size;
     }
 
+    public long getRowCount() {
+        long rowCount = 0;
+        for (RowSet rowSet : getRowSets()) {
+            rowCount += rowSet.getRowCount();
+        }
+        return rowCount;
+    }
+
     public String getVersion() {
         return version;
     }
@@ -97,6 +106,14 @@ public class Backup implements HasSize {
         this.format = format;
     }
 
+    public String getCompression() {
+        return compression;
+    }
+
+    public void setCompression(String compression) {
+        this.compression = compression;
+    }
+
     public Database getDatabase() {
         return database;
     }
@@ -133,6 +150,8 @@ public class Backup implements HasSize {
         if (database != null ? !database.equals(backup.database) : backup.database != null)
             return false;
         if (format != null ? !format.equals(backup.format) : backup.format != null) return false;
+        if (compression != null ? !compression.equals(backup.compression) : backup.compression != null)
+            return false;
         if (rowSets != null ? !rowSets.equals(backup.rowSets) : backup.rowSets != null) return false;
         if (version != null ? !version.equals(backup.version) : backup.version != null) return false;
 
@@ -143,6 +162,7 @@ public class Backup implements HasSize {
     public int hashCode() {
         int result = version != null ? version.hashCode() : 0;
         result = 31 * result + (format != null ? format.hashCode() : 0);
+        result = 31 * result + (compression != null ? compression.hashCode() : 0);
         result = 31 * result + (database != null ? database.hashCode() : 0);
         result = 31 * result + (rowSets != null ? rowSets.hashCode() : 0);
         return result;
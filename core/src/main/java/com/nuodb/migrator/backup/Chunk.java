@@ -29,16 +29,18 @@ package com.nuodb.migrator.backup;
 
 import com.nuodb.migrator.utils.ObjectUtils;
 
-import java.util.concurrent.atomic.AtomicLong;
-
 /**
+ * Chunk is written by a single work, so its row count is a plain tally of the writing thread which is added to the row
+ * set in batches with {@link #flushRowCount()} rather than on each row.
+ *
  * @author Sergey Bushik
  */
 public class Chunk implements HasSize {
 
     private String name;
     private Long size;
-    private AtomicLong rowCount = new AtomicLong();
+    private volatile long rowCount;
+    private transient long flushedRowCount;
     private transient RowSet rowSet;
 
     public String getName() {
@@ -69,19 +71,32 @@ public class Chunk implements HasSize {
     }
 
     public long getRowCount() {
-        return rowCount.get();
+        return rowCount;
     }
 
     public void setRowCount(long rowCount) {
-        this.rowCount.set(rowCount);
+        this.rowCount = rowCount;
+        this.flushedRowCount = rowCount;
     }
 
+    /**
+     * Increments row count of the chunk, should be called by the writing thread only
+     *
+     * @return incremented row count
+     */
     public long incrementRowCount() {
-        long rowCount = this.rowCount.incrementAndGet();
-        if (rowSet != null) {
-            rowSet.incrementRowCount();
+        return ++rowCount;
+    }
+
+    /**
+     * Adds rows counted since the previous flush to the row set of the chunk, if any
+     */
+    public void flushRowCount() {
+        long rowCount = this.rowCount;
+        if (rowSet != null && rowCount > flushedRowCount) {
+            rowSet.addRowCount(rowCount - flushedRowCount);
         }
-        return rowCount;
+        flushedRowCount = rowCount;
     }
 
     public RowSet getRowSet() {
@@ -108,7 +123,7 @@ public class Chunk implements HasSize {
     @Override
     public int hashCode() {
         int result = name != null ? name.hashCode() : 0;
-        result = 31 * result + (rowCount != null ? rowCount.hashCode() : 0);
+        result = 31 * result + (int) (rowCount ^ (rowCount >>> 32));
         return result;
     }
 
@@ -37,6 +37,7 @@ public class Column {
 
     private String name;
     private ValueType valueType;
+    private boolean lob;
     private transient RowSet rowSet;
 
     public Column() {
@@ -63,6 +64,19 @@ public class Column {
         this.valueType = valueType;
     }
 
+    /**
+     * Column of a large object type, which values may be stored outside of the chunk
+     *
+     * @return true if column is of LOB type
+     */
+    public boolean isLob() {
+        return lob;
+    }
+
+    public void setLob(boolean lob) {
+        this.lob = lob;
+    }
+
     public RowSet getRowSet() {
         return rowSet;
     }
@@ -78,6 +92,7 @@ public class Column {
 
         Column column = (Column) o;
 
+        if (lob != column.lob) return false;
         if (name != null ? !name.equals(column.name) : column.name != null) return false;
         if (valueType != null ? !valueType.equals(column.valueType) : column.valueType != null) return false;
 
@@ -88,6 +103,7 @@ public class Column {
     public int hashCode() {
         int result = name != null ? name.hashCode() : 0;
         result = 31 * result + (valueType != null ? valueType.hashCode() : 0);
+        result = 31 * result + (lob ? 1 : 0);
         return result;
     }
 
@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.String.format;
+import static org.apache.commons.io.FileUtils.forceMkdir;
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Append only file of records, each record is a line of tab separated fields. Records are forced to the disk as they
+ * are written or along with a later forced record, so the journal survives a crash of the process and is read back
+ * when the work is resumed. Records not forced yet are forced once the journal is closed. A partially written last
+ * record is ignored.
+ *
+ * @author Sergey Bushik
+ */
+public class Journal implements Closeable {
+
+    private static final String ENCODING = "UTF-8";
+    private static final char SEPARATOR = '\t';
+    private static final char LINE_SEPARATOR = '\n';
+    private static final char ESCAPE = '\\';
+
+    private final File file;
+    private FileOutputStream output;
+    private Writer writer;
+
+    public Journal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens journal for writing, records of the previous run are kept on resume, otherwise they are discarded
+     *
+     * @param resume whether to keep existing records
+     */
+    public synchronized void open(boolean resume) {
+        try {
+            if (resume && file.exists()) {
+                for (List<String> record : read()) {
+                    read(record);
+                }
+            }
+            if (file.getParentFile() != null) {
+                forceMkdir(file.getParentFile());
+            }
+            output = new FileOutputStream(file, resume);
+            writer = new OutputStreamWriter(output, ENCODING);
+        } catch (IOException exception) {
+            throw new BackupException(format("Failed to open journal %s", file), exception);
+        }
+    }
+
+    /**
+     * Invoked with each of the records of the previous run when the journal is opened on resume
+     *
+     * @param record fields of the record
+     */
+    protected void read(List<String> record) {
+    }
+
+    protected List<List<String>> read() throws IOException {
+        String content = readFileToString(file, ENCODING);
+        List<List<String>> records = newArrayList();
+        List<String> record = newArrayList();
+        StringBuilder field = new StringBuilder();
+        int length = content.lastIndexOf(LINE_SEPARATOR) + 1;
+        for (int index = 0; index < length; index++) {
+            char symbol = content.charAt(index);
+            if (symbol == ESCAPE && index + 1 < length) {
+                symbol = content.charAt(++index);
+                field.append(symbol == 't' ? SEPARATOR : symbol == 'n' ? LINE_SEPARATOR : symbol == 'r' ? '\r' :
+                        symbol);
+            } else if (symbol == SEPARATOR) {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (symbol == LINE_SEPARATOR) {
+                record.add(field.toString());
+                field.setLength(0);
+                records.add(record);
+                record = newArrayList();
+            } else {
+                field.append(symbol);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Appends record to the journal and forces it to the disk
+     *
+     * @param record fields of the record
+     */
+    protected void write(List<String> record) {
+        write(record, true);
+    }
+
+    /**
+     * Appends record to the journal, a record which is not forced to the disk right away is forced along with the
+     * next forced record
+     *
+     * @param record fields of the record
+     * @param force  whether to force the record to the disk
+     */
+    protected synchronized void write(List<String> record, boolean force) {
+        if (writer == null) {
+            throw new BackupException(format("Journal %s is not open", file));
+        }
+        StringBuilder line = new StringBuilder();
+        for (String field : record) {
+            if (line.length() > 0) {
+                line.append(SEPARATOR);
+            }
+            for (int index = 0; index < field.length(); index++) {
+                char symbol = field.charAt(index);
+                switch (symbol) {
+                    case SEPARATOR:
+                        line.append(ESCAPE).append('t');
+                        break;
+                    case LINE_SEPARATOR:
+                        line.append(ESCAPE).append('n');
+                        break;
+                    case '\r':
+                        line.append(ESCAPE).append('r');
+                        break;
+                    case ESCAPE:
+                        line.append(ESCAPE).append(ESCAPE);
+                        break;
+                    default:
+                        line.append(symbol);
+                }
+            }
+        }
+        line.append(LINE_SEPARATOR);
+        try {
+            writer.write(line.toString());
+            writer.flush();
+            if (force) {
+                output.getFD().sync();
+            }
+        } catch (IOException exception) {
+            throw new BackupException(format("Failed to write journal %s", file), exception);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (output != null) {
+            try {
+                output.getFD().sync();
+            } catch (IOException exception) {
+                // records not forced yet are lost the same way they are lost in a crash
+            }
+        }
+        closeQuietly(writer);
+        writer = null;
+        output = null;
+    }
+
+    /**
+     * Closes and removes the journal once the work it tracks is completed
+     */
+    public synchronized void delete() {
+        close();
+        file.delete();
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
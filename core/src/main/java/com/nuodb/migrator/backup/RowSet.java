@@ -91,6 +91,10 @@ public class RowSet implements HasSize {
         rowCount.incrementAndGet();
     }
 
+    public void addRowCount(long rowCount) {
+        this.rowCount.addAndGet(rowCount);
+    }
+
     public String getType() {
         return type;
     }
@@ -52,6 +52,7 @@ public class XmlBackupHandler extends XmlReadWriteHandlerBase<Backup> implements
 
     private static final String VERSION_ATTRIBUTE = "version";
     private static final String FORMAT_ATTRIBUTE = "format";
+    private static final String COMPRESSION_ATTRIBUTE = "compression";
     private static final String DATABASE_ELEMENT = "database";
     private static final String DATABASE_INFO_ELEMENT = "database-info";
 
@@ -90,6 +91,7 @@ public class XmlBackupHandler extends XmlReadWriteHandlerBase<Backup> implements
     protected void readAttributes(InputNode input, Backup backup, XmlReadContext context) throws Exception {
         backup.setVersion(context.readAttribute(input, VERSION_ATTRIBUTE, String.class));
         backup.setFormat(context.readAttribute(input, FORMAT_ATTRIBUTE, String.class));
+        backup.setCompression(context.readAttribute(input, COMPRESSION_ATTRIBUTE, String.class));
     }
 
     @Override
@@ -111,6 +113,9 @@ public class XmlBackupHandler extends XmlReadWriteHandlerBase<Backup> implements
     protected void writeAttributes(Backup backup, OutputNode output, XmlWriteContext context) throws Exception {
         context.writeAttribute(output, VERSION_ATTRIBUTE, backup.getVersion());
         context.writeAttribute(output, FORMAT_ATTRIBUTE, backup.getFormat());
+        if (backup.getCompression() != null) {
+            context.writeAttribute(output, COMPRESSION_ATTRIBUTE, backup.getCompression());
+        }
     }
 
     @Override
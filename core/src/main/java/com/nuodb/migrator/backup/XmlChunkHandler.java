@@ -40,6 +40,7 @@ public class XmlChunkHandler extends XmlReadWriteHandlerBase<Chunk> implements X
 
     private static final String NAME = "name";
     private static final String ROW_COUNT = "row-count";
+    private static final String SIZE = "size";
 
     public XmlChunkHandler() {
         super(Chunk.class);
@@ -49,11 +50,13 @@ public class XmlChunkHandler extends XmlReadWriteHandlerBase<Chunk> implements X
     protected void readAttributes(InputNode input, Chunk chunk, XmlReadContext context) throws Exception {
         chunk.setName(context.readAttribute(input, NAME, String.class));
         chunk.setRowCount(context.readAttribute(input, ROW_COUNT, Long.class));
+        chunk.setSize(context.readAttribute(input, SIZE, Long.class));
     }
 
     @Override
     protected void writeAttributes(Chunk chunk, OutputNode output, XmlWriteContext context) throws Exception {
         context.writeAttribute(output, NAME, chunk.getName());
         context.writeAttribute(output, ROW_COUNT, chunk.getRowCount());
+        context.writeAttribute(output, SIZE, chunk.getSize());
     }
 }
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+
+/**
+ * Compresses data in independent blocks of the given size, so that blocks of a single chunk can be decompressed in
+ * parallel. If compression is asynchronous and the executor is set, blocks are compressed and written by the executor,
+ * which lets the writing work to continue reading rows from the source, otherwise blocks are compressed in place.
+ *
+ * @author Sergey Bushik
+ */
+public abstract class BlockCompressionBase implements Compression {
+
+    /**
+     * Default size of uncompressed block
+     */
+    public static final int BLOCK_SIZE = 256 * 1024;
+
+    /**
+     * Compress blocks on a separate thread by default
+     */
+    public static final boolean ASYNC = true;
+
+    private final String name;
+    private int blockSize = BLOCK_SIZE;
+    private boolean async = ASYNC;
+    private Executor executor;
+
+    protected BlockCompressionBase(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public OutputStream compress(OutputStream output) {
+        return new BlockOutputStream(this, output);
+    }
+
+    @Override
+    public InputStream decompress(InputStream input) {
+        return new BlockInputStream(this, input);
+    }
+
+    /**
+     * Compresses and writes a single block to the output
+     *
+     * @param output to write compressed block to
+     * @param block  buffer with uncompressed data
+     * @param length length of uncompressed data
+     * @throws IOException if writing failed
+     */
+    protected abstract void writeBlock(OutputStream output, byte[] block, int length) throws IOException;
+
+    /**
+     * Reads and decompresses next block from the input
+     *
+     * @param input to read compressed block from
+     * @return uncompressed data or null if the end of the input is reached
+     * @throws IOException if reading failed
+     */
+    protected abstract byte[] readBlock(InputStream input) throws IOException;
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * Executor shared by the output streams to compress blocks asynchronously, owned and shut down by the caller
+     *
+     * @return executor or null if blocks are compressed in place
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.compression;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Buffers written data into blocks, which are compressed either in place or as tasks of the executor shared by the
+ * streams of the compression. At most one block per stream is compressed at a time, so blocks are written in order
+ * while the next block is filled, and an abandoned stream holds no thread once its last task completes.
+ *
+ * @author Sergey Bushik
+ */
+class BlockOutputStream extends OutputStream {
+
+    private final BlockCompressionBase compression;
+    private final OutputStream output;
+    private final Executor executor;
+    private FutureTask<byte[]> task;
+    private byte[] buffer;
+    private int length;
+    private boolean closed;
+
+    BlockOutputStream(BlockCompressionBase compression, OutputStream output) {
+        this.compression = compression;
+        this.output = output;
+        this.executor = compression.isAsync() ? compression.getExecutor() : null;
+        this.buffer = new byte[compression.getBlockSize()];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (length == buffer.length) {
+            writeBlock();
+        }
+        buffer[length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (length == buffer.length) {
+                writeBlock();
+            }
+            int count = Math.min(len, buffer.length - length);
+            System.arraycopy(b, off, buffer, length, count);
+            length += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Blocks are written once they are full, so flush only checks for compression failures
+     *
+     * @throws IOException if compression of the previous block failed
+     */
+    @Override
+    public void flush() throws IOException {
+        if (task != null && task.isDone()) {
+            awaitBlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (length > 0) {
+                writeBlock();
+            }
+            awaitBlock();
+        } finally {
+            if (task != null) {
+                task.cancel(true);
+            }
+            output.close();
+        }
+    }
+
+    protected void writeBlock() throws IOException {
+        if (executor == null) {
+            compression.writeBlock(output, buffer, length);
+        } else {
+            byte[] buffer = awaitBlock();
+            executor.execute(task = createTask(this.buffer, length));
+            this.buffer = buffer != null ? buffer : new byte[this.buffer.length];
+        }
+        length = 0;
+    }
+
+    protected FutureTask<byte[]> createTask(final byte[] block, final int length) {
+        return new FutureTask<byte[]>(new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws Exception {
+                compression.writeBlock(output, block, length);
+                return block;
+            }
+        });
+    }
+
+    /**
+     * Waits for compression of the previous block
+     *
+     * @return buffer of the compressed block to reuse or null if there was no block compressed
+     * @throws IOException if compression failed
+     */
+    protected byte[] awaitBlock() throws IOException {
+        FutureTask<byte[]> task = this.task;
+        if (task == null) {
+            return null;
+        }
+        try {
+            byte[] block = task.get();
+            this.task = null;
+            return block;
+        } catch (InterruptedException exception) {
+            throw new InterruptedIOException("Interrupted waiting for block compression");
+        } catch (ExecutionException exception) {
+            this.task = null;
+            Throwable failure = exception.getCause();
+            throw failure instanceof IOException ? (IOException) failure : new IOException(failure);
+        }
+    }
+}
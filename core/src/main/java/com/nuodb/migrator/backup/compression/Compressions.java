@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.compression;
+
+import com.nuodb.migrator.backup.BackupException;
+
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+
+import static com.nuodb.migrator.backup.compression.DeflateCompression.DEFLATE;
+import static com.nuodb.migrator.backup.compression.DeflateCompression.FAST;
+import static com.nuodb.migrator.backup.compression.GzipCompression.GZIP;
+import static java.lang.String.format;
+
+/**
+ * @author Sergey Bushik
+ */
+public class Compressions {
+
+    /**
+     * Chunks are written uncompressed
+     */
+    public static final String NONE = "none";
+
+    /**
+     * Resolves compression by its name
+     *
+     * @param name of the compression, one of none, gzip, deflate or fast
+     * @return compression or null if chunks are not compressed
+     */
+    public static Compression getCompression(String name) {
+        if (name == null || NONE.equalsIgnoreCase(name)) {
+            return null;
+        } else if (GZIP.equalsIgnoreCase(name)) {
+            return new GzipCompression();
+        } else if (DEFLATE.equalsIgnoreCase(name)) {
+            return new DeflateCompression(DEFLATE, Deflater.DEFAULT_COMPRESSION);
+        } else if (FAST.equalsIgnoreCase(name)) {
+            return new DeflateCompression(FAST, Deflater.BEST_SPEED);
+        } else {
+            throw new BackupException(format("Unsupported compression %s", name));
+        }
+    }
+
+    /**
+     * Resolves compression by its name, which compresses blocks asynchronously with the given executor
+     *
+     * @param name     of the compression, one of none, gzip, deflate or fast
+     * @param executor to compress blocks with or null to compress blocks in place
+     * @return compression or null if chunks are not compressed
+     */
+    public static Compression getCompression(String name, Executor executor) {
+        Compression compression = getCompression(name);
+        if (compression instanceof BlockCompressionBase) {
+            ((BlockCompressionBase) compression).setExecutor(executor);
+        }
+        return compression;
+    }
+}
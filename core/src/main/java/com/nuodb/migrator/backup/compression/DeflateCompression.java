@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.compression;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static java.lang.Math.max;
+import static java.util.Arrays.copyOf;
+
+/**
+ * Block compression with the JDK deflater, each block is framed with its uncompressed and compressed lengths followed
+ * by the compressed data.
+ *
+ * @author Sergey Bushik
+ */
+public class DeflateCompression extends BlockCompressionBase {
+
+    public static final String DEFLATE = "deflate";
+
+    /**
+     * Deflate with the best speed level, trades compression ratio for the throughput
+     */
+    public static final String FAST = "fast";
+
+    private final int level;
+
+    public DeflateCompression() {
+        this(DEFLATE, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public DeflateCompression(String name, int level) {
+        super(name);
+        this.level = level;
+    }
+
+    @Override
+    protected void writeBlock(OutputStream output, byte[] block, int length) throws IOException {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(block, 0, length);
+            deflater.finish();
+            byte[] buffer = new byte[max(64, length + (length >> 3) + 64)];
+            int compressed = 0;
+            while (!deflater.finished()) {
+                if (compressed == buffer.length) {
+                    buffer = copyOf(buffer, buffer.length * 2);
+                }
+                compressed += deflater.deflate(buffer, compressed, buffer.length - compressed);
+            }
+            DataOutputStream data = new DataOutputStream(output);
+            data.writeInt(length);
+            data.writeInt(compressed);
+            data.write(buffer, 0, compressed);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    protected byte[] readBlock(InputStream input) throws IOException {
+        int first = input.read();
+        if (first == -1) {
+            return null;
+        }
+        DataInputStream data = new DataInputStream(input);
+        int length = first << 24 | data.readUnsignedByte() << 16 | data.readUnsignedByte() << 8 |
+                data.readUnsignedByte();
+        byte[] buffer = new byte[data.readInt()];
+        data.readFully(buffer);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer);
+            byte[] block = new byte[length];
+            int inflated = 0;
+            while (inflated < length) {
+                int count = inflater.inflate(block, inflated, length - inflated);
+                if (count == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new EOFException("Compressed block is truncated");
+                }
+                inflated += count;
+            }
+            return block;
+        } catch (DataFormatException exception) {
+            throw new IOException("Compressed block is corrupted", exception);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public int getLevel() {
+        return level;
+    }
+}
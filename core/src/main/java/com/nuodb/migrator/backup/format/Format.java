@@ -44,6 +44,14 @@ public interface Format extends Closeable {
      * Attribute name enabling custom buffer size, default is 1MB
      */
     final String ATTRIBUTE_BUFFER_SIZE = "buffer.size";
+    /**
+     * Attribute name setting max size of a chunk in bytes, once exceeded rows are written to the next chunk
+     */
+    final String ATTRIBUTE_MAX_SIZE = "max.size";
+    /**
+     * Attribute name setting max number of rows written to a chunk, once exceeded rows are written to the next chunk
+     */
+    final String ATTRIBUTE_MAX_ROWS = "max.rows";
 
     final boolean BUFFERING = true;
 
@@ -74,4 +82,13 @@ public interface Format extends Closeable {
     RowSet getRowSet();
 
     void setRowSet(RowSet rowSet);
+
+    /**
+     * Returns storage of large object values, if format doesn't have it LOB values are read and written inline
+     *
+     * @return LOB store or null
+     */
+    LobStore getLobStore();
+
+    void setLobStore(LobStore lobStore);
 }
@@ -48,6 +48,7 @@ public abstract class FormatBase implements Format {
     private boolean buffering = BUFFERING;
     private int bufferSize = BUFFER_SIZE;
     private RowSet rowSet;
+    private LobStore lobStore;
 
     @Override
     public Object getAttribute(String attribute) {
@@ -104,4 +105,14 @@ public abstract class FormatBase implements Format {
     public void setRowSet(RowSet rowSet) {
         this.rowSet = rowSet;
     }
+
+    @Override
+    public LobStore getLobStore() {
+        return lobStore;
+    }
+
+    @Override
+    public void setLobStore(LobStore lobStore) {
+        this.lobStore = lobStore;
+    }
 }
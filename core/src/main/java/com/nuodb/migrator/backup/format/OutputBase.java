@@ -27,6 +27,7 @@
  */
 package com.nuodb.migrator.backup.format;
 
+import com.nuodb.migrator.backup.format.value.Value;
 import com.nuodb.migrator.utils.Counting;
 import com.nuodb.migrator.utils.CountingOutputStream;
 import com.nuodb.migrator.utils.CountingWriter;
@@ -36,6 +37,8 @@ import java.io.BufferedWriter;
 import java.io.OutputStream;
 import java.io.Writer;
 
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
 /**
  * @author Sergey Bushik
  */
@@ -45,7 +48,9 @@ public abstract class OutputBase extends FormatBase implements Output {
     private Writer writer;
     private OutputStream outputStream;
     private Long maxSize;
+    private Long maxRows;
     private Counting counting;
+    private long rows;
 
     protected OutputBase() {
     }
@@ -76,6 +81,9 @@ public abstract class OutputBase extends FormatBase implements Output {
 
     @Override
     public void init() {
+        rows = 0;
+        maxSize = getMaxSize();
+        maxRows = getMaxRows();
         if (hasWriter()) {
             init(openWriter());
         } else if (hasOutputStream()) {
@@ -117,20 +125,46 @@ public abstract class OutputBase extends FormatBase implements Output {
         return outputStream;
     }
 
+    @Override
+    public void writeValues(Value[] values) {
+        doWriteValues(values);
+        rows++;
+    }
+
+    protected abstract void doWriteValues(Value[] values);
+
     @Override
     public boolean canWrite() {
-        return fitMaxSize();
+        return fitMaxSize() && fitMaxRows();
     }
 
     protected boolean fitMaxSize() {
-        return !(getMaxSize() != null && counting != null) || counting.getCount() < getMaxSize();
+        return maxSize == null || counting == null || counting.getCount() < maxSize;
+    }
+
+    protected boolean fitMaxRows() {
+        return maxRows == null || rows < maxRows;
     }
 
     public boolean isCounting() {
-        return getMaxSize() != null;
+        return maxSize != null;
     }
 
     public Long getMaxSize() {
-        return maxSize;
+        String maxSizeValue = (String) getAttribute(ATTRIBUTE_MAX_SIZE);
+        return isEmpty(maxSizeValue) ? maxSize : Long.valueOf(maxSizeValue);
+    }
+
+    public void setMaxSize(Long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Long getMaxRows() {
+        String maxRowsValue = (String) getAttribute(ATTRIBUTE_MAX_ROWS);
+        return isEmpty(maxRowsValue) ? maxRows : Long.valueOf(maxRowsValue);
+    }
+
+    public void setMaxRows(Long maxRows) {
+        this.maxRows = maxRows;
     }
 }
@@ -27,6 +27,9 @@
  */
 package com.nuodb.migrator.backup.format;
 
+import com.nuodb.migrator.backup.format.binary.BinaryFormat;
+import com.nuodb.migrator.backup.format.binary.BinaryInput;
+import com.nuodb.migrator.backup.format.binary.BinaryOutput;
 import com.nuodb.migrator.backup.format.bson.BsonFormat;
 import com.nuodb.migrator.backup.format.bson.BsonInput;
 import com.nuodb.migrator.backup.format.bson.BsonOutput;
@@ -65,10 +68,12 @@ public class SimpleFormatFactory implements FormatFactory {
         addFormat(CsvFormat.TYPE, CsvInput.class);
         addFormat(XmlFormat.TYPE, XmlInput.class);
         addFormat(BsonFormat.TYPE, BsonInput.class);
+        addFormat(BinaryFormat.TYPE, BinaryInput.class);
 
         addFormat(CsvFormat.TYPE, CsvOutput.class);
         addFormat(XmlFormat.TYPE, XmlOutput.class);
         addFormat(BsonFormat.TYPE, BsonOutput.class);
+        addFormat(BinaryFormat.TYPE, BinaryOutput.class);
     }
 
     public void addFormat(String format, Class<? extends Format> formatClass) {
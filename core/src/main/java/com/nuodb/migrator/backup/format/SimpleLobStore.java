@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format;
+
+import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.compression.Compression;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Stores LOB files of a chunk with backup operations, names of LOB files are derived from the chunk name. LOB files
+ * are compressed with the same compression as the chunk is.
+ *
+ * @author Sergey Bushik
+ */
+public class SimpleLobStore implements LobStore {
+
+    private static final String EXTENSION = "lob";
+
+    private final BackupOps backupOps;
+    private final String prefix;
+    private final Compression compression;
+    private int index;
+
+    public SimpleLobStore(BackupOps backupOps, String prefix, Compression compression) {
+        this.backupOps = backupOps;
+        this.prefix = prefix;
+        this.compression = compression;
+    }
+
+    @Override
+    public String nextName() {
+        return prefix + "." + (++index) + "." + EXTENSION;
+    }
+
+    @Override
+    public OutputStream openOutput(String name) {
+        OutputStream output = backupOps.openOutput(name);
+        return compression != null ? compression.compress(output) : output;
+    }
+
+    @Override
+    public InputStream openInput(String name) {
+        InputStream input = backupOps.openInput(name);
+        return compression != null ? compression.decompress(input) : input;
+    }
+}
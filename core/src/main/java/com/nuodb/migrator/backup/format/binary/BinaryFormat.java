@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.binary;
+
+/**
+ * Compact binary format, where each value is written with a tag byte followed by its native representation. Numbers,
+ * booleans, dates and timestamps are neither formatted to nor parsed from strings. Dates and timestamps are stored as
+ * milliseconds since the epoch, so data should be loaded with the same time zone it was dumped.
+ *
+ * @author Sergey Bushik
+ */
+public interface BinaryFormat {
+
+    final String TYPE = "binary";
+
+    final byte ROW = 1;
+    final byte END = 0;
+
+    final byte NULL = 0;
+    final byte STRING = 1;
+    final byte BINARY = 2;
+    final byte INT32 = 3;
+    final byte INT64 = 4;
+    final byte FLOAT64 = 5;
+    final byte DECIMAL = 6;
+    final byte TIMESTAMP = 7;
+    final byte DATE = 8;
+    final byte BOOLEAN = 9;
+
+    final String ENCODING = "UTF-8";
+}
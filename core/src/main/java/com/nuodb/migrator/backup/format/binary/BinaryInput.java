@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.binary;
+
+import com.nuodb.migrator.backup.format.InputBase;
+import com.nuodb.migrator.backup.format.InputException;
+import com.nuodb.migrator.backup.format.value.Value;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.Timestamp;
+
+import static com.nuodb.migrator.backup.format.value.ValueUtils.*;
+import static java.lang.String.format;
+
+/**
+ * @author Sergey Bushik
+ */
+public class BinaryInput extends InputBase implements BinaryFormat {
+
+    private DataInputStream input;
+
+    @Override
+    public String getFormat() {
+        return TYPE;
+    }
+
+    @Override
+    protected void init(Reader reader) {
+        throw new InputException("Binary format requires input stream");
+    }
+
+    @Override
+    protected void init(InputStream inputStream) {
+        input = new DataInputStream(inputStream);
+    }
+
+    @Override
+    public void readStart() {
+    }
+
+    @Override
+    public Value[] readValues() {
+        Value[] values = null;
+        try {
+            if (readRow()) {
+                values = new Value[getValueTypes().size()];
+                for (int index = 0; index < values.length; index++) {
+                    values[index] = readValue();
+                }
+            }
+        } catch (IOException exception) {
+            throw new InputException(exception);
+        }
+        return values;
+    }
+
+    protected boolean readRow() throws IOException {
+        if (input == null) {
+            return false;
+        }
+        try {
+            return input.readByte() == ROW;
+        } catch (EOFException exception) {
+            return false;
+        }
+    }
+
+    protected Value readValue() throws IOException {
+        byte tag = input.readByte();
+        Value value;
+        switch (tag) {
+            case NULL:
+                value = STRING_NULL;
+                break;
+            case STRING:
+                value = string(new String(readBytes(), ENCODING));
+                break;
+            case BINARY:
+                value = binary(readBytes());
+                break;
+            case INT32:
+                value = int32(input.readInt());
+                break;
+            case INT64:
+                value = int64(input.readLong());
+                break;
+            case FLOAT64:
+                value = float64(input.readDouble());
+                break;
+            case DECIMAL:
+                int scale = input.readInt();
+                value = decimal(new BigDecimal(new BigInteger(readBytes()), scale));
+                break;
+            case TIMESTAMP:
+                Timestamp timestamp = new Timestamp(input.readLong());
+                timestamp.setNanos(input.readInt());
+                value = timestamp(timestamp);
+                break;
+            case DATE:
+                value = date(new Date(input.readLong()));
+                break;
+            case BOOLEAN:
+                value = bool(input.readBoolean());
+                break;
+            default:
+                throw new InputException(format("Unknown value tag %d", tag));
+        }
+        return value;
+    }
+
+    protected byte[] readBytes() throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    @Override
+    public void readEnd() {
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.binary;
+
+import com.nuodb.migrator.backup.format.OutputBase;
+import com.nuodb.migrator.backup.format.OutputException;
+import com.nuodb.migrator.backup.format.value.Value;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+
+/**
+ * @author Sergey Bushik
+ */
+public class BinaryOutput extends OutputBase implements BinaryFormat {
+
+    private DataOutputStream output;
+
+    @Override
+    public String getFormat() {
+        return TYPE;
+    }
+
+    @Override
+    protected void init(Writer writer) {
+        throw new OutputException("Binary format requires output stream");
+    }
+
+    @Override
+    protected void init(OutputStream outputStream) {
+        output = new DataOutputStream(outputStream);
+    }
+
+    @Override
+    public void writeStart() {
+    }
+
+    @Override
+    protected void doWriteValues(Value[] values) {
+        try {
+            output.writeByte(ROW);
+            for (Value value : values) {
+                writeValue(value);
+            }
+        } catch (IOException exception) {
+            throw new OutputException(exception);
+        }
+    }
+
+    protected void writeValue(Value value) throws IOException {
+        if (value.isNull()) {
+            output.writeByte(NULL);
+            return;
+        }
+        switch (value.getValueType()) {
+            case BINARY:
+                output.writeByte(BINARY);
+                writeBytes(value.asBytes());
+                break;
+            case INT32:
+                output.writeByte(INT32);
+                output.writeInt((Integer) value.asObject());
+                break;
+            case INT64:
+                output.writeByte(INT64);
+                output.writeLong((Long) value.asObject());
+                break;
+            case FLOAT64:
+                output.writeByte(FLOAT64);
+                output.writeDouble((Double) value.asObject());
+                break;
+            case DECIMAL:
+                BigDecimal decimal = (BigDecimal) value.asObject();
+                output.writeByte(DECIMAL);
+                output.writeInt(decimal.scale());
+                writeBytes(decimal.unscaledValue().toByteArray());
+                break;
+            case TIMESTAMP:
+                Timestamp timestamp = (Timestamp) value.asObject();
+                output.writeByte(TIMESTAMP);
+                output.writeLong(timestamp.getTime());
+                output.writeInt(timestamp.getNanos());
+                break;
+            case DATE:
+                output.writeByte(DATE);
+                output.writeLong(((Date) value.asObject()).getTime());
+                break;
+            case BOOLEAN:
+                output.writeByte(BOOLEAN);
+                output.writeBoolean((Boolean) value.asObject());
+                break;
+            default:
+                output.writeByte(STRING);
+                writeBytes(value.asString().getBytes(ENCODING));
+                break;
+        }
+    }
+
+    protected void writeBytes(byte[] bytes) throws IOException {
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    @Override
+    public void writeEnd() {
+        try {
+            output.writeByte(END);
+            output.flush();
+        } catch (IOException exception) {
+            throw new OutputException(exception);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException exception) {
+                throw new OutputException(exception);
+            }
+            output = null;
+        }
+    }
+}
@@ -95,7 +95,7 @@ public class BsonOutput extends OutputBase implements BsonFormat {
     }
 
     @Override
-    public void writeValues(Value[] values) {
+    protected void doWriteValues(Value[] values) {
         try {
             bsonWriter.writeStartArray();
             BitSet nulls = new BitSet();
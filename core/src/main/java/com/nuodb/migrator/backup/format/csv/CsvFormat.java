@@ -78,4 +78,13 @@ public interface CsvFormat {
     final boolean QUOTING = false;
     final Character QUOTE = '"';
     final Character ESCAPE = '|';
+
+    /**
+     * Prefix of a LOB column cell referencing the file with the value
+     */
+    final String LOB_REFERENCE = "@";
+    /**
+     * Encoding of character LOB files
+     */
+    final String LOB_ENCODING = "UTF-8";
 }
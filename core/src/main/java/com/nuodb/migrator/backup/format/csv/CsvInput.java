@@ -27,13 +27,13 @@
  */
 package com.nuodb.migrator.backup.format.csv;
 
+import com.google.common.io.InputSupplier;
+import com.nuodb.migrator.backup.Column;
 import com.nuodb.migrator.backup.format.InputBase;
 import com.nuodb.migrator.backup.format.InputException;
+import com.nuodb.migrator.backup.format.LobStore;
 import com.nuodb.migrator.backup.format.value.Value;
 import com.nuodb.migrator.backup.format.value.ValueType;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
@@ -41,23 +41,29 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
-import java.util.Iterator;
 import java.util.List;
 
-import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
 import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.*;
+import static java.lang.String.format;
 import static java.lang.String.valueOf;
+import static java.nio.charset.Charset.forName;
 
 /**
+ * Reads rows written by {@link CsvOutput} with {@link CsvTokenizer}, values are decoded straight from the tokenizer
+ * buffer without intermediate records. Cells of LOB columns referencing files of the {@link LobStore} are read as
+ * LOB values streamed from the referenced files.
+ *
  * @author Sergey Bushik
  */
 public class CsvInput extends InputBase implements CsvFormat {
 
     private String doubleQuote;
-    private Iterator<CSVRecord> iterator;
-    private CSVParser parser;
+    private CsvTokenizer tokenizer;
+    private ValueType[] valueTypes;
+    private boolean[] lobs;
 
     @Override
     public String getFormat() {
@@ -76,70 +82,134 @@ public class CsvInput extends InputBase implements CsvFormat {
     @Override
     protected void init(Reader reader) {
         CsvFormatBuilder builder = new CsvFormatBuilder(this);
-        CSVFormat format = builder.build();
+        builder.build();
         Character quote = builder.getQuote();
 
         doubleQuote = valueOf(quote) + valueOf(quote);
-        try {
-            parser = new CSVParser(reader, format);
-            iterator = parser.iterator();
-        } catch (IOException exception) {
-            throw new InputException(exception);
-        }
+        tokenizer = new CsvTokenizer(reader, builder.getDelimiter(), builder.isQuoting() ? quote : null,
+                builder.getEscape(), builder.getCommentMarker());
     }
 
     @Override
     public void readStart() {
-        if (iterator.hasNext()) {
-            iterator.next();
-        }
+        tokenizer.skipRecord();
     }
 
     @Override
     public Value[] readValues() {
-        return iterator.hasNext() ? readRow() : null;
+        return readRow();
     }
 
     protected Value[] readRow() {
-        CSVRecord record = iterator.next();
-        List<ValueType> valueTypes = getValueTypes();
-        Value[] values = new Value[valueTypes.size()];
+        if (valueTypes == null) {
+            List<ValueType> valueTypes = getValueTypes();
+            this.valueTypes = valueTypes.toArray(new ValueType[valueTypes.size()]);
+            this.lobs = getLobs();
+        }
+        Value[] values = null;
         int index = 0;
-        for (String value : newArrayList(record.iterator())) {
-            if (doubleQuote.equals(value)) {
-                value = StringUtils.EMPTY;
-            } else if (value != null && value.length() == 0) {
+        while (tokenizer.readValue()) {
+            if (values == null) {
+                values = new Value[valueTypes.length];
+            }
+            if (index == values.length) {
+                throw new InputException(format("Line %d has more than %d values",
+                        tokenizer.getLineNumber(), values.length));
+            }
+            String value;
+            if (tokenizer.getLength() == 0) {
                 value = null;
+            } else if (tokenizer.isValue(doubleQuote)) {
+                value = StringUtils.EMPTY;
+            } else {
+                value = tokenizer.getValue();
             }
-            ValueType type = valueTypes.get(index);
+            ValueType type = valueTypes[index];
             type = type != null ? type : STRING;
-            switch (type) {
-                case BINARY:
-                    values[index] = binary(BASE64.decode(value));
-                    break;
-                case STRING:
-                    values[index] = string(value);
-                    break;
+            String lob = null;
+            if (lobs[index] && value != null && value.startsWith(LOB_REFERENCE)) {
+                value = value.substring(LOB_REFERENCE.length());
+                lob = value.startsWith(LOB_REFERENCE) ? null : value;
+            }
+            if (lob != null) {
+                values[index] = readLob(lob, type);
+            } else {
+                switch (type) {
+                    case BINARY:
+                        values[index] = value != null ? binary(BASE64.decode(value)) : BINARY_NULL;
+                        break;
+                    case STRING:
+                        values[index] = value != null ? string(value) : STRING_NULL;
+                        break;
+                }
             }
             index++;
+            if (tokenizer.isEndOfRecord()) {
+                break;
+            }
+        }
+        if (values != null) {
+            fill(values, getValueTypes(), index);
         }
-        fill(values, valueTypes, index);
         return values;
     }
 
+    protected boolean[] getLobs() {
+        boolean[] lobs = new boolean[valueTypes.length];
+        if (getRowSet() != null) {
+            int index = 0;
+            for (Column column : getRowSet().getColumns()) {
+                if (index < lobs.length) {
+                    lobs[index++] = column.isLob();
+                }
+            }
+        }
+        return lobs;
+    }
+
+    /**
+     * Creates LOB value streamed from the file of the LOB store each time it's accessed
+     *
+     * @param name      of the LOB file
+     * @param valueType of the column
+     * @return binary or character LOB value
+     */
+    protected Value readLob(final String name, ValueType valueType) {
+        final LobStore lobStore = getLobStore();
+        if (lobStore == null) {
+            throw new InputException(format("Line %d references LOB file %s, LOB store is not set",
+                    tokenizer.getLineNumber(), name));
+        }
+        if (valueType == BINARY) {
+            return blob(new InputSupplier<InputStream>() {
+                @Override
+                public InputStream getInput() {
+                    return lobStore.openInput(name);
+                }
+            });
+        } else {
+            return clob(new InputSupplier<Reader>() {
+                @Override
+                public Reader getInput() {
+                    return new InputStreamReader(lobStore.openInput(name), forName(LOB_ENCODING));
+                }
+            });
+        }
+    }
+
     @Override
     public void readEnd() {
     }
 
     @Override
     public void close() {
-        if (parser != null) {
+        if (tokenizer != null) {
             try {
-                parser.close();
+                tokenizer.close();
             } catch (IOException exception) {
                 throw new InputException(exception);
             }
-            parser = null;
+            tokenizer = null;
         }
     }
 }
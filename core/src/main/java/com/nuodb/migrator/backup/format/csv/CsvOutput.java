@@ -27,32 +27,45 @@
  */
 package com.nuodb.migrator.backup.format.csv;
 
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
 import com.nuodb.migrator.backup.Column;
+import com.nuodb.migrator.backup.format.LobStore;
 import com.nuodb.migrator.backup.format.OutputBase;
 import com.nuodb.migrator.backup.format.OutputException;
+import com.nuodb.migrator.backup.format.value.LobValue;
 import com.nuodb.migrator.backup.format.value.Value;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
+import com.nuodb.migrator.backup.format.value.ValueType;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.io.Writer;
-import java.util.Collection;
 
-import static com.google.common.collect.Iterables.get;
-import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.isLob;
 import static java.lang.String.valueOf;
 import static java.nio.charset.Charset.forName;
+import static org.apache.commons.io.IOUtils.closeQuietly;
 
 /**
+ * Writes rows with {@link CsvWriter}, value types of the columns are resolved once per row set. Streamed LOB values are
+ * copied to the files of the {@link LobStore} and referenced from the cell by {@link #LOB_REFERENCE} followed by the
+ * file name, string values of LOB columns starting with the reference marker have it doubled.
+ *
  * @author Sergey Bushik
  */
 @SuppressWarnings("unchecked")
 public class CsvOutput extends OutputBase implements CsvFormat {
 
     private String doubleQuote;
-    private CSVPrinter csvPrinter;
+    private CsvWriter csvWriter;
+    private ValueType[] valueTypes;
+    private boolean[] lobs;
 
     @Override
     public String getFormat() {
@@ -67,58 +80,98 @@ public class CsvOutput extends OutputBase implements CsvFormat {
     @Override
     protected void init(Writer writer) {
         CsvFormatBuilder builder = new CsvFormatBuilder(this);
-        CSVFormat format = builder.build();
+        builder.build();
         doubleQuote = valueOf(builder.getQuote()) + valueOf(builder.getQuote());
-        try {
-            csvPrinter = new CSVPrinter(wrapWriter(writer), format);
-        } catch (IOException exception) {
-            throw new OutputException(exception);
-        }
+        csvWriter = new CsvWriter(wrapWriter(writer), builder.getDelimiter(),
+                builder.isQuoting() ? builder.getQuote() : null, builder.getEscape(), builder.getLineSeparator());
     }
 
     @Override
     public void writeStart() {
         try {
+            int index = 0;
+            valueTypes = new ValueType[getRowSet().getColumns().size()];
+            lobs = new boolean[valueTypes.length];
             for (Column column : getRowSet().getColumns()) {
-                csvPrinter.print(column.getName());
+                ValueType valueType = column.getValueType();
+                lobs[index] = column.isLob();
+                valueTypes[index++] = valueType != null ? valueType : STRING;
+                csvWriter.writeValue(column.getName());
             }
-            csvPrinter.println();
+            csvWriter.writeRecordEnd();
         } catch (IOException exception) {
             throw new OutputException(exception);
         }
     }
 
     @Override
-    public void writeValues(Value[] values) {
+    protected void doWriteValues(Value[] values) {
         try {
-            String[] record = new String[values.length];
-            Collection<Column> columns = getRowSet().getColumns();
             for (int i = 0; i < values.length; i++) {
-                String value = null;
-                switch (get(columns, i).getValueType()) {
+                if (isLob(values[i]) && getLobStore() != null) {
+                    csvWriter.writeValue(LOB_REFERENCE + writeLob((LobValue) values[i], valueTypes[i]));
+                    continue;
+                }
+                switch (valueTypes[i]) {
                     case BINARY:
-                        value = BASE64.encode(values[i].asBytes());
+                        byte[] bytes = values[i].asBytes();
+                        if (bytes != null && bytes.length == 0) {
+                            csvWriter.writeValue(doubleQuote);
+                        } else {
+                            csvWriter.writeBase64(bytes);
+                        }
                         break;
                     case STRING:
-                        value = values[i].asString();
+                        String value = values[i].asString();
+                        if (value != null && value.length() == 0) {
+                            value = doubleQuote;
+                        } else if (lobs[i] && value != null && value.startsWith(LOB_REFERENCE)) {
+                            value = LOB_REFERENCE + value;
+                        }
+                        csvWriter.writeValue(value);
                         break;
                 }
-                if (value != null && value.length() == 0) {
-                    value = doubleQuote;
-                }
-                record[i] = value;
             }
-            csvPrinter.printRecord(record);
+            csvWriter.writeRecordEnd();
         } catch (IOException exception) {
             throw new OutputException(exception);
         }
     }
 
+    /**
+     * Copies content of the LOB value to the next file of the LOB store, character content is stored in {@link
+     * #LOB_ENCODING}
+     *
+     * @param value     to copy
+     * @param valueType of the column
+     * @return name of the LOB file
+     * @throws IOException if copying fails
+     */
+    protected String writeLob(LobValue value, ValueType valueType) throws IOException {
+        LobStore lobStore = getLobStore();
+        String name = lobStore.nextName();
+        OutputStream output = lobStore.openOutput(name);
+        Closeable input = null;
+        try {
+            if (valueType == BINARY) {
+                ByteStreams.copy((InputStream) (input = value.getInputStream()), output);
+            } else {
+                Writer writer = new OutputStreamWriter(output, forName(LOB_ENCODING));
+                CharStreams.copy((Reader) (input = value.getReader()), writer);
+                writer.flush();
+            }
+        } finally {
+            closeQuietly(input);
+            closeQuietly(output);
+        }
+        return name;
+    }
+
     @Override
     public void writeEnd() {
         try {
-            if (csvPrinter != null) {
-                csvPrinter.flush();
+            if (csvWriter != null) {
+                csvWriter.flush();
             }
         } catch (IOException exception) {
             throw new OutputException(exception);
@@ -127,13 +180,13 @@ public class CsvOutput extends OutputBase implements CsvFormat {
 
     @Override
     public void close() {
-        if (csvPrinter != null) {
+        if (csvWriter != null) {
             try {
-                csvPrinter.close();
+                csvWriter.close();
             } catch (IOException exception) {
                 throw new OutputException(exception);
             }
-            csvPrinter = null;
+            csvWriter = null;
         }
     }
 }
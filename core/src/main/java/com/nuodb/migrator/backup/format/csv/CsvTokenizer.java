@@ -0,0 +1,364 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.csv;
+
+import com.nuodb.migrator.backup.format.InputException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import static java.lang.Character.isWhitespace;
+import static java.lang.String.format;
+import static java.lang.System.arraycopy;
+import static java.util.Arrays.copyOf;
+
+/**
+ * Splits CSV records into values directly from a window of decoded characters, reusing a single value buffer. Follows
+ * the lexer rules of commons-csv for the format produced by {@link CsvFormatBuilder}: escape sequences are recognized
+ * in both simple and quoted values, doubled quote inside a quoted value stands for the quote itself and lines starting
+ * with the comment marker are skipped.
+ *
+ * @author Sergey Bushik
+ */
+class CsvTokenizer {
+
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int EOF = -1;
+    private static final int UNDEFINED = -2;
+    private static final char CR = '\r';
+    private static final char LF = '\n';
+    private static final char TAB = '\t';
+    private static final char BACKSPACE = '\b';
+    private static final char FF = '\f';
+
+    private final Reader reader;
+    private final int delimiter;
+    private final int quote;
+    private final int escape;
+    private final int commentMarker;
+    private final char[] buffer;
+    private int position;
+    private int limit;
+    private int lastChar = UNDEFINED;
+    private long lineNumber = 1;
+
+    private char[] value = new char[256];
+    private int length;
+    private boolean endOfRecord;
+
+    public CsvTokenizer(Reader reader, char delimiter, Character quote, Character escape, Character commentMarker) {
+        this(reader, delimiter, quote, escape, commentMarker, BUFFER_SIZE);
+    }
+
+    public CsvTokenizer(Reader reader, char delimiter, Character quote, Character escape, Character commentMarker,
+                        int bufferSize) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.quote = quote != null ? quote : UNDEFINED;
+        this.escape = escape != null ? escape : UNDEFINED;
+        this.commentMarker = commentMarker != null ? commentMarker : UNDEFINED;
+        this.buffer = new char[bufferSize];
+    }
+
+    /**
+     * Reads next value of the current record into the value buffer
+     *
+     * @return true if value was read, false if there are no more values in the input
+     */
+    public boolean readValue() {
+        try {
+            length = 0;
+            endOfRecord = false;
+            while (true) {
+                int last = lastChar;
+                int c = read();
+                boolean eol = readEndOfLine(c);
+                if (last == EOF || (last != delimiter && c == EOF)) {
+                    endOfRecord = true;
+                    return false;
+                }
+                if (isStartOfLine(last) && c == commentMarker) {
+                    if (!skipLine()) {
+                        endOfRecord = true;
+                        return false;
+                    }
+                    continue;
+                }
+                if (c == delimiter) {
+                    return true;
+                } else if (eol || c == EOF) {
+                    endOfRecord = true;
+                    return true;
+                } else if (c == quote) {
+                    readQuotedValue();
+                    return true;
+                } else {
+                    readSimpleValue(c);
+                    return true;
+                }
+            }
+        } catch (IOException exception) {
+            throw new InputException(exception);
+        }
+    }
+
+    /**
+     * Skips values left in the current record
+     *
+     * @return true if record was skipped, false if there are no more records
+     */
+    public boolean skipRecord() {
+        boolean read = false;
+        while (readValue()) {
+            read = true;
+            if (endOfRecord) {
+                break;
+            }
+        }
+        return read;
+    }
+
+    public boolean isEndOfRecord() {
+        return endOfRecord;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public boolean isValue(String value) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int index = 0; index < length; index++) {
+            if (this.value[index] != value.charAt(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getValue() {
+        return new String(value, 0, length);
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    protected void readSimpleValue(int c) throws IOException {
+        while (true) {
+            if (readEndOfLine(c) || c == EOF) {
+                endOfRecord = true;
+                return;
+            } else if (c == delimiter) {
+                return;
+            } else if (c == escape) {
+                readEscape(c);
+                c = read();
+            } else {
+                append((char) c);
+                appendRun();
+                c = read();
+            }
+        }
+    }
+
+    /**
+     * Copies characters following the last appended one up to the next special character in bulk
+     */
+    protected void appendRun() {
+        int start = position;
+        int end = start;
+        while (end < limit) {
+            char c = buffer[end];
+            if (c == delimiter || c == CR || c == LF || c == escape) {
+                break;
+            }
+            end++;
+        }
+        int count = end - start;
+        if (count > 0) {
+            ensureCapacity(length + count);
+            arraycopy(buffer, start, value, length, count);
+            length += count;
+            position = end;
+            lastChar = buffer[end - 1];
+        }
+    }
+
+    protected void readQuotedValue() throws IOException {
+        long startLineNumber = lineNumber;
+        while (true) {
+            int c = read();
+            if (c == escape) {
+                readEscape(c);
+            } else if (c == quote) {
+                if (lookAhead() == quote) {
+                    append((char) read());
+                } else {
+                    while (true) {
+                        c = read();
+                        if (c == delimiter) {
+                            return;
+                        } else if (c == EOF || readEndOfLine(c)) {
+                            endOfRecord = true;
+                            return;
+                        } else if (!isWhitespace((char) c)) {
+                            throw new IOException(format("(line %d) invalid char between encapsulated token and " +
+                                    "delimiter", lineNumber));
+                        }
+                    }
+                }
+            } else if (c == EOF) {
+                throw new IOException(format("(startline %d) EOF reached before encapsulated token finished",
+                        startLineNumber));
+            } else {
+                append((char) c);
+            }
+        }
+    }
+
+    protected void readEscape(int c) throws IOException {
+        int next = read();
+        switch (next) {
+            case 'r':
+                append(CR);
+                break;
+            case 'n':
+                append(LF);
+                break;
+            case 't':
+                append(TAB);
+                break;
+            case 'b':
+                append(BACKSPACE);
+                break;
+            case 'f':
+                append(FF);
+                break;
+            case CR:
+            case LF:
+            case FF:
+            case TAB:
+            case BACKSPACE:
+                append((char) next);
+                break;
+            case EOF:
+                throw new IOException("EOF whilst processing escape sequence");
+            default:
+                if (next == delimiter || next == escape || next == quote || next == commentMarker) {
+                    append((char) next);
+                } else {
+                    append((char) c);
+                    append((char) next);
+                }
+        }
+    }
+
+    protected boolean readEndOfLine(int c) throws IOException {
+        if (c == CR && lookAhead() == LF) {
+            c = read();
+        }
+        return c == LF || c == CR;
+    }
+
+    protected boolean isStartOfLine(int c) {
+        return c == LF || c == CR || c == UNDEFINED;
+    }
+
+    /**
+     * Skips the rest of the line, line ends with either of CR, LF or CRLF
+     *
+     * @return true if line was skipped, false if the end of the input was reached before
+     */
+    protected boolean skipLine() throws IOException {
+        boolean read = false;
+        while (true) {
+            int c = read();
+            if (c == EOF) {
+                lastChar = EOF;
+                return read;
+            }
+            read = true;
+            if (c == CR || c == LF) {
+                if (c == CR && lookAhead() == LF) {
+                    read();
+                }
+                lastChar = LF;
+                return true;
+            }
+        }
+    }
+
+    protected int read() throws IOException {
+        if (position == limit && !fill()) {
+            return lastChar = EOF;
+        }
+        int c = buffer[position++];
+        if (c == CR || (c == LF && lastChar != CR)) {
+            lineNumber++;
+        }
+        return lastChar = c;
+    }
+
+    protected int lookAhead() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position];
+    }
+
+    protected boolean fill() throws IOException {
+        int count;
+        do {
+            count = reader.read(buffer, 0, buffer.length);
+        } while (count == 0);
+        position = 0;
+        limit = count > 0 ? count : 0;
+        return count > 0;
+    }
+
+    protected void append(char c) {
+        if (length == value.length) {
+            ensureCapacity(length + 1);
+        }
+        value[length++] = c;
+    }
+
+    protected void ensureCapacity(int capacity) {
+        if (capacity > value.length) {
+            value = copyOf(value, Math.max(capacity, value.length * 2));
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.csv;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import static java.lang.Math.max;
+import static java.util.Arrays.copyOf;
+
+/**
+ * Writes CSV records into a reusable character buffer, which is passed to the underlying writer once per record.
+ * Produces exactly the same output as commons-csv printer for the format built by {@link CsvFormatBuilder}: values
+ * are either escaped or, if quoting is on, quoted with the minimal quote mode.
+ *
+ * @author Sergey Bushik
+ */
+class CsvWriter {
+
+    private static final char CR = '\r';
+    private static final char LF = '\n';
+    private static final char SP = ' ';
+    private static final char COMMENT = '#';
+    private static final char[] BASE64 =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final char PAD = '=';
+
+    private final Writer writer;
+    private final char delimiter;
+    private final Character quote;
+    private final Character escape;
+    private final char[] lineSeparator;
+    private char[] buffer = new char[1024];
+    private int length;
+    private char[] value = new char[256];
+    private boolean newRecord = true;
+
+    public CsvWriter(Writer writer, char delimiter, Character quote, Character escape, String lineSeparator) {
+        this.writer = writer;
+        this.delimiter = delimiter;
+        this.quote = quote;
+        this.escape = escape;
+        this.lineSeparator = lineSeparator.toCharArray();
+    }
+
+    /**
+     * Writes string value, null is written as an empty value
+     *
+     * @param value to write
+     */
+    public void writeValue(String value) {
+        int length = value != null ? value.length() : 0;
+        if (length > this.value.length) {
+            this.value = new char[max(length, this.value.length * 2)];
+        }
+        if (length > 0) {
+            value.getChars(0, length, this.value, 0);
+        }
+        writeValue(this.value, 0, length);
+    }
+
+    /**
+     * Writes base64 encoded binary value, null is written as an empty value
+     *
+     * @param value to encode and write
+     */
+    public void writeBase64(byte[] value) {
+        int length = value != null ? (value.length + 2) / 3 * 4 : 0;
+        if (length > this.value.length) {
+            this.value = new char[max(length, this.value.length * 2)];
+        }
+        if (length > 0) {
+            encodeBase64(value, this.value);
+        }
+        writeValue(this.value, 0, length);
+    }
+
+    public void writeValue(char[] value, int offset, int length) {
+        if (!newRecord) {
+            append(delimiter);
+        }
+        if (quote != null) {
+            writeQuoted(value, offset, length);
+        } else if (escape != null) {
+            writeEscaped(value, offset, length);
+        } else {
+            append(value, offset, length);
+        }
+        newRecord = false;
+    }
+
+    /**
+     * Ends current record and passes it to the writer
+     *
+     * @throws IOException if writing fails
+     */
+    public void writeRecordEnd() throws IOException {
+        append(lineSeparator, 0, lineSeparator.length);
+        newRecord = true;
+        writer.write(buffer, 0, length);
+        length = 0;
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    protected void writeEscaped(char[] value, int offset, int length) {
+        char escape = this.escape;
+        int start = offset;
+        int end = offset + length;
+        for (int position = offset; position < end; position++) {
+            char c = value[position];
+            if (c == CR || c == LF || c == delimiter || c == escape) {
+                append(value, start, position - start);
+                append(escape);
+                append(c == LF ? 'n' : c == CR ? 'r' : c);
+                start = position + 1;
+            }
+        }
+        append(value, start, end - start);
+    }
+
+    protected void writeQuoted(char[] value, int offset, int length) {
+        char quote = this.quote;
+        int end = offset + length;
+        boolean quoted = false;
+        if (length == 0) {
+            quoted = newRecord;
+        } else {
+            char c = value[offset];
+            if (newRecord && (c < '0' || c > '9' && c < 'A' || c > 'Z' && c < 'a' || c > 'z')) {
+                quoted = true;
+            } else if (c <= COMMENT) {
+                quoted = true;
+            } else {
+                for (int position = offset; position < end; position++) {
+                    c = value[position];
+                    if (c == LF || c == CR || c == quote || c == delimiter) {
+                        quoted = true;
+                        break;
+                    }
+                }
+                if (!quoted && value[end - 1] <= SP) {
+                    quoted = true;
+                }
+            }
+        }
+        if (!quoted) {
+            append(value, offset, length);
+            return;
+        }
+        append(quote);
+        int start = offset;
+        for (int position = offset; position < end; position++) {
+            if (value[position] == quote) {
+                append(value, start, position + 1 - start);
+                start = position;
+            }
+        }
+        append(value, start, end - start);
+        append(quote);
+    }
+
+    protected static void encodeBase64(byte[] bytes, char[] chars) {
+        int index = 0;
+        int full = bytes.length - bytes.length % 3;
+        for (int position = 0; position < full; position += 3) {
+            int bits = (bytes[position] & 0xff) << 16 | (bytes[position + 1] & 0xff) << 8 |
+                    (bytes[position + 2] & 0xff);
+            chars[index++] = BASE64[bits >>> 18];
+            chars[index++] = BASE64[bits >>> 12 & 0x3f];
+            chars[index++] = BASE64[bits >>> 6 & 0x3f];
+            chars[index++] = BASE64[bits & 0x3f];
+        }
+        int remaining = bytes.length - full;
+        if (remaining > 0) {
+            int bits = (bytes[full] & 0xff) << 16 | (remaining == 2 ? (bytes[full + 1] & 0xff) << 8 : 0);
+            chars[index++] = BASE64[bits >>> 18];
+            chars[index++] = BASE64[bits >>> 12 & 0x3f];
+            chars[index++] = remaining == 2 ? BASE64[bits >>> 6 & 0x3f] : PAD;
+            chars[index] = PAD;
+        }
+    }
+
+    protected void append(char c) {
+        if (length == buffer.length) {
+            buffer = copyOf(buffer, buffer.length * 2);
+        }
+        buffer[length++] = c;
+    }
+
+    protected void append(char[] chars, int offset, int count) {
+        if (length + count > buffer.length) {
+            buffer = copyOf(buffer, max(length + count, buffer.length * 2));
+        }
+        System.arraycopy(chars, offset, buffer, length, count);
+        length += count;
+    }
+}
@@ -38,7 +38,9 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Map;
 
+import static com.nuodb.migrator.backup.format.value.ValueType.DATE;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.STRING_NULL;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.date;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
 import static java.lang.String.format;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
@@ -60,13 +62,15 @@ public class JdbcDateValueFormat extends ValueFormatBase<Date> {
         } else if (JdbcTypeDesc.equals(access.getField().getTypeName(), YEAR_TYPE)) {
             return string(YEAR_FORMAT.format(date));
         } else {
-            return string(date.toString());
+            return date(date);
         }
     }
 
     @Override
     protected void doSetValue(Value value, JdbcValueAccess<Date> access, Map<String, Object> options) throws SQLException {
-        if (!(doSetValueAsDate(access, value, options) ||
+        if (value.getValueType() == DATE) {
+            access.setValue(value.asObject(), options);
+        } else if (!(doSetValueAsDate(access, value, options) ||
                 doSetValueAsYear(access, value, options))) {
             throw new ValueFormatException(format("Value %s is not a date nor year", value));
         }
@@ -38,7 +38,9 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Map;
 
-import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static com.nuodb.migrator.backup.format.value.ValueType.DATE;
+import static com.nuodb.migrator.backup.format.value.ValueType.TIMESTAMP;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.timestamp;
 import static java.lang.String.format;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
@@ -52,14 +54,15 @@ public class JdbcTimestampValueFormat extends ValueFormatBase<Timestamp> {
     @Override
     protected Value doGetValue(JdbcValueAccess<Timestamp> access,
                                Map<String, Object> options) throws SQLException {
-        Timestamp timestamp = access.getValue(options);
-        return string(timestamp != null ? timestamp.toString() : null);
+        return timestamp(access.getValue(options));
     }
 
     @Override
     protected void doSetValue(Value value, JdbcValueAccess<Timestamp> access,
                               Map<String, Object> options) throws SQLException {
-        if (!(doSetValueAsTimestamp(value, access, options) || doSetValueAsDate(value,
+        if (value.getValueType() == TIMESTAMP || value.getValueType() == DATE) {
+            access.setValue(value.asObject(), options);
+        } else if (!(doSetValueAsTimestamp(value, access, options) || doSetValueAsDate(value,
                 access, options) ||
                 doSetValueAsYear(value, access, options))) {
             throw new ValueFormatException(format("Value %s is not a timestamp, date nor year", value));
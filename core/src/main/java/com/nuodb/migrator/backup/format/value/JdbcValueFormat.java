@@ -27,6 +27,7 @@
  */
 package com.nuodb.migrator.backup.format.value;
 
+import com.google.common.io.InputSupplier;
 import com.nuodb.migrator.jdbc.model.Field;
 import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
 
@@ -34,17 +35,25 @@ import javax.sql.rowset.serial.SerialRef;
 import java.io.*;
 import java.math.BigDecimal;
 import java.net.URL;
+import java.sql.Blob;
+import java.sql.Clob;
 import java.sql.Ref;
 import java.sql.RowId;
+import java.sql.SQLException;
 import java.sql.Types;
 import java.util.Map;
 
-import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
-import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueType.*;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.blob;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.clob;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.isLob;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.isNative;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.number;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
 import static java.lang.String.format;
 import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 /**
@@ -52,147 +61,148 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
  */
 public class JdbcValueFormat extends ValueFormatBase<Object> {
 
+    /**
+     * Max length in bytes or characters of a BLOB or CLOB value read into memory, larger values are streamed
+     */
+    public static final long LOB_THRESHOLD = 1024 * 1024;
+
+    private long lobThreshold = LOB_THRESHOLD;
+
     @Override
     protected Value doGetValue(JdbcValueAccess<Object> access, Map<String, Object> options) throws Exception {
-        Object result;
-        Field field = access.getField();
-        Value value;
-        switch (field.getTypeCode()) {
-            case Types.BIT:
-            case Types.TINYINT:
-            case Types.SMALLINT:
-            case Types.INTEGER:
-            case Types.BIGINT:
-            case Types.FLOAT:
-            case Types.REAL:
-            case Types.DOUBLE:
-            case Types.NUMERIC:
-            case Types.DECIMAL:
-                result = access.getValue(options);
-                value = string(result != null ? result.toString() : null);
-                break;
-            case Types.CHAR:
-            case Types.VARCHAR:
-            case Types.LONGVARCHAR:
-            case Types.NVARCHAR:
-            case Types.LONGNVARCHAR:
-            case Types.NCHAR:
-                value = string(access.getValue(String.class, options));
-                break;
-            case Types.BINARY:
-            case Types.VARBINARY:
-            case Types.LONGVARBINARY:
-            case Types.BLOB:
-                value = binary(access.getValue(byte[].class, options));
-                break;
-            case Types.OTHER:
-            case Types.JAVA_OBJECT:
-            case Types.STRUCT:
-                result = access.getValue(options);
-                value = binary(result != null ? write(result) : null);
-                break;
-            case Types.CLOB:
-            case Types.NCLOB:
-                value = string(access.getValue(String.class, options));
-                break;
-            case Types.REF:
-                result = access.getValue(options);
-                value = binary(write(new SerialRef((Ref) result)));
-                break;
-            case Types.DATALINK:
-                result = access.getValue(options);
-                value = string(result != null ? result.toString() : null);
-                break;
-            case Types.BOOLEAN:
-                result = access.getValue(options);
-                value = string(result != null ? result.toString() : null);
-                break;
-            case Types.ROWID:
-                result = access.getValue(options);
-                value = binary(result != null ? ((RowId) result).getBytes() : null);
-                break;
-            case Types.SQLXML:
-                value = string(access.getValue(String.class, options));
-                break;
-            default:
-                throw new ValueFormatException(format("Unsupported data type %s, type code %d on %s column",
-                        field.getTypeName(), field.getTypeCode(), getColumnName(field)));
-        }
-        return value;
+        return createValueCodec(access, options).getValue();
     }
 
     @Override
     protected void doSetValue(Value value, JdbcValueAccess<Object> access, Map<String, Object> options) throws Exception {
-        Field field = access.getField();
-        final String result = value.asString();
-        switch (field.getTypeCode()) {
+        createValueCodec(access, options).setValue(value);
+    }
+
+    /**
+     * Resolves codec by the type code of the column, the codec is reused for every value of the column
+     *
+     * @param access  column jdbc value access
+     * @param options jdbc value access options
+     * @return value codec bound to the column
+     */
+    @Override
+    public ValueCodec createValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+        switch (access.getField().getTypeCode()) {
             case Types.BIT:
             case Types.BOOLEAN:
-                access.setValue(!isEmpty(result) ? Boolean.parseBoolean(result) : null,
-                        options);
-                break;
+                return new BooleanValueCodec(access, options);
             case Types.TINYINT:
             case Types.SMALLINT:
-                access.setValue(!isEmpty(result) ? Short.parseShort(result) : null, options);
-                break;
+                return new ShortValueCodec(access, options);
             case Types.INTEGER:
-                access.setValue(!isEmpty(result) ? Integer.parseInt(result) : null,
-                        options);
-                break;
+                return new IntegerValueCodec(access, options);
             case Types.BIGINT:
-                access.setValue(!isEmpty(result) ? Long.parseLong(result) : null, options);
-                break;
+                return new LongValueCodec(access, options);
             case Types.FLOAT:
             case Types.REAL:
-                access.setValue(!isEmpty(result) ? Float.parseFloat(result) : null, options);
-                break;
+                return new FloatValueCodec(access, options);
             case Types.DOUBLE:
-                access.setValue(!isEmpty(result) ? Double.parseDouble(result) : null, options);
-                break;
+                return new DoubleValueCodec(access, options);
             case Types.NUMERIC:
             case Types.DECIMAL:
-                access.setValue(!isEmpty(result) ? new BigDecimal(result) : null, options);
-                break;
+                return new DecimalValueCodec(access, options);
             case Types.CHAR:
             case Types.VARCHAR:
             case Types.LONGVARCHAR:
             case Types.NVARCHAR:
             case Types.LONGNVARCHAR:
             case Types.NCHAR:
-                access.setValue(result, options);
-                break;
+                return new StringValueCodec(access, options);
             case Types.BINARY:
             case Types.VARBINARY:
             case Types.LONGVARBINARY:
-                access.setValue(!isEmpty(result) ? result : null, options);
-                break;
+                return new BinaryValueCodec(access, options);
+            case Types.BLOB:
+                return new BlobValueCodec(access, options);
             case Types.OTHER:
             case Types.JAVA_OBJECT:
             case Types.STRUCT:
-                access.setValue(read(value.asBytes()), options);
-                break;
-            case Types.BLOB:
-                access.setValue(value.asBytes(), options);
-                break;
+                return new ObjectValueCodec(access, options);
             case Types.CLOB:
-                access.setValue(result, options);
-                break;
             case Types.NCLOB:
-                access.setValue(result, options);
-                break;
+                return new ClobValueCodec(access, options);
             case Types.REF:
-                access.setValue(!isEmpty(result) ? read(value.asBytes()) : null,
-                        options);
-                break;
+                return new RefValueCodec(access, options);
             case Types.DATALINK:
-                access.setValue(!isEmpty(result) ? new URL(result) : null, options);
-                break;
+                return new DataLinkValueCodec(access, options);
+            case Types.ROWID:
+                return new RowIdValueCodec(access, options);
             case Types.SQLXML:
-                access.setValue(!isEmpty(result) ? result : null, options);
-                break;
+                return new SqlXmlValueCodec(access, options);
             default:
-                throw new ValueFormatException(format("Unsupported data type %s, type code %d on %s column",
-                        field.getTypeName(), field.getTypeCode(), getColumnName(field)));
+                return new JdbcValueCodec(access, options);
+        }
+    }
+
+    /**
+     * Reads blobs up to the LOB threshold into memory, larger blobs are streamed when the value is written
+     *
+     * @param blob to read
+     * @return binary value or binary LOB value
+     * @throws SQLException if blob can't be accessed
+     */
+    protected Value getBlobValue(final Blob blob) throws SQLException {
+        long length = blob.length();
+        if (length > getLobThreshold()) {
+            return blob(new InputSupplier<InputStream>() {
+                @Override
+                public InputStream getInput() throws IOException {
+                    try {
+                        return blob.getBinaryStream();
+                    } catch (SQLException exception) {
+                        throw new IOException(exception);
+                    }
+                }
+            });
+        } else {
+            return binary(length > 0 ? blob.getBytes(1, (int) length) : new byte[0]);
+        }
+    }
+
+    /**
+     * Reads clobs up to the LOB threshold into memory, larger clobs are streamed when the value is written
+     *
+     * @param clob to read
+     * @return string value or character LOB value
+     * @throws SQLException if clob can't be accessed
+     */
+    protected Value getClobValue(final Clob clob) throws SQLException {
+        long length = clob.length();
+        if (length > getLobThreshold()) {
+            return clob(new InputSupplier<Reader>() {
+                @Override
+                public Reader getInput() throws IOException {
+                    try {
+                        return clob.getCharacterStream();
+                    } catch (SQLException exception) {
+                        throw new IOException(exception);
+                    }
+                }
+            });
+        } else {
+            return string(length > 0 ? clob.getSubString(1, (int) length) : EMPTY);
+        }
+    }
+
+    /**
+     * Sets LOB column from the stream, which is closed once the content is transferred
+     *
+     * @param input   binary or character stream
+     * @param access  to set column value
+     * @param options value access options
+     * @throws SQLException if setting value fails
+     */
+    protected void setLobValue(Closeable input, JdbcValueAccess<Object> access,
+                               Map<String, Object> options) throws SQLException {
+        try {
+            access.setValue(input, options);
+        } finally {
+            closeQuietly(input);
         }
     }
 
@@ -227,6 +237,14 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
         }
     }
 
+    public long getLobThreshold() {
+        return lobThreshold;
+    }
+
+    public void setLobThreshold(long lobThreshold) {
+        this.lobThreshold = lobThreshold;
+    }
+
     @Override
     public ValueType getValueType(Field field) {
         ValueType valueType;
@@ -249,4 +267,400 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
         }
         return valueType;
     }
-}
\ No newline at end of file
+
+    /**
+     * Codec of a column of unsupported type, fails on access to the value. Codecs of the supported types override
+     * {@link #doGetValue()} and {@link #doSetValue(Value, String)}, columns set from native values of matching type
+     * override {@link #getNativeValue(Value)}.
+     */
+    protected class JdbcValueCodec implements ValueCodec {
+
+        protected final JdbcValueAccess<Object> access;
+        protected final Map<String, Object> options;
+        private final boolean lob;
+
+        public JdbcValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            this.access = access;
+            this.options = options;
+            this.lob = isLob(access.getField());
+        }
+
+        @Override
+        public Value getValue() {
+            try {
+                return doGetValue();
+            } catch (ValueFormatException exception) {
+                throw exception;
+            } catch (Throwable cause) {
+                return onGetValueError(access, cause);
+            }
+        }
+
+        protected Value doGetValue() throws Exception {
+            throw createUnsupportedException();
+        }
+
+        @Override
+        public void setValue(Value value) {
+            try {
+                if (isNative(value)) {
+                    Object result = getNativeValue(value);
+                    if (result != null) {
+                        access.setValue(result, options);
+                        return;
+                    }
+                }
+                doSetValue(value, lob && isLob(value) ? null : value.asString());
+            } catch (ValueFormatException exception) {
+                throw exception;
+            } catch (Throwable cause) {
+                onSetValueError(access, cause);
+            }
+        }
+
+        /**
+         * Converts native value to the object of exactly the same class, which is set to the column after parsing
+         * of the string value. Returns null if value can't be converted without loss, in which case the value is set
+         * from its string representation.
+         *
+         * @param value native value
+         * @return object to set or null
+         */
+        protected Object getNativeValue(Value value) {
+            return null;
+        }
+
+        protected void doSetValue(Value value, String result) throws Exception {
+            throw createUnsupportedException();
+        }
+
+        protected ValueFormatException createUnsupportedException() {
+            Field field = access.getField();
+            return new ValueFormatException(format("Unsupported data type %s, type code %d on %s column",
+                    field.getTypeName(), field.getTypeCode(), getColumnName(field)));
+        }
+    }
+
+    protected class BooleanValueCodec extends JdbcValueCodec {
+
+        public BooleanValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            return number(access.getValue(options));
+        }
+
+        @Override
+        protected Object getNativeValue(Value value) {
+            return value.getValueType() == BOOLEAN ? value.asObject() : null;
+        }
+
+        @Override
+        protected void doSetValue(Value value, String result) throws Exception {
+            access.setValue(!isEmpty(result) ? Boolean.parseBoolean(result) : null, options);
+        }
+    }
+
+    protected class ShortValueCodec extends JdbcValueCodec {
+
+        public ShortValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            return number(access.getValue(options));
+        }
+
+        @Override
+        protected Object getNativeValue(Value value) {
+            if (value.getValueType() == INT32) {
+                int intValue = (Integer) value.asObject();
+                return intValue == (short) intValue ? (short) intValue : null;
+            }
+            return null;
+        }
+
+        @Override
+        protected void doSetValue(Value value, String result) throws Exception {
+            access.setValue(!isEmpty(result) ? Short.parseShort(result) : null, options);
+        }
+    }
+
+    protected class IntegerValueCodec extends JdbcValueCodec {
+
+        public IntegerValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            return number(access.getValue(options));
+        }
+
+        @Override
+        protected Object getNativeValue(Value value) {
+            return value.getValueType() == INT32 ? value.asObject() : null;
+        }
+
+        @Override
+        protected void doSetValue(Value value, String result) throws Exception {
+            access.setValue(!isEmpty(result) ? Integer.parseInt(result) : null, options);
+        }
+    }
+
+    protected class LongValueCodec extends JdbcValueCodec {
+
+        public LongValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            return number(access.getValue(options));
+        }
+
+        @Override
+        protected Object getNativeValue(Value value) {
+            ValueType valueType = value.getValueType();
+            return valueType == INT32 || valueType == INT64 ? ((Number) value.asObject()).longValue() : null;
+        }
+
+        @Override
+        protected void doSetValue(Value value, String result) throws Exception {
+            access.setValue(!isEmpty(result) ? Long.parseLong(result) : null, options);
+        }
+    }
+
+    protected class FloatValueCodec extends JdbcValueCodec {
+
+        public FloatValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            return number(access.getValue(options));
+        }
+
+        @Override
+        protected void doSetValue(Value value, String result) throws Exception {
+            access.setValue(!isEmpty(result) ? Float.parseFloat(result) : null, options);
+        }
+    }
+
+    protected class DoubleValueCodec extends JdbcValueCodec {
+
+        public DoubleValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            return number(access.getValue(options));
+        }
+
+        @Override
+        protected Object getNativeValue(Value value) {
+            return value.getValueType() == FLOAT64 ? value.asObject() : null;
+        }
+
+        @Override
+        protected void doSetValue(Value value, String result) throws Exception {
+            access.setValue(!isEmpty(result) ? Double.parseDouble(result) : null, options);
+        }
+    }
+
+    protected class DecimalValueCodec extends JdbcValueCodec {
+
+        public DecimalValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            return number(access.getValue(options));
+        }
+
+        @Override
+        protected Object getNativeValue(Value value) {
+            ValueType valueType = value.getValueType();
+            if (valueType == DECIMAL) {
+                return value.asObject();
+            } else if (valueType == INT32 || valueType == INT64) {
+                return BigDecimal.valueOf(((Number) value.asObject()).longValue());
+            }
+            return null;
+        }
+
+        @Override
+        protected void doSetValue(Value value, String result) throws Exception {
+            access.setValue(!isEmpty(result) ? new BigDecimal(result) : null, options);
+        }
+    }
+
+    protected class StringValueCodec extends JdbcValueCodec {
+
+        public StringValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            return string(access.getValue(String.class, options));
+        }
+
+        @Override
+        protected void doSetValue(Value value, String result) throws Exception {
+            access.setValue(result, options);
+        }
+    }
+
+    protected class BinaryValueCodec extends JdbcValueCodec {
+
+        public BinaryValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            return binary(access.getValue(byte[].class, options));
+        }
+
+        @Override
+        protected void doSetValue(Value value, String result) throws Exception {
+            access.setValue(!isEmpty(result) ? result : null, options);
+        }
+    }
+
+    protected class BlobValueCodec extends JdbcValueCodec {
+
+        public BlobValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            Object result = access.getValue(options);
+            return result instanceof Blob ? getBlobValue((Blob) result) :
+                    binary(access.getValue(byte[].class, options));
+        }
+
+        @Override
+        protected void doSetValue(Value value, String result) throws Exception {
+            if (isLob(value)) {
+                setLobValue(((LobValue) value).getInputStream(), access, options);
+            } else {
+                access.setValue(value.asBytes(), options);
+            }
+        }
+    }
+
+    protected class ObjectValueCodec extends JdbcValueCodec {
+
+        public ObjectValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            Object result = access.getValue(options);
+            return binary(result != null ? write(result) : null);
+        }
+
+        @Override
+        protected void doSetValue(Value value, String result) throws Exception {
+            access.setValue(read(value.asBytes()), options);
+        }
+    }
+
+    protected class ClobValueCodec extends JdbcValueCodec {
+
+        public ClobValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            Object result = access.getValue(options);
+            return result instanceof Clob ? getClobValue((Clob) result) :
+                    string(access.getValue(String.class, options));
+        }
+
+        @Override
+        protected void doSetValue(Value value, String result) throws Exception {
+            if (isLob(value)) {
+                setLobValue(((LobValue) value).getReader(), access, options);
+            } else {
+                access.setValue(result, options);
+            }
+        }
+    }
+
+    protected class RefValueCodec extends JdbcValueCodec {
+
+        public RefValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            return binary(write(new SerialRef((Ref) access.getValue(options))));
+        }
+
+        @Override
+        protected void doSetValue(Value value, String result) throws Exception {
+            access.setValue(!isEmpty(result) ? read(value.asBytes()) : null, options);
+        }
+    }
+
+    protected class DataLinkValueCodec extends JdbcValueCodec {
+
+        public DataLinkValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            Object result = access.getValue(options);
+            return string(result != null ? result.toString() : null);
+        }
+
+        @Override
+        protected void doSetValue(Value value, String result) throws Exception {
+            access.setValue(!isEmpty(result) ? new URL(result) : null, options);
+        }
+    }
+
+    protected class RowIdValueCodec extends JdbcValueCodec {
+
+        public RowIdValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            Object result = access.getValue(options);
+            return binary(result != null ? ((RowId) result).getBytes() : null);
+        }
+    }
+
+    protected class SqlXmlValueCodec extends JdbcValueCodec {
+
+        public SqlXmlValueCodec(JdbcValueAccess<Object> access, Map<String, Object> options) {
+            super(access, options);
+        }
+
+        @Override
+        protected Value doGetValue() throws Exception {
+            return string(access.getValue(String.class, options));
+        }
+
+        @Override
+        protected void doSetValue(Value value, String result) throws Exception {
+            access.setValue(!isEmpty(result) ? result : null, options);
+        }
+    }
+}
@@ -55,4 +55,13 @@ public class Row {
     public long getNumber() {
         return number;
     }
+
+    /**
+     * Tells whether this row is the last one of its chunk, row counts of the chunks read from a backup are final
+     *
+     * @return true if the row ends its chunk
+     */
+    public boolean isChunkEnd() {
+        return number == chunk.getRowCount() - 1;
+    }
 }
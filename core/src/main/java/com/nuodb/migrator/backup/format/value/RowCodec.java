@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+/**
+ * Binds values of a row to the value handles of a table. Value codecs of the columns are built together with the
+ * value handles, each bound to the column and resolved by its type, and are then read from a plain array for every
+ * row.
+ *
+ * @author Sergey Bushik
+ */
+public class RowCodec {
+
+    private final ValueCodec[] valueCodecs;
+
+    public RowCodec(ValueHandleList valueHandleList) {
+        valueCodecs = new ValueCodec[valueHandleList.size()];
+        int index = 0;
+        for (ValueHandle valueHandle : valueHandleList) {
+            valueCodecs[index++] = valueHandle.getValueCodec();
+        }
+    }
+
+    public void getValues(Value[] values) {
+        for (int index = 0, size = valueCodecs.length; index < size; index++) {
+            values[index] = valueCodecs[index].getValue();
+        }
+    }
+
+    public void setValues(Value[] values) {
+        for (int index = 0, size = valueCodecs.length; index < size; index++) {
+            valueCodecs[index].setValue(values[index]);
+        }
+    }
+
+    public int size() {
+        return valueCodecs.length;
+    }
+}
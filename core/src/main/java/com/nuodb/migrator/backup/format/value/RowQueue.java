@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.nuodb.migrator.backup.BackupException;
+import com.nuodb.migrator.utils.concurrent.ForkJoinPool;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Bounded queue of rows handed over from the writers reading source result sets to the readers binding rows to target
+ * statements. Writers are blocked once the queue is full, until readers consume rows or the queue is closed. Readers
+ * get end of rows once all the writers ended writing and the queue is drained. Row count of a chunk grows while its
+ * rows are queued, so writers mark the row ending its chunk explicitly.
+ * <p/>
+ * Both writers and readers wait on the queue through {@link ForkJoinPool#managedBlock(ForkJoinPool.ManagedBlocker)},
+ * so that a fork join pool whose workers are all waiting on the queues activates a spare thread to run the queued
+ * tasks instead of getting starved.
+ *
+ * @author Sergey Bushik
+ */
+public class RowQueue implements RowReader {
+
+    public static final int CAPACITY = 1000;
+    public static final long TIMEOUT = 100L;
+
+    private final BlockingQueue<Row> rows;
+    private final AtomicInteger writers = new AtomicInteger();
+    private volatile boolean closed;
+
+    public RowQueue() {
+        this(CAPACITY);
+    }
+
+    public RowQueue(int capacity) {
+        this.rows = new ArrayBlockingQueue<Row>(capacity);
+    }
+
+    public void writeStart() {
+        writers.incrementAndGet();
+    }
+
+    public void writeRow(Row row) {
+        if (rows.offer(row)) {
+            return;
+        }
+        RowBlocker rowBlocker = new RowBlocker(row);
+        try {
+            ForkJoinPool.managedBlock(rowBlocker);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new BackupException("Writing row to the queue interrupted", exception);
+        }
+        if (!rowBlocker.released) {
+            throw new BackupException("Row queue is closed by the reader");
+        }
+    }
+
+    /**
+     * Queues a row marked as the last one of its chunk or not
+     *
+     * @param row      to queue
+     * @param chunkEnd true if the row ends its chunk
+     */
+    public void writeRow(Row row, boolean chunkEnd) {
+        writeRow(new QueueRow(row, chunkEnd));
+    }
+
+    /**
+     * Puts row to the queue without waiting
+     *
+     * @param row to put
+     * @return true if row was put, false if the queue is full
+     */
+    public boolean offerRow(Row row) {
+        return rows.offer(row);
+    }
+
+    public void writeEnd() {
+        writers.decrementAndGet();
+    }
+
+    /**
+     * Takes row from the queue without waiting
+     *
+     * @return row or null if the queue is empty
+     */
+    public Row pollRow() {
+        return rows.poll();
+    }
+
+    @Override
+    public Row readRow() {
+        Row row = rows.poll();
+        if (row != null) {
+            return row;
+        }
+        RowBlocker rowBlocker = new RowBlocker(null);
+        try {
+            ForkJoinPool.managedBlock(rowBlocker);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new BackupException("Reading row from the queue interrupted", exception);
+        }
+        return rowBlocker.row;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        rows.clear();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private boolean isReadEnd() {
+        return closed || (writers.get() == 0 && rows.isEmpty());
+    }
+
+    /**
+     * Waits for the given row to be put to the queue if the row is set or for a row to be taken from the queue
+     * otherwise. Wait is over once the queue is closed, readers are also released once all the writers ended writing
+     * and the queue is drained.
+     */
+    class RowBlocker implements ForkJoinPool.ManagedBlocker {
+
+        private final boolean write;
+        private Row row;
+        private boolean released;
+
+        RowBlocker(Row row) {
+            this.row = row;
+            this.write = row != null;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (write) {
+                while (!released && !closed) {
+                    released = rows.offer(row, TIMEOUT, MILLISECONDS);
+                }
+            } else {
+                while (!released && !isReadEnd()) {
+                    released = (row = rows.poll(TIMEOUT, MILLISECONDS)) != null;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            if (write) {
+                return (released = rows.offer(row)) || closed;
+            } else {
+                return (released = (row = rows.poll()) != null) || isReadEnd();
+            }
+        }
+    }
+
+    static class QueueRow extends Row {
+
+        private final boolean chunkEnd;
+
+        public QueueRow(Row row, boolean chunkEnd) {
+            super(row.getChunk(), row.getValues(), row.getNumber());
+            this.chunkEnd = chunkEnd;
+        }
+
+        @Override
+        public boolean isChunkEnd() {
+            return chunkEnd;
+        }
+    }
+}
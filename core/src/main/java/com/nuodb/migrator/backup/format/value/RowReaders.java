@@ -27,15 +27,28 @@
  */
 package com.nuodb.migrator.backup.format.value;
 
+import com.nuodb.migrator.backup.BackupException;
 import com.nuodb.migrator.backup.BackupOps;
 import com.nuodb.migrator.backup.Chunk;
 import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.compression.Compression;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.Input;
+import com.nuodb.migrator.backup.format.SimpleLobStore;
 
+import java.io.InputStream;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.backup.compression.Compressions.getCompression;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static org.apache.commons.io.IOUtils.closeQuietly;
 
 /**
@@ -57,34 +70,160 @@ public class RowReaders {
         return new SynchronizedRowReader(rowReader, mutex);
     }
 
+    /**
+     * Creates row readers for the given number of threads, where each reader takes next unread chunk of the row set
+     * once it's done with the current one, so chunks are parsed in parallel. If row set has fewer chunks than threads
+     * some of the readers are shared by several threads and synchronized.
+     *
+     * @param rowSet           to read rows from
+     * @param backupOps        backup operations to open chunks
+     * @param formatFactory    to create input formats
+     * @param formatAttributes input format attributes
+     * @param threads          number of reading threads
+     * @return list of row readers, one per thread
+     */
+    public static List<RowReader> newParallelRowReaders(RowSet rowSet, BackupOps backupOps,
+                                                        FormatFactory formatFactory,
+                                                        Map<String, Object> formatAttributes, int threads) {
+        return newParallelRowReaders(rowSet, backupOps, formatFactory, formatAttributes, threads, null);
+    }
+
+    /**
+     * Creates parallel row readers, which skip leading rows of the chunks, so that reading of a chunk starts at the
+     * given offset. Chunks with all rows skipped are not opened.
+     *
+     * @param rowSet           to read rows from
+     * @param backupOps        backup operations to open chunks
+     * @param formatFactory    to create input formats
+     * @param formatAttributes input format attributes
+     * @param threads          number of reading threads
+     * @param offsets          number of leading rows to skip per chunk name or null
+     * @return list of row readers, one per thread
+     */
+    public static List<RowReader> newParallelRowReaders(RowSet rowSet, BackupOps backupOps,
+                                                        FormatFactory formatFactory,
+                                                        Map<String, Object> formatAttributes, int threads,
+                                                        Map<String, Long> offsets) {
+        ChunkSource chunkSource = new ChunkSource(rowSet.getChunks().iterator(), offsets);
+        int readers = max(1, min(threads, rowSet.getChunks().size()));
+        List<RowReader> rowReaders = newArrayList();
+        for (int reader = 0; reader < readers; reader++) {
+            RowReader rowReader = new SequentialRowReader(rowSet, chunkSource, backupOps, formatFactory,
+                    formatAttributes);
+            int shared = threads / readers + (reader < threads % readers ? 1 : 0);
+            rowReaders.add(shared > 1 ? newSynchronizedRowReader(rowReader) : rowReader);
+        }
+        List<RowReader> threadRowReaders = newArrayList();
+        for (int thread = 0; thread < threads; thread++) {
+            threadRowReaders.add(rowReaders.get(thread % readers));
+        }
+        return threadRowReaders;
+    }
+
+    public static RowReader newPrefetchRowReader(RowReader rowReader, int capacity, Executor executor) {
+        return new PrefetchRowReader(rowReader, capacity, executor);
+    }
+
+    /**
+     * Wraps each distinct row reader into a reader decoding rows ahead on a task of the given executor, so that rows
+     * are parsed while the consuming thread binds and executes the previous ones. Threads sharing the same row reader
+     * get the same prefetching reader, which is safe to be read concurrently.
+     *
+     * @param rowReaders row readers, one per thread
+     * @param capacity   max number of rows decoded ahead by each reader
+     * @param executor   to run prefetching tasks on
+     * @return list of prefetching row readers, one per thread
+     */
+    public static List<RowReader> newPrefetchRowReaders(List<RowReader> rowReaders, int capacity,
+                                                        Executor executor) {
+        Map<RowReader, RowReader> prefetchRowReaders = new IdentityHashMap<RowReader, RowReader>();
+        List<RowReader> threadRowReaders = newArrayList();
+        for (RowReader rowReader : rowReaders) {
+            RowReader prefetchRowReader = prefetchRowReaders.get(rowReader);
+            if (prefetchRowReader == null) {
+                RowReader sourceRowReader = rowReader instanceof SynchronizedRowReader ?
+                        ((SynchronizedRowReader) rowReader).getRowReader() : rowReader;
+                prefetchRowReaders.put(rowReader,
+                        prefetchRowReader = newPrefetchRowReader(sourceRowReader, capacity, executor));
+            }
+            threadRowReaders.add(prefetchRowReader);
+        }
+        return threadRowReaders;
+    }
+
+    static class ChunkSource {
+
+        private final Iterator<Chunk> chunks;
+        private final Map<String, Long> offsets;
+
+        ChunkSource(Iterator<Chunk> chunks) {
+            this(chunks, null);
+        }
+
+        ChunkSource(Iterator<Chunk> chunks, Map<String, Long> offsets) {
+            this.chunks = chunks;
+            this.offsets = offsets;
+        }
+
+        /**
+         * Returns next chunk having rows after its offset
+         *
+         * @return next chunk or null
+         */
+        public synchronized Chunk nextChunk() {
+            while (chunks.hasNext()) {
+                Chunk chunk = chunks.next();
+                long offset = getOffset(chunk);
+                if (offset == 0 || offset < chunk.getRowCount()) {
+                    return chunk;
+                }
+            }
+            return null;
+        }
+
+        public long getOffset(Chunk chunk) {
+            Long offset = offsets != null ? offsets.get(chunk.getName()) : null;
+            return offset != null ? offset : 0;
+        }
+    }
+
     static class SequentialRowReader implements RowReader {
 
         private final RowSet rowSet;
+        private final ChunkSource chunkSource;
         private final BackupOps backupOps;
         private final FormatFactory formatFactory;
         private final Map<String, Object> formatAttributes;
+        private final Compression compression;
 
-        private Iterator<Chunk> chunks;
         private Chunk chunk;
         private Input input;
-        private Row row;
-        private volatile long number;
+        private long number;
 
         SequentialRowReader(RowSet rowSet, BackupOps backupOps,
                             FormatFactory formatFactory,
                             Map<String, Object> formatAttributes) {
+            this(rowSet, new ChunkSource(rowSet.getChunks().iterator()), backupOps, formatFactory, formatAttributes);
+        }
+
+        SequentialRowReader(RowSet rowSet, ChunkSource chunkSource, BackupOps backupOps,
+                            FormatFactory formatFactory,
+                            Map<String, Object> formatAttributes) {
             this.rowSet = rowSet;
+            this.chunkSource = chunkSource;
             this.backupOps = backupOps;
             this.formatFactory = formatFactory;
             this.formatAttributes = formatAttributes;
+            this.compression = getCompression(rowSet.getBackup().getCompression());
         }
 
         @Override
         public Row readRow() {
-            initChunk();
-            initInput();
-            initRowValues();
-            return row;
+            Value[] values = null;
+            while (values == null && initInput()) {
+                values = readValues();
+            }
+            return values != null ? new Row(chunk, values, number++) : null;
         }
 
         @Override
@@ -95,41 +234,41 @@ public class RowReaders {
             }
         }
 
-        protected void initChunk() {
-            if (chunks == null) {
-                chunks = rowSet.getChunks().iterator();
-            }
-            if (chunks.hasNext() && chunk == null) {
-                chunk = chunks.next();
-            }
-        }
-
-        protected void initInput() {
-            if (chunk != null && input == null) {
+        protected boolean initInput() {
+            if (input == null) {
+                chunk = chunkSource.nextChunk();
+                if (chunk == null) {
+                    return false;
+                }
                 input = formatFactory.createInput(rowSet.getBackup().getFormat(), formatAttributes);
-                input.setInputStream(backupOps.openInput(chunk.getName()));
+                InputStream inputStream = backupOps.openInput(chunk.getName());
+                input.setInputStream(compression != null ? compression.decompress(inputStream) : inputStream);
                 input.setRowSet(rowSet);
+                input.setLobStore(new SimpleLobStore(backupOps, chunk.getName(), compression));
                 input.init();
                 input.readStart();
                 number = 0;
+                for (long offset = chunkSource.getOffset(chunk); number < offset; number++) {
+                    if (input.readValues() == null) {
+                        break;
+                    }
+                }
             }
+            return true;
         }
 
-        protected void initRowValues() {
+        protected Value[] readValues() {
             Value[] values = null;
-            if (input != null) {
-                try {
-                    values = input.readValues();
-                } finally {
-                    if (values == null) {
-                        input.readEnd();
-                        input.close();
-                        input = null;
-                        chunk = null;
-                    }
+            try {
+                values = input.readValues();
+            } finally {
+                if (values == null) {
+                    input.readEnd();
+                    input.close();
+                    input = null;
                 }
             }
-            row = values != null ? new Row(chunk, values, number++) : null;
+            return values;
         }
     }
 
@@ -161,5 +300,77 @@ public class RowReaders {
                 rowReader.close();
             }
         }
+
+        RowReader getRowReader() {
+            return rowReader;
+        }
+    }
+
+    /**
+     * Decodes rows of the source reader into a bounded {@link RowQueue} on a task of the executor, both the prefetching
+     * task and the consumers wait on the queue, so that a fork join pool running both of them is not starved.
+     */
+    static class PrefetchRowReader implements RowReader, Runnable {
+
+        private final RowReader rowReader;
+        private final RowQueue rowQueue;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile Throwable failure;
+
+        PrefetchRowReader(RowReader rowReader, int capacity, Executor executor) {
+            this.rowReader = rowReader;
+            this.rowQueue = new RowQueue(capacity);
+            this.rowQueue.writeStart();
+            executor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                Row row;
+                while (!rowQueue.isClosed() && (row = rowReader.readRow()) != null) {
+                    rowQueue.writeRow(row);
+                }
+            } catch (Throwable failure) {
+                if (!rowQueue.isClosed()) {
+                    this.failure = failure;
+                }
+            } finally {
+                rowQueue.writeEnd();
+                finished.countDown();
+            }
+        }
+
+        @Override
+        public Row readRow() {
+            Row row = rowQueue.readRow();
+            Throwable failure = this.failure;
+            if (row == null && failure != null) {
+                throw failure instanceof RuntimeException ? (RuntimeException) failure :
+                        new BackupException("Prefetching rows failed", failure);
+            }
+            return row;
+        }
+
+        /**
+         * Closes the queue and waits for the prefetching task to complete before closing the source reader, a task
+         * which hasn't started yet is cancelled
+         */
+        @Override
+        public void close() {
+            rowQueue.close();
+            if (!started.compareAndSet(false, true)) {
+                try {
+                    finished.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            rowReader.close();
+        }
     }
 }
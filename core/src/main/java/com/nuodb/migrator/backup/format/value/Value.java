@@ -40,5 +40,13 @@ public interface Value extends Serializable {
 
     byte[] asBytes();
 
+    /**
+     * Returns native value, which is a string for string values, a byte array for binary values or a corresponding
+     * java object for native value types
+     *
+     * @return native value
+     */
+    Object asObject();
+
     ValueType getValueType();
 }
@@ -41,5 +41,14 @@ public interface ValueFormat<T> {
 
     void setValue(Value value, JdbcValueAccess<T> access, Map<String, Object> options) throws ValueFormatException;
 
+    /**
+     * Creates codec getting and setting values of the column accessed with the given jdbc value access
+     *
+     * @param access  column jdbc value access
+     * @param options jdbc value access options
+     * @return value codec bound to the column
+     */
+    ValueCodec createValueCodec(JdbcValueAccess<T> access, Map<String, Object> options);
+
     ValueType getValueType(Field field);
 }
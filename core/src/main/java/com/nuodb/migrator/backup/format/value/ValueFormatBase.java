@@ -82,6 +82,29 @@ public abstract class ValueFormatBase<T> implements ValueFormat<T> {
                 getColumnName(access.getField()), access.getField().getTypeName()), cause);
     }
 
+    /**
+     * Creates codec delegating to {@link #getValue(JdbcValueAccess, Map)} and
+     * {@link #setValue(Value, JdbcValueAccess, Map)}, formats resolving the access of a column up front override it
+     *
+     * @param access  column jdbc value access
+     * @param options jdbc value access options
+     * @return value codec bound to the column
+     */
+    @Override
+    public ValueCodec createValueCodec(final JdbcValueAccess<T> access, final Map<String, Object> options) {
+        return new ValueCodec() {
+            @Override
+            public Value getValue() {
+                return ValueFormatBase.this.getValue(access, options);
+            }
+
+            @Override
+            public void setValue(Value value) {
+                ValueFormatBase.this.setValue(value, access, options);
+            }
+        };
+    }
+
     protected String getColumnName(Field field) {
         if (field instanceof Column) {
             Column column = (Column) field;
@@ -71,9 +71,23 @@ public abstract class ValueHandleListBuilder {
         };
     }
 
-    public static ValueHandleListBuilder newBuilder(final Connection connection, final PreparedStatement statement) {
+    public static ValueHandleListBuilder newBuilder(Connection connection, PreparedStatement statement) {
+        return newBuilder(connection, statement, 1);
+    }
+
+    /**
+     * Creates builder of value handles bound to the statement parameters starting from the given index, which is used
+     * to bind several rows to a single multi-row statement
+     *
+     * @param connection connection of the statement
+     * @param statement  to bind values to
+     * @param parameter  index of the first parameter
+     * @return value handle list builder
+     */
+    public static ValueHandleListBuilder newBuilder(final Connection connection, final PreparedStatement statement,
+                                                    final int parameter) {
         return new ValueHandleListBuilder() {
-            private int column = 1;
+            private int column = parameter;
 
             @Override
             protected JdbcValueAccess buildJdbcValueAccess(ValueHandle valueHandle) {
@@ -111,6 +125,7 @@ public abstract class ValueHandleListBuilder {
         initValueType(valueHandle);
         initJdbcValueAccess(valueHandle);
         initJdbcValueAccessOptions(valueHandle);
+        initValueCodec(valueHandle);
     }
 
     protected void initValueFormat(ValueHandle valueHandle) {
@@ -152,6 +167,23 @@ public abstract class ValueHandleListBuilder {
         return jdbcValueAccessOptions;
     }
 
+    protected void initValueCodec(ValueHandle valueHandle) {
+        valueHandle.setValueCodec(buildValueCodec(valueHandle));
+    }
+
+    /**
+     * Builds codec of the column bound to its jdbc value access, value format resolves how the column is accessed
+     * once, when the codec is built
+     *
+     * @param valueHandle value handle with initialized value format, jdbc value access and its options
+     * @return value codec
+     */
+    @SuppressWarnings("unchecked")
+    protected ValueCodec buildValueCodec(ValueHandle valueHandle) {
+        return valueHandle.getValueFormat().createValueCodec(
+                valueHandle.getJdbcValueAccess(), valueHandle.getJdbcValueAccessOptions());
+    }
+
     public Dialect getDialect() {
         return dialect;
     }
@@ -194,6 +226,7 @@ public abstract class ValueHandleListBuilder {
         private ValueFormat valueFormat;
         private JdbcValueAccess jdbcValueAccess;
         private Map<String, Object> jdbcValueAccessOptions;
+        private ValueCodec valueCodec;
 
         public SimpleValueHandle(Field field) {
             super(field);
@@ -238,6 +271,16 @@ public abstract class ValueHandleListBuilder {
         public void setJdbcValueAccessOptions(Map<String, Object> jdbcValueAccessOptions) {
             this.jdbcValueAccessOptions = jdbcValueAccessOptions;
         }
+
+        @Override
+        public ValueCodec getValueCodec() {
+            return valueCodec;
+        }
+
+        @Override
+        public void setValueCodec(ValueCodec valueCodec) {
+            this.valueCodec = valueCodec;
+        }
     }
 
     private static class SimpleValueHandleList extends SimpleFieldList<ValueHandle> implements ValueHandleList {
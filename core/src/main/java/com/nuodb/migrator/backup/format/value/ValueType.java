@@ -30,11 +30,15 @@ package com.nuodb.migrator.backup.format.value;
 import com.nuodb.migrator.utils.EnumAlias;
 
 /**
+ * Type of the value carried between the source and the target. String and binary types are the only types written to
+ * the backup catalog, native types are carried by the values themselves letting typed formats skip formatting and
+ * parsing of numbers, booleans and temporal values.
+ *
  * @author Sergey Bushik
  */
 public enum ValueType {
 
-    STRING, BINARY;
+    STRING, BINARY, INT32, INT64, FLOAT64, DECIMAL, TIMESTAMP, DATE, BOOLEAN;
 
     private static final EnumAlias<ValueType> VALUE_TYPES = new EnumAlias<ValueType>(ValueType.class);
 
@@ -27,11 +27,26 @@
  */
 package com.nuodb.migrator.backup.format.value;
 
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+import com.google.common.io.InputSupplier;
+import com.nuodb.migrator.jdbc.model.Field;
+import org.apache.commons.io.input.ReaderInputStream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.Arrays;
 import java.util.List;
 
-import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
-import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueType.*;
+import static org.apache.commons.io.IOUtils.closeQuietly;
 
 /**
  * @author Sergey Bushik
@@ -49,7 +64,7 @@ public class ValueUtils {
                 case BINARY:
                     values[offset] = ValueUtils.BINARY_NULL;
                     break;
-                case STRING:
+                default:
                     values[offset] = ValueUtils.STRING_NULL;
                     break;
             }
@@ -64,6 +79,156 @@ public class ValueUtils {
         return value == null ? STRING_NULL : new StringValue(value);
     }
 
+    /**
+     * Creates binary LOB value streamed from the given input each time it's accessed
+     *
+     * @param input supplier of binary content
+     * @return binary LOB value
+     */
+    public static Value blob(InputSupplier<? extends InputStream> input) {
+        return new BlobValue(input);
+    }
+
+    /**
+     * Creates character LOB value streamed from the given input each time it's accessed
+     *
+     * @param input supplier of character content
+     * @return character LOB value
+     */
+    public static Value clob(InputSupplier<? extends Reader> input) {
+        return new ClobValue(input);
+    }
+
+    public static boolean isLob(Value value) {
+        return value instanceof LobValue;
+    }
+
+    /**
+     * Checks whether values of the field are large objects, which can be streamed instead of being read into memory
+     *
+     * @param field to check
+     * @return true if field is of BLOB or CLOB type
+     */
+    public static boolean isLob(Field field) {
+        switch (field.getTypeCode()) {
+            case Types.BLOB:
+            case Types.CLOB:
+            case Types.NCLOB:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Reads content of LOB value into a regular binary or string value, other values are returned as is
+     *
+     * @param value to read
+     * @return value holding its content in memory
+     */
+    public static Value inline(Value value) {
+        if (isLob(value)) {
+            return value.getValueType() == BINARY ? binary(value.asBytes()) : string(value.asString());
+        } else {
+            return value;
+        }
+    }
+
+    public static Value int32(Integer value) {
+        return value == null ? STRING_NULL : new NativeValue(INT32, value);
+    }
+
+    public static Value int64(Long value) {
+        return value == null ? STRING_NULL : new NativeValue(INT64, value);
+    }
+
+    public static Value float64(Double value) {
+        return value == null ? STRING_NULL : new NativeValue(FLOAT64, value);
+    }
+
+    public static Value decimal(BigDecimal value) {
+        return value == null ? STRING_NULL : new NativeValue(DECIMAL, value);
+    }
+
+    public static Value timestamp(Timestamp value) {
+        return value == null ? STRING_NULL : new NativeValue(TIMESTAMP, value);
+    }
+
+    public static Value date(Date value) {
+        return value == null ? STRING_NULL : new NativeValue(DATE, value);
+    }
+
+    public static Value bool(Boolean value) {
+        return value == null ? STRING_NULL : new NativeValue(BOOLEAN, value);
+    }
+
+    /**
+     * Wraps numeric or boolean object into a value of the matching native type. Objects of other types, as well as
+     * floats and big integers, which have no lossless native type, are converted to strings.
+     *
+     * @param value to wrap
+     * @return native value or string value
+     */
+    public static Value number(Object value) {
+        if (value == null) {
+            return STRING_NULL;
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return int32(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            return int64((Long) value);
+        } else if (value instanceof Double) {
+            return float64((Double) value);
+        } else if (value instanceof BigDecimal) {
+            return decimal((BigDecimal) value);
+        } else if (value instanceof Boolean) {
+            return bool((Boolean) value);
+        } else {
+            return string(value.toString());
+        }
+    }
+
+    public static boolean isNative(Value value) {
+        ValueType valueType = value.getValueType();
+        return valueType != STRING && valueType != BINARY;
+    }
+
+    /**
+     * Estimates memory occupied by the values of a row, string values are counted as two bytes per character
+     *
+     * @param values of a row
+     * @return estimated size in bytes
+     */
+    public static long getSize(Value[] values) {
+        long size = 0;
+        for (Value value : values) {
+            size += getSize(value);
+        }
+        return size;
+    }
+
+    public static long getSize(Value value) {
+        if (value == null || value.isNull()) {
+            return 0;
+        }
+        if (isLob(value)) {
+            return 8;
+        }
+        switch (value.getValueType()) {
+            case STRING:
+                return 2L * value.asString().length();
+            case BINARY:
+                return value.asBytes().length;
+            case BOOLEAN:
+                return 1;
+            case INT32:
+                return 4;
+            case DECIMAL:
+                return 16;
+            default:
+                return 8;
+        }
+    }
+
     static class BinaryValue implements Value {
 
         private final byte[] value;
@@ -82,6 +247,11 @@ public class ValueUtils {
             return value;
         }
 
+        @Override
+        public Object asObject() {
+            return value;
+        }
+
         @Override
         public boolean isNull() {
             return value == null;
@@ -133,6 +303,11 @@ public class ValueUtils {
             return value != null ? value.getBytes() : null;
         }
 
+        @Override
+        public Object asObject() {
+            return value;
+        }
+
         @Override
         public boolean isNull() {
             return value == null;
@@ -165,4 +340,181 @@ public class ValueUtils {
             return "String{'" + value + "'}";
         }
     }
+
+    static abstract class LobValueBase<T extends Closeable> implements LobValue {
+
+        private final InputSupplier<? extends T> input;
+
+        protected LobValueBase(InputSupplier<? extends T> input) {
+            this.input = input;
+        }
+
+        protected T getInput() throws IOException {
+            return input.getInput();
+        }
+
+        @Override
+        public Object asObject() {
+            return getValueType() == BINARY ? asBytes() : asString();
+        }
+
+        @Override
+        public boolean isNull() {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "Lob{" + getValueType() + '}';
+        }
+    }
+
+    static class BlobValue extends LobValueBase<InputStream> {
+
+        public BlobValue(InputSupplier<? extends InputStream> input) {
+            super(input);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return getInput();
+        }
+
+        @Override
+        public Reader getReader() throws IOException {
+            return new InputStreamReader(getInput());
+        }
+
+        @Override
+        public String asString() {
+            return new String(asBytes());
+        }
+
+        @Override
+        public byte[] asBytes() {
+            InputStream input = null;
+            try {
+                return ByteStreams.toByteArray(input = getInputStream());
+            } catch (IOException exception) {
+                throw new ValueFormatException(exception);
+            } finally {
+                closeQuietly(input);
+            }
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return BINARY;
+        }
+    }
+
+    static class ClobValue extends LobValueBase<Reader> {
+
+        public ClobValue(InputSupplier<? extends Reader> input) {
+            super(input);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new ReaderInputStream(getInput());
+        }
+
+        @Override
+        public Reader getReader() throws IOException {
+            return getInput();
+        }
+
+        @Override
+        public String asString() {
+            Reader input = null;
+            try {
+                return CharStreams.toString(input = getReader());
+            } catch (IOException exception) {
+                throw new ValueFormatException(exception);
+            } finally {
+                closeQuietly(input);
+            }
+        }
+
+        @Override
+        public byte[] asBytes() {
+            return asString().getBytes();
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return STRING;
+        }
+    }
+
+    /**
+     * Value of a native type, string representation is built on demand, so it's never built if the value is written
+     * by a typed format or set to a target column directly.
+     */
+    static class NativeValue implements Value {
+
+        private final ValueType valueType;
+        private final Object value;
+        private transient String string;
+
+        public NativeValue(ValueType valueType, Object value) {
+            this.valueType = valueType;
+            this.value = value;
+        }
+
+        @Override
+        public String asString() {
+            String string = this.string;
+            if (string == null && value != null) {
+                this.string = string = value.toString();
+            }
+            return string;
+        }
+
+        @Override
+        public byte[] asBytes() {
+            String string = asString();
+            return string != null ? string.getBytes() : null;
+        }
+
+        @Override
+        public Object asObject() {
+            return value;
+        }
+
+        @Override
+        public boolean isNull() {
+            return value == null;
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return valueType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            NativeValue that = (NativeValue) o;
+
+            if (valueType != that.valueType) return false;
+            if (value != null ? !value.equals(that.value) : that.value != null) return false;
+
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = valueType != null ? valueType.hashCode() : 0;
+            result = 31 * result + (value != null ? value.hashCode() : 0);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "Native{" + valueType + "=" + value + '}';
+        }
+    }
 }
@@ -90,7 +90,7 @@ public class XmlOutput extends OutputBase implements XmlFormat {
     }
 
     @Override
-    public void writeValues(Value[] values) {
+    protected void doWriteValues(Value[] values) {
         try {
             xmlWriter.writeStartElement(ELEMENT_ROW);
             BitSet nulls = new BitSet();
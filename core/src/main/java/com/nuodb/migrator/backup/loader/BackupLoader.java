@@ -31,6 +31,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.nuodb.migrator.MigratorException;
 import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupException;
 import com.nuodb.migrator.backup.BackupOps;
 import com.nuodb.migrator.backup.Column;
 import com.nuodb.migrator.backup.RowSet;
@@ -38,6 +39,7 @@ import com.nuodb.migrator.backup.TableRowSet;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistryResolver;
+import com.nuodb.migrator.jdbc.commit.AsyncCommitStrategy;
 import com.nuodb.migrator.jdbc.commit.CommitStrategy;
 import com.nuodb.migrator.jdbc.dialect.Dialect;
 import com.nuodb.migrator.jdbc.dialect.DialectResolver;
@@ -86,6 +88,7 @@ import org.slf4j.Logger;
 
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.ExecutorService;
@@ -110,6 +113,9 @@ import static com.nuodb.migrator.utils.Collections.removeAll;
 import static com.nuodb.migrator.utils.SequenceUtils.getStandaloneSequences;
 import static java.lang.Runtime.getRuntime;
 import static java.lang.String.format;
+import static java.util.Collections.singleton;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.apache.commons.io.FileUtils.getFile;
 import static org.apache.commons.lang3.StringUtils.join;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -121,6 +127,9 @@ public class BackupLoader {
 
     public static final Collection<MigrationMode> MIGRATION_MODES = newHashSet(MigrationMode.values());
     public static final int THREADS = getRuntime().availableProcessors();
+    public static final int PREFETCH_SIZE = 1000;
+    public static final int INSERT_ROWS = 1;
+    public static final int INDEX_THREADS = 0;
 
     protected final transient Logger logger = getLogger(getClass());
 
@@ -138,6 +147,10 @@ public class BackupLoader {
     private InsertTypeFactory insertTypeFactory;
     private InspectionManager inspectionManager;
     private Parallelizer parallelizer = new TableLevelParallelizer();
+    private int prefetchSize = PREFETCH_SIZE;
+    private int insertRows = INSERT_ROWS;
+    private int indexThreads = INDEX_THREADS;
+    private boolean resume;
     private MetaDataSpec metaDataSpec;
     private Collection<MigrationMode> migrationModes = MIGRATION_MODES;
     private PrioritySet<NamingStrategy> namingStrategies;
@@ -177,10 +190,11 @@ public class BackupLoader {
 
     protected BackupLoaderContext createBackupLoaderContext(BackupOps backupOps, Map context) throws Exception {
         BackupLoaderContext backupLoaderContext = new SimpleBackupLoaderContext();
-        backupLoaderContext.setBackup(backupOps.read(context));
+        backupLoaderContext.setBackup(readBackup(backupOps, context));
         backupLoaderContext.setBackupOps(backupOps);
         backupLoaderContext.setBackupOpsContext(context);
         backupLoaderContext.setCommitStrategy(getCommitStrategy());
+        backupLoaderContext.setBatchExecutor(createBatchExecutor());
 
         ExecutorService executorService = getExecutorService();
         backupLoaderContext.setExecutorService(
@@ -190,6 +204,9 @@ public class BackupLoader {
         backupLoaderContext.setInsertTypeFactory(getInsertTypeFactory());
         backupLoaderContext.setMigrationModes(getMigrationModes());
         backupLoaderContext.setParallelizer(getParallelizer());
+        backupLoaderContext.setPrefetchSize(getPrefetchSize());
+        backupLoaderContext.setInsertRows(getInsertRows());
+        backupLoaderContext.setLoadJournal(openLoadJournal(backupOps));
         backupLoaderContext.setRowSetMapper(getRowSetMapper());
         backupLoaderContext.setSourceTables(getSourceTables(backupLoaderContext));
         backupLoaderContext.setTimeZone(getTimeZone());
@@ -202,6 +219,34 @@ public class BackupLoader {
         return backupLoaderContext;
     }
 
+    /**
+     * Opens journal of the loaded schema and committed rows in the backup directory, on resume records of the previous
+     * run are read, so that the schema and the rows already committed are not loaded again. Backup loaded from a read
+     * only location is loaded without the journal.
+     *
+     * @param backupOps backup operations
+     * @return load journal or null
+     */
+    protected LoadJournal openLoadJournal(BackupOps backupOps) {
+        LoadJournal loadJournal = new LoadJournal(getFile(backupOps.getDir(), LoadJournal.FILE));
+        try {
+            loadJournal.open(isResume());
+            return loadJournal;
+        } catch (BackupException exception) {
+            if (isResume()) {
+                throw exception;
+            }
+            if (logger.isWarnEnabled()) {
+                logger.warn(format("Load journal %s is off", loadJournal.getFile()), exception);
+            }
+            return null;
+        }
+    }
+
+    protected Backup readBackup(BackupOps backupOps, Map context) {
+        return backupOps.read(context);
+    }
+
     /**
      * Returns a filtered list of source tables to load depending on the requested source table names and their patterns
      * or all source tables if filter is not provided.
@@ -231,8 +276,10 @@ public class BackupLoader {
         backupLoaderManager.setBackupLoaderContext(backupLoaderContext);
         // add listener after load constraints is created
         if (backupLoaderManager.isLoadSchema()) {
+            LoadConstraintScheduler loadConstraintScheduler = createLoadConstraintScheduler(backupLoaderManager);
+            backupLoaderContext.setLoadConstraintScheduler(loadConstraintScheduler);
             backupLoaderManager.addListener(
-                    new LoadConstraintListener(this, backupLoaderManager));
+                    new LoadConstraintListener(this, backupLoaderManager, loadConstraintScheduler));
         }
         for (BackupLoaderListener listener : getListeners()) {
             backupLoaderManager.addListener(listener);
@@ -240,6 +287,10 @@ public class BackupLoader {
         return backupLoaderManager;
     }
 
+    protected LoadConstraintScheduler createLoadConstraintScheduler(BackupLoaderManager backupLoaderManager) {
+        return new LoadConstraintScheduler(this, backupLoaderManager, getIndexThreads());
+    }
+
     protected ExecutorService createExecutorService() {
         int threads = getThreads();
         if (logger.isTraceEnabled()) {
@@ -248,6 +299,19 @@ public class BackupLoader {
         return new ForkJoinPool(threads);
     }
 
+    /**
+     * Creates executor bounded by the number of threads to run batches of a commit strategy executing batches in
+     * background, which is shut down along with the backup loader manager. Batches are not run on the fork join pool,
+     * so a loading thread waiting for its batch never waits for a pool thread.
+     *
+     * @return batch executor or null if the commit strategy executes batches in place
+     */
+    protected ExecutorService createBatchExecutor() {
+        CommitStrategy commitStrategy = getCommitStrategy();
+        return commitStrategy == null || commitStrategy instanceof AsyncCommitStrategy ?
+                newFixedThreadPool(getThreads()) : null;
+    }
+
     protected void openSourceSession(BackupLoaderContext backupLoaderContext) throws SQLException {
         Database database = backupLoaderContext.getBackup().getDatabase();
         SessionFactory sourceSessionFactory = newSessionFactory(database.getDialect(), database.getConnectionSpec());
@@ -353,9 +417,17 @@ public class BackupLoader {
     }
 
     protected Backup load(BackupLoaderManager backupLoaderManager) throws Exception {
+        LoadJournal loadJournal = backupLoaderManager.getBackupLoaderContext().getLoadJournal();
         try {
             if (backupLoaderManager.isLoadSchema()) {
-                loadSchema(backupLoaderManager);
+                if (loadJournal != null && loadJournal.isSchemaLoaded()) {
+                    backupLoaderManager.loadSchemaDone();
+                } else {
+                    loadSchema(backupLoaderManager);
+                    if (loadJournal != null) {
+                        loadJournal.loadSchema();
+                    }
+                }
             }
             if (backupLoaderManager.isLoadData()) {
                 loadData(backupLoaderManager);
@@ -370,42 +442,164 @@ public class BackupLoader {
         } finally {
             backupLoaderManager.close();
         }
+        if (loadJournal != null) {
+            loadJournal.delete();
+        }
         return backupLoaderManager.getBackupLoaderContext().getBackup();
     }
 
+    /**
+     * Loads schema of the source tables, scripts are generated upfront and split into stages: standalone sequences
+     * first, followed by tables or by each meta data type in turn if scripts are grouped by meta data. Scripts of
+     * a stage are executed concurrently on separate target sessions, while the script exporter receives all of them
+     * in a deterministic order. Primary keys, indexes & foreign keys are loaded later as constraints.
+     *
+     * @param backupLoaderManager to manage this load
+     * @throws Exception if schema loading caused error
+     */
     protected void loadSchema(BackupLoaderManager backupLoaderManager) throws Exception {
         BackupLoaderContext backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
         ScriptGeneratorManager scriptGeneratorManager =
                 backupLoaderContext.getScriptGeneratorManager();
         Collection<MetaDataType> objectTypes = getObjectTypes();
-        ScriptExporter scriptExporter = createScriptExporter(backupLoaderContext);
+        Collection<Table> tables = backupLoaderContext.getSourceTables();
+        if (isEmpty(tables)) {
+            ScriptExporter scriptExporter = createScriptExporter(backupLoaderContext);
+            try {
+                scriptExporter.open();
+                scriptGeneratorManager.setObjectTypes(
+                        removeAll(newArrayList(objectTypes),
+                                newArrayList(PRIMARY_KEY, FOREIGN_KEY, INDEX)));
+                Database database = backupLoaderContext.getBackup().getDatabase();
+                scriptExporter.exportScripts(scriptGeneratorManager.getScripts(database));
+                Session targetSession = backupLoaderContext.getTargetSession();
+                targetSession.getConnection().commit();
+            } finally {
+                closeQuietly(scriptExporter);
+                scriptGeneratorManager.setObjectTypes(objectTypes);
+            }
+        } else {
+            List<Collection<LoadSchemaScript>> stages;
+            try {
+                scriptGeneratorManager.setObjectTypes(
+                        removeAll(newArrayList(objectTypes),
+                                newArrayList(PRIMARY_KEY, FOREIGN_KEY, INDEX)));
+                stages = getLoadSchemaStages(backupLoaderContext.getBackup().getDatabase(),
+                        tables, scriptGeneratorManager);
+            } finally {
+                scriptGeneratorManager.setObjectTypes(objectTypes);
+            }
+            exportScripts(stages, scriptGeneratorManager);
+            ForkJoinPool executor = (ForkJoinPool) backupLoaderContext.getExecutorService();
+            executor.invoke(new LoadSchemaWork(stages, backupLoaderManager));
+            Map<Work, Throwable> failures = backupLoaderManager.getFailures();
+            if (!isEmpty(failures)) {
+                Throwable failure = get(failures.values(), 0);
+                throw failure instanceof Exception ? (Exception) failure : new BackupLoaderException(failure);
+            }
+        }
+        backupLoaderManager.loadSchemaDone();
+    }
+
+    /**
+     * Splits schema scripts of the source tables into stages, scripts of the same stage do not depend on each other.
+     * Standalone sequences are created at the first stage, tables with their own sequences & triggers at the second
+     * one, or if scripts are grouped by meta data each of the meta data types has its own stage.
+     *
+     * @param database               to look up standalone sequences in
+     * @param tables                 to generate schema scripts for
+     * @param scriptGeneratorManager script generator manager
+     * @return stages of schema scripts in the execution order
+     * @throws Exception if scripts generation failed
+     */
+    protected List<Collection<LoadSchemaScript>> getLoadSchemaStages(Database database, Collection<Table> tables,
+                                                                     ScriptGeneratorManager scriptGeneratorManager)
+            throws Exception {
+        List<Collection<LoadSchemaScript>> stages = newArrayList();
+        Collection<MetaDataType> objectTypes = scriptGeneratorManager.getObjectTypes();
+        if (contains(objectTypes, SEQUENCE)) {
+            Collection<LoadSchemaScript> stage = newArrayList();
+            MetaDataFilter sequenceFilter = getMetaDataFilter(SEQUENCE);
+            for (Sequence sequence : getStandaloneSequences(database)) {
+                if (sequenceFilter != null && !sequenceFilter.accepts(sequence)) {
+                    continue;
+                }
+                addLoadSchemaScript(stage, sequence, sequence.getSchema(),
+                        scriptGeneratorManager.getScripts(sequence));
+            }
+            addLoadSchemaStage(stages, stage);
+        }
+        GroupScriptsBy groupScriptsBy = getGroupScriptsBy();
+        if (groupScriptsBy == GroupScriptsBy.META_DATA) {
+            try {
+                for (MetaDataType objectType : newArrayList(SEQUENCE, TABLE, PRIMARY_KEY, INDEX, TRIGGER,
+                        COLUMN_TRIGGER, FOREIGN_KEY)) {
+                    if (contains(objectTypes, objectType)) {
+                        scriptGeneratorManager.setObjectTypes(singleton(objectType));
+                        addLoadSchemaStage(stages, getLoadSchemaStage(tables, scriptGeneratorManager));
+                    }
+                }
+            } finally {
+                scriptGeneratorManager.setObjectTypes(objectTypes);
+            }
+        } else {
+            addLoadSchemaStage(stages, getLoadSchemaStage(tables, scriptGeneratorManager));
+        }
+        return stages;
+    }
+
+    protected Collection<LoadSchemaScript> getLoadSchemaStage(Collection<Table> tables,
+                                                              ScriptGeneratorManager scriptGeneratorManager) {
+        Collection<LoadSchemaScript> stage = newArrayList();
+        for (Table table : tables) {
+            addLoadSchemaScript(stage, table, table.getSchema(), scriptGeneratorManager.getScripts(table));
+        }
+        return stage;
+    }
+
+    private static void addLoadSchemaScript(Collection<LoadSchemaScript> stage, Identifiable object, Schema schema,
+                                            Collection<String> scripts) {
+        if (!isEmpty(scripts)) {
+            stage.add(new LoadSchemaScript(object, schema, scripts));
+        }
+    }
+
+    private static void addLoadSchemaStage(List<Collection<LoadSchemaScript>> stages,
+                                           Collection<LoadSchemaScript> stage) {
+        if (!isEmpty(stage)) {
+            stages.add(stage);
+        }
+    }
+
+    /**
+     * Writes schema scripts to the script exporter if one is configured, scripts are exported stage by stage in the
+     * order of the objects, use schema script is added whenever the schema changes
+     *
+     * @param stages                 of schema scripts
+     * @param scriptGeneratorManager script generator manager
+     * @throws Exception if export failed
+     */
+    protected void exportScripts(Collection<Collection<LoadSchemaScript>> stages,
+                                 ScriptGeneratorManager scriptGeneratorManager) throws Exception {
+        ScriptExporter scriptExporter = getScriptExporter();
+        if (scriptExporter == null) {
+            return;
+        }
         try {
             scriptExporter.open();
-            scriptGeneratorManager.setObjectTypes(
-                    removeAll(newArrayList(objectTypes),
-                            newArrayList(PRIMARY_KEY, FOREIGN_KEY, INDEX)));
-            Collection<Table> tables = backupLoaderContext.getSourceTables();
-            Database database = backupLoaderContext.getBackup().getDatabase();
-            if (isEmpty(tables)) {
-                scriptExporter.exportScripts(scriptGeneratorManager.getScripts(database));
-            } else {
-                scriptExporter.exportScripts(getSequencesScripts(database, scriptGeneratorManager));
-                Schema schema = null;
-                for (Table table : tables) {
-                    if (schema == null || !schema.equals(table.getSchema())) {
+            Schema schema = null;
+            for (Collection<LoadSchemaScript> stage : stages) {
+                for (LoadSchemaScript loadSchemaScript : stage) {
+                    if (schema == null || !schema.equals(loadSchemaScript.getSchema())) {
                         scriptExporter.exportScript(getUseSchema(
-                                schema = table.getSchema(), scriptGeneratorManager));
+                                schema = loadSchemaScript.getSchema(), scriptGeneratorManager));
                     }
-                    scriptExporter.exportScripts(scriptGeneratorManager.getScripts(table));
+                    scriptExporter.exportScripts(loadSchemaScript.getScripts());
                 }
             }
-            Session targetSession = backupLoaderContext.getTargetSession();
-            targetSession.getConnection().commit();
         } finally {
             closeQuietly(scriptExporter);
-            scriptGeneratorManager.setObjectTypes(objectTypes);
         }
-        backupLoaderManager.loadSchemaDone();
     }
 
     protected Collection<String> getSequencesScripts(HasTables tables, ScriptGeneratorManager scriptGeneratorManager)
@@ -446,7 +640,8 @@ public class BackupLoader {
     }
 
     /**
-     * Load constraints for source tables without row sets
+     * Load constraints for source tables without row sets, constraints of the loaded tables are scheduled as soon as
+     * the tables are loaded
      *
      * @param backupLoaderManager to manage this load
      * @throws Exception if constraints loading caused error
@@ -454,22 +649,20 @@ public class BackupLoader {
     protected void loadConstraints(BackupLoaderManager backupLoaderManager) throws Exception {
         BackupLoaderContext backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
         LoadConstraints loadConstraints = backupLoaderContext.getLoadConstraints();
-        LoadConstraints loadConstraintsNow = new LoadConstraints(
-                loadConstraints.getLoadConstraints(INDEX, PRIMARY_KEY));
+        if (isEmpty(loadConstraints)) {
+            backupLoaderManager.loadConstraintsDone();
+            return;
+        }
+        Collection<Table> tables = newArrayList(backupLoaderContext.getSourceTables());
         LoadTables loadTables = backupLoaderContext.getLoadTables();
         if (!isEmpty(loadTables)) {
             for (LoadTable loadTable : loadTables) {
-                Table table = getTable(loadTable, backupLoaderContext);
-                if (table != null) {
-                    loadConstraintsNow.getLoadConstraints().removeAll(table);
-                }
+                tables.remove(getTable(loadTable, backupLoaderContext));
             }
         }
-        for (LoadConstraint loadConstraint : loadConstraintsNow) {
-            loadConstraint(loadConstraint, backupLoaderManager);
-        }
-        if (isEmpty(loadConstraints)) {
-            backupLoaderManager.loadConstraintsDone();
+        LoadConstraintScheduler loadConstraintScheduler = backupLoaderContext.getLoadConstraintScheduler();
+        for (Table table : tables) {
+            loadConstraintScheduler.loadTable(table, 0);
         }
     }
 
@@ -478,15 +671,6 @@ public class BackupLoader {
         executeWork(work, backupLoaderManager);
     }
 
-    protected void loadConstraints(Collection<LoadConstraint> loadConstraints,
-                                   BackupLoaderManager backupLoaderManager) {
-        if (!isEmpty(loadConstraints)) {
-            for (LoadConstraint loadConstraint : loadConstraints) {
-                loadConstraint(loadConstraint, backupLoaderManager);
-            }
-        }
-    }
-
     protected LoadConstraints createLoadConstraints(BackupLoaderContext backupLoaderContext) {
         LoadConstraints loadConstraints = new LoadConstraints();
         boolean loadIndex = contains(getObjectTypes(), INDEX);
@@ -577,7 +761,7 @@ public class BackupLoader {
         Backup backup = backupLoaderContext.getBackup();
         Database database = backup.getDatabase();
         for (RowSet rowSet : backup.getRowSets()) {
-            if (isEmpty(rowSet.getChunks())) {
+            if (!isLoadRowSet(rowSet, backupLoaderContext)) {
                 continue;
             }
             TableRowSet tableRowSet = rowSet instanceof TableRowSet ? (TableRowSet) rowSet : null;
@@ -600,6 +784,17 @@ public class BackupLoader {
         return loadTables;
     }
 
+    /**
+     * Checks whether a row set should be loaded, row sets without chunks are skipped
+     *
+     * @param rowSet              to check
+     * @param backupLoaderContext evaluation context
+     * @return true if row set has chunks to load
+     */
+    protected boolean isLoadRowSet(RowSet rowSet, BackupLoaderContext backupLoaderContext) {
+        return !isEmpty(rowSet.getChunks());
+    }
+
     protected void executeWork(final Work work, final BackupLoaderManager backupLoaderManager) {
         final BackupLoaderContext backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
         ForkJoinPool executor = (ForkJoinPool) backupLoaderContext.getExecutorService();
@@ -778,6 +973,59 @@ public class BackupLoader {
         this.parallelizer = parallelizer;
     }
 
+    /**
+     * Max number of rows decoded ahead of the loading thread by a dedicated reader thread, 0 turns prefetching off and
+     * rows are decoded by the loading thread itself
+     *
+     * @return number of rows to prefetch
+     */
+    public int getPrefetchSize() {
+        return prefetchSize;
+    }
+
+    public void setPrefetchSize(int prefetchSize) {
+        this.prefetchSize = prefetchSize;
+    }
+
+    /**
+     * Number of rows inserted by a single multi-row insert statement, 1 inserts rows one by one
+     *
+     * @return number of rows per insert statement
+     */
+    /**
+     * Tells whether to resume load failed previously, schema and rows recorded to the load journal are skipped
+     *
+     * @return true if load is resumed
+     */
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    public int getInsertRows() {
+        return insertRows;
+    }
+
+    public void setInsertRows(int insertRows) {
+        this.insertRows = insertRows;
+    }
+
+    /**
+     * Max number of indexes & primary keys built concurrently, 0 limits them by the number of threads only
+     *
+     * @return index threads
+     */
+    public int getIndexThreads() {
+        return indexThreads;
+    }
+
+    public void setIndexThreads(int indexThreads) {
+        this.indexThreads = indexThreads;
+    }
+
     public void addListener(BackupLoaderListener listener) {
         listeners.add(listener);
     }
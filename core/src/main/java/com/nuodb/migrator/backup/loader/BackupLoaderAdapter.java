@@ -39,10 +39,25 @@ public class BackupLoaderAdapter extends WorkAdapter
     public void onLoadStart(LoadChunkEvent event) {
     }
 
+    /**
+     * Adapters are row listeners by default, so that subclasses overriding {@link #onLoadRow(LoadRowEvent)} keep receiving row
+     * events. Subclasses not interested in rows should return false to spare creation of the row events.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isRowListener() {
+        return true;
+    }
+
     @Override
     public void onLoadRow(LoadRowEvent event) {
     }
 
+    @Override
+    public void onLoadProgress(LoadProgressEvent event) {
+    }
+
     @Override
     public void onLoadEnd(LoadChunkEvent event) {
     }
@@ -79,6 +79,15 @@ public interface BackupLoaderContext {
 
     void setExecutorService(ExecutorService executorService);
 
+    /**
+     * Executor running batches of the commit strategies executing batches in background
+     *
+     * @return batch executor or null if batches are executed by the loading threads
+     */
+    ExecutorService getBatchExecutor();
+
+    void setBatchExecutor(ExecutorService batchExecutor);
+
     Map<String,Object> getFormatAttributes();
 
     void setFormatAttributes(Map<String,Object> formatAttributes);
@@ -91,14 +100,40 @@ public interface BackupLoaderContext {
 
     void setParallelizer(Parallelizer parallelizer);
 
+    int getPrefetchSize();
+
+    void setPrefetchSize(int prefetchSize);
+
+    int getInsertRows();
+
+    void setInsertRows(int insertRows);
+
     InsertTypeFactory getInsertTypeFactory();
 
     void setInsertTypeFactory(InsertTypeFactory insertTypeFactory);
 
+    /**
+     * Journal of the loaded schema and committed rows, which is used to resume failed load
+     *
+     * @return load journal or null if journaling is off
+     */
+    LoadJournal getLoadJournal();
+
+    void setLoadJournal(LoadJournal loadJournal);
+
     LoadConstraints getLoadConstraints();
 
     void setLoadConstraints(LoadConstraints loadConstraints);
 
+    /**
+     * Schedules indexes, primary keys & foreign keys of the tables as their data is loaded
+     *
+     * @return load constraint scheduler or null if schema is not loaded
+     */
+    LoadConstraintScheduler getLoadConstraintScheduler();
+
+    void setLoadConstraintScheduler(LoadConstraintScheduler loadConstraintScheduler);
+
     LoadTables getLoadTables();
 
     void setLoadTables(LoadTables loadTables);
@@ -36,7 +36,22 @@ public interface BackupLoaderListener extends WorkListener {
 
     void onLoadStart(LoadChunkEvent event);
 
+    /**
+     * Tells whether the listener needs to be notified on each loaded row. Row events are created only if at least one
+     * of the listeners is a row listener, others should track progress with {@link #onLoadProgress(LoadProgressEvent)}
+     *
+     * @return true if {@link #onLoadRow(LoadRowEvent)} should be triggered for the listener
+     */
+    boolean isRowListener();
+
     void onLoadRow(LoadRowEvent event);
 
+    /**
+     * Triggered periodically with the number of rows loaded by the work since the previous progress event
+     *
+     * @param event containing details about the table and number of rows loaded
+     */
+    void onLoadProgress(LoadProgressEvent event);
+
     void onLoadEnd(LoadChunkEvent event);
 }
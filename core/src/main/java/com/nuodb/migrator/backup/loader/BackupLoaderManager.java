@@ -54,6 +54,8 @@ public interface BackupLoaderManager extends WorkManager<BackupLoaderListener> {
 
     void afterLoadRow(Work work, LoadTable loadTable, Row row);
 
+    void loadProgress(Work work, LoadTable loadTable, long rowCount);
+
     BackupLoaderContext getBackupLoaderContext();
 
     void setBackupLoaderContext(BackupLoaderContext backupLoaderContext);
@@ -27,20 +27,12 @@
  */
 package com.nuodb.migrator.backup.loader;
 
-import com.google.common.collect.Multimap;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.session.Work;
 import com.nuodb.migrator.jdbc.session.WorkEvent;
 
-import java.util.concurrent.atomic.AtomicBoolean;
-
-import static com.google.common.collect.ArrayListMultimap.create;
-import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Multimaps.synchronizedListMultimap;
-import static com.nuodb.migrator.jdbc.metadata.MetaDataType.*;
-
 /**
- * TODO: Refactor and replace with fork join task
+ * Tracks completion of table loads & constraint loads and passes them to the load constraint scheduler
  *
  * @author Sergey Bushik
  */
@@ -48,26 +40,28 @@ public class LoadConstraintListener extends BackupLoaderAdapter {
 
     private final BackupLoader backupLoader;
     private final BackupLoaderManager backupLoaderManager;
-    private final Multimap<Table, LoadConstraint> loadIndexes;
-    private final Multimap<Table, LoadConstraint> loadForeignKeys;
-    private final AtomicBoolean loadForeignKeysStart = new AtomicBoolean();
+    private final LoadConstraintScheduler loadConstraintScheduler;
 
-    public LoadConstraintListener(BackupLoader backupLoader, BackupLoaderManager backupLoaderManager) {
+    public LoadConstraintListener(BackupLoader backupLoader, BackupLoaderManager backupLoaderManager,
+                                  LoadConstraintScheduler loadConstraintScheduler) {
         this.backupLoader = backupLoader;
         this.backupLoaderManager = backupLoaderManager;
+        this.loadConstraintScheduler = loadConstraintScheduler;
+    }
 
-        LoadConstraints loadConstraints = backupLoaderManager.
-                getBackupLoaderContext().getLoadConstraints();
-        this.loadIndexes = synchronizedListMultimap(create(
-                loadConstraints.getLoadConstraints(INDEX, PRIMARY_KEY)));
-        this.loadForeignKeys = synchronizedListMultimap(create(
-                loadConstraints.getLoadConstraints(FOREIGN_KEY)));
+    /**
+     * Listens to table & constraint load completion only
+     *
+     * @return false
+     */
+    @Override
+    public boolean isRowListener() {
+        return false;
     }
 
     /**
-     * Tracks completion of load constraint work and updates list of queued indexes, primary keys & foreign keys. Once
-     * indexes are loaded foreign keys are started, eventually when all constraints are loaded corresponding signal will
-     * be called on sync object.
+     * Once table is loaded its indexes & primary key are scheduled, once constraint is loaded the next constraints,
+     * including foreign keys which tables have their keys loaded, are started.
      *
      * @param event defining work completion
      */
@@ -75,36 +69,18 @@ public class LoadConstraintListener extends BackupLoaderAdapter {
     public void onExecuteEnd(WorkEvent event) {
         Work work = event.getWork();
         if (work instanceof LoadTableWork) {
-            LoadTableWork loadTableWork = (LoadTableWork) work;
-            LoadTable loadTable = loadTableWork.getLoadTable();
+            LoadTable loadTable = ((LoadTableWork) work).getLoadTable();
             Table table = backupLoader.getTable(loadTable,
                     backupLoaderManager.getBackupLoaderContext());
             if (table != null) {
-                backupLoader.loadConstraints(newArrayList(
-                        loadIndexes.get(table)), backupLoaderManager);
+                loadConstraintScheduler.loadTable(table, loadTable.getRowSet().getRowCount());
             }
         } else if (work instanceof LoadConstraintWork) {
-            LoadConstraintWork loadConstraintWork = (LoadConstraintWork) work;
-            LoadConstraint loadConstraint = loadConstraintWork.getLoadConstraint();
-            loadIndexes.remove(loadConstraint.getTable(), loadConstraint);
-            loadForeignKeys.remove(loadConstraint.getTable(), loadConstraint);
-        }
-        loadForeignKeys();
-        loadConstraintsDone();
-    }
-
-    protected void loadForeignKeys() {
-        if (loadIndexes.isEmpty() && loadForeignKeysStart.compareAndSet(false, true)) {
-            for (LoadConstraint loadForeignKey : loadForeignKeys.values()) {
-                backupLoader.loadConstraint(loadForeignKey, backupLoaderManager);
-            }
+            loadConstraintScheduler.loadConstraintDone(((LoadConstraintWork) work).getLoadConstraint());
         }
     }
 
-    protected void loadConstraintsDone() {
-        // once all indexes & foreign keys are loaded shutdown pool and await for termination
-        if (loadIndexes.isEmpty() && loadForeignKeys.isEmpty()) {
-            backupLoaderManager.loadConstraintsDone();
-        }
+    public LoadConstraintScheduler getLoadConstraintScheduler() {
+        return loadConstraintScheduler;
     }
 }
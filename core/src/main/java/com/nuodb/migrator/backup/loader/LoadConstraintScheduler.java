@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.google.common.collect.Multimap;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.ForeignKey;
+import com.nuodb.migrator.jdbc.metadata.Index;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import org.slf4j.Logger;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import static com.google.common.collect.ArrayListMultimap.create;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.*;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Schedules loading of constraints once data of their tables is loaded. Indexes & primary keys of loaded tables are
+ * queued and started in the order of their estimated cost, which is a number of table rows multiplied by the width of
+ * the key, the most expensive first, so that a huge index is not left for the tail of the load. Number of indexes &
+ * primary keys built concurrently is limited by index threads, if it's positive. Foreign keys of a table are started
+ * as soon as keys of the table and of the referenced table are loaded.
+ *
+ * @author Sergey Bushik
+ */
+public class LoadConstraintScheduler {
+
+    /**
+     * Width of a key column, which size is unknown
+     */
+    public static final long COLUMN_WIDTH = 8;
+
+    /**
+     * Max width of a key column, wider columns are indexed by a prefix or are not indexed at all
+     */
+    public static final long MAX_COLUMN_WIDTH = 1024;
+
+    private final transient Logger logger = getLogger(getClass());
+
+    private final BackupLoader backupLoader;
+    private final BackupLoaderManager backupLoaderManager;
+    private final int indexThreads;
+    private final Multimap<Table, LoadConstraint> loadKeys;
+    private final Multimap<Table, LoadConstraint> loadForeignKeys;
+    private final Map<Table, Long> rowCounts = newHashMap();
+    private final Set<Table> loadedTables = newHashSet();
+    private final Map<LoadConstraint, Long> costs = newHashMap();
+    private final PriorityQueue<LoadConstraint> queue;
+    private int runningKeys;
+    private int runningForeignKeys;
+
+    public LoadConstraintScheduler(BackupLoader backupLoader, BackupLoaderManager backupLoaderManager,
+                                   int indexThreads) {
+        this.backupLoader = backupLoader;
+        this.backupLoaderManager = backupLoaderManager;
+        this.indexThreads = indexThreads;
+
+        LoadConstraints loadConstraints = backupLoaderManager.
+                getBackupLoaderContext().getLoadConstraints();
+        this.loadKeys = create(loadConstraints.getLoadConstraints(INDEX, PRIMARY_KEY));
+        this.loadForeignKeys = create(loadConstraints.getLoadConstraints(FOREIGN_KEY));
+        this.queue = new PriorityQueue<LoadConstraint>(11, new Comparator<LoadConstraint>() {
+            @Override
+            public int compare(LoadConstraint loadConstraint1, LoadConstraint loadConstraint2) {
+                long cost1 = costs.get(loadConstraint1);
+                long cost2 = costs.get(loadConstraint2);
+                return cost1 > cost2 ? -1 : (cost1 < cost2 ? 1 : 0);
+            }
+        });
+    }
+
+    /**
+     * Marks data of the table as loaded, queues its indexes & primary keys and starts as many of the queued ones as
+     * allowed
+     *
+     * @param table    which data is loaded
+     * @param rowCount number of loaded rows
+     */
+    public synchronized void loadTable(Table table, long rowCount) {
+        if (!loadedTables.add(table)) {
+            return;
+        }
+        rowCounts.put(table, rowCount);
+        for (LoadConstraint loadConstraint : loadKeys.get(table)) {
+            costs.put(loadConstraint, getCost(loadConstraint));
+            queue.add(loadConstraint);
+        }
+        schedule();
+    }
+
+    /**
+     * Removes completed constraint from the pending ones and starts the next constraints
+     *
+     * @param loadConstraint completed constraint
+     */
+    public synchronized void loadConstraintDone(LoadConstraint loadConstraint) {
+        if (loadKeys.remove(loadConstraint.getTable(), loadConstraint)) {
+            runningKeys--;
+        } else {
+            runningForeignKeys--;
+        }
+        schedule();
+    }
+
+    protected void schedule() {
+        while (!queue.isEmpty() && (indexThreads <= 0 || runningKeys < indexThreads)) {
+            LoadConstraint loadConstraint = queue.poll();
+            if (logger.isTraceEnabled()) {
+                logger.trace(format("Starting %s with estimated cost %d",
+                        loadConstraint.getConstraint().getName(), costs.get(loadConstraint)));
+            }
+            runningKeys++;
+            backupLoader.loadConstraint(loadConstraint, backupLoaderManager);
+        }
+        Collection<LoadConstraint> loadForeignKeysNow = newArrayList();
+        for (LoadConstraint loadForeignKey : loadForeignKeys.values()) {
+            ForeignKey foreignKey = (ForeignKey) loadForeignKey.getConstraint();
+            if (isKeysLoaded(foreignKey.getTable()) && isKeysLoaded(foreignKey.getPrimaryTable())) {
+                loadForeignKeysNow.add(loadForeignKey);
+            }
+        }
+        for (LoadConstraint loadForeignKey : loadForeignKeysNow) {
+            loadForeignKeys.remove(loadForeignKey.getTable(), loadForeignKey);
+            runningForeignKeys++;
+            backupLoader.loadConstraint(loadForeignKey, backupLoaderManager);
+        }
+        if (loadKeys.isEmpty() && loadForeignKeys.isEmpty() && runningForeignKeys == 0) {
+            backupLoaderManager.loadConstraintsDone();
+        }
+    }
+
+    /**
+     * Checks whether data of the table is loaded and all of its indexes & primary key are created. Table, which is
+     * not loaded by this load, has nothing to wait for.
+     *
+     * @param table to check
+     * @return true if foreign keys may reference or be added to the table
+     */
+    protected boolean isKeysLoaded(Table table) {
+        return (loadedTables.contains(table) || !isLoadTable(table)) && !loadKeys.containsKey(table);
+    }
+
+    protected boolean isLoadTable(Table table) {
+        Collection<Table> sourceTables = backupLoaderManager.getBackupLoaderContext().getSourceTables();
+        return sourceTables != null && sourceTables.contains(table);
+    }
+
+    /**
+     * Estimates cost of the constraint as a number of table rows multiplied by the width of the key
+     *
+     * @param loadConstraint to estimate
+     * @return estimated cost
+     */
+    protected long getCost(LoadConstraint loadConstraint) {
+        Long rowCount = rowCounts.get(loadConstraint.getTable());
+        long width = 0;
+        if (loadConstraint instanceof LoadIndexes) {
+            for (Index index : ((LoadIndexes) loadConstraint).getIndexes()) {
+                width += getWidth(index.getColumns());
+            }
+        } else {
+            width = getWidth(loadConstraint.getConstraint().getColumns());
+        }
+        return max(1, rowCount != null ? rowCount : 0) * max(1, width);
+    }
+
+    protected long getWidth(Collection<Column> columns) {
+        long width = 0;
+        for (Column column : columns) {
+            Long size = column.getSize();
+            width += size != null && size > 0 ? min(size, MAX_COLUMN_WIDTH) : COLUMN_WIDTH;
+        }
+        return width;
+    }
+
+    public int getIndexThreads() {
+        return indexThreads;
+    }
+}
@@ -0,0 +1,251 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.Journal;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newTreeMap;
+import static java.lang.Long.parseLong;
+import static java.lang.Math.max;
+import static java.lang.String.valueOf;
+
+/**
+ * Journal of the loaded schema and of the rows committed to the target. For each chunk the journal records the number
+ * of its leading rows which are all committed, rows are committed out of order when a chunk is shared by several
+ * loading threads, so ranges of rows committed ahead of the leading rows are recorded as well. On resume loading of a
+ * chunk starts at its first row which wasn't committed and rows of the ranges committed ahead are skipped, so none of
+ * the committed rows is loaded twice.
+ *
+ * @author Sergey Bushik
+ */
+public class LoadJournal extends Journal {
+
+    public static final String FILE = "load.journal";
+
+    private static final String SCHEMA = "schema";
+    private static final String CHUNK = "chunk";
+    private static final String ROWS = "rows";
+
+    private boolean schemaLoaded;
+    private final Map<String, ChunkRows> loadedRows = newHashMap();
+    private final Map<String, ChunkRows> chunkRows = newHashMap();
+    private final List<ChunkRows> changedChunkRows = newArrayList();
+
+    public LoadJournal(File file) {
+        super(file);
+    }
+
+    @Override
+    protected void read(List<String> record) {
+        String type = record.get(0);
+        if (SCHEMA.equals(type)) {
+            schemaLoaded = true;
+        } else if (CHUNK.equals(type)) {
+            long next = parseLong(record.get(2));
+            if (next > 0) {
+                getLoadedRows(record.get(1)).commitRows(0, next - 1);
+            }
+        } else if (ROWS.equals(type)) {
+            getLoadedRows(record.get(1)).commitRows(parseLong(record.get(2)), parseLong(record.get(3)));
+        }
+    }
+
+    protected ChunkRows getLoadedRows(String chunk) {
+        ChunkRows rows = loadedRows.get(chunk);
+        if (rows == null) {
+            loadedRows.put(chunk, rows = new ChunkRows(chunk));
+        }
+        return rows;
+    }
+
+    public boolean isSchemaLoaded() {
+        return schemaLoaded;
+    }
+
+    /**
+     * Records schema is loaded, so that it's not loaded again on resume
+     */
+    public synchronized void loadSchema() {
+        List<String> record = newArrayList();
+        record.add(SCHEMA);
+        write(record);
+        schemaLoaded = true;
+    }
+
+    /**
+     * Number of leading rows of each chunk committed by the previous run, which are skipped on resume
+     *
+     * @return map of chunk name to the number of committed rows
+     */
+    public Map<String, Long> getLoadedRows() {
+        Map<String, Long> loadedRows = newHashMap();
+        for (ChunkRows rows : this.loadedRows.values()) {
+            loadedRows.put(rows.chunk, rows.next);
+        }
+        return loadedRows;
+    }
+
+    /**
+     * Tells whether the row was committed by the previous run, either as one of the leading rows of the chunk or as a
+     * row of a range committed ahead of them
+     *
+     * @param chunk  chunk of the row
+     * @param number number of the row in the chunk
+     * @return true if the row should be skipped
+     */
+    public boolean isLoaded(Chunk chunk, long number) {
+        if (loadedRows.isEmpty()) {
+            return false;
+        }
+        ChunkRows rows = loadedRows.get(chunk.getName());
+        return rows != null && rows.isCommitted(number);
+    }
+
+    /**
+     * Accounts committed row, the change is recorded to the journal on {@link #flush()}
+     *
+     * @param chunk  chunk of the row
+     * @param number number of the row in the chunk
+     */
+    public void commitRow(Chunk chunk, long number) {
+        commitRows(chunk, number, number);
+    }
+
+    /**
+     * Accounts committed range of consecutive rows, the change is recorded to the journal on {@link #flush()}
+     *
+     * @param chunk chunk of the rows
+     * @param first number of the first row of the range
+     * @param last  number of the last row of the range
+     */
+    public synchronized void commitRows(Chunk chunk, long first, long last) {
+        ChunkRows rows = chunkRows.get(chunk.getName());
+        if (rows == null) {
+            ChunkRows loaded = loadedRows.get(chunk.getName());
+            chunkRows.put(chunk.getName(), rows = loaded != null ? new ChunkRows(loaded) :
+                    new ChunkRows(chunk.getName()));
+        }
+        if (rows.commitRows(first, last) && !rows.changed) {
+            rows.changed = true;
+            changedChunkRows.add(rows);
+        }
+    }
+
+    /**
+     * Records number of committed leading rows and ranges committed ahead of them for the chunks changed since the
+     * previous flush, flush is made once per commit, so the records are forced to the disk together with the last of
+     * them
+     */
+    public synchronized void flush() {
+        List<List<String>> records = newArrayList();
+        for (ChunkRows rows : changedChunkRows) {
+            List<String> record = newArrayList();
+            record.add(CHUNK);
+            record.add(rows.chunk);
+            record.add(valueOf(rows.next));
+            records.add(record);
+            for (Map.Entry<Long, Long> range : rows.ahead.entrySet()) {
+                record = newArrayList();
+                record.add(ROWS);
+                record.add(rows.chunk);
+                record.add(valueOf(range.getKey()));
+                record.add(valueOf(range.getValue()));
+                records.add(record);
+            }
+            rows.changed = false;
+        }
+        changedChunkRows.clear();
+        for (int index = 0; index < records.size(); index++) {
+            write(records.get(index), index == records.size() - 1);
+        }
+    }
+
+    static class ChunkRows {
+
+        private final String chunk;
+        private final NavigableMap<Long, Long> ahead;
+        private long next;
+        private boolean changed;
+
+        ChunkRows(String chunk) {
+            this.chunk = chunk;
+            this.ahead = newTreeMap();
+        }
+
+        ChunkRows(ChunkRows rows) {
+            this.chunk = rows.chunk;
+            this.ahead = newTreeMap(rows.ahead);
+            this.next = rows.next;
+        }
+
+        /**
+         * Ranges committed ahead of the next row are kept by their first row merged with the adjacent ones, until the
+         * gap before them is closed
+         *
+         * @return true if the next row or ranges ahead of it changed
+         */
+        boolean commitRows(long first, long last) {
+            if (last < next) {
+                return false;
+            }
+            first = max(first, next);
+            Map.Entry<Long, Long> range = ahead.floorEntry(first);
+            if (range != null && range.getValue() + 1 >= first) {
+                first = range.getKey();
+                last = max(last, range.getValue());
+                ahead.remove(range.getKey());
+            }
+            while ((range = ahead.ceilingEntry(first)) != null && range.getKey() <= last + 1) {
+                last = max(last, range.getValue());
+                ahead.remove(range.getKey());
+            }
+            if (first == next) {
+                next = last + 1;
+            } else {
+                ahead.put(first, last);
+            }
+            return true;
+        }
+
+        boolean isCommitted(long number) {
+            if (number < next) {
+                return true;
+            }
+            Map.Entry<Long, Long> range = ahead.floorEntry(number);
+            return range != null && range.getValue() >= number;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.jdbc.metadata.Identifiable;
+import com.nuodb.migrator.jdbc.metadata.generator.ScriptExporter;
+import com.nuodb.migrator.jdbc.metadata.generator.ScriptGeneratorManager;
+import com.nuodb.migrator.jdbc.metadata.generator.SessionScriptExporter;
+import com.nuodb.migrator.jdbc.session.WorkForkJoinTaskBase;
+
+import static com.nuodb.migrator.backup.BackupMessages.LOAD_SCHEMA_SCRIPT_WORK;
+import static com.nuodb.migrator.context.ContextUtils.getMessage;
+import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static com.nuodb.migrator.jdbc.metadata.generator.ScriptGeneratorUtils.getUseSchema;
+import static com.nuodb.migrator.utils.ReflectionUtils.getClassName;
+
+/**
+ * Executes schema scripts of a single sequence or table on its own target session
+ *
+ * @author Sergey Bushik
+ */
+public class LoadSchemaScriptWork extends WorkForkJoinTaskBase {
+
+    private LoadSchemaScript loadSchemaScript;
+    private BackupLoaderManager backupLoaderManager;
+    private BackupLoaderContext backupLoaderContext;
+    private ScriptExporter scriptExporter;
+
+    public LoadSchemaScriptWork(LoadSchemaScript loadSchemaScript, BackupLoaderManager backupLoaderManager) {
+        super(backupLoaderManager, backupLoaderManager.getBackupLoaderContext().getTargetSessionFactory());
+        this.loadSchemaScript = loadSchemaScript;
+        this.backupLoaderManager = backupLoaderManager;
+    }
+
+    @Override
+    public String getName() {
+        ScriptGeneratorManager scriptGeneratorManager =
+                backupLoaderManager.getBackupLoaderContext().getScriptGeneratorManager();
+        Identifiable object = loadSchemaScript.getObject();
+        return getMessage(LOAD_SCHEMA_SCRIPT_WORK, getMessage(getClassName(object.getClass())),
+                scriptGeneratorManager.getName(object));
+    }
+
+    @Override
+    protected void init() throws Exception {
+        backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
+        scriptExporter = new SessionScriptExporter(getSession());
+        scriptExporter.open();
+    }
+
+    @Override
+    public void execute() throws Exception {
+        if (backupLoaderManager.canExecute(this)) {
+            ScriptGeneratorManager scriptGeneratorManager = backupLoaderContext.getScriptGeneratorManager();
+            scriptExporter.exportScript(getUseSchema(loadSchemaScript.getSchema(), scriptGeneratorManager));
+            scriptExporter.exportScripts(loadSchemaScript.getScripts());
+            getSession().getConnection().commit();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        closeQuietly(scriptExporter);
+        super.close();
+    }
+
+    public LoadSchemaScript getLoadSchemaScript() {
+        return loadSchemaScript;
+    }
+}
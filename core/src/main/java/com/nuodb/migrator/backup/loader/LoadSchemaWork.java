@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.jdbc.session.WorkForkJoinTaskBase;
+
+import java.util.Collection;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.backup.BackupMessages.LOAD_SCHEMA_WORK;
+import static com.nuodb.migrator.context.ContextUtils.getMessage;
+
+/**
+ * Loads schema scripts stage by stage, scripts of a stage are independent from each other and are executed
+ * concurrently on separate target sessions, while the next stage is started once the previous one is completed.
+ *
+ * @author Sergey Bushik
+ */
+public class LoadSchemaWork extends WorkForkJoinTaskBase {
+
+    private List<Collection<LoadSchemaScript>> stages;
+    private BackupLoaderManager backupLoaderManager;
+
+    public LoadSchemaWork(List<Collection<LoadSchemaScript>> stages, BackupLoaderManager backupLoaderManager) {
+        super(backupLoaderManager, backupLoaderManager.getBackupLoaderContext().getTargetSession());
+        this.stages = stages;
+        this.backupLoaderManager = backupLoaderManager;
+    }
+
+    @Override
+    public String getName() {
+        return getMessage(LOAD_SCHEMA_WORK);
+    }
+
+    @Override
+    public void execute() throws Exception {
+        for (Collection<LoadSchemaScript> stage : stages) {
+            if (!backupLoaderManager.canExecute(this)) {
+                break;
+            }
+            Collection<LoadSchemaScriptWork> loadSchemaScriptWorks = newArrayList();
+            for (LoadSchemaScript loadSchemaScript : stage) {
+                LoadSchemaScriptWork loadSchemaScriptWork =
+                        new LoadSchemaScriptWork(loadSchemaScript, backupLoaderManager);
+                loadSchemaScriptWork.fork();
+                loadSchemaScriptWorks.add(loadSchemaScriptWork);
+            }
+            for (LoadSchemaScriptWork loadSchemaScriptWork : loadSchemaScriptWorks) {
+                loadSchemaScriptWork.join();
+            }
+        }
+    }
+
+    public List<Collection<LoadSchemaScript>> getStages() {
+        return stages;
+    }
+}
@@ -30,19 +30,29 @@ package com.nuodb.migrator.backup.loader;
 import com.google.common.base.Function;
 import com.nuodb.migrator.backup.Column;
 import com.nuodb.migrator.backup.format.value.Row;
+import com.nuodb.migrator.backup.format.value.RowCodec;
 import com.nuodb.migrator.backup.format.value.RowReader;
-import com.nuodb.migrator.backup.format.value.Value;
-import com.nuodb.migrator.backup.format.value.ValueHandle;
-import com.nuodb.migrator.backup.format.value.ValueHandleList;
 import com.nuodb.migrator.backup.format.value.ValueHandleListBuilder;
+import com.nuodb.migrator.jdbc.commit.AsyncCommitExecutor;
+import com.nuodb.migrator.jdbc.commit.AsyncCommitStrategy;
 import com.nuodb.migrator.jdbc.commit.BatchCommitStrategy;
 import com.nuodb.migrator.jdbc.commit.CommitExecutor;
 import com.nuodb.migrator.jdbc.commit.CommitStrategy;
+import com.nuodb.migrator.jdbc.commit.JournaledCommitExecutor;
 import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.query.InsertQuery;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.WorkForkJoinTaskBase;
 import org.slf4j.Logger;
 
+import java.io.IOException;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Lists.newArrayList;
@@ -50,16 +60,33 @@ import static com.nuodb.migrator.backup.BackupMessages.LOAD_TABLE_FORK_WORK;
 import static com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.newBuilder;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
 import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
- * Table loader parallelized on row level
+ * Table loader parallelized on row level. If insert rows of the loader context is greater than one, rows are grouped
+ * and inserted with a single multi-row INSERT ... VALUES (...), (...) statement per group. If the commit strategy
+ * executes batches in background, the insert is prepared once more on a separate target session, so that rows are
+ * bound to one statement while the batch of the other one is executed and committed with its own connection on the
+ * batch executor. Rows committed by the previous run ahead of the leading committed rows of their chunks are skipped on
+ * resume.
  *
  * @author Sergey Bushik
  */
 @SuppressWarnings("all")
 public class LoadTableForkWork extends WorkForkJoinTaskBase {
 
+    /**
+     * Max number of parameters of a multi-row insert statement
+     */
+    public static final int MAX_PARAMETERS = 32767;
+
+    /**
+     * Number of rows loaded between progress events
+     */
+    public static final int PROGRESS_ROWS = 1000;
+
     private transient Logger logger = getLogger(getClass());
 
     private LoadTable loadTable;
@@ -68,8 +95,18 @@ public class LoadTableForkWork extends WorkForkJoinTaskBase {
     private BackupLoaderManager backupLoaderManager;
     private BackupLoaderContext backupLoaderContext;
     private PreparedStatement statement;
+    private Session nextSession;
+    private PreparedStatement nextStatement;
+    private Map<PreparedStatement, RowCodec[]> statementRowCodecs =
+            new IdentityHashMap<PreparedStatement, RowCodec[]>();
     private CommitExecutor commitExecutor;
-    private ValueHandleList valueHandleList;
+    private RowCodec[] rowCodecs;
+    private Row[] rows;
+    private int size;
+    private long progressRows;
+    private LoadJournal loadJournal;
+    private RowRanges executedRows;
+    private long journaledRows;
 
     public LoadTableForkWork(LoadTable loadTable, RowReader rowReader, int thread,
                              BackupLoaderManager backupLoaderManager) {
@@ -88,39 +125,204 @@ public class LoadTableForkWork extends WorkForkJoinTaskBase {
     @Override
     protected void init() throws Exception {
         backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
-        statement = getSession().getConnection().prepareStatement(loadTable.getQuery().toString());
-        CommitStrategy commitStrategy = backupLoaderContext.getCommitStrategy() != null ?
+        loadJournal = backupLoaderContext.getLoadJournal();
+        if (loadJournal != null) {
+            executedRows = new RowRanges();
+        }
+        rows = new Row[getInsertRows()];
+        Query query = createQuery(rows.length);
+        statement = getSession().getConnection().prepareStatement(query.toString());
+        CommitStrategy commitStrategy = getCommitStrategy();
+        Executor batchExecutor = backupLoaderContext.getBatchExecutor();
+        if (commitStrategy instanceof AsyncCommitStrategy && batchExecutor != null) {
+            nextSession = backupLoaderContext.getTargetSessionFactory().openSession();
+            nextStatement = nextSession.getConnection().prepareStatement(query.toString());
+            commitExecutor = ((AsyncCommitStrategy) commitStrategy).createCommitExecutor(
+                    statement, nextStatement, query, batchExecutor);
+        } else {
+            commitExecutor = createCommitExecutor(statement, query);
+        }
+    }
+
+    /**
+     * Resolves number of rows inserted by a single statement, multi-row inserts are used only with insert queries
+     * having columns and are limited by the max number of statement parameters.
+     *
+     * @return number of rows per insert statement
+     */
+    protected int getInsertRows() {
+        int insertRows = max(1, backupLoaderContext.getInsertRows());
+        Query query = loadTable.getQuery();
+        if (insertRows > 1 && query instanceof InsertQuery) {
+            int columns = ((InsertQuery) query).getColumns().size();
+            return columns > 0 ? max(1, min(insertRows, MAX_PARAMETERS / columns)) : 1;
+        } else {
+            return 1;
+        }
+    }
+
+    protected Query createQuery(int rows) {
+        Query query = loadTable.getQuery();
+        if (rows > 1) {
+            InsertQuery insertQuery = (InsertQuery) query;
+            InsertQuery multiRowInsertQuery = new InsertQuery();
+            multiRowInsertQuery.setInsertType(insertQuery.getInsertType());
+            multiRowInsertQuery.setDialect(insertQuery.getDialect());
+            multiRowInsertQuery.setInto(insertQuery.getInto());
+            multiRowInsertQuery.setColumns(insertQuery.getColumns());
+            multiRowInsertQuery.setQualifyNames(insertQuery.isQualifyNames());
+            multiRowInsertQuery.setRows(rows);
+            query = multiRowInsertQuery;
+        }
+        return query;
+    }
+
+    protected CommitExecutor createCommitExecutor(PreparedStatement statement, Query query) {
+        return getCommitStrategy().createCommitExecutor(statement, query);
+    }
+
+    protected CommitStrategy getCommitStrategy() {
+        return backupLoaderContext.getCommitStrategy() != null ?
                 backupLoaderContext.getCommitStrategy() : new BatchCommitStrategy();
-        commitExecutor = commitStrategy.createCommitExecutor(statement, loadTable.getQuery());
     }
 
     @Override
     public void execute() throws Exception {
-        try {
-            Row row;
-            while ((row = rowReader.readRow()) != null && backupLoaderManager.canExecute(this)) {
-                backupLoaderManager.beforeLoadRow(this, loadTable, row);
-                int index = 0;
-                Value[] values = row.getValues();
-                initValueHandleList();
-                for (ValueHandle valueHandle : valueHandleList) {
-                    valueHandle.getValueFormat().setValue(values[index++],
-                            valueHandle.getJdbcValueAccess(), valueHandle.getJdbcValueAccessOptions());
-                }
+        Row row;
+        while ((row = rowReader.readRow()) != null && backupLoaderManager.canExecute(this)) {
+            if (loadJournal != null && loadJournal.isLoaded(row.getChunk(), row.getNumber())) {
+                continue;
+            }
+            backupLoaderManager.beforeLoadRow(this, loadTable, row);
+            if (size == 0) {
+                rowCodecs = getRowCodecs((PreparedStatement) commitExecutor.getStatement());
+            }
+            rowCodecs[size].setValues(row.getValues());
+            rows[size++] = row;
+            if (size == rows.length) {
                 commitExecutor.execute();
-                backupLoaderManager.afterLoadRow(this, loadTable, row);
+                afterLoadRows();
+                journalRows(getCommittedRows(false));
             }
+        }
+        commitExecutor.finish();
+        journalRows(getCommittedRows(true));
+        if (size > 0) {
+            loadRows();
+        }
+        loadProgress();
+    }
+
+    /**
+     * Inserts rows left over after the last full group with a statement prepared for the number of remaining rows
+     *
+     * @throws SQLException if insert fails
+     */
+    protected void loadRows() throws SQLException, IOException {
+        Query query = createQuery(size);
+        PreparedStatement statement = getSession().getConnection().prepareStatement(query.toString());
+        try {
+            RowCodec[] rowCodecs = createRowCodecs(getSession().getConnection(), statement, size);
+            for (int index = 0; index < size; index++) {
+                rowCodecs[index].setValues(rows[index].getValues());
+            }
+            CommitExecutor commitExecutor = createCommitExecutor(statement, query);
+            commitExecutor.execute();
             commitExecutor.finish();
-        } catch (Exception exception) {
-            System.out.println("--> LoadTableForkWork.execute: " + this.getLoadTable().getTable().getQualifiedName());
-            exception.printStackTrace();
-            throw exception;
+            afterLoadRows();
+            if (executedRows != null) {
+                journalRows(journaledRows + executedRows.getRows());
+            }
+        } finally {
+            closeQuietly(statement);
         }
     }
 
-    protected void initValueHandleList() {
-        if (valueHandleList == null) {
-            ValueHandleListBuilder builder = newBuilder(getSession().getConnection(), statement);
+    protected void afterLoadRows() throws IOException {
+        for (int index = 0; index < size; index++) {
+            backupLoaderManager.afterLoadRow(this, loadTable, rows[index]);
+            if (executedRows != null) {
+                executedRows.add(rows[index].getChunk(), rows[index].getNumber());
+            }
+            rows[index] = null;
+        }
+        progressRows += size;
+        size = 0;
+        if (progressRows >= PROGRESS_ROWS) {
+            loadProgress();
+        }
+    }
+
+    /**
+     * Counts rows committed by the commit executor, executions of a commit executor not tracking its commits are
+     * committed once it's finished
+     *
+     * @param finished true if the commit executor is finished
+     * @return number of rows committed by this work
+     */
+    protected long getCommittedRows(boolean finished) {
+        if (commitExecutor instanceof JournaledCommitExecutor) {
+            return ((JournaledCommitExecutor) commitExecutor).getCommitted() * rows.length;
+        } else {
+            return finished && executedRows != null ? journaledRows + executedRows.getRows() : journaledRows;
+        }
+    }
+
+    /**
+     * Records rows executed by the statements committed so far to the load journal, rows are queued as ranges in the
+     * order they are executed, so the first committed rows are at the head of the queue
+     *
+     * @param committedRows number of rows committed by this work
+     * @throws IOException if queued ranges can't be read
+     */
+    protected void journalRows(long committedRows) throws IOException {
+        if (executedRows != null && journaledRows < committedRows) {
+            journaledRows += executedRows.commit(committedRows - journaledRows, loadJournal);
+            loadJournal.flush();
+        }
+    }
+
+    /**
+     * Reports number of rows loaded since the previous progress event, if any
+     */
+    protected void loadProgress() {
+        if (progressRows > 0) {
+            backupLoaderManager.loadProgress(this, loadTable, progressRows);
+            progressRows = 0;
+        }
+    }
+
+    /**
+     * Returns row codecs of the statement the commit executor binds the next rows to, codecs are created once per
+     * statement
+     *
+     * @param statement to bind rows to
+     * @return row codecs
+     */
+    protected RowCodec[] getRowCodecs(PreparedStatement statement) {
+        RowCodec[] rowCodecs = statementRowCodecs.get(statement);
+        if (rowCodecs == null) {
+            Connection connection = statement == nextStatement ?
+                    nextSession.getConnection() : getSession().getConnection();
+            statementRowCodecs.put(statement, rowCodecs = createRowCodecs(connection, statement, rows.length));
+        }
+        return rowCodecs;
+    }
+
+    /**
+     * Creates row codec for each of the rows bound to the statement, parameters of a row follow parameters of the
+     * previous one
+     *
+     * @param connection of the statement, which creates LOB values
+     * @param statement  to bind rows to
+     * @param rows       number of rows inserted by the statement
+     * @return row codecs
+     */
+    protected RowCodec[] createRowCodecs(Connection connection, PreparedStatement statement, int rows) {
+        RowCodec[] rowCodecs = new RowCodec[rows];
+        int columns = loadTable.getRowSet().getColumns().size();
+        for (int row = 0; row < rows; row++) {
+            ValueHandleListBuilder builder = newBuilder(connection, statement, row * columns + 1);
             builder.withDialect(getSession().getDialect());
             builder.withFields(newArrayList(transform(loadTable.getRowSet().getColumns(),
                     new Function<Column, Field>() {
@@ -131,14 +333,23 @@ public class LoadTableForkWork extends WorkForkJoinTaskBase {
                     })));
             builder.withTimeZone(backupLoaderContext.getTimeZone());
             builder.withValueFormatRegistry(backupLoaderContext.getValueFormatRegistry());
-            valueHandleList = builder.build();
+            rowCodecs[row] = new RowCodec(builder.build());
         }
+        return rowCodecs;
     }
 
     @Override
     public void close() throws Exception {
+        if (commitExecutor instanceof AsyncCommitExecutor) {
+            ((AsyncCommitExecutor) commitExecutor).close();
+        }
         super.close();
         closeQuietly(statement);
+        closeQuietly(nextStatement);
+        closeQuietly(nextSession);
+        if (executedRows != null) {
+            executedRows.release();
+        }
     }
 
     public int getThread() {
@@ -148,4 +359,4 @@ public class LoadTableForkWork extends WorkForkJoinTaskBase {
     public LoadTable getLoadTable() {
         return loadTable;
     }
-}
\ No newline at end of file
+}
@@ -32,11 +32,12 @@ import com.nuodb.migrator.jdbc.session.WorkForkJoinTaskBase;
 import org.slf4j.Logger;
 
 import java.util.Collection;
+import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.backup.BackupMessages.LOAD_TABLE_WORK;
-import static com.nuodb.migrator.backup.format.value.RowReaders.newSequentialRowReader;
-import static com.nuodb.migrator.backup.format.value.RowReaders.newSynchronizedRowReader;
+import static com.nuodb.migrator.backup.format.value.RowReaders.newParallelRowReaders;
+import static com.nuodb.migrator.backup.format.value.RowReaders.newPrefetchRowReaders;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
 import static org.apache.commons.io.IOUtils.closeQuietly;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -53,7 +54,7 @@ public class LoadTableWork extends WorkForkJoinTaskBase {
 
     private LoadTable loadTable;
     private BackupLoaderManager backupLoaderManager;
-    private RowReader rowReader;
+    private List<RowReader> rowReaders;
 
     public LoadTableWork(LoadTable loadTable, BackupLoaderManager backupLoaderManager) {
         super(backupLoaderManager, backupLoaderManager.getBackupLoaderContext().getTargetSession());
@@ -68,15 +69,27 @@ public class LoadTableWork extends WorkForkJoinTaskBase {
 
     @Override
     protected void init() throws Exception {
+        rowReaders = createRowReaders();
+    }
+
+    /**
+     * Creates row reader for each of the table threads. Chunks are assigned to the readers as they are consumed, so
+     * parsing of the table chunks is parallelized along with the statement execution. If prefetching is on rows are
+     * decoded ahead on tasks of the loader executor while the loading threads are waiting for batches to be executed.
+     * Rows committed by the previous run and recorded to the load journal are skipped.
+     *
+     * @return list of row readers, one per thread
+     */
+    protected List<RowReader> createRowReaders() {
         BackupLoaderContext backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
-        RowReader rowReader = newSequentialRowReader(
+        LoadJournal loadJournal = backupLoaderContext.getLoadJournal();
+        List<RowReader> rowReaders = newParallelRowReaders(
                 loadTable.getRowSet(), backupLoaderContext.getBackupOps(),
-                backupLoaderContext.getFormatFactory(), backupLoaderContext.getFormatAttributes());
-        int threads = loadTable.getThreads();
-        if (threads > 1) {
-            rowReader = newSynchronizedRowReader(rowReader);
-        }
-        this.rowReader = rowReader;
+                backupLoaderContext.getFormatFactory(), backupLoaderContext.getFormatAttributes(),
+                loadTable.getThreads(), loadJournal != null ? loadJournal.getLoadedRows() : null);
+        int prefetchSize = backupLoaderContext.getPrefetchSize();
+        return prefetchSize > 0 ? newPrefetchRowReaders(rowReaders, prefetchSize,
+                backupLoaderContext.getExecutorService()) : rowReaders;
     }
 
     @Override
@@ -84,7 +97,7 @@ public class LoadTableWork extends WorkForkJoinTaskBase {
         Collection<LoadTableForkWork> loadTableForkWorks = newArrayList();
         for (int thread = 0; thread < loadTable.getThreads(); thread++) {
             LoadTableForkWork loadTableForkWork = new LoadTableForkWork(
-                    loadTable, rowReader, thread, backupLoaderManager);
+                    loadTable, rowReaders.get(thread), thread, backupLoaderManager);
             loadTableForkWork.fork();
             loadTableForkWorks.add(loadTableForkWork);
         }
@@ -96,7 +109,11 @@ public class LoadTableWork extends WorkForkJoinTaskBase {
     @Override
     public void close() throws Exception {
         super.close();
-        closeQuietly(rowReader);
+        if (rowReaders != null) {
+            for (RowReader rowReader : rowReaders) {
+                closeQuietly(rowReader);
+            }
+        }
     }
 
     public LoadTable getLoadTable() {
@@ -27,20 +27,32 @@
  */
 package com.nuodb.migrator.backup.loader;
 
+import com.nuodb.migrator.backup.BackupOps;
 import com.nuodb.migrator.jdbc.session.WorkRunnableBase;
 import com.nuodb.migrator.utils.concurrent.ForkJoinTask;
+import org.slf4j.Logger;
 
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.backup.BackupMessages.LOAD_TABLES_WORK;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
+import static java.lang.String.format;
+import static java.util.Collections.sort;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
+ * Forks load table work per table. Tables are started in the order of the size of their row sets, the largest first,
+ * so that a large table is not left for the tail of the load.
+ *
  * @author Sergey Bushik
  */
 public class LoadTablesWork extends WorkRunnableBase {
 
+    private transient Logger logger = getLogger(getClass());
+
     private BackupLoaderManager backupLoaderManager;
 
     public LoadTablesWork(BackupLoaderManager backupLoaderManager) {
@@ -57,14 +69,52 @@ public class LoadTablesWork extends WorkRunnableBase {
     public void execute() throws Exception {
         LoadTables loadTables = backupLoaderManager.getBackupLoaderContext().getLoadTables();
         Collection<LoadTableWork> loadTableWorks = newArrayList();
-        for (LoadTable loadTable : loadTables) {
-            LoadTableWork loadTableWork = new LoadTableWork(loadTable, backupLoaderManager);
-            loadTableWork.fork();
-            loadTableWorks.add(loadTableWork);
+        for (LoadTable loadTable : getLoadTables(loadTables)) {
+            loadTableWorks.add(forkLoadTable(loadTable));
         }
         for (LoadTableWork loadTableWork : loadTableWorks) {
             loadTableWork.join();
         }
         backupLoaderManager.loadDataDone();
     }
+
+    /**
+     * Forks work loading the table
+     *
+     * @param loadTable to load
+     * @return forked work to join
+     * @throws Exception if the work can't be forked
+     */
+    protected LoadTableWork forkLoadTable(LoadTable loadTable) throws Exception {
+        LoadTableWork loadTableWork = new LoadTableWork(loadTable, backupLoaderManager);
+        loadTableWork.fork();
+        return loadTableWork;
+    }
+
+    /**
+     * Orders tables by the size of their row sets, the largest first
+     *
+     * @param loadTables to order
+     * @return ordered tables
+     */
+    protected List<LoadTable> getLoadTables(LoadTables loadTables) {
+        final BackupOps backupOps = backupLoaderManager.getBackupLoaderContext().getBackupOps();
+        List<LoadTable> orderedLoadTables = newArrayList(loadTables);
+        sort(orderedLoadTables, new Comparator<LoadTable>() {
+            @Override
+            public int compare(LoadTable loadTable1, LoadTable loadTable2) {
+                long size1 = loadTable1.getRowSet().getSize(backupOps);
+                long size2 = loadTable2.getRowSet().getSize(backupOps);
+                return size1 > size2 ? -1 : (size1 < size2 ? 1 : 0);
+            }
+        });
+        if (logger.isDebugEnabled()) {
+            for (LoadTable loadTable : orderedLoadTables) {
+                logger.debug(format("Planned %s row set of %d bytes with %d thread(s)",
+                        loadTable.getRowSet().getName(), loadTable.getRowSet().getSize(backupOps),
+                        loadTable.getThreads()));
+            }
+        }
+        return orderedLoadTables;
+    }
 }
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.backup.Chunk;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.io.File.createTempFile;
+import static java.lang.Math.min;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Queue of executed rows awaiting commit, kept as ranges of consecutive rows of a chunk in the order they are
+ * executed. Ranges are held in primitive arrays, so that no object is allocated per row, and are spilled to a
+ * temporary file once the arrays are full, which keeps memory bounded when a statement commits late, as with a
+ * single commit at the end of the load, or when rows of a chunk shared by several threads interleave.
+ *
+ * @author Sergey Bushik
+ */
+public class RowRanges {
+
+    /**
+     * Default number of ranges held in memory before the ranges are spilled to a file
+     */
+    public static final int CAPACITY = 4096;
+
+    private final int capacity;
+    private final List<Chunk> chunks = newArrayList();
+    private final Map<Chunk, Integer> chunkIndexes = newHashMap();
+    private final int[] chunkIndex;
+    private final long[] first;
+    private final long[] last;
+    private int head;
+    private int tail;
+
+    private File file;
+    private DataOutputStream output;
+    private DataInputStream input;
+    private long spilled;
+    private long unspilled;
+
+    private int currentChunk = -1;
+    private long currentFirst;
+    private long currentLast;
+    private long rows;
+
+    public RowRanges() {
+        this(CAPACITY);
+    }
+
+    public RowRanges(int capacity) {
+        this.capacity = capacity;
+        this.chunkIndex = new int[capacity];
+        this.first = new long[capacity];
+        this.last = new long[capacity];
+    }
+
+    /**
+     * Appends executed row, the row extends the last range if it follows the last row of the same chunk
+     *
+     * @param chunk  chunk of the row
+     * @param number number of the row in the chunk
+     * @throws IOException if ranges can't be spilled to the file
+     */
+    public void add(Chunk chunk, long number) throws IOException {
+        int index = getChunkIndex(chunk);
+        if (tail > head && chunkIndex[tail - 1] == index && last[tail - 1] + 1 == number) {
+            last[tail - 1] = number;
+        } else {
+            if (tail == capacity) {
+                compact();
+            }
+            chunkIndex[tail] = index;
+            first[tail] = number;
+            last[tail] = number;
+            tail++;
+        }
+        rows++;
+    }
+
+    /**
+     * Removes given number of the first rows from the queue, recording them to the load journal as committed
+     *
+     * @param rows        number of committed rows
+     * @param loadJournal to record committed rows to
+     * @return number of rows removed from the queue
+     * @throws IOException if ranges can't be read from the file
+     */
+    public long commit(long rows, LoadJournal loadJournal) throws IOException {
+        long committed = 0;
+        while (committed < rows && (currentChunk >= 0 || poll())) {
+            long count = min(rows - committed, currentLast - currentFirst + 1);
+            loadJournal.commitRows(chunks.get(currentChunk), currentFirst, currentFirst + count - 1);
+            currentFirst += count;
+            if (currentFirst > currentLast) {
+                currentChunk = -1;
+            }
+            committed += count;
+        }
+        this.rows -= committed;
+        return committed;
+    }
+
+    /**
+     * Number of queued rows
+     *
+     * @return number of rows
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    protected int getChunkIndex(Chunk chunk) {
+        Integer index = chunkIndexes.get(chunk);
+        if (index == null) {
+            chunkIndexes.put(chunk, index = chunks.size());
+            chunks.add(chunk);
+        }
+        return index;
+    }
+
+    /**
+     * Frees space at the end of the arrays, either by shifting ranges left behind by already polled ones or by
+     * spilling all of the ranges to the file, ranges in the file precede ones in memory
+     *
+     * @throws IOException if ranges can't be written
+     */
+    protected void compact() throws IOException {
+        if (head > 0) {
+            int length = tail - head;
+            System.arraycopy(chunkIndex, head, chunkIndex, 0, length);
+            System.arraycopy(first, head, first, 0, length);
+            System.arraycopy(last, head, last, 0, length);
+            head = 0;
+            tail = length;
+        } else {
+            if (output == null) {
+                file = createTempFile("nuodb-migrator", "rows");
+                file.deleteOnExit();
+                output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            }
+            for (int index = head; index < tail; index++) {
+                output.writeInt(chunkIndex[index]);
+                output.writeLong(first[index]);
+                output.writeLong(last[index]);
+            }
+            output.flush();
+            unspilled += tail - head;
+            head = 0;
+            tail = 0;
+        }
+    }
+
+    /**
+     * Takes the first range either from the file or from memory
+     *
+     * @return true if range was taken
+     * @throws IOException if ranges can't be read
+     */
+    protected boolean poll() throws IOException {
+        if (spilled < unspilled) {
+            if (input == null) {
+                input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            }
+            currentChunk = input.readInt();
+            currentFirst = input.readLong();
+            currentLast = input.readLong();
+            if (++spilled == unspilled) {
+                release();
+            }
+            return true;
+        } else if (head < tail) {
+            currentChunk = chunkIndex[head];
+            currentFirst = first[head];
+            currentLast = last[head];
+            if (++head == tail) {
+                head = 0;
+                tail = 0;
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Closes and removes the file the ranges are spilled to, if any
+     */
+    public void release() {
+        closeQuietly(input);
+        closeQuietly(output);
+        if (file != null) {
+            file.delete();
+        }
+        input = null;
+        output = null;
+        file = null;
+        spilled = 0;
+        unspilled = 0;
+    }
+}
@@ -65,12 +65,17 @@ public class SimpleBackupLoaderContext implements BackupLoaderContext {
     private CommitStrategy commitStrategy;
     private Database database;
     private ExecutorService executorService;
+    private ExecutorService batchExecutor;
     private FormatFactory formatFactory;
     private Map<String,Object> formatAttributes;
     private InsertTypeFactory insertTypeFactory;
     private LoadConstraints loadConstraints;
+    private LoadConstraintScheduler loadConstraintScheduler;
     private LoadTables loadTables;
     private Parallelizer parallelizer;
+    private int prefetchSize;
+    private int insertRows;
+    private LoadJournal loadJournal;
     private Collection<MigrationMode> migrationModes;
     private RowSetMapper rowSetMapper;
     private ConnectionSpec sourceSpec;
@@ -155,6 +160,16 @@ public class SimpleBackupLoaderContext implements BackupLoaderContext {
         this.executorService = executorService;
     }
 
+    @Override
+    public ExecutorService getBatchExecutor() {
+        return batchExecutor;
+    }
+
+    @Override
+    public void setBatchExecutor(ExecutorService batchExecutor) {
+        this.batchExecutor = batchExecutor;
+    }
+
     @Override
     public Map<String, Object> getFormatAttributes() {
         return formatAttributes;
@@ -185,6 +200,36 @@ public class SimpleBackupLoaderContext implements BackupLoaderContext {
         this.parallelizer = parallelizer;
     }
 
+    @Override
+    public int getPrefetchSize() {
+        return prefetchSize;
+    }
+
+    @Override
+    public void setPrefetchSize(int prefetchSize) {
+        this.prefetchSize = prefetchSize;
+    }
+
+    @Override
+    public int getInsertRows() {
+        return insertRows;
+    }
+
+    @Override
+    public void setInsertRows(int insertRows) {
+        this.insertRows = insertRows;
+    }
+
+    @Override
+    public LoadJournal getLoadJournal() {
+        return loadJournal;
+    }
+
+    @Override
+    public void setLoadJournal(LoadJournal loadJournal) {
+        this.loadJournal = loadJournal;
+    }
+
     @Override
     public InsertTypeFactory getInsertTypeFactory() {
         return insertTypeFactory;
@@ -205,6 +250,16 @@ public class SimpleBackupLoaderContext implements BackupLoaderContext {
         this.loadConstraints = loadConstraints;
     }
 
+    @Override
+    public LoadConstraintScheduler getLoadConstraintScheduler() {
+        return loadConstraintScheduler;
+    }
+
+    @Override
+    public void setLoadConstraintScheduler(LoadConstraintScheduler loadConstraintScheduler) {
+        this.loadConstraintScheduler = loadConstraintScheduler;
+    }
+
     @Override
     public LoadTables getLoadTables() {
         return loadTables;
@@ -32,8 +32,10 @@ import com.nuodb.migrator.backup.format.value.Row;
 import com.nuodb.migrator.jdbc.session.SimpleWorkManager;
 import com.nuodb.migrator.jdbc.session.Work;
 
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 
+import static com.google.common.collect.Lists.newCopyOnWriteArrayList;
 import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
 import static com.nuodb.migrator.utils.ValidationUtils.isNotNull;
 import static java.lang.Long.MAX_VALUE;
@@ -48,10 +50,37 @@ public class SimpleBackupLoaderManager extends SimpleWorkManager<BackupLoaderLis
 
     private BackupLoaderSync backupLoaderSync;
     private BackupLoaderContext backupLoaderContext;
+    private List<BackupLoaderListener> rowListeners = newCopyOnWriteArrayList();
+
+    @Override
+    public void addListener(BackupLoaderListener listener) {
+        super.addListener(listener);
+        if (listener.isRowListener()) {
+            rowListeners.add(listener);
+        }
+    }
+
+    @Override
+    public void addListener(int index, BackupLoaderListener listener) {
+        super.addListener(index, listener);
+        if (listener.isRowListener()) {
+            rowListeners.add(listener);
+        }
+    }
+
+    @Override
+    public void removeListener(BackupLoaderListener listener) {
+        super.removeListener(listener);
+        rowListeners.remove(listener);
+    }
+
+    public boolean hasRowListeners() {
+        return !rowListeners.isEmpty();
+    }
 
     @Override
     public boolean canExecute(Work work) {
-        return getFailures().isEmpty();
+        return !isFailed();
     }
 
     @Override
@@ -77,8 +106,7 @@ public class SimpleBackupLoaderManager extends SimpleWorkManager<BackupLoaderLis
     @Override
     public void afterLoadRow(Work work, LoadTable loadTable, Row row) {
         Chunk chunk = row.getChunk();
-        long number = row.getNumber();
-        if (number == chunk.getRowSet().getRowCount()) {
+        if (row.isChunkEnd()) {
             if (logger.isTraceEnabled()) {
                 logger.trace(format("Rows from %s chunk loaded", chunk.getName()));
             }
@@ -86,7 +114,9 @@ public class SimpleBackupLoaderManager extends SimpleWorkManager<BackupLoaderLis
                 onEndChunk(new LoadChunkEvent(work, loadTable, row.getChunk()));
             }
         }
-        onLoadRow(new LoadRowEvent(work, loadTable, row));
+        if (hasRowListeners()) {
+            onLoadRow(new LoadRowEvent(work, loadTable, row));
+        }
     }
 
     protected void onEndChunk(LoadChunkEvent loadChunkEvent) {
@@ -96,11 +126,24 @@ public class SimpleBackupLoaderManager extends SimpleWorkManager<BackupLoaderLis
     }
 
     protected void onLoadRow(LoadRowEvent event) {
-        for (BackupLoaderListener listener : getListeners()) {
+        for (BackupLoaderListener listener : rowListeners) {
             listener.onLoadRow(event);
         }
     }
 
+    @Override
+    public void loadProgress(Work work, LoadTable loadTable, long rowCount) {
+        if (hasListeners()) {
+            onLoadProgress(new LoadProgressEvent(work, loadTable, rowCount));
+        }
+    }
+
+    protected void onLoadProgress(LoadProgressEvent event) {
+        for (BackupLoaderListener listener : getListeners()) {
+            listener.onLoadProgress(event);
+        }
+    }
+
     @Override
     public void loadFailed() {
         backupLoaderSync.loadFailed();
@@ -168,8 +211,16 @@ public class SimpleBackupLoaderManager extends SimpleWorkManager<BackupLoaderLis
                     logger.trace("Executor termination interrupted", exception);
                 }
             }
+            ExecutorService batchExecutor = backupLoaderContext.getBatchExecutor();
+            if (batchExecutor != null) {
+                batchExecutor.shutdown();
+            }
+            if (backupLoaderContext.getLoadJournal() != null) {
+                backupLoaderContext.getLoadJournal().close();
+            }
             closeQuietly(backupLoaderContext.getSourceSession());
             closeQuietly(backupLoaderContext.getTargetSession());
+            closeQuietly(backupLoaderContext.getTargetSessionFactory());
             closeQuietly(backupLoaderContext.getScriptExporter());
         }
         super.close();
@@ -32,6 +32,7 @@ import com.nuodb.migrator.backup.Backup;
 import com.nuodb.migrator.backup.BackupOps;
 import com.nuodb.migrator.backup.QueryRowSet;
 import com.nuodb.migrator.backup.TableRowSet;
+import com.nuodb.migrator.backup.compression.Compressions;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.csv.CsvFormat;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
@@ -44,11 +45,13 @@ import com.nuodb.migrator.jdbc.metadata.Identifier;
 import com.nuodb.migrator.jdbc.metadata.MetaDataType;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.metadata.filter.MetaDataFilter;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionCache;
 import com.nuodb.migrator.jdbc.metadata.inspector.InspectionManager;
 import com.nuodb.migrator.jdbc.metadata.inspector.InspectionScope;
 import com.nuodb.migrator.jdbc.metadata.inspector.TableInspectionScope;
 import com.nuodb.migrator.jdbc.query.Query;
 import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
 import com.nuodb.migrator.jdbc.session.Work;
@@ -57,6 +60,7 @@ import com.nuodb.migrator.spec.ConnectionSpec;
 import com.nuodb.migrator.spec.MetaDataSpec;
 import com.nuodb.migrator.spec.MigrationMode;
 import com.nuodb.migrator.spec.QuerySpec;
+import com.nuodb.migrator.spec.TableSpec;
 import com.nuodb.migrator.utils.concurrent.ForkJoinPool;
 import com.nuodb.migrator.utils.concurrent.ForkJoinTask;
 import org.slf4j.Logger;
@@ -73,6 +77,7 @@ import static com.nuodb.migrator.backup.XmlMetaDataHandlerBase.INSPECTION_SCOPE;
 import static com.nuodb.migrator.backup.XmlMetaDataHandlerBase.META_DATA_SPEC;
 import static com.nuodb.migrator.context.ContextUtils.createService;
 import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static com.nuodb.migrator.jdbc.dialect.RowCountType.APPROX;
 import static com.nuodb.migrator.jdbc.dialect.RowCountType.EXACT;
 import static com.nuodb.migrator.jdbc.metadata.Identifier.valueOf;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataType.DATABASE;
@@ -83,6 +88,8 @@ import static com.nuodb.migrator.jdbc.split.RowCountStrategies.newHandlerStrateg
 import static com.nuodb.migrator.utils.Collections.isEmpty;
 import static java.lang.Runtime.getRuntime;
 import static java.lang.String.format;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.apache.commons.io.FileUtils.getFile;
 import static org.apache.commons.lang3.ArrayUtils.indexOf;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -103,12 +110,16 @@ public class BackupWriter {
     private ExecutorService executorService;
     private InspectionManager inspectionManager;
     private String format = FORMAT;
+    private String compression;
+    private boolean resume;
     private Map<String, Object> formatAttributes = newHashMap();
     private FormatFactory formatFactory;
     private MetaDataSpec metaDataSpec;
     private Collection<MigrationMode> migrationModes = MIGRATION_MODES;
     private QueryLimit queryLimit;
     private Collection<QuerySpec> querySpecs;
+    private Collection<TableSpec> tableSpecs;
+    private Long fetchMemory;
     private ConnectionSpec sourceSpec;
     private SessionFactory sourceSessionFactory;
     private TimeZone timeZone;
@@ -135,7 +146,8 @@ public class BackupWriter {
      * @param columns    only specified columns will be writing.
      * @param filter     to filter rows with.
      * @param queryLimit which will be used for creating "pages", if query limit is null no limiting query splitter will
-     *                   be constructed.
+     *                   be constructed. Pages are key ranges if table has primary key or unique index on not null
+     *                   columns, otherwise limit & offset pages are used.
      */
     public void addTable(Table table, Collection<Column> columns, String filter,
                          QueryLimit queryLimit) {
@@ -231,16 +243,33 @@ public class BackupWriter {
         ExecutorService executorService = getExecutorService();
         backupWriterContext.setExecutorService(executorService == null ? createExecutorService() : executorService);
         backupWriterContext.setFormat(getFormat());
+        backupWriterContext.setCompression(getCompression());
+        backupWriterContext.setCompressionExecutor(createCompressionExecutor());
         backupWriterContext.setFormatAttributes(getFormatAttributes());
         backupWriterContext.setFormatFactory(getFormatFactory());
         backupWriterContext.setMigrationModes(getMigrationModes());
         backupWriterContext.setThreads(getThreads());
         backupWriterContext.setTimeZone(getTimeZone());
+        backupWriterContext.setFetchMemory(getFetchMemory());
+        backupWriterContext.setWriteJournal(openWriteJournal(backupOps));
         openSourceSession(backupWriterContext);
         return backupWriterContext;
     }
 
-    protected InspectionScope getInspectionScope() {
+    /**
+     * Opens journal of the completed query splits in the backup directory, on resume records of the previous run are
+     * read, so that the splits already written are skipped
+     *
+     * @param backupOps backup operations
+     * @return write journal
+     */
+    protected WriteJournal openWriteJournal(BackupOps backupOps) {
+        WriteJournal writeJournal = new WriteJournal(getFile(backupOps.getDir(), WriteJournal.FILE));
+        writeJournal.open(isResume());
+        return writeJournal;
+    }
+
+    protected TableInspectionScope getInspectionScope() {
         return new TableInspectionScope(
                 sourceSpec.getCatalog(), sourceSpec.getSchema(), getTableTypes());
     }
@@ -253,6 +282,7 @@ public class BackupWriter {
     protected Backup createBackup() {
         Backup backup = new Backup();
         backup.setFormat(getFormat());
+        backup.setCompression(getCompression());
         return backup;
     }
 
@@ -273,6 +303,16 @@ public class BackupWriter {
         return new ForkJoinPool(threads);
     }
 
+    /**
+     * Creates executor bounded by the number of threads to compress chunk blocks, which is shut down along with the
+     * backup writer manager
+     *
+     * @return compression executor or null if chunks are not compressed
+     */
+    protected ExecutorService createCompressionExecutor() {
+        return Compressions.getCompression(getCompression()) != null ? newFixedThreadPool(getThreads()) : null;
+    }
+
     protected ValueFormatRegistry createValueFormatRegistry(Session session) throws Exception {
         return getValueFormatRegistryResolver().resolve(session);
     }
@@ -294,10 +334,33 @@ public class BackupWriter {
         }
     }
 
+    /**
+     * Inspects source database, indexes, keys and other objects attached to the tables are inspected concurrently on
+     * the sessions from the source session factory using the writer threads.
+     *
+     * @param backupWriterContext backup writer context
+     * @return source database
+     * @throws Exception if inspection fails
+     */
     protected Database openDatabase(BackupWriterContext backupWriterContext) throws Exception {
         Session session = backupWriterContext.getSourceSession();
-        return getInspectionManager().inspect(session.getConnection(), getInspectionScope(),
-                getObjectTypes().toArray(new MetaDataType[0])).getObject(DATABASE);
+        InspectionManager inspectionManager = getInspectionManager();
+        inspectionManager.setThreads(getThreads());
+        inspectionManager.setSessionFactory(backupWriterContext.getSourceSessionFactory());
+        MetaDataType[] objectTypes = getObjectTypes().toArray(new MetaDataType[0]);
+        InspectionCache inspectionCache = createInspectionCache();
+        if (inspectionCache != null) {
+            return inspectionCache.inspect(inspectionManager, session.getConnection(), getInspectionScope(),
+                    objectTypes);
+        } else {
+            return inspectionManager.inspect(session.getConnection(), getInspectionScope(),
+                    objectTypes).getObject(DATABASE);
+        }
+    }
+
+    protected InspectionCache createInspectionCache() {
+        MetaDataSpec metaDataSpec = getMetaDataSpec();
+        return metaDataSpec != null ? metaDataSpec.createInspectionCache() : null;
     }
 
     protected Backup write(BackupWriterManager backupWriterManager) throws Exception {
@@ -315,7 +378,12 @@ public class BackupWriter {
         } finally {
             backupWriterManager.close();
         }
-        return writeBackup(backupWriterManager);
+        Backup backup = writeBackup(backupWriterManager);
+        WriteJournal writeJournal = backupWriterManager.getBackupWriterContext().getWriteJournal();
+        if (writeJournal != null) {
+            writeJournal.delete();
+        }
+        return backup;
     }
 
     protected void writeData(BackupWriterManager backupWriterManager) throws Exception {
@@ -389,8 +457,29 @@ public class BackupWriter {
 
     protected WriteQuery createWriteQuery(Table table, Collection<Column> columns, String filter,
                                           QueryLimit queryLimit) {
-        return new WriteTable(table, columns, filter,
+        WriteQuery writeQuery = new WriteTable(table, columns, filter,
                 createQuerySplitter(table, columns, filter, queryLimit), new TableRowSet(table));
+        writeQuery.setFetchSize(getFetchSize(table));
+        return writeQuery;
+    }
+
+    /**
+     * Looks up fetch size override of the table in table specs
+     *
+     * @param table to find fetch size for
+     * @return fetch size or null if fetch size should be tuned automatically
+     */
+    protected Integer getFetchSize(Table table) {
+        Collection<TableSpec> tableSpecs = getTableSpecs();
+        if (!isEmpty(tableSpecs)) {
+            for (TableSpec tableSpec : tableSpecs) {
+                if (tableSpec.getFetchSize() != null &&
+                        table.getDatabase().findTables(tableSpec.getTable()).contains(table)) {
+                    return tableSpec.getFetchSize();
+                }
+            }
+        }
+        return null;
     }
 
     protected QuerySplitter createQuerySplitter(Table table, Collection<Column> columns, String filter,
@@ -398,7 +487,17 @@ public class BackupWriter {
         QuerySplitter querySplitter;
         Query query = newQuery(table, columns, filter);
         Dialect dialect = table.getDatabase().getDialect();
-        if (queryLimit != null && supportsLimitSplitter(dialect, table, filter)) {
+        if (supportsKeySplitter(table, queryLimit)) {
+            Collection<Column> key = getSplitKey(table);
+            if (supportsKeySample(dialect, table, key, filter)) {
+                querySplitter = newKeySplitter(dialect, (SelectQuery) query, key, queryLimit,
+                        newCachingStrategy(newHandlerStrategy(
+                                dialect.createRowCountHandler(table, null, filter, APPROX))),
+                        dialect.createKeySampleHandler(table, key, filter));
+            } else {
+                querySplitter = newKeySplitter(dialect, (SelectQuery) query, key, queryLimit);
+            }
+        } else if (queryLimit != null && supportsLimitSplitter(dialect, table, filter)) {
             querySplitter = newLimitSplitter(dialect, newCachingStrategy(newHandlerStrategy(
                     dialect.createRowCountHandler(table, null, filter, EXACT))), query, queryLimit);
         } else {
@@ -454,6 +553,27 @@ public class BackupWriter {
         this.format = format != null ? format : FORMAT;
     }
 
+    public String getCompression() {
+        return compression;
+    }
+
+    public void setCompression(String compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Tells whether to resume backup failed previously, query splits recorded to the write journal are skipped
+     *
+     * @return true if backup is resumed
+     */
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
     public Map<String, Object> getFormatAttributes() {
         return formatAttributes;
     }
@@ -510,6 +630,22 @@ public class BackupWriter {
         this.querySpecs = querySpecs;
     }
 
+    public Collection<TableSpec> getTableSpecs() {
+        return tableSpecs;
+    }
+
+    public void setTableSpecs(Collection<TableSpec> tableSpecs) {
+        this.tableSpecs = tableSpecs;
+    }
+
+    public Long getFetchMemory() {
+        return fetchMemory;
+    }
+
+    public void setFetchMemory(Long fetchMemory) {
+        this.fetchMemory = fetchMemory;
+    }
+
     public ConnectionSpec getSourceSpec() {
         return sourceSpec;
     }
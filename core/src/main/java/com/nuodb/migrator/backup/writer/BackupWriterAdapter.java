@@ -39,10 +39,25 @@ public class BackupWriterAdapter extends WorkAdapter
     public void onWriteStart(WriteChunkEvent event) {
     }
 
+    /**
+     * Adapters are row listeners by default, so that subclasses overriding {@link #onWriteRow(WriteRowEvent)} keep receiving row
+     * events. Subclasses not interested in rows should return false to spare creation of the row events.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isRowListener() {
+        return true;
+    }
+
     @Override
     public void onWriteRow(WriteRowEvent event) {
     }
 
+    @Override
+    public void onWriteProgress(WriteProgressEvent event) {
+    }
+
     @Override
     public void onWriteEnd(WriteChunkEvent event) {
     }
@@ -74,6 +74,28 @@ public interface BackupWriterContext {
 
     void setFormat(String format);
 
+    String getCompression();
+
+    void setCompression(String compression);
+
+    /**
+     * Executor compressing chunk blocks asynchronously, shared by the writing works
+     *
+     * @return compression executor or null if blocks are compressed in place
+     */
+    ExecutorService getCompressionExecutor();
+
+    void setCompressionExecutor(ExecutorService compressionExecutor);
+
+    /**
+     * Journal of the completed query splits, which is used to resume failed backup
+     *
+     * @return write journal or null if journaling is off
+     */
+    WriteJournal getWriteJournal();
+
+    void setWriteJournal(WriteJournal writeJournal);
+
     Map<String, Object> getFormatAttributes();
 
     void setFormatAttributes(Map<String, Object> formatAttributes);
@@ -98,6 +120,10 @@ public interface BackupWriterContext {
 
     void setTimeZone(TimeZone timeZone);
 
+    Long getFetchMemory();
+
+    void setFetchMemory(Long fetchMemory);
+
     int getThreads();
 
     void setThreads(int threads);
@@ -42,12 +42,28 @@ public interface BackupWriterListener extends WorkListener {
     void onWriteStart(WriteChunkEvent event);
 
     /**
-     * Triggered for each exported row
+     * Tells whether the listener needs to be notified on each exported row. Row events are created only if at least
+     * one of the listeners is a row listener, others should track progress with
+     * {@link #onWriteProgress(WriteProgressEvent)}
+     *
+     * @return true if {@link #onWriteRow(WriteRowEvent)} should be triggered for the listener
+     */
+    boolean isRowListener();
+
+    /**
+     * Triggered for each exported row if the listener is a row listener
      *
      * @param event containing details about row set and chunk written
      */
     void onWriteRow(WriteRowEvent event);
 
+    /**
+     * Triggered periodically with the number of rows exported by the work since the previous progress event
+     *
+     * @param event containing details about row set and number of rows written
+     */
+    void onWriteProgress(WriteProgressEvent event);
+
     /**
      * Triggered when row set export is completed
      *
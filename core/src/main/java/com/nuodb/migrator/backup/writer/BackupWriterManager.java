@@ -55,6 +55,8 @@ public interface BackupWriterManager extends WorkManager<BackupWriterListener> {
 
     void writeRow(Work work, WriteQuery writeQuery, Row row);
 
+    void writeProgress(Work work, WriteQuery writeQuery, long rowCount);
+
     void writeEnd(Work work, WriteQuery writeQuery);
 
     void writeEnd(Work work, WriteQuery writeQuery, Chunk chunk);
@@ -60,12 +60,16 @@ public class SimpleBackupWriterContext implements BackupWriterContext {
     private Database database;
     private ExecutorService executorService;
     private String format;
+    private String compression;
+    private ExecutorService compressionExecutor;
+    private WriteJournal writeJournal;
     private Map<String, Object> formatAttributes;
     private FormatFactory formatFactory;
     private Collection<MigrationMode> migrationModes;
     private Session sourceSession;
     private SessionFactory sourceSessionFactory;
     private TimeZone timeZone;
+    private Long fetchMemory;
     private int threads;
     private ValueFormatRegistry valueFormatRegistry;
     private Collection<WriteQuery> writeQueries;
@@ -140,6 +144,36 @@ public class SimpleBackupWriterContext implements BackupWriterContext {
         this.format = format;
     }
 
+    @Override
+    public String getCompression() {
+        return compression;
+    }
+
+    @Override
+    public void setCompression(String compression) {
+        this.compression = compression;
+    }
+
+    @Override
+    public ExecutorService getCompressionExecutor() {
+        return compressionExecutor;
+    }
+
+    @Override
+    public void setCompressionExecutor(ExecutorService compressionExecutor) {
+        this.compressionExecutor = compressionExecutor;
+    }
+
+    @Override
+    public WriteJournal getWriteJournal() {
+        return writeJournal;
+    }
+
+    @Override
+    public void setWriteJournal(WriteJournal writeJournal) {
+        this.writeJournal = writeJournal;
+    }
+
     @Override
     public Map<String, Object> getFormatAttributes() {
         return formatAttributes;
@@ -199,6 +233,16 @@ public class SimpleBackupWriterContext implements BackupWriterContext {
         this.timeZone = timeZone;
     }
 
+    @Override
+    public Long getFetchMemory() {
+        return fetchMemory;
+    }
+
+    @Override
+    public void setFetchMemory(Long fetchMemory) {
+        this.fetchMemory = fetchMemory;
+    }
+
     @Override
     public int getThreads() {
         return threads;
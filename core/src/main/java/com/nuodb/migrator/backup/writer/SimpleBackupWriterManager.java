@@ -39,10 +39,12 @@ import com.nuodb.migrator.jdbc.session.Work;
 
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.newCopyOnWriteArrayList;
 import static com.google.common.collect.Multimaps.newSetMultimap;
 import static com.google.common.collect.Multimaps.synchronizedSetMultimap;
 import static com.google.common.collect.Sets.newTreeSet;
@@ -60,6 +62,7 @@ public class SimpleBackupWriterManager extends SimpleWorkManager<BackupWriterLis
     private BackupWriterSync backupWriterSync;
     private BackupWriterContext backupWriterContext;
     private Multimap<WriteQuery, WriteQueryWork> writeQueries;
+    private List<BackupWriterListener> rowListeners = newCopyOnWriteArrayList();
 
     public SimpleBackupWriterManager() {
         this.writeQueries = synchronizedSetMultimap(newSetMultimap(
@@ -78,9 +81,35 @@ public class SimpleBackupWriterManager extends SimpleWorkManager<BackupWriterLis
                 }));
     }
 
+    @Override
+    public void addListener(BackupWriterListener listener) {
+        super.addListener(listener);
+        if (listener.isRowListener()) {
+            rowListeners.add(listener);
+        }
+    }
+
+    @Override
+    public void addListener(int index, BackupWriterListener listener) {
+        super.addListener(index, listener);
+        if (listener.isRowListener()) {
+            rowListeners.add(listener);
+        }
+    }
+
+    @Override
+    public void removeListener(BackupWriterListener listener) {
+        super.removeListener(listener);
+        rowListeners.remove(listener);
+    }
+
+    public boolean hasRowListeners() {
+        return !rowListeners.isEmpty();
+    }
+
     @Override
     public boolean canExecute(Work work) {
-        return getFailures().isEmpty();
+        return !isFailed();
     }
 
     @Override
@@ -106,17 +135,30 @@ public class SimpleBackupWriterManager extends SimpleWorkManager<BackupWriterLis
 
     @Override
     public void writeRow(Work work, WriteQuery writeQuery, Row row) {
-        if (hasListeners()) {
+        if (hasRowListeners()) {
             onWriteRow(new WriteRowEvent(work, writeQuery, row));
         }
     }
 
     protected void onWriteRow(WriteRowEvent event) {
-        for (BackupWriterListener listener : getListeners()) {
+        for (BackupWriterListener listener : rowListeners) {
             listener.onWriteRow(event);
         }
     }
 
+    @Override
+    public void writeProgress(Work work, WriteQuery writeQuery, long rowCount) {
+        if (hasListeners()) {
+            onWriteProgress(new WriteProgressEvent(work, writeQuery, rowCount));
+        }
+    }
+
+    protected void onWriteProgress(WriteProgressEvent event) {
+        for (BackupWriterListener listener : getListeners()) {
+            listener.onWriteProgress(event);
+        }
+    }
+
     @Override
     public void writeEnd(Work work, WriteQuery writeQuery, Chunk chunk) {
         if (hasListeners()) {
@@ -207,7 +249,15 @@ public class SimpleBackupWriterManager extends SimpleWorkManager<BackupWriterLis
                     logger.trace("Executor termination interrupted", exception);
                 }
             }
+            ExecutorService compressionExecutor = backupWriterContext.getCompressionExecutor();
+            if (compressionExecutor != null) {
+                compressionExecutor.shutdown();
+            }
+            if (backupWriterContext.getWriteJournal() != null) {
+                backupWriterContext.getWriteJournal().close();
+            }
             closeQuietly(backupWriterContext.getSourceSession());
+            closeQuietly(backupWriterContext.getSourceSessionFactory());
         }
         super.close();
     }
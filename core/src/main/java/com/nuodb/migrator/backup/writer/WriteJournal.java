@@ -0,0 +1,352 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.writer;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.Column;
+import com.nuodb.migrator.backup.Journal;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.jdbc.split.KeyRange;
+import com.nuodb.migrator.jdbc.split.QuerySplit;
+import org.apache.commons.lang3.SerializationException;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
+import static com.nuodb.migrator.backup.format.value.ValueType.fromAlias;
+import static com.nuodb.migrator.backup.format.value.ValueType.toAlias;
+import static java.lang.Boolean.parseBoolean;
+import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.String.format;
+import static java.lang.String.valueOf;
+import static org.apache.commons.lang3.SerializationUtils.deserialize;
+import static org.apache.commons.lang3.SerializationUtils.serialize;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Journal of the query splits planned and written completely. A plan record is appended for each split as it's
+ * planned, holding the row set name, split index and the query limit of the split including its key range. A split
+ * record is appended once all chunks of the split are written, holding the row set name, split index and bounds, row
+ * set columns and split chunks. On resume row sets with complete plans are split with the restored query limits, so
+ * key ranges sampled randomly or row counts estimated by the previous run are reused instead of being planned again,
+ * and splits found in the journal are restored from their records instead of being written again. Row sets which
+ * plans are incomplete are written again.
+ *
+ * @author Sergey Bushik
+ */
+public class WriteJournal extends Journal {
+
+    public static final String FILE = "write.journal";
+
+    /**
+     * Min interval in milliseconds between split records forced to the disk
+     */
+    public static final long SYNC_INTERVAL = 1000L;
+
+    private static final String PLAN = "plan";
+    private static final String SPLIT = "split";
+    private static final String KEY_RANGE = "key";
+    private static final String LIMIT = "limit";
+
+    private transient final Logger logger = getLogger(getClass());
+
+    private final Map<String, WriteSplit> writeSplits = newHashMap();
+    private final Map<String, List<QueryLimit>> plans = newHashMap();
+    private final Set<String> completePlans = newHashSet();
+    private long syncTime;
+
+    public WriteJournal(File file) {
+        super(file);
+    }
+
+    @Override
+    protected void read(List<String> record) {
+        Iterator<String> fields = record.iterator();
+        String type = fields.next();
+        if (PLAN.equals(type)) {
+            readPlan(fields);
+        } else if (SPLIT.equals(type)) {
+            readSplit(fields);
+        }
+    }
+
+    /**
+     * Restores query limit of the planned split, the first split starts the plan of the row set over, so the plan
+     * which was made again by the resumed run replaces the previous one
+     */
+    protected void readPlan(Iterator<String> fields) {
+        String rowSetName = fields.next();
+        int splitIndex = parseInt(fields.next());
+        boolean hasNextQuerySplit = parseBoolean(fields.next());
+        QueryLimit queryLimit = readQueryLimit(fields);
+        List<QueryLimit> plan;
+        if (splitIndex == 0) {
+            plan = newArrayList();
+        } else {
+            plan = plans.get(rowSetName);
+        }
+        completePlans.remove(rowSetName);
+        if (plan != null && plan.size() == splitIndex) {
+            plan.add(queryLimit);
+            if (!hasNextQuerySplit) {
+                completePlans.add(rowSetName);
+            }
+        } else {
+            plan = null;
+        }
+        plans.put(rowSetName, plan);
+    }
+
+    protected QueryLimit readQueryLimit(Iterator<String> fields) {
+        String type = fields.next();
+        Long count = readLong(fields.next());
+        Long offset = readLong(fields.next());
+        Object[] lowerKey = readKey(fields.next());
+        Object[] upperKey = readKey(fields.next());
+        QueryLimit queryLimit;
+        if (KEY_RANGE.equals(type)) {
+            queryLimit = new KeyRange(lowerKey, upperKey, count);
+        } else if (LIMIT.equals(type)) {
+            queryLimit = new QueryLimit(count, offset);
+        } else {
+            queryLimit = null;
+        }
+        return queryLimit;
+    }
+
+    protected Long readLong(String value) {
+        return isEmpty(value) ? null : parseLong(value);
+    }
+
+    protected Object[] readKey(String value) {
+        return isEmpty(value) ? null : (Object[]) deserialize(BASE64.decode(value));
+    }
+
+    protected void readSplit(Iterator<String> fields) {
+        WriteSplit writeSplit = new WriteSplit(fields.next(), parseInt(fields.next()), fields.next());
+        for (int columns = parseInt(fields.next()); columns > 0; columns--) {
+            String name = fields.next();
+            String valueType = fields.next();
+            Column column = new Column(name, valueType.length() > 0 ? fromAlias(valueType) : null);
+            column.setLob(parseBoolean(fields.next()));
+            writeSplit.getColumns().add(column);
+        }
+        for (int chunks = parseInt(fields.next()); chunks > 0; chunks--) {
+            Chunk chunk = new Chunk();
+            chunk.setName(fields.next());
+            chunk.setRowCount(parseLong(fields.next()));
+            chunk.setSize(parseLong(fields.next()));
+            writeSplit.getChunks().add(chunk);
+        }
+        writeSplits.put(getKey(writeSplit.getRowSetName(), writeSplit.getSplitIndex()), writeSplit);
+    }
+
+    /**
+     * Records the planned split, the record is not forced to the disk, as it's forced along with the record of any
+     * split written afterwards. If the key of the split can't be serialized the plan is left incomplete, so the row
+     * set is written again on resume.
+     *
+     * @param rowSetName        name of the row set
+     * @param querySplit        planned split
+     * @param hasNextQuerySplit whether there are more splits planned for the row set
+     */
+    public void writePlan(String rowSetName, QuerySplit querySplit, boolean hasNextQuerySplit) {
+        List<String> record = newArrayList();
+        record.add(PLAN);
+        record.add(rowSetName);
+        record.add(valueOf(querySplit.getSplitIndex()));
+        record.add(valueOf(hasNextQuerySplit));
+        QueryLimit queryLimit = querySplit.getQueryLimit();
+        try {
+            if (queryLimit instanceof KeyRange) {
+                KeyRange keyRange = (KeyRange) queryLimit;
+                record.add(KEY_RANGE);
+                record.add(writeLong(keyRange.getCount()));
+                record.add(writeLong(keyRange.getOffset()));
+                record.add(writeKey(keyRange.getLowerKey()));
+                record.add(writeKey(keyRange.getUpperKey()));
+            } else {
+                record.add(queryLimit != null ? LIMIT : "");
+                record.add(queryLimit != null ? writeLong(queryLimit.getCount()) : "");
+                record.add(queryLimit != null ? writeLong(queryLimit.getOffset()) : "");
+                record.add("");
+                record.add("");
+            }
+        } catch (SerializationException exception) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(format("Split %d of %s is not journaled as its key is not serializable",
+                        querySplit.getSplitIndex() + 1, rowSetName), exception);
+            }
+            return;
+        }
+        write(record, false);
+    }
+
+    protected String writeLong(Long value) {
+        return value != null ? valueOf(value) : "";
+    }
+
+    protected String writeKey(Object[] key) {
+        return key != null ? BASE64.encode(serialize((Serializable) key)) : "";
+    }
+
+    /**
+     * Looks up query limits of the splits planned by the previous run
+     *
+     * @param rowSetName name of the row set
+     * @return query limits of the splits or null if the plan of the row set is missing or incomplete
+     */
+    public List<QueryLimit> getPlan(String rowSetName) {
+        return completePlans.contains(rowSetName) ? plans.get(rowSetName) : null;
+    }
+
+    /**
+     * Records the split written completely, the record is forced to the disk if {@link #SYNC_INTERVAL} passed since
+     * the last forced record, otherwise it's forced along with a later one. A split which record is lost in a crash is
+     * written again on resume.
+     *
+     * @param rowSetName name of the row set
+     * @param querySplit written split
+     * @param columns    row set columns
+     * @param chunks     chunks of the split
+     */
+    public synchronized void writeSplit(String rowSetName, QuerySplit querySplit, Collection<Column> columns,
+                                        Collection<Chunk> chunks) {
+        List<String> record = newArrayList();
+        record.add(SPLIT);
+        record.add(rowSetName);
+        record.add(valueOf(querySplit.getSplitIndex()));
+        record.add(getBounds(querySplit));
+        record.add(valueOf(columns.size()));
+        for (Column column : columns) {
+            record.add(column.getName());
+            record.add(column.getValueType() != null ? toAlias(column.getValueType()) : "");
+            record.add(valueOf(column.isLob()));
+        }
+        record.add(valueOf(chunks.size()));
+        for (Chunk chunk : chunks) {
+            record.add(chunk.getName());
+            record.add(valueOf(chunk.getRowCount()));
+            record.add(valueOf(chunk.getSize()));
+        }
+        long time = currentTimeMillis();
+        boolean force = time - syncTime >= SYNC_INTERVAL;
+        if (force) {
+            syncTime = time;
+        }
+        write(record, force);
+    }
+
+    /**
+     * Looks up split written by the previous run. Splits are matched by their bounds, if the split was planned
+     * differently rows of the table were changed and the backup can't be resumed consistently. Splits of the row set
+     * which plan was not recorded completely are written again.
+     *
+     * @param rowSetName name of the row set
+     * @param querySplit split to look up
+     * @return written split or null if the split should be written
+     */
+    public WriteSplit getWriteSplit(String rowSetName, QuerySplit querySplit) {
+        if (plans.containsKey(rowSetName) && !completePlans.contains(rowSetName)) {
+            return null;
+        }
+        WriteSplit writeSplit = writeSplits.get(getKey(rowSetName, querySplit.getSplitIndex()));
+        if (writeSplit != null && !writeSplit.getBounds().equals(getBounds(querySplit))) {
+            throw new BackupWriterException(format(
+                    "Split %d of %s was planned with bounds %s, which differ from the bounds %s of the previous run",
+                    querySplit.getSplitIndex() + 1, rowSetName, getBounds(querySplit), writeSplit.getBounds()));
+        }
+        return writeSplit;
+    }
+
+    protected String getKey(String rowSetName, int splitIndex) {
+        return rowSetName + "#" + splitIndex;
+    }
+
+    protected String getBounds(QuerySplit querySplit) {
+        QueryLimit queryLimit = querySplit.getQueryLimit();
+        if (queryLimit instanceof KeyRange) {
+            return queryLimit.toString();
+        } else if (queryLimit != null) {
+            return format("[%s, %s]", queryLimit.getOffset(), queryLimit.getCount());
+        } else {
+            return "";
+        }
+    }
+
+    /**
+     * Query split restored from the journal
+     */
+    public static class WriteSplit {
+
+        private final String rowSetName;
+        private final int splitIndex;
+        private final String bounds;
+        private final Collection<Column> columns = newArrayList();
+        private final Collection<Chunk> chunks = newArrayList();
+
+        public WriteSplit(String rowSetName, int splitIndex, String bounds) {
+            this.rowSetName = rowSetName;
+            this.splitIndex = splitIndex;
+            this.bounds = bounds;
+        }
+
+        public String getRowSetName() {
+            return rowSetName;
+        }
+
+        public int getSplitIndex() {
+            return splitIndex;
+        }
+
+        public String getBounds() {
+            return bounds;
+        }
+
+        public Collection<Column> getColumns() {
+            return columns;
+        }
+
+        public Collection<Chunk> getChunks() {
+            return chunks;
+        }
+    }
+}
@@ -28,23 +28,44 @@
 package com.nuodb.migrator.backup.writer;
 
 import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.writer.WriteJournal.WriteSplit;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.WorkRunnableBase;
+import com.nuodb.migrator.jdbc.split.KeyQuerySplitter;
+import com.nuodb.migrator.jdbc.split.LimitQuerySplitter;
 import com.nuodb.migrator.jdbc.split.QuerySplit;
 import com.nuodb.migrator.jdbc.split.QuerySplitter;
+import com.nuodb.migrator.jdbc.split.RowCountStrategy;
+import org.slf4j.Logger;
 
 import java.sql.Connection;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newIdentityHashMap;
 import static com.nuodb.migrator.backup.BackupMessages.WRITE_QUERIES_WORK;
+import static com.nuodb.migrator.backup.writer.WriteQueryWork.getRowSetName;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
+import static java.lang.String.format;
+import static java.util.Collections.sort;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
+ * Splits write queries and forks write query work per split. Queries are started in the order of their row counts,
+ * the largest first, so that work stealing threads pick up splits of the largest tables before the smaller ones and
+ * a large table is not left for the tail of the dump. Row counts are taken from the caching row count strategies of
+ * the query splitters, so ordering costs no extra queries over the ones issued to split the tables.
+ *
  * @author Sergey Bushik
  */
 public class WriteQueriesWork extends WorkRunnableBase {
 
+    private transient Logger logger = getLogger(getClass());
+
     private final BackupWriterManager backupWriterManager;
 
     public WriteQueriesWork(BackupWriterManager backupWriterManager) {
@@ -63,18 +84,33 @@ public class WriteQueriesWork extends WorkRunnableBase {
         Backup backup = backupWriterContext.getBackup();
         Session session = backupWriterContext.getSourceSession();
         Connection connection = session.getConnection();
+        WriteJournal writeJournal = backupWriterContext.getWriteJournal();
         Collection<WriteQueryWork> writeQueryWorks = newArrayList();
 
-        for (WriteQuery writeQuery : backupWriterContext.getWriteQueries()) {
+        for (WriteQuery writeQuery : getWriteQueries(backupWriterContext.getWriteQueries(), connection)) {
             backup.addRowSet(writeQuery.getRowSet());
+            String rowSetName = getRowSetName(writeQuery);
             QuerySplitter querySplitter = writeQuery.getQuerySplitter();
-            while (writeQuery.getQuerySplitter().hasNextQuerySplit(session.getConnection())) {
+            List<QueryLimit> plan = writeJournal != null ? writeJournal.getPlan(rowSetName) : null;
+            if (plan != null) {
+                querySplitter.setQueryLimits(plan);
+            }
+            while (querySplitter.hasNextQuerySplit(connection)) {
                 QuerySplit nextQuerySplit = querySplitter.getNextQuerySplit(connection);
                 boolean hasNextQuerySplit = querySplitter.hasNextQuerySplit(connection);
                 WriteQueryWork writeQueryWork = new WriteQueryWork(
                         writeQuery, nextQuerySplit, hasNextQuerySplit, backupWriterManager);
-                writeQueryWork.fork();
-                writeQueryWorks.add(writeQueryWork);
+                if (writeJournal != null && plan == null) {
+                    writeJournal.writePlan(rowSetName, nextQuerySplit, hasNextQuerySplit);
+                }
+                WriteSplit writeSplit = writeJournal != null ?
+                        writeJournal.getWriteSplit(rowSetName, nextQuerySplit) : null;
+                if (writeSplit != null) {
+                    writeQueryWork.resume(writeSplit);
+                } else {
+                    writeQueryWork.fork();
+                    writeQueryWorks.add(writeQueryWork);
+                }
             }
         }
         for (WriteQueryWork writeQueryWork : writeQueryWorks) {
@@ -82,4 +118,71 @@ public class WriteQueriesWork extends WorkRunnableBase {
         }
         backupWriterManager.writeDataDone();
     }
+
+    /**
+     * Orders write queries by row count, the largest first, queries which row count is unknown follow in the original
+     * order
+     *
+     * @param writeQueries to order
+     * @param connection   source connection
+     * @return ordered write queries
+     */
+    protected List<WriteQuery> getWriteQueries(Collection<WriteQuery> writeQueries, Connection connection) {
+        final Map<WriteQuery, Long> rowCounts = newIdentityHashMap();
+        for (WriteQuery writeQuery : writeQueries) {
+            rowCounts.put(writeQuery, getRowCount(writeQuery, connection));
+        }
+        List<WriteQuery> orderedWriteQueries = newArrayList(writeQueries);
+        sort(orderedWriteQueries, new Comparator<WriteQuery>() {
+            @Override
+            public int compare(WriteQuery writeQuery1, WriteQuery writeQuery2) {
+                Long rowCount1 = rowCounts.get(writeQuery1);
+                Long rowCount2 = rowCounts.get(writeQuery2);
+                long value1 = rowCount1 != null ? rowCount1 : -1;
+                long value2 = rowCount2 != null ? rowCount2 : -1;
+                return value1 > value2 ? -1 : (value1 < value2 ? 1 : 0);
+            }
+        });
+        if (logger.isDebugEnabled()) {
+            for (WriteQuery writeQuery : orderedWriteQueries) {
+                Long rowCount = rowCounts.get(writeQuery);
+                logger.debug(format("Planned %s row set with %s rows", writeQuery.getRowSet().getName(),
+                        rowCount != null ? rowCount : "unknown number of"));
+            }
+        }
+        return orderedWriteQueries;
+    }
+
+    /**
+     * Gets number of rows from the row count strategy of the query splitter, which caches it for splitting, so the
+     * row count query is executed once per table. Splitters with no row count strategy are not counted
+     *
+     * @param writeQuery to count rows of
+     * @param connection source connection
+     * @return row count or null if it's unknown
+     */
+    protected Long getRowCount(WriteQuery writeQuery, Connection connection) {
+        RowCountStrategy rowCountStrategy = getRowCountStrategy(writeQuery.getQuerySplitter());
+        if (rowCountStrategy == null) {
+            return null;
+        }
+        try {
+            return rowCountStrategy.getRowCount(connection);
+        } catch (Exception exception) {
+            if (logger.isTraceEnabled()) {
+                logger.trace(format("Can't count rows of %s row set", writeQuery.getRowSet().getName()), exception);
+            }
+            return null;
+        }
+    }
+
+    protected RowCountStrategy getRowCountStrategy(QuerySplitter querySplitter) {
+        if (querySplitter instanceof KeyQuerySplitter) {
+            return ((KeyQuerySplitter) querySplitter).getRowCountStrategy();
+        } else if (querySplitter instanceof LimitQuerySplitter) {
+            return ((LimitQuerySplitter) querySplitter).getRowCountStrategy();
+        } else {
+            return null;
+        }
+    }
 }
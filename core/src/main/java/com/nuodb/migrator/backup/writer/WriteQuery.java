@@ -43,6 +43,7 @@ public class WriteQuery {
     private RowSet rowSet;
     private QuerySplitter querySplitter;
     private Collection<? extends Field> columns;
+    private Integer fetchSize;
 
     public WriteQuery(QuerySplitter querySplitter, RowSet rowSet) {
         this.querySplitter = querySplitter;
@@ -67,4 +68,17 @@ public class WriteQuery {
     public RowSet getRowSet() {
         return rowSet;
     }
+
+    /**
+     * Fetch size to use for the query, if null fetch size is tuned from the width of the fetched rows
+     *
+     * @return fetch size or null
+     */
+    public Integer getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(Integer fetchSize) {
+        this.fetchSize = fetchSize;
+    }
 }
@@ -31,13 +31,18 @@ import com.nuodb.migrator.backup.Chunk;
 import com.nuodb.migrator.backup.Column;
 import com.nuodb.migrator.backup.QueryRowSet;
 import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.compression.Compression;
 import com.nuodb.migrator.backup.format.Output;
+import com.nuodb.migrator.backup.format.SimpleLobStore;
 import com.nuodb.migrator.backup.format.value.Row;
+import com.nuodb.migrator.backup.format.value.RowCodec;
 import com.nuodb.migrator.backup.format.value.Value;
 import com.nuodb.migrator.backup.format.value.ValueHandle;
 import com.nuodb.migrator.backup.format.value.ValueHandleList;
+import com.nuodb.migrator.backup.writer.WriteJournal.WriteSplit;
 import com.nuodb.migrator.jdbc.dialect.Dialect;
 import com.nuodb.migrator.jdbc.dialect.FetchMode;
+import com.nuodb.migrator.jdbc.dialect.FetchSizeController;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.model.Field;
 import com.nuodb.migrator.jdbc.query.StatementCallback;
@@ -46,6 +51,7 @@ import com.nuodb.migrator.jdbc.split.QuerySplit;
 import com.nuodb.migrator.utils.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.OutputStream;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -55,7 +61,10 @@ import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.indexOf;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.backup.BackupMessages.WRITE_QUERY_WORK;
+import static com.nuodb.migrator.backup.compression.Compressions.getCompression;
 import static com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.newBuilder;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.getSize;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.isLob;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
 import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
 import static com.nuodb.migrator.jdbc.model.FieldFactory.newFieldList;
@@ -75,6 +84,11 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
 
     private static final String QUERY = "query";
 
+    /**
+     * Number of rows written between progress events
+     */
+    public static final int PROGRESS_ROWS = 1000;
+
     private final BackupWriterManager backupWriterManager;
     private final WriteQuery writeQuery;
     private final QuerySplit querySplit;
@@ -82,9 +96,13 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
 
     private ResultSet resultSet;
     private Output output;
+    private Compression compression;
     private Collection<Chunk> chunks;
     private BackupWriterContext backupWriterContext;
     private ValueHandleList valueHandleList;
+    private RowCodec rowCodec;
+    private FetchSizeController fetchSizeController;
+    private long progressRows;
 
     public WriteQueryWork(WriteQuery writeQuery, QuerySplit querySplit,
                           boolean hasNextQuerySplit, BackupWriterManager backupWriterManager) {
@@ -105,13 +123,18 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
         backupWriterContext = backupWriterManager.getBackupWriterContext();
 
         final Dialect dialect = getSession().getDialect();
+        final Integer fetchSize = writeQuery.getFetchSize();
         resultSet = querySplit.getResultSet(getSession().getConnection(), new StatementCallback() {
             @Override
             public void executeStatement(Statement statement) throws SQLException {
                 boolean stream = writeQuery.getColumns() != null;
-                dialect.setFetchMode(statement, new FetchMode(stream));
+                dialect.setFetchMode(statement, fetchSize != null ?
+                        new FetchMode(stream, fetchSize) : new FetchMode(stream));
             }
         });
+        if (fetchSize == null) {
+            fetchSizeController = createFetchSizeController();
+        }
 
         Collection<? extends Field> fields = writeQuery.getColumns() != null ?
                 writeQuery.getColumns() : newFieldList(resultSet);
@@ -120,53 +143,121 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
                 withDialect(dialect).withFields(fields).
                 withTimeZone(backupWriterContext.getTimeZone()).
                 withValueFormatRegistry(backupWriterContext.getValueFormatRegistry()).build();
+        rowCodec = new RowCodec(valueHandleList);
 
         RowSet rowSet = writeQuery.getRowSet();
         if (isEmpty(rowSet.getColumns())) {
             Collection<Column> columns = newArrayList();
             for (ValueHandle valueHandle : valueHandleList) {
-                columns.add(new Column(valueHandle.getName(), valueHandle.getValueType()));
+                Column column = new Column(valueHandle.getName(), valueHandle.getValueType());
+                column.setLob(isLob(valueHandle));
+                columns.add(column);
             }
             rowSet.setColumns(columns);
         }
         rowSet.setName(getRowSetName());
 
-        output = backupWriterContext.getFormatFactory().createOutput(
+        output = createOutput(rowSet);
+        compression = getCompression(backupWriterContext.getCompression(),
+                backupWriterContext.getCompressionExecutor());
+        chunks = newArrayList();
+    }
+
+    /**
+     * Creates fetch size controller tuning fetch size to the memory budget of the work, a non positive budget turns
+     * tuning off
+     *
+     * @return fetch size controller or null
+     */
+    protected FetchSizeController createFetchSizeController() {
+        Long fetchMemory = backupWriterContext.getFetchMemory();
+        if (fetchMemory == null) {
+            return new FetchSizeController();
+        } else if (fetchMemory > 0) {
+            return new FetchSizeController(fetchMemory);
+        } else {
+            return null;
+        }
+    }
+
+    protected Output createOutput(RowSet rowSet) {
+        Output output = backupWriterContext.getFormatFactory().createOutput(
                 backupWriterContext.getFormat(), backupWriterContext.getFormatAttributes());
         output.setRowSet(rowSet);
-
-        chunks = newArrayList();
+        return output;
     }
 
     @Override
     public void execute() throws Exception {
         backupWriterManager.writeStart(this, writeQuery);
         ResultSet resultSet = getResultSet();
-        Output output = getOutput();
         Chunk chunk = null;
         long number = 0;
-        Value[] values = new Value[valueHandleList.size()];
+        Value[] values = new Value[rowCodec.size()];
         while (backupWriterManager.canExecute(this) && resultSet.next()) {
             if (chunk == null) {
                 writeStart(chunk = addChunk());
+                number = 0;
             }
-            if (!output.canWrite()) {
+            if (!canWrite()) {
+                chunk.flushRowCount();
                 writeEnd(chunk);
                 writeStart(chunk = addChunk());
+                number = 0;
             }
-            Row row = new Row(chunk, values, number);
-            int index = 0;
-            for (ValueHandle valueHandle : valueHandleList) {
-                values[index++] = valueHandle.getValueFormat().getValue(
-                        valueHandle.getJdbcValueAccess(), valueHandle.getJdbcValueAccessOptions());
+            Row row = new Row(chunk, values, number++);
+            rowCodec.getValues(values);
+            if (fetchSizeController != null) {
+                fetchSizeController.fetchRow(resultSet, getSize(values));
+                if (fetchSizeController.isAdjusted()) {
+                    fetchSizeController = null;
+                }
             }
-            output.writeValues(values);
-            chunk.incrementRowCount();
+            writeRow(row);
             backupWriterManager.writeRow(this, writeQuery, row);
+            if (++progressRows == PROGRESS_ROWS) {
+                chunk.flushRowCount();
+                writeProgress();
+            }
+        }
+        if (chunk != null) {
+            chunk.flushRowCount();
         }
+        writeProgress();
         if (chunk != null) {
             writeEnd(chunk);
         }
+        if (backupWriterManager.canExecute(this)) {
+            writeJournal();
+        }
+        backupWriterManager.writeEnd(this, writeQuery);
+    }
+
+    /**
+     * Records the split to the write journal once all of its rows are written
+     */
+    protected void writeJournal() {
+        WriteJournal writeJournal = backupWriterContext.getWriteJournal();
+        if (writeJournal != null) {
+            writeJournal.writeSplit(getRowSetName(), querySplit, writeQuery.getRowSet().getColumns(), chunks);
+        }
+    }
+
+    /**
+     * Restores chunks of the split written by the previous run from the write journal instead of executing the query
+     *
+     * @param writeSplit split recorded to the write journal
+     */
+    public void resume(WriteSplit writeSplit) {
+        RowSet rowSet = writeQuery.getRowSet();
+        synchronized (rowSet) {
+            if (isEmpty(rowSet.getColumns())) {
+                rowSet.setColumns(newArrayList(writeSplit.getColumns()));
+            }
+            rowSet.setName(getRowSetName());
+        }
+        chunks = newArrayList(writeSplit.getChunks());
+        backupWriterManager.writeStart(this, writeQuery);
         backupWriterManager.writeEnd(this, writeQuery);
     }
 
@@ -176,8 +267,36 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
         closeQuietly(resultSet);
     }
 
+    protected boolean canWrite() {
+        return output.canWrite();
+    }
+
+    /**
+     * Writes row values to the output of the current chunk. Values array is reused between the rows, so an
+     * implementation which holds the row after the method returns should take a copy of the values.
+     *
+     * @param row to write
+     * @throws Exception if write caused error
+     */
+    protected void writeRow(Row row) throws Exception {
+        output.writeValues(row.getValues());
+        row.getChunk().incrementRowCount();
+    }
+
+    /**
+     * Reports number of rows written since the previous progress event, if any
+     */
+    protected void writeProgress() {
+        if (progressRows > 0) {
+            backupWriterManager.writeProgress(this, writeQuery, progressRows);
+            progressRows = 0;
+        }
+    }
+
     protected void writeStart(Chunk chunk) throws Exception {
-        output.setOutputStream(backupWriterContext.getBackupOps().openOutput(chunk.getName()));
+        OutputStream outputStream = backupWriterContext.getBackupOps().openOutput(chunk.getName());
+        output.setOutputStream(compression != null ? compression.compress(outputStream) : outputStream);
+        output.setLobStore(new SimpleLobStore(backupWriterContext.getBackupOps(), chunk.getName(), compression));
         output.init();
         output.writeStart();
         backupWriterManager.writeStart(this, writeQuery, chunk);
@@ -186,6 +305,7 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
     protected void writeEnd(Chunk chunk) throws Exception {
         output.writeEnd();
         output.close();
+        chunk.setSize(backupWriterContext.getBackupOps().getLength(chunk.getName()));
         backupWriterManager.writeEnd(this, writeQuery, chunk);
     }
 
@@ -210,11 +330,24 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
         if (chunkIndex > 0) {
             names.add(chunkIndex + 1);
         }
-        names.add(backupWriterContext.getFormat());
+        String format = backupWriterContext.getFormat();
+        if (format != null) {
+            names.add(format);
+        }
         return lowerCase(StringUtils.join(names, "."));
     }
 
     protected String getRowSetName() {
+        return getRowSetName(writeQuery);
+    }
+
+    /**
+     * Names row set of the write query after the table or after the position of the query in the backup
+     *
+     * @param writeQuery which row set is added to the backup
+     * @return name of the row set
+     */
+    static String getRowSetName(WriteQuery writeQuery) {
         String rowSetName;
         if (writeQuery instanceof WriteTable) {
             Table table = ((WriteTable) writeQuery).getTable();
@@ -228,6 +361,10 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
         return lowerCase(rowSetName);
     }
 
+    protected BackupWriterManager getBackupWriterManager() {
+        return backupWriterManager;
+    }
+
     public WriteQuery getWriteQuery() {
         return writeQuery;
     }
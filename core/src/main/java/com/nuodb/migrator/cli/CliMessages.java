@@ -79,6 +79,10 @@ public interface CliMessages {
     final String OUTPUT_TYPE_ARGUMENT_NAME = "com.nuodb.migrator.output.type.argument.name";
     final String OUTPUT_PATH_OPTION_DESCRIPTION = "com.nuodb.migrator.output.path.option.description";
     final String OUTPUT_PATH_ARGUMENT_NAME = "com.nuodb.migrator.output.path.argument.name";
+    final String OUTPUT_COMPRESSION_OPTION_DESCRIPTION = "com.nuodb.migrator.output.compression.option.description";
+    final String OUTPUT_COMPRESSION_ARGUMENT_NAME = "com.nuodb.migrator.output.compression.argument.name";
+    final String OUTPUT_RESUME_OPTION_DESCRIPTION = "com.nuodb.migrator.output.resume.option.description";
+    final String INPUT_RESUME_OPTION_DESCRIPTION = "com.nuodb.migrator.input.resume.option.description";
     final String OUTPUT_OPTION_DESCRIPTION = "com.nuodb.migrator.output.option.description";
     final String OUTPUT_OPTION_ARGUMENT_NAME = "com.nuodb.migrator.output.argument.description";
 
@@ -91,6 +95,10 @@ public interface CliMessages {
     final String TABLE_EXCLUDE_OPTION_DESCRIPTION = "com.nuodb.migrator.table.exclude.option.description";
     final String TABLE_TYPE_OPTION_DESCRIPTION = "com.nuodb.migrator.table.type.option.description";
     final String TABLE_TYPE_ARGUMENT_NAME = "com.nuodb.migrator.table.type.argument.name";
+    final String INSPECTION_CACHE_OPTION_DESCRIPTION = "com.nuodb.migrator.inspection.cache.option.description";
+    final String INSPECTION_CACHE_ARGUMENT_NAME = "com.nuodb.migrator.inspection.cache.argument.name";
+    final String INSPECTION_CACHE_REFRESH_OPTION_DESCRIPTION =
+            "com.nuodb.migrator.inspection.cache.refresh.option.description";
     final String TABLE_ARGUMENT_NAME = "com.nuodb.migrator.table.argument.name";
     final String TABLE_EXCLUDE_ARGUMENT_NAME = "com.nuodb.migrator.table.exclude.argument.name";
 
@@ -101,6 +109,10 @@ public interface CliMessages {
     final String EXECUTOR_GROUP_NAME = "com.nuodb.migrator.executor.group.name";
     final String THREADS_OPTION_DESCRIPTION = "com.nuodb.migrator.threads.option.description";
     final String THREADS_ARGUMENT_NAME = "com.nuodb.migrator.threads.argument.name";
+    final String INDEX_THREADS_OPTION_DESCRIPTION = "com.nuodb.migrator.index.threads.option.description";
+    final String INDEX_THREADS_ARGUMENT_NAME = "com.nuodb.migrator.index.threads.argument.name";
+    final String PREFETCH_SIZE_OPTION_DESCRIPTION = "com.nuodb.migrator.prefetch.size.option.description";
+    final String PREFETCH_SIZE_ARGUMENT_NAME = "com.nuodb.migrator.prefetch.size.argument.name";
     final String PARALLELIZER_OPTION_DESCRIPTION = "com.nuodb.migrator.parallelizer.option.description";
     final String PARALLELIZER_ARGUMENT_NAME = "com.nuodb.migrator.parallelizer.argument.name";
     final String PARALLELIZER_ATTRIBUTES_OPTION_DESCRIPTION = "com.nuodb.migrator.parallelizer.attributes.option.description";
@@ -180,4 +192,16 @@ public interface CliMessages {
     final String INSERT_TYPE_GROUP_NAME = "com.nuodb.migrator.insert.type.group.name";
     final String TABLE_REPLACE_OPTION_DESCRIPTION = "com.nuodb.migrator.table.replace.option.description";
     final String TABLE_INSERT_OPTION_DESCRIPTION = "com.nuodb.migrator.table.insert.option.description";
+    final String INSERT_ROWS_OPTION_DESCRIPTION = "com.nuodb.migrator.insert.rows.option.description";
+    final String INSERT_ROWS_ARGUMENT_NAME = "com.nuodb.migrator.insert.rows.argument.name";
+
+    final String COPY_GROUP_NAME = "com.nuodb.migrator.copy.group.name";
+    final String QUEUE_SIZE_OPTION_DESCRIPTION = "com.nuodb.migrator.queue.size.option.description";
+    final String QUEUE_SIZE_ARGUMENT_NAME = "com.nuodb.migrator.queue.size.argument.name";
+
+    final String FETCH_GROUP_NAME = "com.nuodb.migrator.fetch.group.name";
+    final String FETCH_MEMORY_OPTION_DESCRIPTION = "com.nuodb.migrator.fetch.memory.option.description";
+    final String FETCH_MEMORY_ARGUMENT_NAME = "com.nuodb.migrator.fetch.memory.argument.name";
+    final String TABLE_FETCH_SIZE_OPTION_DESCRIPTION = "com.nuodb.migrator.table.fetch.size.option.description";
+    final String TABLE_FETCH_SIZE_ARGUMENT_NAME = "com.nuodb.migrator.table.fetch.size.argument.name";
 }
@@ -57,6 +57,7 @@ public interface CliOptions {
     final String DUMP = "dump";
     final String LOAD = "load";
     final String SCHEMA = "schema";
+    final String COPY = "copy";
 
     final String SOURCE_DRIVER = "source.driver";
     final String SOURCE_URL = "source.url";
@@ -73,6 +74,8 @@ public interface CliOptions {
     final String OUTPUT_OPTION = "output.*";
     final String OUTPUT_TYPE = "output.type";
     final String OUTPUT_PATH = "output.path";
+    final String OUTPUT_COMPRESSION = "output.compression";
+    final String RESUME = "resume";
 
     final String MIGRATION_MODE_DATA = "data";
     final String MIGRATION_MODE_SCHEMA = "schema";
@@ -85,9 +88,14 @@ public interface CliOptions {
 
     final String THREADS = "threads";
     final String THREADS_SHORT = "t";
+    final String INDEX_THREADS = "index.threads";
+    final String PREFETCH_SIZE = "prefetch.size";
 
     final String QUERY_LIMIT = "query.limit";
 
+    final String FETCH_MEMORY = "fetch.memory";
+    final String TABLE_FETCH_SIZE = "table.*.fetch.size";
+
     final String QUERY = "query";
 
     final String TARGET_DRIVER = "target.driver";
@@ -100,17 +108,21 @@ public interface CliOptions {
 
     final String REPLACE = "replace";
     final String REPLACE_SHORT = "r";
+    final String INSERT_ROWS = "insert.rows";
 
     final String COMMIT_STRATEGY = "commit.strategy";
     final String COMMIT_STRATEGY_ATTRIBUTES = "commit.*";
     final String PARALLELIZER = "parallelizer";
     final String PARALLELIZER_ATTRIBUTES = "parallelizer.*";
     final String PARALLELIZER_SHORT = "p";
+    final String QUEUE_SIZE = "queue.size";
 
     final String INPUT = "input.*";
     final String INPUT_PATH = "input.path";
 
     final String META_DATA = "meta.data.*";
+    final String INSPECTION_CACHE = "inspection.cache";
+    final String INSPECTION_CACHE_REFRESH = "inspection.cache.refresh";
     final String FAIL_ON_EMPTY_DATABASE = "fail.on.empty.database";
     final String NAMING_STRATEGY = "naming.strategy";
     final String SCRIPT_TYPE = "script.type";
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.cli.run;
+
+import com.nuodb.migrator.cli.parse.Option;
+import com.nuodb.migrator.cli.parse.OptionSet;
+import com.nuodb.migrator.cli.parse.option.GroupBuilder;
+import com.nuodb.migrator.spec.CopyJobSpec;
+
+import java.util.Map;
+
+import static com.nuodb.migrator.context.ContextUtils.getMessage;
+import static com.nuodb.migrator.utils.StringUtils.isEmpty;
+import static java.lang.Integer.parseInt;
+
+/**
+ * Assembles copy job spec, which reads rows from the source database and writes them directly to the target
+ * database without intermediate backup files.
+ *
+ * @author Sergey Bushik
+ */
+public class CliCopyJob extends CliJob<CopyJobSpec> {
+
+    public CliCopyJob() {
+        super(COPY);
+    }
+
+    @Override
+    protected Option createOption() {
+        GroupBuilder group = newGroupBuilder().
+                withName(getMessage(COPY_GROUP_NAME)).withRequired(true);
+        group.withOption(createSourceGroup());
+        group.withOption(createTargetGroup());
+        group.withOption(createMigrationModeGroup());
+        group.withOption(createDataMigrationGroup());
+        group.withOption(createSchemaMigrationGroup());
+        group.withOption(createExecutorGroup());
+        return group.build();
+    }
+
+    @Override
+    protected void bind(OptionSet optionSet) {
+        CopyJobSpec jobSpec = new CopyJobSpec();
+        jobSpec.setSourceSpec(parseSourceGroup(optionSet, this));
+        jobSpec.setTargetSpec(parseTargetGroup(optionSet, this));
+        jobSpec.setMigrationModes(parseMigrationModeGroup(optionSet, this));
+        parseDataMigrationGroup(optionSet, jobSpec);
+        parseSchemaMigrationGroup(optionSet, jobSpec, this);
+        parseExecutorGroup(optionSet, jobSpec);
+        setJobSpec(jobSpec);
+    }
+
+    @Override
+    public void execute(Map<Object, Object> context) {
+        getMigrator().execute(getJobSpec(), context);
+    }
+
+    protected Option createDataMigrationGroup() {
+        GroupBuilder group = newGroupBuilder().withName(getMessage(DATA_MIGRATION_GROUP_NAME));
+        group.withOption(createMetaDataFilterManagerGroup());
+        group.withOption(createCommitGroup());
+        group.withOption(createInsertTypeGroup());
+        group.withOption(createTimeZoneOption());
+        group.withOption(createQueryLimitOption());
+        group.withOption(createFetchGroup());
+        return group.build();
+    }
+
+    @Override
+    protected void createExecutorGroup(GroupBuilder group) {
+        super.createExecutorGroup(group);
+
+        Option queueSize = newBasicOptionBuilder().
+                withName(QUEUE_SIZE).
+                withDescription(getMessage(QUEUE_SIZE_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(QUEUE_SIZE_ARGUMENT_NAME)).build()
+                ).build();
+        group.withOption(queueSize);
+        group.withOption(createIndexThreadsOption());
+    }
+
+    protected void parseDataMigrationGroup(OptionSet optionSet, CopyJobSpec jobSpec) {
+        jobSpec.setMetaDataFilterManager(parseMetaDataFilterManagerGroup(optionSet, this));
+        jobSpec.setCommitStrategy(parseCommitGroup(optionSet, this));
+        jobSpec.setInsertType(parseInsertType(optionSet, this));
+        jobSpec.setTableInsertTypes(parseTableInsertTypes(optionSet, this));
+        jobSpec.setInsertRows(parseInsertRowsOption(optionSet, this));
+        jobSpec.setTimeZone(parseTimeZoneOption(optionSet, this));
+        jobSpec.setQueryLimit(parseQueryLimitOption(optionSet, this));
+        jobSpec.setFetchMemory(parseFetchMemoryOption(optionSet, this));
+        jobSpec.setTableSpecs(parseTableSpecs(optionSet, this));
+    }
+
+    protected void parseExecutorGroup(OptionSet optionSet, CopyJobSpec jobSpec) {
+        jobSpec.setThreads(parseThreadsOption(optionSet, this));
+        jobSpec.setIndexThreads(parseIndexThreadsOption(optionSet, this));
+        String queueSizeValue = (String) optionSet.getValue(QUEUE_SIZE);
+        jobSpec.setQueueSize(!isEmpty(queueSizeValue) ? parseInt(queueSizeValue) : null);
+    }
+}
@@ -32,7 +32,6 @@ import com.nuodb.migrator.cli.parse.Option;
 import com.nuodb.migrator.cli.parse.OptionSet;
 import com.nuodb.migrator.cli.parse.option.GroupBuilder;
 import com.nuodb.migrator.cli.parse.option.OptionFormat;
-import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.spec.DumpJobSpec;
 import com.nuodb.migrator.spec.QuerySpec;
 
@@ -44,8 +43,6 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
 import static com.nuodb.migrator.utils.Priority.LOW;
 import static java.lang.Integer.MAX_VALUE;
-import static java.lang.Long.parseLong;
-import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 /**
  * An implementation of {@link CliRunAdapter} which assembles dump spec from provided command line after the validation
@@ -77,6 +74,8 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
         DumpJobSpec dumpJobSpec = new DumpJobSpec();
         dumpJobSpec.setSourceSpec(parseSourceGroup(optionSet, this));
         dumpJobSpec.setOutputSpec(parseOutputGroup(optionSet, this));
+        dumpJobSpec.setCompression(parseCompressionOption(optionSet, this));
+        dumpJobSpec.setResume(optionSet.hasOption(RESUME));
         dumpJobSpec.setMigrationModes(parseMigrationModeGroup(optionSet, this));
         parseDataMigrationGroup(optionSet, dumpJobSpec);
         parseSchemaMigrationGroup(optionSet, dumpJobSpec);
@@ -94,6 +93,7 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
         group.withOption(createQueryGroup());
         group.withOption(createTimeZoneOption());
         group.withOption(createQueryLimitOption());
+        group.withOption(createFetchGroup());
         return group.build();
     }
 
@@ -118,22 +118,14 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
         return group.build();
     }
 
-    protected Option createQueryLimitOption() {
-        return newBasicOptionBuilder().
-                withName(QUERY_LIMIT).
-                withDescription(getMessage(QUERY_LIMIT_OPTION_DESCRIPTION)).
-                withArgument(
-                        newArgumentBuilder().
-                                withName(getMessage(QUERY_LIMIT_ARGUMENT_NAME)).build()
-                ).build();
-    }
-
     protected void parseDataMigrationGroup(OptionSet optionSet, DumpJobSpec jobSpec) {
         jobSpec.setMetaDataFilterManager(parseMetaDataFilterManagerGroup(optionSet, this));
         jobSpec.setQuerySpecs(parseQueryGroup(optionSet));
         jobSpec.setTimeZone(parseTimeZoneOption(optionSet, this));
         jobSpec.setThreads(parseThreadsOption(optionSet, this));
         jobSpec.setQueryLimit(parseQueryLimitOption(optionSet, this));
+        jobSpec.setFetchMemory(parseFetchMemoryOption(optionSet, this));
+        jobSpec.setTableSpecs(parseTableSpecs(optionSet, this));
     }
 
     protected Collection<QuerySpec> parseQueryGroup(OptionSet optionSet) {
@@ -144,11 +136,6 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
         return querySpecs;
     }
 
-    protected QueryLimit parseQueryLimitOption(OptionSet optionSet, Option option) {
-        String queryLimitValue = (String) optionSet.getValue(QUERY_LIMIT);
-        return !isEmpty(queryLimitValue) ? new QueryLimit(parseLong(queryLimitValue)) : null;
-    }
-
     @Override
     protected Group createSchemaMigrationGroup() {
         GroupBuilder group = newGroupBuilder().withName(getMessage(SCHEMA_MIGRATION_GROUP_NAME));
@@ -178,6 +165,8 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
                 )
                 .build();
         group.withOption(metaData);
+        group.withOption(createInspectionCacheOption());
+        group.withOption(createInspectionCacheRefreshOption());
         return group.build();
     }
 
@@ -186,5 +175,6 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
             jobSpec.setObjectTypes(parseObjectTypes(optionSet));
         }
         jobSpec.setTableTypes(parseTableTypes(optionSet));
+        parseInspectionCache(optionSet, jobSpec.getMetaDataSpec());
     }
 }
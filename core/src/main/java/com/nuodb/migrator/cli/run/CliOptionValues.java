@@ -31,6 +31,7 @@ import com.nuodb.migrator.cli.parse.Option;
 import com.nuodb.migrator.cli.parse.OptionException;
 import com.nuodb.migrator.jdbc.commit.BatchCommitStrategy;
 import com.nuodb.migrator.jdbc.commit.CommitStrategy;
+import com.nuodb.migrator.jdbc.commit.GroupCommitStrategy;
 import com.nuodb.migrator.jdbc.commit.SingleCommitStrategy;
 import com.nuodb.migrator.jdbc.dialect.IdentifierNormalizer;
 import com.nuodb.migrator.jdbc.dialect.IdentifierQuoting;
@@ -96,6 +97,7 @@ public class CliOptionValues {
      */
     public static final String COMMIT_STRATEGY_SINGLE = "single";
     public static final String COMMIT_STRATEGY_BATCH = "batch";
+    public static final String COMMIT_STRATEGY_GROUP = "group";
 
     private CliOptionValues() {
     }
@@ -165,6 +167,7 @@ public class CliOptionValues {
         Map<String, CommitStrategy> commitStrategyMapping = new TreeMap<String, CommitStrategy>(CASE_INSENSITIVE_ORDER);
         commitStrategyMapping.put(COMMIT_STRATEGY_SINGLE, new SingleCommitStrategy());
         commitStrategyMapping.put(COMMIT_STRATEGY_BATCH, new BatchCommitStrategy());
+        commitStrategyMapping.put(COMMIT_STRATEGY_GROUP, new GroupCommitStrategy());
         return commitStrategyMapping;
     }
 }
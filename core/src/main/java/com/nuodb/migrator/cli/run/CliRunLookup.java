@@ -40,6 +40,7 @@ public class CliRunLookup {
     private Map<String, CliRun> cliJobMap = newHashMap();
 
     public CliRunLookup() {
+        add(new CliCopyJob());
         add(new CliDumpJob());
         add(new CliLoadJob());
         add(new CliSchemaJob());
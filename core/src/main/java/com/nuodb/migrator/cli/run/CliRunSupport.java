@@ -29,6 +29,7 @@ package com.nuodb.migrator.cli.run;
 
 import com.google.common.base.Function;
 import com.google.common.collect.ListMultimap;
+import com.nuodb.migrator.backup.BackupException;
 import com.nuodb.migrator.cli.CliSupport;
 import com.nuodb.migrator.cli.parse.Group;
 import com.nuodb.migrator.cli.parse.Option;
@@ -63,12 +64,16 @@ import com.nuodb.migrator.jdbc.metadata.generator.SequenceQualifyNamingStrategy;
 import com.nuodb.migrator.jdbc.metadata.generator.TriggerAutoNamingStrategy;
 import com.nuodb.migrator.jdbc.metadata.generator.TriggerHashNamingStrategy;
 import com.nuodb.migrator.jdbc.metadata.generator.TriggerQualifyNamingStrategy;
+import com.nuodb.migrator.jdbc.query.InsertType;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.jdbc.type.JdbcTypeCodes;
 import com.nuodb.migrator.spec.DriverConnectionSpec;
 import com.nuodb.migrator.spec.JdbcTypeSpec;
+import com.nuodb.migrator.spec.MetaDataSpec;
 import com.nuodb.migrator.spec.MigrationMode;
 import com.nuodb.migrator.spec.ResourceSpec;
 import com.nuodb.migrator.spec.ScriptGeneratorJobSpecBase;
+import com.nuodb.migrator.spec.TableSpec;
 import com.nuodb.migrator.utils.PrioritySet;
 import com.nuodb.migrator.utils.ReflectionException;
 import com.nuodb.migrator.utils.StringUtils;
@@ -88,6 +93,11 @@ import static com.google.common.collect.Lists.transform;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newHashSet;
 import static com.google.common.collect.Sets.newLinkedHashSet;
+import static com.nuodb.migrator.backup.compression.Compressions.NONE;
+import static com.nuodb.migrator.backup.compression.Compressions.getCompression;
+import static com.nuodb.migrator.backup.compression.DeflateCompression.DEFLATE;
+import static com.nuodb.migrator.backup.compression.DeflateCompression.FAST;
+import static com.nuodb.migrator.backup.compression.GzipCompression.GZIP;
 import static com.nuodb.migrator.backup.format.csv.CsvFormat.TYPE;
 import static com.nuodb.migrator.cli.parse.option.OptionUtils.optionUnexpected;
 import static com.nuodb.migrator.cli.run.CliOptionValues.*;
@@ -267,6 +277,20 @@ public class CliRunSupport extends CliSupport {
                 ).build();
         group.withOption(path);
 
+        Option compression = newBasicOptionBuilder().
+                withName(OUTPUT_COMPRESSION).
+                withDescription(getMessage(OUTPUT_COMPRESSION_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(OUTPUT_COMPRESSION_ARGUMENT_NAME)).build()
+                ).build();
+        group.withOption(compression);
+
+        Option resume = newBasicOptionBuilder().
+                withName(RESUME).
+                withDescription(getMessage(OUTPUT_RESUME_OPTION_DESCRIPTION)).build();
+        group.withOption(resume);
+
         OptionFormat optionFormat = new OptionFormat(getOptionFormat());
         optionFormat.setValuesSeparator(null);
 
@@ -441,6 +465,10 @@ public class CliRunSupport extends CliSupport {
                                 withName(getMessage(INPUT_PATH_ARGUMENT_NAME)).build()
                 ).build();
 
+        Option resume = newBasicOptionBuilder().
+                withName(RESUME).
+                withDescription(getMessage(INPUT_RESUME_OPTION_DESCRIPTION)).build();
+
         OptionFormat optionFormat = new OptionFormat(getOptionFormat());
         optionFormat.setValuesSeparator(null);
 
@@ -459,6 +487,7 @@ public class CliRunSupport extends CliSupport {
                 withRequired(true).
                 withMinimum(1).
                 withOption(path).
+                withOption(resume).
                 withOption(attributes).build();
     }
 
@@ -585,6 +614,24 @@ public class CliRunSupport extends CliSupport {
         return group.build();
     }
 
+    protected Option createInspectionCacheOption() {
+        return newBasicOptionBuilder().
+                withName(INSPECTION_CACHE).
+                withDescription(getMessage(INSPECTION_CACHE_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(INSPECTION_CACHE_ARGUMENT_NAME)).
+                                withMinimum(1).
+                                withRequired(true).build()
+                ).build();
+    }
+
+    protected Option createInspectionCacheRefreshOption() {
+        return newBasicOptionBuilder().
+                withName(INSPECTION_CACHE_REFRESH).
+                withDescription(getMessage(INSPECTION_CACHE_REFRESH_OPTION_DESCRIPTION)).build();
+    }
+
     protected Group createJdbcTypeGroup() {
         GroupBuilder group = newGroupBuilder().withName(getMessage(JDBC_TYPE_GROUP_NAME));
 
@@ -696,6 +743,94 @@ public class CliRunSupport extends CliSupport {
         group.withOption(threads);
     }
 
+    protected Option createIndexThreadsOption() {
+        return newBasicOptionBuilder().
+                withName(INDEX_THREADS).
+                withDescription(getMessage(INDEX_THREADS_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(INDEX_THREADS_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
+    protected Option createPrefetchSizeOption() {
+        return newBasicOptionBuilder().
+                withName(PREFETCH_SIZE).
+                withDescription(getMessage(PREFETCH_SIZE_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(PREFETCH_SIZE_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
+    protected Option createQueryLimitOption() {
+        return newBasicOptionBuilder().
+                withName(QUERY_LIMIT).
+                withDescription(getMessage(QUERY_LIMIT_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(QUERY_LIMIT_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
+    protected Option createFetchGroup() {
+        GroupBuilder group = newGroupBuilder().withName(getMessage(FETCH_GROUP_NAME));
+
+        Option fetchMemory = newBasicOptionBuilder().
+                withName(FETCH_MEMORY).
+                withDescription(getMessage(FETCH_MEMORY_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(FETCH_MEMORY_ARGUMENT_NAME)).build()
+                ).build();
+        group.withOption(fetchMemory);
+
+        Option tableFetchSize = newRegexOptionBuilder().
+                withName(TABLE_FETCH_SIZE).
+                withDescription(getMessage(TABLE_FETCH_SIZE_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(TABLE_FETCH_SIZE_ARGUMENT_NAME)).build()
+                ).
+                withRegex(TABLE_FETCH_SIZE, 1, LOW).build();
+        group.withOption(tableFetchSize);
+
+        return group.build();
+    }
+
+    protected Option createInsertTypeGroup() {
+        GroupBuilder group = newGroupBuilder().withName(getMessage(INSERT_TYPE_GROUP_NAME));
+
+        Option replace = newBasicOptionBuilder().
+                withName(REPLACE).
+                withAlias(REPLACE_SHORT, OptionFormat.SHORT).
+                withDescription(getMessage(REPLACE_OPTION_DESCRIPTION)).build();
+        group.withOption(replace);
+
+        Option replaceType = newRegexOptionBuilder().
+                withName(TABLE_REPLACE).
+                withDescription(getMessage(TABLE_REPLACE_OPTION_DESCRIPTION)).
+                withRegex(TABLE_REPLACE, 1, LOW).build();
+        group.withOption(replaceType);
+
+        Option insertType = newRegexOptionBuilder().
+                withName(TABLE_INSERT).
+                withDescription(getMessage(TABLE_INSERT_OPTION_DESCRIPTION)).
+                withRegex(TABLE_INSERT, 1, LOW).build();
+        group.withOption(insertType);
+
+        Option insertRows = newBasicOptionBuilder().
+                withName(INSERT_ROWS).
+                withDescription(getMessage(INSERT_ROWS_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(INSERT_ROWS_ARGUMENT_NAME)).build()
+                ).build();
+        group.withOption(insertRows);
+
+        return group.build();
+    }
+
     protected MetaDataFilterManager parseMetaDataFilterManagerGroup(OptionSet optionSet, Option option) {
         MetaDataFilterManager filterManager = new MetaDataFilterManager();
         Collection<MetaDataFilter<Identifiable>> filters = newArrayList();
@@ -756,6 +891,20 @@ public class CliRunSupport extends CliSupport {
         return resource;
     }
 
+    protected String parseCompressionOption(OptionSet optionSet, Option option) {
+        String compression = (String) optionSet.getValue(OUTPUT_COMPRESSION);
+        if (!StringUtils.isEmpty(compression)) {
+            try {
+                getCompression(compression);
+            } catch (BackupException exception) {
+                throw new OptionException(format("Unexpected value for %s option, valid values are %s",
+                        OUTPUT_COMPRESSION, asList(NONE, GZIP, DEFLATE, FAST)), option);
+            }
+            return compression.toLowerCase();
+        }
+        return null;
+    }
+
     protected Collection<MigrationMode> parseMigrationModeGroup(OptionSet optionSet, Option option) {
         return parseMigrationModeGroup(optionSet, option, newHashSet(MigrationMode.values()));
     }
@@ -1001,6 +1150,11 @@ public class CliRunSupport extends CliSupport {
         return identifierNormalizer != null ? identifierNormalizer : NOOP;
     }
 
+    protected void parseInspectionCache(OptionSet optionSet, MetaDataSpec metaDataSpec) {
+        metaDataSpec.setInspectionCache((String) optionSet.getValue(INSPECTION_CACHE));
+        metaDataSpec.setRefreshInspectionCache(optionSet.hasOption(INSPECTION_CACHE_REFRESH));
+    }
+
     protected String[] parseTableTypes(OptionSet optionSet) {
         Collection<String> tableTypes = newLinkedHashSet();
         tableTypes.addAll(optionSet.<String>getValues(TABLE_TYPE));
@@ -1032,11 +1186,73 @@ public class CliRunSupport extends CliSupport {
         return objectTypes;
     }
 
+    protected QueryLimit parseQueryLimitOption(OptionSet optionSet, Option option) {
+        String queryLimitValue = (String) optionSet.getValue(QUERY_LIMIT);
+        return !StringUtils.isEmpty(queryLimitValue) ? new QueryLimit(parseLong(queryLimitValue)) : null;
+    }
+
+    protected Long parseFetchMemoryOption(OptionSet optionSet, Option option) {
+        String fetchMemoryValue = (String) optionSet.getValue(FETCH_MEMORY);
+        return !StringUtils.isEmpty(fetchMemoryValue) ? parseLong(fetchMemoryValue) : null;
+    }
+
+    /**
+     * Parses --table.*.fetch.size=<fetch size> options, values of which are stored as pairs of table name and fetch
+     * size
+     *
+     * @param optionSet to parse table fetch sizes from
+     * @param option    owning option
+     * @return table specs with fetch sizes
+     */
+    protected Collection<TableSpec> parseTableSpecs(OptionSet optionSet, Option option) {
+        Collection<TableSpec> tableSpecs = newArrayList();
+        List<String> values = optionSet.getValues(TABLE_FETCH_SIZE);
+        for (Iterator<String> iterator = values.iterator(); iterator.hasNext(); ) {
+            TableSpec tableSpec = new TableSpec(iterator.next());
+            String fetchSizeValue = iterator.hasNext() ? iterator.next() : null;
+            if (!StringUtils.isEmpty(fetchSizeValue)) {
+                tableSpec.setFetchSize(parseInt(fetchSizeValue));
+                tableSpecs.add(tableSpec);
+            }
+        }
+        return tableSpecs;
+    }
+
+    protected InsertType parseInsertType(OptionSet optionSet, Option option) {
+        return optionSet.hasOption(REPLACE) ? InsertType.REPLACE : InsertType.INSERT;
+    }
+
+    protected Integer parseInsertRowsOption(OptionSet optionSet, Option option) {
+        String insertRowsValue = (String) optionSet.getValue(INSERT_ROWS);
+        return !StringUtils.isEmpty(insertRowsValue) ? parseInt(insertRowsValue) : null;
+    }
+
+    protected Map<String, InsertType> parseTableInsertTypes(OptionSet optionSet, Option option) {
+        Map<String, InsertType> tableInsertTypes = newHashMap();
+        for (String table : optionSet.<String>getValues(TABLE_INSERT)) {
+            tableInsertTypes.put(table, InsertType.INSERT);
+        }
+        for (String table : optionSet.<String>getValues(TABLE_REPLACE)) {
+            tableInsertTypes.put(table, InsertType.REPLACE);
+        }
+        return tableInsertTypes;
+    }
+
     protected Integer parseThreadsOption(OptionSet optionSet, Option option) {
         String threadsValue = (String) optionSet.getValue(THREADS);
         return !StringUtils.isEmpty(threadsValue) ? parseInt(threadsValue) : null;
     }
 
+    protected Integer parseIndexThreadsOption(OptionSet optionSet, Option option) {
+        String indexThreadsValue = (String) optionSet.getValue(INDEX_THREADS);
+        return !StringUtils.isEmpty(indexThreadsValue) ? parseInt(indexThreadsValue) : null;
+    }
+
+    protected Integer parsePrefetchSizeOption(OptionSet optionSet, Option option) {
+        String prefetchSizeValue = (String) optionSet.getValue(PREFETCH_SIZE);
+        return !StringUtils.isEmpty(prefetchSizeValue) ? parseInt(prefetchSizeValue) : null;
+    }
+
 
     public TimeZone getDefaultTimeZone() {
         return defaultTimeZone;
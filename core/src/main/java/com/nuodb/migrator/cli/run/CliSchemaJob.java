@@ -92,6 +92,8 @@ public class CliSchemaJob extends CliJob<SchemaJobSpec> {
                 )
                 .build();
         group.addOption(failOnEmptyDatabase);
+        group.addOption(createInspectionCacheOption());
+        group.addOption(createInspectionCacheRefreshOption());
         return group;
     }
 
@@ -116,6 +118,7 @@ public class CliSchemaJob extends CliJob<SchemaJobSpec> {
         super.parseSchemaMigrationGroup(optionSet, jobSpec, option);
         String value = (String)optionSet.getValue(FAIL_ON_EMPTY_DATABASE);
         jobSpec.setFailOnEmptyDatabase(!isEmpty(value) ? parseBoolean(value) : FAIL_ON_EMPTY_DATABASE_DEFAULT);
+        parseInspectionCache(optionSet, jobSpec.getMetaDataSpec());
     }
 
     @Override
@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.copy;
+
+import com.nuodb.migrator.MigratorException;
+import com.nuodb.migrator.backup.loader.InsertTypeFactory;
+import com.nuodb.migrator.backup.loader.SimpleInsertTypeFactory;
+import com.nuodb.migrator.jdbc.commit.AsyncCommitStrategy;
+import com.nuodb.migrator.jdbc.commit.CommitStrategy;
+import com.nuodb.migrator.jdbc.dialect.TranslationConfig;
+import com.nuodb.migrator.jdbc.query.InsertType;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.jdbc.session.SessionFactory;
+import com.nuodb.migrator.job.ScriptGeneratorJobBase;
+import com.nuodb.migrator.spec.ConnectionSpec;
+import com.nuodb.migrator.spec.CopyJobSpec;
+import com.nuodb.migrator.spec.MigrationMode;
+import com.nuodb.migrator.spec.TableSpec;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static com.nuodb.migrator.backup.loader.BackupLoader.INDEX_THREADS;
+import static com.nuodb.migrator.backup.loader.BackupLoader.INSERT_ROWS;
+import static com.nuodb.migrator.backup.loader.BackupLoader.THREADS;
+import static com.nuodb.migrator.copy.CopyLoader.QUEUE_SIZE;
+import static com.nuodb.migrator.jdbc.session.SessionFactories.newSessionFactory;
+import static com.nuodb.migrator.jdbc.session.SessionObservers.newSessionTimeZoneSetter;
+import static com.nuodb.migrator.jdbc.session.SessionObservers.newTransactionIsolationSetter;
+import static java.sql.Connection.*;
+
+/**
+ * Copies data & schema from the source database to the target database on the fly, without writing intermediate
+ * backup files.
+ *
+ * @author Sergey Bushik
+ */
+public class CopyJob extends ScriptGeneratorJobBase<CopyJobSpec> {
+
+    private CopyLoader copyLoader;
+
+    public CopyJob(CopyJobSpec jobSpec) {
+        super(jobSpec);
+    }
+
+    @Override
+    protected void init() throws Exception {
+        super.init();
+
+        int threads = getThreads() != null ? getThreads() : THREADS;
+        CopyWriter copyWriter = new CopyWriter();
+        copyWriter.setInspectionManager(createInspectionManager());
+        copyWriter.setMetaDataSpec(getMetaDataSpec());
+        copyWriter.setMigrationModes(getMigrationModes());
+        copyWriter.setQueryLimit(getQueryLimit());
+        copyWriter.setTableSpecs(getTableSpecs());
+        copyWriter.setFetchMemory(getFetchMemory());
+        copyWriter.setSourceSpec(getSourceSpec());
+        copyWriter.setSourceSessionFactory(createSourceSessionFactory());
+        copyWriter.setTimeZone(getTimeZone());
+        copyWriter.setThreads(threads);
+        copyWriter.setValueFormatRegistryResolver(createValueFormatRegistryResolver());
+
+        CopyLoader copyLoader = new CopyLoader();
+        copyLoader.setCopyWriter(copyWriter);
+        copyLoader.setCommitStrategy(getCommitStrategy());
+        copyLoader.setDialectResolver(createDialectResolver());
+        copyLoader.setJdbcTypeSpecs(getJdbcTypeSpecs());
+        copyLoader.setGroupScriptsBy(getGroupScriptsBy());
+        copyLoader.setIdentifierNormalizer(getIdentifierNormalizer());
+        copyLoader.setIdentifierQuoting(getIdentifierQuoting());
+        copyLoader.setInsertTypeFactory(createInsertTypeMapper());
+        copyLoader.setInsertRows(getInsertRows() != null ? getInsertRows() : INSERT_ROWS);
+        copyLoader.setInspectionManager(createInspectionManager());
+        copyLoader.setMetaDataSpec(getMetaDataSpec());
+        copyLoader.setMigrationModes(getMigrationModes());
+        copyLoader.setNamingStrategies(getNamingStrategies());
+        copyLoader.setQueueSize(getQueueSize() != null ? getQueueSize() : QUEUE_SIZE);
+        copyLoader.setScriptTypes(getScriptTypes());
+        copyLoader.setMetaDataFilterManager(getMetaDataFilterManager());
+        copyLoader.setTargetSpec(getTargetSpec());
+        copyLoader.setTargetSessionFactory(createTargetSessionFactory());
+        copyLoader.setTimeZone(getTimeZone());
+        copyLoader.setThreads(threads);
+        copyLoader.setIndexThreads(getIndexThreads() != null ? getIndexThreads() : INDEX_THREADS);
+        copyLoader.setTranslationConfig(getTranslationConfig());
+        copyLoader.setValueFormatRegistryResolver(createValueFormatRegistryResolver());
+        setCopyLoader(copyLoader);
+    }
+
+    protected InsertTypeFactory createInsertTypeMapper() {
+        return new SimpleInsertTypeFactory(getInsertType(), getTableInsertTypes());
+    }
+
+    protected SessionFactory createSourceSessionFactory() {
+        SessionFactory sessionFactory = newSessionFactory(
+                createConnectionProvider(getSourceSpec(), getThreads() != null ? getThreads() : THREADS),
+                createDialectResolver());
+        sessionFactory.setReuseSessions(true);
+        if (getSourceSpec().getTransactionIsolation() == null) {
+            sessionFactory.addSessionObserver(newTransactionIsolationSetter(new int[]{
+                    TRANSACTION_SERIALIZABLE,
+                    TRANSACTION_REPEATABLE_READ,
+                    TRANSACTION_READ_COMMITTED
+            }));
+        }
+        sessionFactory.addSessionObserver(newSessionTimeZoneSetter(getTimeZone()));
+        return sessionFactory;
+    }
+
+    /**
+     * Creates target session factory with a connection per loading thread, or two of them if the commit strategy
+     * executes batches in background with a separate connection
+     *
+     * @return target session factory
+     */
+    protected SessionFactory createTargetSessionFactory() {
+        int threads = getThreads() != null ? getThreads() : THREADS;
+        CommitStrategy commitStrategy = getCommitStrategy();
+        if (commitStrategy == null || commitStrategy instanceof AsyncCommitStrategy) {
+            threads *= 2;
+        }
+        SessionFactory targetSessionFactory = newSessionFactory(
+                createConnectionProvider(getTargetSpec(), threads), createDialectResolver());
+        targetSessionFactory.setReuseSessions(true);
+        targetSessionFactory.addSessionObserver(newSessionTimeZoneSetter(getTimeZone()));
+        return targetSessionFactory;
+    }
+
+    @Override
+    public void execute() throws Exception {
+        try {
+            CopyLoader copyLoader = getCopyLoader();
+            copyLoader.copy();
+        } catch (MigratorException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new CopyException(exception);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+    }
+
+    protected CopyLoader getCopyLoader() {
+        return copyLoader;
+    }
+
+    protected void setCopyLoader(CopyLoader copyLoader) {
+        this.copyLoader = copyLoader;
+    }
+
+    protected CommitStrategy getCommitStrategy() {
+        return getJobSpec().getCommitStrategy();
+    }
+
+    protected InsertType getInsertType() {
+        return getJobSpec().getInsertType();
+    }
+
+    protected Integer getInsertRows() {
+        return getJobSpec().getInsertRows();
+    }
+
+    protected Collection<MigrationMode> getMigrationModes() {
+        return getJobSpec().getMigrationModes();
+    }
+
+    protected QueryLimit getQueryLimit() {
+        return getJobSpec().getQueryLimit();
+    }
+
+    protected Collection<TableSpec> getTableSpecs() {
+        return getJobSpec().getTableSpecs();
+    }
+
+    protected Long getFetchMemory() {
+        return getJobSpec().getFetchMemory();
+    }
+
+    protected Integer getQueueSize() {
+        return getJobSpec().getQueueSize();
+    }
+
+    protected ConnectionSpec getSourceSpec() {
+        return getJobSpec().getSourceSpec();
+    }
+
+    protected Map<String, InsertType> getTableInsertTypes() {
+        return getJobSpec().getTableInsertTypes();
+    }
+
+    protected TimeZone getTimeZone() {
+        return getJobSpec().getTimeZone();
+    }
+
+    protected TranslationConfig getTranslationConfig() {
+        return getJobSpec().getTranslationConfig();
+    }
+
+    protected Integer getThreads() {
+        return getJobSpec().getThreads();
+    }
+
+    protected Integer getIndexThreads() {
+        return getJobSpec().getIndexThreads();
+    }
+}
@@ -0,0 +1,247 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.copy;
+
+import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.value.RowQueue;
+import com.nuodb.migrator.backup.loader.BackupLoader;
+import com.nuodb.migrator.backup.loader.BackupLoaderContext;
+import com.nuodb.migrator.backup.loader.BackupLoaderManager;
+import com.nuodb.migrator.backup.loader.LoadTable;
+import com.nuodb.migrator.backup.loader.LoadTables;
+import com.nuodb.migrator.backup.writer.BackupWriterContext;
+import com.nuodb.migrator.backup.writer.BackupWriterManager;
+import com.nuodb.migrator.backup.writer.WriteQuery;
+import com.nuodb.migrator.jdbc.metadata.Database;
+import com.nuodb.migrator.jdbc.session.Session;
+import com.nuodb.migrator.jdbc.session.SessionFactory;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.backup.format.value.RowQueue.CAPACITY;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+
+/**
+ * Copies data & schema from the source database to the target database in one step, rows read by the {@link
+ * CopyWriter} from the source result sets are handed over to the target prepared statements through bounded in-memory
+ * row queues, so no intermediate backup files are written. Target schema is generated and constraints are loaded the
+ * same way {@link BackupLoader} does it for a backup.
+ * <p/>
+ * Tables are copied concurrently, each table is read by all of its query splits on the source thread pool and is
+ * loaded by {@link #getTableThreads()} threads of the target thread pool. Once the row queue of a table is full source
+ * threads wait until target threads catch up. Number of tables copied at once is limited by {@link #getTables()}, so
+ * that target threads of all the copied tables fit the target thread pool and every copied table being filled by the
+ * source threads is drained by its target threads.
+ *
+ * @author Sergey Bushik
+ */
+public class CopyLoader extends BackupLoader {
+
+    public static final int QUEUE_SIZE = CAPACITY;
+    public static final int TABLE_THREADS = 2;
+
+    private CopyWriter copyWriter;
+    private int queueSize = QUEUE_SIZE;
+    private int tableThreads = TABLE_THREADS;
+    private BackupWriterManager backupWriterManager;
+
+    public Backup copy() throws Exception {
+        return copy(newHashMap());
+    }
+
+    public Backup copy(Map context) throws Exception {
+        CopyWriter copyWriter = getCopyWriter();
+        BackupWriterManager backupWriterManager = copyWriter.open(context);
+        this.backupWriterManager = backupWriterManager;
+        Backup backup;
+        try {
+            backup = load(createBackupLoaderManager((BackupOps) null, context));
+        } catch (Exception exception) {
+            backupWriterManager.writeFailed();
+            try {
+                copyWriter.close(backupWriterManager);
+            } catch (Exception failure) {
+                if (logger.isTraceEnabled()) {
+                    logger.trace("Source failure suppressed by target failure", failure);
+                }
+            }
+            throw exception;
+        } finally {
+            this.backupWriterManager = null;
+        }
+        copyWriter.close(backupWriterManager);
+        return backup;
+    }
+
+    @Override
+    protected Backup readBackup(BackupOps backupOps, Map context) {
+        return backupWriterManager.getBackupWriterContext().getBackup();
+    }
+
+    /**
+     * Opens a separate source session using source session factory of the copy writer
+     *
+     * @param backupLoaderContext to set source session to
+     * @throws SQLException if session can't be opened
+     */
+    @Override
+    protected void openSourceSession(BackupLoaderContext backupLoaderContext) throws SQLException {
+        SessionFactory sourceSessionFactory = backupWriterManager.getBackupWriterContext().getSourceSessionFactory();
+        backupLoaderContext.setSourceSessionFactory(sourceSessionFactory);
+        Session sourceSession = sourceSessionFactory.openSession();
+        backupLoaderContext.setSourceSession(sourceSession);
+        backupLoaderContext.setSourceSpec(sourceSession.getConnectionSpec());
+    }
+
+    /**
+     * Row sets are filled with rows while being loaded, so all of them are loaded
+     *
+     * @param rowSet              to check
+     * @param backupLoaderContext evaluation context
+     * @return true
+     */
+    @Override
+    protected boolean isLoadRowSet(RowSet rowSet, BackupLoaderContext backupLoaderContext) {
+        return true;
+    }
+
+    @Override
+    protected void initLoadTables(BackupLoaderContext backupLoaderContext) {
+        LoadTables loadTables = createLoadTables(backupLoaderContext);
+        backupLoaderContext.setLoadTables(loadTables);
+        int threads = max(1, getThreads() / getTables());
+        for (LoadTable loadTable : loadTables) {
+            loadTable.setThreads(threads);
+        }
+    }
+
+    @Override
+    protected void loadData(BackupLoaderManager backupLoaderManager) throws Exception {
+        BackupLoaderContext backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
+        Database database = getDatabase();
+        backupLoaderContext.setDatabase(database != null ? database :
+                openDatabase(backupLoaderContext.getTargetSession()));
+        initLoadTables(backupLoaderContext);
+        executeWork(new CopyTablesWork(this, backupLoaderManager), backupLoaderManager);
+    }
+
+    protected boolean canCopy(BackupLoaderManager backupLoaderManager) {
+        return backupLoaderManager.getFailures().isEmpty() && backupWriterManager.getFailures().isEmpty();
+    }
+
+    protected CopyTableWork copyTable(LoadTable loadTable, BackupLoaderManager backupLoaderManager) throws Exception {
+        return copyTable(loadTable, backupLoaderManager, null);
+    }
+
+    /**
+     * Forks target work loading rows from the row queue and starts source works filling the queue, should be called
+     * from the target thread pool. Queue is ended once all the source works are completed, source works are not
+     * started if the copy already failed.
+     *
+     * @param loadTable           to copy
+     * @param backupLoaderManager to manage the load
+     * @param tables              permit of the copied table released once the target work is completed or null
+     * @return forked target work to join
+     * @throws Exception if source query splits can't be created
+     */
+    protected CopyTableWork copyTable(LoadTable loadTable, BackupLoaderManager backupLoaderManager,
+                                      Semaphore tables) throws Exception {
+        WriteQuery writeQuery = getWriteQuery(loadTable);
+        if (logger.isTraceEnabled()) {
+            logger.trace(format("Copying %s row set to %s table using %d thread(s)",
+                    loadTable.getRowSet().getName(), loadTable.getTable().getQualifiedName(), loadTable.getThreads()));
+        }
+        RowQueue rowQueue = new RowQueue(getQueueSize());
+        TempLobStore lobStore = new TempLobStore();
+        CopyTableWork copyTableWork = createCopyTableWork(loadTable, backupLoaderManager, rowQueue, lobStore, tables);
+        rowQueue.writeStart();
+        try {
+            copyTableWork.fork();
+            if (canCopy(backupLoaderManager)) {
+                getCopyWriter().copyQuery(writeQuery, rowQueue, lobStore, backupWriterManager);
+            }
+        } finally {
+            rowQueue.writeEnd();
+        }
+        return copyTableWork;
+    }
+
+    protected CopyTableWork createCopyTableWork(LoadTable loadTable, BackupLoaderManager backupLoaderManager,
+                                                RowQueue rowQueue, TempLobStore lobStore, Semaphore tables) {
+        return new CopyTableWork(loadTable, backupLoaderManager, rowQueue, lobStore, tables);
+    }
+
+    protected WriteQuery getWriteQuery(LoadTable loadTable) {
+        BackupWriterContext backupWriterContext = backupWriterManager.getBackupWriterContext();
+        for (WriteQuery writeQuery : backupWriterContext.getWriteQueries()) {
+            if (writeQuery.getRowSet() == loadTable.getRowSet()) {
+                return writeQuery;
+            }
+        }
+        throw new CopyException(format("Query for %s row set is not found", loadTable.getRowSet().getName()));
+    }
+
+    public CopyWriter getCopyWriter() {
+        return copyWriter;
+    }
+
+    public void setCopyWriter(CopyWriter copyWriter) {
+        this.copyWriter = copyWriter;
+    }
+
+    /**
+     * Max number of tables copied at once, each of them loaded by the table threads
+     *
+     * @return number of threads divided by the number of table threads, at least one
+     */
+    public int getTables() {
+        return max(1, getThreads() / max(1, getTableThreads()));
+    }
+
+    public int getTableThreads() {
+        return tableThreads;
+    }
+
+    public void setTableThreads(int tableThreads) {
+        this.tableThreads = tableThreads;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.copy;
+
+import com.google.common.io.InputSupplier;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.LobStore;
+import com.nuodb.migrator.backup.format.Output;
+import com.nuodb.migrator.backup.format.value.LobValue;
+import com.nuodb.migrator.backup.format.value.Row;
+import com.nuodb.migrator.backup.format.value.RowQueue;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.writer.BackupWriterManager;
+import com.nuodb.migrator.backup.writer.WriteQuery;
+import com.nuodb.migrator.backup.writer.WriteQueryWork;
+import com.nuodb.migrator.jdbc.split.QuerySplit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import static com.google.common.io.ByteStreams.read;
+import static com.nuodb.migrator.backup.format.value.JdbcValueFormat.LOB_THRESHOLD;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.blob;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.clob;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.inline;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.isLob;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static java.util.Arrays.copyOf;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.apache.commons.io.IOUtils.copy;
+
+/**
+ * Reads rows of a query split and hands them over to the row queue instead of writing them to the chunk files, so that
+ * no format encoding & decoding is made in between source and target. Each row is queued once the next one is read or
+ * its chunk is ended, so that the last row of the chunk is marked as such. The work ends its writing to the row queue
+ * once executed.
+ * <p/>
+ * LOB values can't be accessed once the result set moves to the next row, so LOB values up to {@link #LOB_SIZE} bytes
+ * or characters are read into memory, while larger LOB values are copied to the files of the LOB store and are
+ * streamed from there by the target.
+ *
+ * @author Sergey Bushik
+ */
+public class CopyQueryWork extends WriteQueryWork {
+
+    public static final int LOB_SIZE = (int) LOB_THRESHOLD;
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    private final RowQueue rowQueue;
+    private final LobStore lobStore;
+    private Row pendingRow;
+
+    public CopyQueryWork(WriteQuery writeQuery, QuerySplit querySplit, boolean hasNextQuerySplit,
+                         BackupWriterManager backupWriterManager, RowQueue rowQueue) {
+        this(writeQuery, querySplit, hasNextQuerySplit, backupWriterManager, rowQueue, null);
+    }
+
+    public CopyQueryWork(WriteQuery writeQuery, QuerySplit querySplit, boolean hasNextQuerySplit,
+                         BackupWriterManager backupWriterManager, RowQueue rowQueue, LobStore lobStore) {
+        super(writeQuery, querySplit, hasNextQuerySplit, backupWriterManager);
+        this.rowQueue = rowQueue;
+        this.lobStore = lobStore;
+    }
+
+    @Override
+    protected Output createOutput(RowSet rowSet) {
+        return null;
+    }
+
+    @Override
+    protected boolean canWrite() {
+        return true;
+    }
+
+    @Override
+    protected boolean exec() {
+        try {
+            return super.exec();
+        } finally {
+            rowQueue.writeEnd();
+        }
+    }
+
+    /**
+     * Holds a copy of the row until the next one is read, LOB values are copied as they can't be accessed once the
+     * result set moves to the next row
+     *
+     * @param row to queue
+     * @throws Exception if reading of LOB values fails
+     */
+    @Override
+    protected void writeRow(Row row) throws Exception {
+        Value[] values = row.getValues().clone();
+        for (int index = 0; index < values.length; index++) {
+            values[index] = copyValue(values[index]);
+        }
+        if (pendingRow != null) {
+            rowQueue.writeRow(pendingRow, false);
+        }
+        pendingRow = new Row(row.getChunk(), values, row.getNumber());
+        row.getChunk().incrementRowCount();
+    }
+
+    /**
+     * Reads LOB value into memory if it has up to {@link #LOB_SIZE} bytes or characters, otherwise copies it to a file
+     * of the LOB store, if there is no LOB store the value is read into memory
+     *
+     * @param value to copy
+     * @return value accessible after the result set moves to the next row
+     * @throws IOException if LOB value can't be read or written
+     */
+    protected Value copyValue(Value value) throws IOException {
+        if (!isLob(value)) {
+            return value;
+        } else if (lobStore == null) {
+            return inline(value);
+        } else if (value.getValueType() == BINARY) {
+            return copyBlob((LobValue) value);
+        } else {
+            return copyClob((LobValue) value);
+        }
+    }
+
+    protected Value copyBlob(LobValue value) throws IOException {
+        InputStream input = value.getInputStream();
+        try {
+            byte[] buffer = new byte[LOB_SIZE];
+            int length = read(input, buffer, 0, buffer.length);
+            if (length < buffer.length) {
+                return binary(copyOf(buffer, length));
+            }
+            final String name = lobStore.nextName();
+            OutputStream output = lobStore.openOutput(name);
+            try {
+                output.write(buffer);
+                copy(input, output);
+            } finally {
+                closeQuietly(output);
+            }
+            return blob(new InputSupplier<InputStream>() {
+                @Override
+                public InputStream getInput() {
+                    return lobStore.openInput(name);
+                }
+            });
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    protected Value copyClob(LobValue value) throws IOException {
+        Reader input = value.getReader();
+        try {
+            char[] buffer = new char[LOB_SIZE];
+            int length = 0;
+            for (int read; length < buffer.length &&
+                    (read = input.read(buffer, length, buffer.length - length)) != -1; ) {
+                length += read;
+            }
+            if (length < buffer.length) {
+                return string(new String(buffer, 0, length));
+            }
+            final String name = lobStore.nextName();
+            Writer output = new OutputStreamWriter(lobStore.openOutput(name), CHARSET);
+            try {
+                output.write(buffer);
+                copy(input, output);
+            } finally {
+                closeQuietly(output);
+            }
+            return clob(new InputSupplier<Reader>() {
+                @Override
+                public Reader getInput() {
+                    return new InputStreamReader(lobStore.openInput(name), CHARSET);
+                }
+            });
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    @Override
+    protected void writeStart(Chunk chunk) throws Exception {
+        getBackupWriterManager().writeStart(this, getWriteQuery(), chunk);
+    }
+
+    @Override
+    protected void writeEnd(Chunk chunk) throws Exception {
+        if (pendingRow != null) {
+            rowQueue.writeRow(pendingRow, true);
+            pendingRow = null;
+        }
+        getBackupWriterManager().writeEnd(this, getWriteQuery(), chunk);
+    }
+
+    @Override
+    protected Chunk createChunk(int chunkIndex) {
+        Chunk chunk = super.createChunk(chunkIndex);
+        chunk.setRowSet(getWriteQuery().getRowSet());
+        return chunk;
+    }
+
+    public RowQueue getRowQueue() {
+        return rowQueue;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.copy;
+
+import com.nuodb.migrator.backup.format.value.RowQueue;
+import com.nuodb.migrator.backup.format.value.RowReader;
+import com.nuodb.migrator.backup.loader.BackupLoaderManager;
+import com.nuodb.migrator.backup.loader.LoadTable;
+import com.nuodb.migrator.backup.loader.LoadTableWork;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static java.util.Collections.nCopies;
+
+/**
+ * Loads table rows taken from the row queue filled by the source query works, the queue is shared by the forked
+ * threads without extra synchronization. Once the work is closed LOB files of the table are deleted and permit of the
+ * copied table is released, so that the next table can be copied.
+ *
+ * @author Sergey Bushik
+ */
+public class CopyTableWork extends LoadTableWork {
+
+    private final RowQueue rowQueue;
+    private final TempLobStore lobStore;
+    private final Semaphore tables;
+
+    public CopyTableWork(LoadTable loadTable, BackupLoaderManager backupLoaderManager, RowQueue rowQueue) {
+        this(loadTable, backupLoaderManager, rowQueue, null, null);
+    }
+
+    public CopyTableWork(LoadTable loadTable, BackupLoaderManager backupLoaderManager, RowQueue rowQueue,
+                         TempLobStore lobStore, Semaphore tables) {
+        super(loadTable, backupLoaderManager);
+        this.rowQueue = rowQueue;
+        this.lobStore = lobStore;
+        this.tables = tables;
+    }
+
+    @Override
+    protected List<RowReader> createRowReaders() {
+        return nCopies(getLoadTable().getThreads(), (RowReader) rowQueue);
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            super.close();
+        } finally {
+            if (lobStore != null) {
+                lobStore.close();
+            }
+            if (tables != null) {
+                tables.release();
+            }
+        }
+    }
+
+    public RowQueue getRowQueue() {
+        return rowQueue;
+    }
+}
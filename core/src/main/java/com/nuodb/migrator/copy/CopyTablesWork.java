@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.copy;
+
+import com.nuodb.migrator.backup.loader.BackupLoaderManager;
+import com.nuodb.migrator.backup.loader.LoadTable;
+import com.nuodb.migrator.backup.loader.LoadTableWork;
+import com.nuodb.migrator.backup.loader.LoadTables;
+import com.nuodb.migrator.backup.loader.LoadTablesWork;
+import com.nuodb.migrator.utils.concurrent.ForkJoinPool;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Forks copy of each table, tables are started in the order of their write queries, which are ordered by the row
+ * counts of the source tables. Query splits of the tables are created one table after another as they share the
+ * source session. At most {@link CopyLoader#getTables()} tables are copied at once, next table is started once one of
+ * the copied tables is loaded.
+ *
+ * @author Sergey Bushik
+ */
+public class CopyTablesWork extends LoadTablesWork {
+
+    private final CopyLoader copyLoader;
+    private final BackupLoaderManager backupLoaderManager;
+
+    public CopyTablesWork(CopyLoader copyLoader, BackupLoaderManager backupLoaderManager) {
+        super(backupLoaderManager);
+        this.copyLoader = copyLoader;
+        this.backupLoaderManager = backupLoaderManager;
+    }
+
+    @Override
+    public void execute() throws Exception {
+        LoadTables loadTables = backupLoaderManager.getBackupLoaderContext().getLoadTables();
+        Semaphore tables = new Semaphore(copyLoader.getTables());
+        Collection<LoadTableWork> loadTableWorks = newArrayList();
+        for (LoadTable loadTable : getLoadTables(loadTables)) {
+            ForkJoinPool.managedBlock(new TableBlocker(tables));
+            loadTableWorks.add(copyLoader.copyTable(loadTable, backupLoaderManager, tables));
+        }
+        for (LoadTableWork loadTableWork : loadTableWorks) {
+            loadTableWork.join();
+        }
+        backupLoaderManager.loadDataDone();
+    }
+
+    @Override
+    protected LoadTableWork forkLoadTable(LoadTable loadTable) throws Exception {
+        return copyLoader.copyTable(loadTable, backupLoaderManager);
+    }
+
+    /**
+     * Row sets are not sized as no backup files are written, so tables keep the order of the write queries
+     *
+     * @param loadTables to order
+     * @return tables in the order of the write queries
+     */
+    @Override
+    protected List<LoadTable> getLoadTables(LoadTables loadTables) {
+        return newArrayList(loadTables);
+    }
+
+    /**
+     * Acquires permit to copy next table
+     */
+    static class TableBlocker implements ForkJoinPool.ManagedBlocker {
+
+        private final Semaphore tables;
+        private boolean acquired;
+
+        TableBlocker(Semaphore tables) {
+            this.tables = tables;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (!acquired) {
+                tables.acquire();
+                acquired = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return acquired || (acquired = tables.tryAcquire());
+        }
+    }
+}
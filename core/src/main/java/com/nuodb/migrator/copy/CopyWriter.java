@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.copy;
+
+import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.Column;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.LobStore;
+import com.nuodb.migrator.backup.format.value.RowQueue;
+import com.nuodb.migrator.backup.writer.BackupWriter;
+import com.nuodb.migrator.backup.writer.BackupWriterContext;
+import com.nuodb.migrator.backup.writer.BackupWriterManager;
+import com.nuodb.migrator.backup.writer.WriteQuery;
+import com.nuodb.migrator.backup.writer.WriteTable;
+import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.split.QuerySplit;
+import com.nuodb.migrator.jdbc.split.QuerySplitter;
+
+import java.sql.Connection;
+import java.util.Collection;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.utils.Collections.isEmpty;
+import static org.apache.commons.lang3.StringUtils.lowerCase;
+
+/**
+ * Source side of the copy, which reads query splits on its own thread pool and hands the rows over to the row queues
+ * instead of writing chunk files.
+ *
+ * @author Sergey Bushik
+ */
+public class CopyWriter extends BackupWriter {
+
+    /**
+     * Rows are handed over in memory, so there is no format to write them with
+     *
+     * @return null
+     */
+    @Override
+    public String getFormat() {
+        return null;
+    }
+
+    /**
+     * Opens source session, inspects source database and creates write queries with their row sets, which are added
+     * to the returned backup writer manager. Queries are not executed until {@link #copyQuery} is called.
+     *
+     * @param context backup context
+     * @return backup writer manager to copy queries with
+     * @throws Exception if source database can't be opened or inspected
+     */
+    public BackupWriterManager open(Map context) throws Exception {
+        BackupWriterManager backupWriterManager = createBackupWriterManager((BackupOps) null, context);
+        try {
+            BackupWriterContext backupWriterContext = backupWriterManager.getBackupWriterContext();
+            Backup backup = backupWriterContext.getBackup();
+            backup.setDatabase(backupWriterContext.getDatabase());
+            Collection<WriteQuery> writeQueries = createWriteQueries(backupWriterContext);
+            for (WriteQuery writeQuery : writeQueries) {
+                initRowSet(writeQuery);
+                backup.addRowSet(writeQuery.getRowSet());
+            }
+            backupWriterContext.setWriteQueries(writeQueries);
+            backupWriterManager.writeSchemaDone();
+        } catch (Exception exception) {
+            backupWriterManager.writeFailed();
+            backupWriterManager.close();
+            throw exception;
+        }
+        return backupWriterManager;
+    }
+
+    /**
+     * Row set columns and name are required by the loader before any of the rows is read, so they are initialized
+     * from the write query upfront.
+     *
+     * @param writeQuery to initialize row set for
+     */
+    protected void initRowSet(WriteQuery writeQuery) {
+        RowSet rowSet = writeQuery.getRowSet();
+        if (writeQuery instanceof WriteTable) {
+            rowSet.setName(lowerCase(((WriteTable) writeQuery).getTable().getQualifiedName(null)));
+        }
+        if (isEmpty(rowSet.getColumns()) && writeQuery.getColumns() != null) {
+            Collection<Column> columns = newArrayList();
+            for (Field field : writeQuery.getColumns()) {
+                columns.add(new Column(field.getName(), null));
+            }
+            rowSet.setColumns(columns);
+        }
+    }
+
+    /**
+     * Executes query splits of the write query on the source thread pool, each split is copied to the row queue. Every
+     * work starts writing to the row queue once submitted and ends it once executed, so the caller doesn't need to
+     * join the works to end the queue.
+     *
+     * @param writeQuery          to copy
+     * @param rowQueue            to hand rows over to
+     * @param backupWriterManager managing this copy
+     * @return executed works
+     * @throws Exception if query splits can't be created
+     */
+    public Collection<CopyQueryWork> copyQuery(WriteQuery writeQuery, RowQueue rowQueue,
+                                               BackupWriterManager backupWriterManager) throws Exception {
+        return copyQuery(writeQuery, rowQueue, null, backupWriterManager);
+    }
+
+    /**
+     * Executes query splits of the write query on the source thread pool, LOB values too large to be held in memory
+     * are copied to the LOB store
+     *
+     * @param writeQuery          to copy
+     * @param rowQueue            to hand rows over to
+     * @param lobStore            to copy large LOB values to or null to read them into memory
+     * @param backupWriterManager managing this copy
+     * @return executed works
+     * @throws Exception if query splits can't be created
+     */
+    public Collection<CopyQueryWork> copyQuery(WriteQuery writeQuery, RowQueue rowQueue, LobStore lobStore,
+                                               BackupWriterManager backupWriterManager) throws Exception {
+        BackupWriterContext backupWriterContext = backupWriterManager.getBackupWriterContext();
+        Connection connection = backupWriterContext.getSourceSession().getConnection();
+        QuerySplitter querySplitter = writeQuery.getQuerySplitter();
+        Collection<CopyQueryWork> copyQueryWorks = newArrayList();
+        while (querySplitter.hasNextQuerySplit(connection)) {
+            QuerySplit querySplit = querySplitter.getNextQuerySplit(connection);
+            boolean hasNextQuerySplit = querySplitter.hasNextQuerySplit(connection);
+            CopyQueryWork copyQueryWork = new CopyQueryWork(
+                    writeQuery, querySplit, hasNextQuerySplit, backupWriterManager, rowQueue, lobStore);
+            rowQueue.writeStart();
+            try {
+                executeWork(copyQueryWork, backupWriterManager);
+            } catch (RuntimeException exception) {
+                rowQueue.writeEnd();
+                throw exception;
+            }
+            copyQueryWorks.add(copyQueryWork);
+        }
+        return copyQueryWorks;
+    }
+
+    /**
+     * Signals end of copy and awaits for the source thread pool termination
+     *
+     * @param backupWriterManager to close
+     * @throws Exception first failure of the source works
+     */
+    public void close(BackupWriterManager backupWriterManager) throws Exception {
+        backupWriterManager.writeDataDone();
+        backupWriterManager.writeSchemaDone();
+        backupWriterManager.close();
+    }
+}
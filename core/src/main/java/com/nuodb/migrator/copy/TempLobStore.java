@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.copy;
+
+import com.nuodb.migrator.backup.format.LobStore;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static com.google.common.io.Files.createTempDir;
+import static java.lang.String.format;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+
+/**
+ * Stores LOB values of a copied table, which are too large to be held in memory while queued, to the files of a
+ * temporary directory. Directory is created once the first file is requested and is deleted along with all the files
+ * once the store is closed.
+ *
+ * @author Sergey Bushik
+ */
+public class TempLobStore implements LobStore, Closeable {
+
+    private static final String EXTENSION = "lob";
+
+    private File directory;
+    private int index;
+    private boolean closed;
+
+    @Override
+    public synchronized String nextName() {
+        if (closed) {
+            throw new CopyException("LOB store is closed");
+        }
+        if (directory == null) {
+            directory = createTempDir();
+        }
+        return (++index) + "." + EXTENSION;
+    }
+
+    @Override
+    public OutputStream openOutput(String name) {
+        try {
+            return new FileOutputStream(getFile(name));
+        } catch (IOException exception) {
+            throw new CopyException(format("Can't open %s LOB file", name), exception);
+        }
+    }
+
+    @Override
+    public InputStream openInput(String name) {
+        try {
+            return new FileInputStream(getFile(name));
+        } catch (IOException exception) {
+            throw new CopyException(format("Can't open %s LOB file", name), exception);
+        }
+    }
+
+    protected synchronized File getFile(String name) {
+        if (closed || directory == null) {
+            throw new CopyException("LOB store is closed");
+        }
+        return new File(directory, name);
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (directory != null) {
+            deleteQuietly(directory);
+            directory = null;
+        }
+    }
+}
@@ -39,6 +39,7 @@ import com.nuodb.migrator.spec.MetaDataSpec;
 import com.nuodb.migrator.spec.MigrationMode;
 import com.nuodb.migrator.spec.QuerySpec;
 import com.nuodb.migrator.spec.ResourceSpec;
+import com.nuodb.migrator.spec.TableSpec;
 
 import java.util.Collection;
 import java.util.Map;
@@ -74,6 +75,8 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
             backupWriter.addListener(listener);
         }
         backupWriter.setFormat(getFormat());
+        backupWriter.setCompression(getCompression());
+        backupWriter.setResume(isResume());
         backupWriter.setFormatAttributes(getFormatAttributes());
         backupWriter.setFormatFactory(createFormatFactory());
         backupWriter.setInspectionManager(createInspectionManager());
@@ -81,6 +84,8 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
         backupWriter.setMigrationModes(getMigrationModes());
         backupWriter.setQueryLimit(getQueryLimit());
         backupWriter.setQuerySpecs(getQuerySpecs());
+        backupWriter.setTableSpecs(getTableSpecs());
+        backupWriter.setFetchMemory(getFetchMemory());
         backupWriter.setSourceSpec(getSourceSpec());
         backupWriter.setSourceSessionFactory(createSourceSessionFactory());
         backupWriter.setTimeZone(getTimeZone());
@@ -91,8 +96,9 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
 
     protected SessionFactory createSourceSessionFactory() {
         SessionFactory sessionFactory = newSessionFactory(
-                createConnectionProviderFactory().
-                        createConnectionProvider(getSourceSpec()), createDialectResolver());
+                createConnectionProvider(getSourceSpec(), getThreads() != null ? getThreads() : THREADS),
+                createDialectResolver());
+        sessionFactory.setReuseSessions(true);
         if (getSourceSpec().getTransactionIsolation() == null) {
             sessionFactory.addSessionObserver(newTransactionIsolationSetter(new int[]{
                     TRANSACTION_SERIALIZABLE,
@@ -136,6 +142,14 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
         return getOutputSpec().getType();
     }
 
+    protected String getCompression() {
+        return getJobSpec().getCompression();
+    }
+
+    protected boolean isResume() {
+        return getJobSpec().isResume();
+    }
+
     protected Map<String, Object> getFormatAttributes() {
         return getOutputSpec().getAttributes();
     }
@@ -164,6 +178,14 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
         return getJobSpec().getQuerySpecs();
     }
 
+    protected Collection<TableSpec> getTableSpecs() {
+        return getJobSpec().getTableSpecs();
+    }
+
+    protected Long getFetchMemory() {
+        return getJobSpec().getFetchMemory();
+    }
+
     protected ConnectionSpec getSourceSpec() {
         return getJobSpec().getSourceSpec();
     }
@@ -29,6 +29,7 @@ package com.nuodb.migrator.jdbc;
 
 import com.nuodb.migrator.jdbc.metadata.generator.ScriptProcessor;
 import com.nuodb.migrator.jdbc.session.Session;
+import com.nuodb.migrator.jdbc.session.SessionFactory;
 import org.slf4j.Logger;
 
 import java.sql.Connection;
@@ -96,6 +97,18 @@ public class JdbcUtils {
         }
     }
 
+    public static void closeQuietly(SessionFactory sessionFactory) {
+        try {
+            if (sessionFactory != null) {
+                sessionFactory.close();
+            }
+        } catch (SQLException exception) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("Failed closing session factory", exception);
+            }
+        }
+    }
+
     public static void closeQuietly(ScriptProcessor scriptProcessor) {
         try {
             if (scriptProcessor != null) {
@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.commit;
+
+import com.nuodb.migrator.jdbc.query.Query;
+import org.slf4j.Logger;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import static java.lang.Math.max;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Adds executions to the batch of the statement and executes the batch once batch size of executions is added. If the
+ * next statement and an executor are given, full batch is executed on a task of the executor, while the following
+ * executions are bound to the next statement, so that binding of a batch overlaps with execution of the previous one.
+ * The statements swap once a batch is handed over, callers bind values to {@link #getStatement()}. The statements are
+ * expected to be prepared on separate connections and {@link #executeBatch(PreparedStatement, long)} should use the
+ * connection of the passed statement only. A single batch is executed at a time, so batches are executed and
+ * committed in the order they are added.
+ *
+ * @author Sergey Bushik
+ */
+public abstract class BatchCommitExecutorBase extends CommitExecutorBase<PreparedStatement>
+        implements AsyncCommitExecutor {
+
+    private final transient Logger logger = getLogger(getClass());
+
+    private final long batchSize;
+    private final Executor executor;
+    private PreparedStatement nextStatement;
+    private FutureTask<Void> task;
+    private long updates;
+
+    protected BatchCommitExecutorBase(PreparedStatement statement, Query query, long batchSize) {
+        this(statement, null, query, batchSize, null);
+    }
+
+    protected BatchCommitExecutorBase(PreparedStatement statement, PreparedStatement nextStatement, Query query,
+                                      long batchSize, Executor executor) {
+        super(statement, query);
+        this.nextStatement = nextStatement;
+        this.batchSize = max(1, batchSize);
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        statement.addBatch();
+        if (++updates < batchSize) {
+            return false;
+        }
+        executeBatch();
+        return true;
+    }
+
+    @Override
+    public void finish() throws SQLException {
+        awaitBatch();
+        if (updates > 0) {
+            long updates = this.updates;
+            this.updates = 0;
+            executeBatch(statement, updates);
+        }
+        finishBatches();
+    }
+
+    @Override
+    public void close() {
+        try {
+            awaitBatch();
+        } catch (SQLException exception) {
+            logger.warn("Batch execution failed", exception);
+        } catch (RuntimeException exception) {
+            logger.warn("Batch execution failed", exception);
+        }
+    }
+
+    protected void executeBatch() throws SQLException {
+        final PreparedStatement statement = this.statement;
+        final long updates = this.updates;
+        this.updates = 0;
+        if (executor == null || nextStatement == null) {
+            executeBatch(statement, updates);
+        } else {
+            awaitBatch();
+            task = new FutureTask<Void>(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    executeBatch(statement, updates);
+                    return null;
+                }
+            });
+            executor.execute(task);
+            this.statement = nextStatement;
+            this.nextStatement = statement;
+        }
+    }
+
+    /**
+     * Executes batch of the statement and commits it if required, invoked on the executor thread when the batch is
+     * executed asynchronously
+     *
+     * @param statement statement to execute batch of
+     * @param updates   number of executions added to the batch
+     * @throws SQLException if batch execution or commit fails
+     */
+    protected abstract void executeBatch(PreparedStatement statement, long updates) throws SQLException;
+
+    /**
+     * Invoked once all of the batches are executed on finish
+     *
+     * @throws SQLException if commit fails
+     */
+    protected void finishBatches() throws SQLException {
+    }
+
+    /**
+     * Waits for the batch executed on the executor, if any. The executor is not expected to run the caller, so the
+     * batch progresses while the caller is blocked.
+     *
+     * @throws SQLException if batch execution failed
+     */
+    protected void awaitBatch() throws SQLException {
+        FutureTask<Void> task = this.task;
+        if (task == null) {
+            return;
+        }
+        this.task = null;
+        try {
+            task.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Batch execution interrupted", exception);
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new SQLException(cause);
+            }
+        }
+    }
+
+    public long getBatchSize() {
+        return batchSize;
+    }
+}
@@ -34,6 +34,7 @@ import java.sql.SQLException;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import static com.nuodb.migrator.utils.ValidationUtils.instanceOf;
 import static java.lang.Long.parseLong;
@@ -42,7 +43,7 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 /**
  * @author Sergey Bushik
  */
-public class BatchCommitStrategy implements CommitStrategy {
+public class BatchCommitStrategy implements AsyncCommitStrategy {
 
     public static final String ATTRIBUTE_BATCH_SIZE = "batch.size";
 
@@ -61,35 +62,18 @@ public class BatchCommitStrategy implements CommitStrategy {
     @Override
     public CommitExecutor createCommitExecutor(Statement statement, Query query) {
         instanceOf(statement, PreparedStatement.class);
-        return new CommitExecutorBase<PreparedStatement>(
-                (PreparedStatement) statement, query) {
-
-            private long batches;
-            private long batchSize = getBatchSize();
-
-            @Override
-            public boolean execute() throws SQLException {
-                statement.addBatch();
-                batches++;
-                if (batches > batchSize) {
-                    executeBatch();
-                    return true;
-                } else {
-                    return false;
-                }
-            }
+        return createCommitExecutor((PreparedStatement) statement, null, query, null);
+    }
 
+    @Override
+    public AsyncCommitExecutor createCommitExecutor(PreparedStatement statement, PreparedStatement nextStatement,
+                                                    Query query, Executor executor) {
+        return new BatchCommitExecutorBase(statement, nextStatement, query, getBatchSize(), executor) {
             @Override
-            public void finish() throws SQLException {
-                if (batches > 0) {
-                    executeBatch();
-                }
-            }
-
-            protected void executeBatch() throws SQLException {
+            protected void executeBatch(PreparedStatement statement, long updates) throws SQLException {
                 statement.executeBatch();
                 statement.getConnection().commit();
-                batches = 0;
+                committed += updates;
             }
         };
     }
@@ -34,10 +34,11 @@ import java.sql.Statement;
 /**
  * @author Sergey Bushik
  */
-public abstract class CommitExecutorBase<S extends Statement> implements CommitExecutor<S> {
+public abstract class CommitExecutorBase<S extends Statement> implements JournaledCommitExecutor<S> {
 
     protected S statement;
     protected Query query;
+    protected volatile long committed;
 
     public CommitExecutorBase(S statement, Query query) {
         this.statement = statement;
@@ -54,6 +55,11 @@ public abstract class CommitExecutorBase<S extends Statement> implements CommitE
         return query;
     }
 
+    @Override
+    public long getCommitted() {
+        return committed;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
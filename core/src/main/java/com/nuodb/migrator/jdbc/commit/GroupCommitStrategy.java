@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.commit;
+
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.utils.ObjectUtils;
+import org.slf4j.Logger;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static com.nuodb.migrator.utils.ValidationUtils.instanceOf;
+import static java.lang.Long.parseLong;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Executes updates in batches of batch size and commits transaction once commit size of updates is executed or commit
+ * interval elapsed since the last commit, whichever comes first, so that a single transaction spans several batches.
+ * Latencies of batch executions and commits are collected by the commit executor and logged when it's finished.
+ * Batches are executed synchronously, as a transaction spanning several batches is bound to a single connection.
+ *
+ * @author Sergey Bushik
+ */
+public class GroupCommitStrategy implements CommitStrategy {
+
+    public static final String ATTRIBUTE_BATCH_SIZE = "batch.size";
+    public static final String ATTRIBUTE_COMMIT_SIZE = "size";
+    public static final String ATTRIBUTE_COMMIT_INTERVAL = "interval";
+
+    public static final long BATCH_SIZE = 1000;
+    public static final long COMMIT_SIZE = 10000;
+    public static final long COMMIT_INTERVAL = 0;
+
+    private long batchSize = BATCH_SIZE;
+    private long commitSize = COMMIT_SIZE;
+    private long commitInterval = COMMIT_INTERVAL;
+
+    @Override
+    public void setAttributes(Map<String, Object> attributes) {
+        Long batchSize = getAttribute(attributes, ATTRIBUTE_BATCH_SIZE);
+        if (batchSize != null) {
+            setBatchSize(batchSize);
+        }
+        Long commitSize = getAttribute(attributes, ATTRIBUTE_COMMIT_SIZE);
+        if (commitSize != null) {
+            setCommitSize(commitSize);
+        }
+        Long commitInterval = getAttribute(attributes, ATTRIBUTE_COMMIT_INTERVAL);
+        if (commitInterval != null) {
+            setCommitInterval(commitInterval);
+        }
+    }
+
+    protected Long getAttribute(Map<String, Object> attributes, String attribute) {
+        Object value = attributes.get(attribute);
+        return value instanceof String && !isEmpty((String) value) ? Long.valueOf(parseLong((String) value)) : null;
+    }
+
+    @Override
+    public CommitExecutor createCommitExecutor(Statement statement, Query query) {
+        instanceOf(statement, PreparedStatement.class);
+        return new GroupCommitExecutor((PreparedStatement) statement, query,
+                getBatchSize(), max(1, getCommitSize()), MILLISECONDS.toNanos(getCommitInterval()));
+    }
+
+    public long getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(long batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getCommitSize() {
+        return commitSize;
+    }
+
+    public void setCommitSize(long commitSize) {
+        this.commitSize = commitSize;
+    }
+
+    /**
+     * Max time in milliseconds between commits, 0 means commits are triggered by commit size only
+     *
+     * @return commit interval in milliseconds
+     */
+    public long getCommitInterval() {
+        return commitInterval;
+    }
+
+    public void setCommitInterval(long commitInterval) {
+        this.commitInterval = commitInterval;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        GroupCommitStrategy that = (GroupCommitStrategy) o;
+
+        if (batchSize != that.batchSize) return false;
+        if (commitInterval != that.commitInterval) return false;
+        if (commitSize != that.commitSize) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (batchSize ^ (batchSize >>> 32));
+        result = 31 * result + (int) (commitSize ^ (commitSize >>> 32));
+        result = 31 * result + (int) (commitInterval ^ (commitInterval >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return ObjectUtils.toString(this);
+    }
+
+    public static class GroupCommitExecutor extends BatchCommitExecutorBase {
+
+        private final transient Logger logger = getLogger(getClass());
+
+        private final long commitSize;
+        private final long commitInterval;
+
+        private long uncommitted;
+        private long lastCommit = System.nanoTime();
+
+        private long batches;
+        private long batchTime;
+        private long maxBatchTime;
+        private long commits;
+        private long commitTime;
+        private long maxCommitTime;
+
+        public GroupCommitExecutor(PreparedStatement statement, Query query,
+                                   long batchSize, long commitSize, long commitInterval) {
+            super(statement, query, batchSize);
+            this.commitSize = commitSize;
+            this.commitInterval = commitInterval;
+        }
+
+        @Override
+        protected void executeBatch(PreparedStatement statement, long updates) throws SQLException {
+            long start = System.nanoTime();
+            statement.executeBatch();
+            long time = System.nanoTime() - start;
+            batches++;
+            batchTime += time;
+            maxBatchTime = max(maxBatchTime, time);
+            uncommitted += updates;
+            if (uncommitted >= commitSize || (commitInterval > 0 && System.nanoTime() - lastCommit >= commitInterval)) {
+                commit(statement);
+            }
+        }
+
+        @Override
+        protected void finishBatches() throws SQLException {
+            if (uncommitted > 0) {
+                commit(statement);
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug(format("Executed %d batches avg %d ms max %d ms, %d commits avg %d ms max %d ms",
+                        batches, NANOSECONDS.toMillis(getAvgBatchTime()), NANOSECONDS.toMillis(maxBatchTime),
+                        commits, NANOSECONDS.toMillis(getAvgCommitTime()), NANOSECONDS.toMillis(maxCommitTime)));
+            }
+        }
+
+        protected void commit(PreparedStatement statement) throws SQLException {
+            long start = System.nanoTime();
+            statement.getConnection().commit();
+            long time = System.nanoTime() - start;
+            commits++;
+            commitTime += time;
+            maxCommitTime = max(maxCommitTime, time);
+            committed += uncommitted;
+            uncommitted = 0;
+            lastCommit = System.nanoTime();
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        public long getAvgBatchTime() {
+            return batches > 0 ? batchTime / batches : 0;
+        }
+
+        public long getMaxBatchTime() {
+            return maxBatchTime;
+        }
+
+        public long getCommits() {
+            return commits;
+        }
+
+        public long getAvgCommitTime() {
+            return commits > 0 ? commitTime / commits : 0;
+        }
+
+        public long getMaxCommitTime() {
+            return maxCommitTime;
+        }
+    }
+}
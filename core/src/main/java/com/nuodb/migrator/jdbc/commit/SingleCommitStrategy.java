@@ -52,6 +52,8 @@ public class SingleCommitStrategy implements CommitStrategy {
     public CommitExecutor createCommitExecutor(Statement statement, Query query) {
         return new CommitExecutorBase(statement, query) {
 
+            private long executed;
+
             @Override
             public boolean execute() throws SQLException {
                 if (statement instanceof PreparedStatement) {
@@ -59,15 +61,18 @@ public class SingleCommitStrategy implements CommitStrategy {
                 } else {
                     statement.execute(query.toString());
                 }
+                executed++;
                 return true;
             }
 
             @Override
             public void finish() throws SQLException {
                 statement.getConnection().commit();
+                committed = executed;
             }
         };
     }
+
     public String toString() {
         return ObjectUtils.toString(this);
     }
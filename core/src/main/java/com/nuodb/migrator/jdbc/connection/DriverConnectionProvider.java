@@ -30,6 +30,7 @@ package com.nuodb.migrator.jdbc.connection;
 import com.nuodb.migrator.jdbc.url.JdbcUrl;
 import com.nuodb.migrator.spec.DriverConnectionSpec;
 import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.pool.impl.GenericObjectPool;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -40,12 +41,24 @@ import java.util.Map;
 import static com.nuodb.migrator.utils.Collections.isEmpty;
 import static com.nuodb.migrator.utils.ReflectionUtils.getClassLoader;
 import static com.nuodb.migrator.utils.ReflectionUtils.invokeMethod;
+import static java.lang.Math.max;
+import static java.lang.Runtime.getRuntime;
 
 @SuppressWarnings("unchecked")
 public class DriverConnectionProvider extends ConnectionProxyProviderBase<DriverConnectionSpec> {
 
     private static final String GET_INNERMOST_DELEGATE = "getInnermostDelegate";
 
+    /**
+     * Default pool size fits a work per available processor plus the session held by the job itself
+     */
+    public static final int POOL_SIZE = max(GenericObjectPool.DEFAULT_MAX_ACTIVE, getRuntime().availableProcessors() + 2);
+
+    /**
+     * Default max number of prepared statements cached per connection
+     */
+    public static final int STATEMENT_CACHE_SIZE = 256;
+
     private BasicDataSource basicDataSource;
 
     public DriverConnectionProvider(DriverConnectionSpec connectionSpec) {
@@ -70,6 +83,7 @@ public class DriverConnectionProvider extends ConnectionProxyProviderBase<Driver
                 }
                 addParameters(basicDataSource, connectionSpec.getProperties());
                 basicDataSource.setAccessToUnderlyingConnectionAllowed(true);
+                initPool(basicDataSource, connectionSpec);
 
                 this.basicDataSource = basicDataSource;
             }
@@ -77,6 +91,27 @@ public class DriverConnectionProvider extends ConnectionProxyProviderBase<Driver
         return basicDataSource.getConnection();
     }
 
+    /**
+     * Sizes the pool so that works do not queue for connections, pre-warms it with the initial size equal to the pool
+     * size and turns on prepared statement caching.
+     *
+     * @param basicDataSource to configure
+     * @param connectionSpec  with optional pool size & statement cache size
+     */
+    protected void initPool(BasicDataSource basicDataSource, DriverConnectionSpec connectionSpec) {
+        int poolSize = connectionSpec.getPoolSize() != null ? connectionSpec.getPoolSize() : POOL_SIZE;
+        basicDataSource.setMaxActive(poolSize);
+        basicDataSource.setMaxIdle(poolSize);
+        basicDataSource.setInitialSize(poolSize);
+
+        int statementCacheSize = connectionSpec.getStatementCacheSize() != null ?
+                connectionSpec.getStatementCacheSize() : STATEMENT_CACHE_SIZE;
+        if (statementCacheSize > 0) {
+            basicDataSource.setPoolPreparedStatements(true);
+            basicDataSource.setMaxOpenPreparedStatements(statementCacheSize);
+        }
+    }
+
     protected void addParameters(BasicDataSource basicDataSource, Map<String, Object> properties) {
         if (!isEmpty(properties)) {
             for (Map.Entry<String, Object> entry : properties.entrySet()) {
@@ -42,12 +42,17 @@ import java.sql.Statement;
 import java.util.Collection;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
 import static com.nuodb.migrator.utils.aop.AopProxyUtils.createAopProxy;
 import static com.nuodb.migrator.utils.aop.MethodAdvisors.newMethodAdvisor;
 import static com.nuodb.migrator.utils.aop.MethodMatchers.newMethodMatcher;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
+ * Logs queries executed by statements and prepared statements of the provided connections. Statements are proxied only
+ * if query logging is enabled at the time connection is opened, otherwise connection hands out driver statements, so
+ * that parameter binding and batching are not intercepted.
+ *
  * @author Sergey Bushik
  */
 @SuppressWarnings("unchecked")
@@ -60,7 +65,7 @@ public class LoggingConnectionProvider extends ConnectionProxyProviderBase {
     private static final Collection<String> EXECUTE_METHODS = newArrayList(
             "execute", "executeQuery", "executeUpdate");
     private static final String SET_NULL_METHOD = "setNull";
-    private static final Collection<String> SET_METHODS = newArrayList(
+    private static final Collection<String> SET_METHODS = newHashSet(
             "setNull", "setBoolean", "setByte", "setShort", "setInt", "setLong", "setFloat", "setDouble",
             "setBigDecimal", "setString", "setBytes", "setDate", "setTime", "setTimestamp", "setAsciiStream",
             "setUnicodeStream", "setBinaryStream", "setObject", "setCharacterStream", "setRef", "setBlob",
@@ -114,6 +119,12 @@ public class LoggingConnectionProvider extends ConnectionProxyProviderBase {
             }
         }, newMethodMatcher(Connection.class, GET_META_DATA_METHOD)));
 
+        if (isLogQueries()) {
+            initStatementAdvisors(connection);
+        }
+    }
+
+    protected void initStatementAdvisors(final AopProxy connection) {
         // statement advices
         connection.addAdvisor(newMethodAdvisor(
                 new MethodInterceptor() {
@@ -232,6 +243,10 @@ public class LoggingConnectionProvider extends ConnectionProxyProviderBase {
         ));
     }
 
+    protected boolean isLogQueries() {
+        return queryLogger.isEnabled();
+    }
+
     protected QueryFormat createQueryFormat(Statement statement, String query) {
         return queryFormatFactory.createQueryFormat(statement, query);
     }
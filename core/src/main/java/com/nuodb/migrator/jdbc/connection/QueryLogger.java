@@ -32,5 +32,12 @@ package com.nuodb.migrator.jdbc.connection;
  */
 public interface QueryLogger {
 
+    /**
+     * Checks if queries are logged, statements are not proxied if query logging is disabled
+     *
+     * @return true if queries are logged
+     */
+    boolean isEnabled();
+
     void log(String query);
 }
@@ -40,9 +40,14 @@ public class SimpleQueryLogger implements QueryLogger {
         this.logger = logger;
     }
 
+    @Override
+    public boolean isEnabled() {
+        return logger.isTraceEnabled();
+    }
+
     @Override
     public void log(String query) {
-        if (logger.isTraceEnabled()) {
+        if (isEnabled()) {
             logger.trace(query);
         }
     }
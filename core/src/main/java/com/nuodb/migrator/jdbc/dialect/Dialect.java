@@ -35,6 +35,7 @@ import com.nuodb.migrator.jdbc.type.*;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collection;
 import java.util.Map;
 import java.util.TimeZone;
 
@@ -103,6 +104,10 @@ public interface Dialect {
 
     RowCountHandler createRowCountHandler(Table table, Column column, String filter, RowCountType rowCountType);
 
+    boolean supportsKeySample(Table table, Collection<Column> key, String filter);
+
+    KeySampleHandler createKeySampleHandler(Table table, Collection<Column> key, String filter);
+
     boolean addScriptsInCreateTable(Table table);
 
     String getNullColumnString();
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.dialect;
+
+import org.slf4j.Logger;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Tunes fetch size of a result set from the average width of the first fetched rows, so that a single round trip
+ * holds as many rows as fit into the memory budget of a worker. Narrow rows are fetched in bigger batches, while
+ * wide rows are fetched in smaller ones. The fetch size is adjusted once the sample is collected and only if the
+ * driver fetches rows in positive sized batches, streaming and fully buffered result sets are left intact.
+ *
+ * @author Sergey Bushik
+ */
+public class FetchSizeController {
+
+    public static final long MEMORY = 16L * 1024 * 1024;
+    public static final int SAMPLE_ROWS = 100;
+    public static final int MIN_FETCH_SIZE = 10;
+    public static final int MAX_FETCH_SIZE = 10000;
+
+    private transient final Logger logger = getLogger(getClass());
+
+    private long memory = MEMORY;
+    private int sampleRows = SAMPLE_ROWS;
+    private int minFetchSize = MIN_FETCH_SIZE;
+    private int maxFetchSize = MAX_FETCH_SIZE;
+    private long rows;
+    private long rowsSize;
+    private boolean adjusted;
+
+    public FetchSizeController() {
+    }
+
+    public FetchSizeController(long memory) {
+        this.memory = memory;
+    }
+
+    /**
+     * Accounts fetched row and adjusts fetch size of the result set when enough rows are sampled.
+     *
+     * @param resultSet to adjust fetch size on.
+     * @param rowSize   estimated size of the fetched row in bytes.
+     * @throws SQLException if the result set is closed.
+     */
+    public void fetchRow(ResultSet resultSet, long rowSize) throws SQLException {
+        if (adjusted) {
+            return;
+        }
+        rowsSize += rowSize;
+        if (++rows >= sampleRows) {
+            adjusted = true;
+            adjustFetchSize(resultSet, getFetchSize());
+        }
+    }
+
+    protected void adjustFetchSize(ResultSet resultSet, int fetchSize) throws SQLException {
+        int currentFetchSize = resultSet.getFetchSize();
+        if (currentFetchSize <= 0 || currentFetchSize == fetchSize) {
+            return;
+        }
+        try {
+            resultSet.setFetchSize(fetchSize);
+            if (logger.isDebugEnabled()) {
+                logger.debug(format("Fetch size adjusted from %d to %d", currentFetchSize, fetchSize));
+            }
+        } catch (SQLException exception) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Driver rejected fetch size adjustment", exception);
+            }
+        }
+    }
+
+    /**
+     * Calculates fetch size from the average size of the sampled rows and the memory budget.
+     *
+     * @return fetch size bound by the minimum and maximum fetch sizes.
+     */
+    public int getFetchSize() {
+        long rowSize = rows > 0 ? max(1, rowsSize / rows) : 1;
+        return (int) max(minFetchSize, min(maxFetchSize, memory / rowSize));
+    }
+
+    public boolean isAdjusted() {
+        return adjusted;
+    }
+
+    public long getMemory() {
+        return memory;
+    }
+
+    public void setMemory(long memory) {
+        this.memory = memory;
+    }
+
+    public int getSampleRows() {
+        return sampleRows;
+    }
+
+    public void setSampleRows(int sampleRows) {
+        this.sampleRows = sampleRows;
+    }
+
+    public int getMinFetchSize() {
+        return minFetchSize;
+    }
+
+    public void setMinFetchSize(int minFetchSize) {
+        this.minFetchSize = minFetchSize;
+    }
+
+    public int getMaxFetchSize() {
+        return maxFetchSize;
+    }
+
+    public void setMaxFetchSize(int maxFetchSize) {
+        this.maxFetchSize = maxFetchSize;
+    }
+}
@@ -32,6 +32,8 @@ import com.nuodb.migrator.jdbc.metadata.DatabaseInfo;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.query.QueryLimit;
 
+import java.util.Collection;
+
 /**
  * @author Sergey Bushik
  */
@@ -56,4 +58,14 @@ public class MSSQLServer2005Dialect extends MSSQLServerDialect {
                                                       RowCountType rowCountType) {
         return new MSSQLServer2005TableRowCountHandler(this, table, column, filter, rowCountType);
     }
+
+    @Override
+    public boolean supportsKeySample(Table table, Collection<Column> key, String filter) {
+        return true;
+    }
+
+    @Override
+    public KeySampleHandler createKeySampleHandler(Table table, Collection<Column> key, String filter) {
+        return new MSSQLServer2005KeySampleHandler(this, table, key, filter);
+    }
 }
@@ -38,6 +38,7 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collection;
 import java.util.TimeZone;
 
 import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
@@ -234,4 +235,14 @@ public class OracleDialect extends SimpleDialect {
     public RowCountHandler createRowCountHandler(Table table, Column column, String filter, RowCountType rowCountType) {
         return new OracleTableRowCountHandler(this, table, column, filter, rowCountType);
     }
+
+    @Override
+    public boolean supportsKeySample(Table table, Collection<Column> key, String filter) {
+        return true;
+    }
+
+    @Override
+    public KeySampleHandler createKeySampleHandler(Table table, Collection<Column> key, String filter) {
+        return new OracleKeySampleHandler(this, table, key, filter);
+    }
 }
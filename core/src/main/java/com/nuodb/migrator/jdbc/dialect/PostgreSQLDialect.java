@@ -38,6 +38,7 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collection;
 import java.util.TimeZone;
 
 import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
@@ -201,4 +202,21 @@ public class PostgreSQLDialect extends SimpleDialect {
     public RowCountHandler createRowCountHandler(Table table, Column column, String filter, RowCountType rowCountType) {
         return new PostgreSQLTableRowCountHandler(this, table, column, filter, rowCountType);
     }
+
+    /**
+     * Table sampling is available since PostgreSQL 9.5
+     */
+    @Override
+    public boolean supportsKeySample(Table table, Collection<Column> key, String filter) {
+        DatabaseInfo databaseInfo = getDatabaseInfo();
+        Integer majorVersion = databaseInfo != null ? databaseInfo.getMajorVersion() : null;
+        Integer minorVersion = databaseInfo != null ? databaseInfo.getMinorVersion() : null;
+        return majorVersion != null && (majorVersion > 9 ||
+                (majorVersion == 9 && minorVersion != null && minorVersion >= 5));
+    }
+
+    @Override
+    public KeySampleHandler createKeySampleHandler(Table table, Collection<Column> key, String filter) {
+        return new PostgreSQLKeySampleHandler(this, table, key, filter);
+    }
 }
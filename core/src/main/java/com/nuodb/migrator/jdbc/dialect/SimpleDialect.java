@@ -441,6 +441,16 @@ public class SimpleDialect extends SimpleServiceResolverAware<Dialect> implement
         return new SimpleTableRowCountHandler(this, table, column, filter, rowCountType);
     }
 
+    @Override
+    public boolean supportsKeySample(Table table, Collection<Column> key, String filter) {
+        return false;
+    }
+
+    @Override
+    public KeySampleHandler createKeySampleHandler(Table table, Collection<Column> key, String filter) {
+        return new SimpleKeySampleHandler(this, table, key, filter);
+    }
+
     @Override
     public boolean addScriptsInCreateTable(Table table) {
         return true;
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.dialect;
+
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
+import com.nuodb.migrator.jdbc.query.StatementAction;
+import com.nuodb.migrator.jdbc.query.StatementFactory;
+import com.nuodb.migrator.jdbc.query.StatementTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.math.RoundingMode.UP;
+
+/**
+ * @author Sergey Bushik
+ */
+public class SimpleKeySampleHandler implements KeySampleHandler {
+
+    public static final double MIN_PERCENT = 0.000001;
+    public static final double MAX_PERCENT = 100;
+
+    private Dialect dialect;
+    private Table table;
+    private Collection<Column> key;
+    private String filter;
+
+    public SimpleKeySampleHandler(Dialect dialect, Table table, Collection<Column> key, String filter) {
+        this.dialect = dialect;
+        this.table = table;
+        this.key = key;
+        this.filter = filter;
+    }
+
+    @Override
+    public Query getKeySampleQuery(double percent) {
+        SelectQuery query = new SelectQuery();
+        query.setDialect(getDialect());
+        Collection<String> columns = newArrayList();
+        for (Column column : getKey()) {
+            query.column(column);
+            columns.add(column.getName(getDialect()));
+        }
+        query.from(getSampleTable(getTable().getQualifiedName(getDialect()), getPercent(percent)));
+        if (getFilter() != null) {
+            query.where("(" + getFilter() + ")");
+        }
+        query.orderBy(columns);
+        return query;
+    }
+
+    /**
+     * Appends vendor specific sampling clause to the table name.
+     *
+     * @param table   qualified table name.
+     * @param percent percent of rows to sample formatted as a plain decimal number.
+     * @return sampled table expression for the from clause.
+     */
+    protected String getSampleTable(String table, String percent) {
+        throw new DialectException("Key sample query syntax is not supported");
+    }
+
+    protected String getPercent(double percent) {
+        return new BigDecimal(min(max(percent, MIN_PERCENT), MAX_PERCENT)).setScale(
+                6, UP).stripTrailingZeros().toPlainString();
+    }
+
+    @Override
+    public List<Object[]> getKeySample(Connection connection, double percent) throws SQLException {
+        final Query query = getKeySampleQuery(percent);
+        return new StatementTemplate(connection).executeStatement(
+                new StatementFactory<Statement>() {
+                    @Override
+                    public Statement createStatement(Connection connection) throws SQLException {
+                        Statement statement = connection.createStatement();
+                        getDialect().setFetchMode(statement, new FetchMode(true));
+                        return statement;
+                    }
+                }, new StatementAction<Statement, List<Object[]>>() {
+                    @Override
+                    public List<Object[]> executeStatement(Statement statement) throws SQLException {
+                        List<Object[]> keys = newArrayList();
+                        ResultSet resultSet = statement.executeQuery(query.toString());
+                        int size = getKey().size();
+                        while (resultSet.next()) {
+                            Object[] values = new Object[size];
+                            for (int i = 0; i < size; i++) {
+                                values[i] = resultSet.getObject(i + 1);
+                            }
+                            keys.add(values);
+                        }
+                        return keys;
+                    }
+                }
+        );
+    }
+
+    @Override
+    public Dialect getDialect() {
+        return dialect;
+    }
+
+    @Override
+    public Table getTable() {
+        return table;
+    }
+
+    @Override
+    public Collection<Column> getKey() {
+        return key;
+    }
+
+    @Override
+    public String getFilter() {
+        return filter;
+    }
+}
@@ -49,10 +49,10 @@ public class Database extends IdentifiableBase implements HasSchemas {
 
     private final Map<Identifier, Catalog> catalogs = newLinkedHashMap();
 
-    private Dialect dialect;
-    private DriverInfo driverInfo;
-    private DatabaseInfo databaseInfo;
-    private ConnectionSpec connectionSpec;
+    private transient Dialect dialect;
+    private transient DriverInfo driverInfo;
+    private transient DatabaseInfo databaseInfo;
+    private transient ConnectionSpec connectionSpec;
 
     public Database() {
         super(MetaDataType.DATABASE, false);
@@ -27,10 +27,12 @@
  */
 package com.nuodb.migrator.jdbc.metadata;
 
+import java.io.Serializable;
+
 /**
  * @author Sergey Bushik
  */
-public class ForeignKeyReference extends IndentedBase {
+public class ForeignKeyReference extends IndentedBase implements Serializable {
 
     private ForeignKey foreignKey;
     private Column primaryColumn;
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.query.ParameterizedQuery;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionCache.getKey;
+
+/**
+ * Executes dialect specific query returning TABLE_CAT, TABLE_SCHEM, TABLE_NAME & FINGERPRINT columns for each table
+ * from the scope.
+ *
+ * @author Sergey Bushik
+ */
+public abstract class FingerprinterBase implements Fingerprinter {
+
+    @Override
+    public Map<String, String> getFingerprints(Connection connection, TableInspectionScope inspectionScope)
+            throws SQLException {
+        ParameterizedQuery query = createQuery(inspectionScope);
+        Map<String, String> fingerprints = newHashMap();
+        PreparedStatement statement = connection.prepareStatement(query.toString());
+        ResultSet resultSet = null;
+        try {
+            int index = 1;
+            for (Object parameter : query.getParameters()) {
+                statement.setObject(index++, parameter);
+            }
+            resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                fingerprints.put(getKey(resultSet.getString("TABLE_CAT"), resultSet.getString("TABLE_SCHEM"),
+                        resultSet.getString("TABLE_NAME")), resultSet.getString("FINGERPRINT"));
+            }
+        } finally {
+            closeQuietly(resultSet);
+            closeQuietly(statement);
+        }
+        return fingerprints;
+    }
+
+    protected abstract ParameterizedQuery createQuery(TableInspectionScope inspectionScope);
+}
@@ -0,0 +1,350 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.metadata.Catalog;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.Database;
+import com.nuodb.migrator.jdbc.metadata.ForeignKey;
+import com.nuodb.migrator.jdbc.metadata.MetaData;
+import com.nuodb.migrator.jdbc.metadata.MetaDataType;
+import com.nuodb.migrator.jdbc.metadata.Schema;
+import com.nuodb.migrator.jdbc.metadata.Sequence;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.metadata.resolver.ServiceResolver;
+import com.nuodb.migrator.jdbc.metadata.resolver.SimpleServiceResolver;
+import com.nuodb.migrator.utils.ObjectUtils;
+import org.slf4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.google.common.base.Joiner.on;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.google.common.collect.Sets.newTreeSet;
+import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.*;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.*;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Keeps inspected meta data in a gzipped file between the runs against the same source. Each run reads table
+ * fingerprints with a cheap dialect specific query and re-inspects only the tables with changed fingerprints, the
+ * tables referencing them with foreign keys and the new tables, the rest of the meta model is taken from the file.
+ * Database info and sequences are always inspected, as sequences carry last values changing with the data. If there
+ * is no fingerprint query for the dialect, meta data is inspected with no cache. MySQL is inspected with no cache too,
+ * as table creation time is kept by instant ALTER TABLE and is cached by the information schema statistics.
+ *
+ * @author Sergey Bushik
+ */
+public class InspectionCache {
+
+    private final transient Logger logger = getLogger(getClass());
+
+    private File file;
+    private boolean refresh;
+    private ServiceResolver<Fingerprinter> fingerprinterResolver = new SimpleServiceResolver<Fingerprinter>();
+
+    public InspectionCache(File file) {
+        this(file, false);
+    }
+
+    /**
+     * @param file    to cache inspected meta data in
+     * @param refresh forces full inspection and overwrites cached meta data if true
+     */
+    public InspectionCache(File file, boolean refresh) {
+        this.file = file;
+        this.refresh = refresh;
+        fingerprinterResolver.register(ORACLE, new OracleFingerprinter());
+        fingerprinterResolver.register(MSSQL_SERVER, new MSSQLServerFingerprinter());
+    }
+
+    public static String getKey(String catalog, String schema, String table) {
+        return on('.').useForNull("").join(catalog, schema, table);
+    }
+
+    public static String getKey(Table table) {
+        return getKey(table.getCatalog().getName(), table.getSchema().getName(), table.getName());
+    }
+
+    public Database inspect(InspectionManager inspectionManager, Connection connection,
+                            TableInspectionScope inspectionScope, MetaDataType... objectTypes) throws SQLException {
+        Fingerprinter fingerprinter = fingerprinterResolver.resolve(connection);
+        if (fingerprinter == null || !asList(objectTypes).contains(TABLE)) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Inspection cache is not supported for the database, inspecting meta data");
+            }
+            return inspectionManager.inspect(connection, inspectionScope, objectTypes).getObject(DATABASE);
+        }
+        Map<String, String> fingerprints = fingerprinter.getFingerprints(connection, inspectionScope);
+        String scope = getScope(inspectionScope, objectTypes);
+        Entry entry = refresh ? null : read(scope);
+        Database database;
+        if (entry != null) {
+            database = inspect(inspectionManager, connection, inspectionScope, objectTypes, entry, fingerprints);
+        } else {
+            if (logger.isDebugEnabled()) {
+                logger.debug(format("Inspecting meta data to cache in %s", file));
+            }
+            database = inspectionManager.inspect(connection, inspectionScope, objectTypes).getObject(DATABASE);
+        }
+        write(new Entry(scope, fingerprints, database));
+        return database;
+    }
+
+    /**
+     * Refreshes cached database with the tables changed since the entry was written
+     */
+    protected Database inspect(InspectionManager inspectionManager, Connection connection,
+                               TableInspectionScope inspectionScope, MetaDataType[] objectTypes,
+                               Entry entry, Map<String, String> fingerprints) throws SQLException {
+        Set<String> staleTables = newHashSet();
+        for (Map.Entry<String, String> fingerprint : entry.getFingerprints().entrySet()) {
+            if (!ObjectUtils.equals(fingerprint.getValue(), fingerprints.get(fingerprint.getKey()))) {
+                staleTables.add(fingerprint.getKey());
+            }
+        }
+        Database database = entry.getDatabase();
+        Collection<Table> removeTables = newArrayList();
+        for (Table table : database.getTables()) {
+            if (staleTables.contains(getKey(table)) || isReferencing(table, staleTables)) {
+                removeTables.add(table);
+            }
+        }
+        for (Table table : removeTables) {
+            removeTable(table);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Refreshing %d cached tables changed or referencing changed tables",
+                    removeTables.size()));
+        }
+        // inspects database info, schemas and re-adds removed & new tables with the listing of the tables in scope
+        InspectionResults inspectionResults = createInspectionResults(database);
+        inspectionManager.inspect(connection, inspectionResults, inspectionScope,
+                getObjectTypes(objectTypes, DATABASE, CATALOG, SCHEMA, TABLE));
+        Collection<MetaData> tables = newArrayList();
+        tables.addAll(inspectionResults.<Table>getObjects(TABLE));
+        MetaDataType[] tableTypes = getObjectTypes(objectTypes, COLUMN, PRIMARY_KEY, FOREIGN_KEY, INDEX, CHECK,
+                TRIGGER, COLUMN_TRIGGER);
+        if (!tables.isEmpty() && tableTypes.length > 0) {
+            inspectionManager.inspect(connection, inspectionResults, tables, tableTypes);
+        }
+        if (asList(objectTypes).contains(SEQUENCE) && hasSequenceInspector(inspectionManager, connection)) {
+            removeSequences(database);
+            inspectionManager.inspect(connection, createInspectionResults(database), inspectionScope, SEQUENCE);
+        }
+        return database;
+    }
+
+    protected boolean isReferencing(Table table, Set<String> tables) {
+        for (ForeignKey foreignKey : table.getForeignKeys()) {
+            if (tables.contains(getKey(foreignKey.getPrimaryTable()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected void removeTable(Table table) {
+        for (Column column : table.getColumns()) {
+            Sequence sequence = column.getSequence();
+            if (sequence != null) {
+                table.getSchema().removeSequence(sequence);
+            }
+        }
+        table.getSchema().removeTable(table);
+    }
+
+    /**
+     * Detaches sequences from the schemas and the columns, keeping auto increment flags of the columns, sequences are
+     * then attached back by the sequence inspector
+     *
+     * @param database to detach sequences from
+     */
+    protected void removeSequences(Database database) {
+        for (Table table : database.getTables()) {
+            for (Column column : table.getColumns()) {
+                if (column.getSequence() != null) {
+                    boolean autoIncrement = column.isAutoIncrement();
+                    column.setSequence(null);
+                    column.setAutoIncrement(autoIncrement);
+                }
+            }
+        }
+        for (Schema schema : database.getSchemas()) {
+            for (Sequence sequence : newArrayList(schema.getSequences())) {
+                schema.removeSequence(sequence);
+            }
+        }
+    }
+
+    /**
+     * Sequences of some dialects are inspected with the columns, these are kept in the cache for unchanged tables
+     */
+    protected boolean hasSequenceInspector(InspectionManager inspectionManager, Connection connection)
+            throws SQLException {
+        for (Inspector inspector : inspectionManager.getInspectors()) {
+            if (inspector instanceof InspectorResolver && inspector.supports(SEQUENCE)) {
+                return ((InspectorResolver) inspector).resolve(connection.getMetaData()) != null;
+            }
+        }
+        return false;
+    }
+
+    protected InspectionResults createInspectionResults(Database database) {
+        InspectionResults inspectionResults = new SimpleInspectionResults();
+        inspectionResults.addObject(database);
+        for (Catalog catalog : database.getCatalogs()) {
+            inspectionResults.addObject(catalog);
+            inspectionResults.addObjects(catalog.getSchemas());
+        }
+        return inspectionResults;
+    }
+
+    protected MetaDataType[] getObjectTypes(MetaDataType[] objectTypes, MetaDataType... filterTypes) {
+        Collection<MetaDataType> types = newArrayList();
+        for (MetaDataType objectType : objectTypes) {
+            if (asList(filterTypes).contains(objectType)) {
+                types.add(objectType);
+            }
+        }
+        return types.toArray(new MetaDataType[types.size()]);
+    }
+
+    protected String getScope(TableInspectionScope inspectionScope, MetaDataType[] objectTypes) {
+        Set<String> types = newTreeSet();
+        for (MetaDataType objectType : objectTypes) {
+            types.add(objectType.getName());
+        }
+        return format("%s/%s/%s/%s", inspectionScope.getCatalog(), inspectionScope.getSchema(),
+                Arrays.toString(inspectionScope.getTableTypes()), types);
+    }
+
+    /**
+     * Reads cached entry if it was written for the same inspection scope and object types
+     *
+     * @param scope of the entry to read
+     * @return cached entry or null if there is no cache for the scope or it can't be read
+     */
+    protected Entry read(String scope) {
+        if (!file.exists()) {
+            return null;
+        }
+        ObjectInputStream input = null;
+        try {
+            input = new ObjectInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))));
+            Entry entry = (Entry) input.readObject();
+            return scope.equals(entry.getScope()) ? entry : null;
+        } catch (Exception exception) {
+            if (logger.isWarnEnabled()) {
+                logger.warn(format("Inspection cache %s can't be read, inspecting meta data", file), exception);
+            }
+            return null;
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    protected void write(Entry entry) {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.exists()) {
+            directory.mkdirs();
+        }
+        ObjectOutputStream output = null;
+        try {
+            output = new ObjectOutputStream(new GZIPOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(file))));
+            output.writeObject(entry);
+            output.close();
+        } catch (IOException exception) {
+            throw new InspectorException(format("Failed writing inspection cache %s", file), exception);
+        } finally {
+            closeQuietly(output);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public boolean isRefresh() {
+        return refresh;
+    }
+
+    public ServiceResolver<Fingerprinter> getFingerprinterResolver() {
+        return fingerprinterResolver;
+    }
+
+    public void setFingerprinterResolver(ServiceResolver<Fingerprinter> fingerprinterResolver) {
+        this.fingerprinterResolver = fingerprinterResolver;
+    }
+
+    protected static class Entry implements Serializable {
+
+        private final String scope;
+        private final Map<String, String> fingerprints;
+        private final Database database;
+
+        public Entry(String scope, Map<String, String> fingerprints, Database database) {
+            this.scope = scope;
+            this.fingerprints = fingerprints;
+            this.database = database;
+        }
+
+        public String getScope() {
+            return scope;
+        }
+
+        public Map<String, String> getFingerprints() {
+            return fingerprints;
+        }
+
+        public Database getDatabase() {
+            return database;
+        }
+    }
+}
@@ -51,6 +51,14 @@ public interface InspectionContext {
 
     InspectionResults getInspectionResults();
 
+    /**
+     * Tells whether objects of the tables from the same schema are inspected in a batch with a single schema wide
+     * query by the inspectors supporting it
+     *
+     * @return true if batch inspection is on
+     */
+    boolean isBatch();
+
     void init() throws SQLException;
 
     void inspect(InspectionScope scope) throws SQLException;
@@ -31,6 +31,7 @@ import com.nuodb.migrator.jdbc.dialect.DialectResolver;
 import com.nuodb.migrator.jdbc.metadata.Database;
 import com.nuodb.migrator.jdbc.metadata.MetaData;
 import com.nuodb.migrator.jdbc.metadata.MetaDataType;
+import com.nuodb.migrator.jdbc.session.SessionFactory;
 import org.slf4j.Logger;
 
 import java.sql.Connection;
@@ -52,9 +53,19 @@ import static org.slf4j.LoggerFactory.getLogger;
  */
 public class InspectionManager {
 
+    /**
+     * Types of the objects, which are inspected after tables and columns and only attach objects to the existing
+     * tables and columns, so that these are inspected concurrently if there are threads and sessions available.
+     */
+    public static final MetaDataType[] CONCURRENT_TYPES = new MetaDataType[]{
+            PRIMARY_KEY, FOREIGN_KEY, INDEX, SEQUENCE, CHECK, TRIGGER, COLUMN_TRIGGER};
+
     private final transient Logger logger = getLogger(getClass());
     private DialectResolver dialectResolver;
     private Collection<Inspector> inspectors = newPrioritySet();
+    private boolean batch = true;
+    private int threads = 1;
+    private SessionFactory sessionFactory;
 
     public InspectionManager() {
         InspectorResolver databaseInspector = new InspectorResolver(DATABASE, new SimpleDatabaseInspector());
@@ -222,6 +233,42 @@ public class InspectionManager {
         this.inspectors = inspectors;
     }
 
+    /**
+     * Batch inspection reads columns, indexes and keys of all the tables from a schema with one query per schema
+     * instead of one query per table, if supported by the inspector for the dialect.
+     *
+     * @return true if batch inspection is on
+     */
+    public boolean isBatch() {
+        return batch;
+    }
+
+    public void setBatch(boolean batch) {
+        this.batch = batch;
+    }
+
+    /**
+     * Number of threads used to inspect {@link #CONCURRENT_TYPES} concurrently, each with a session opened from the
+     * session factory. Inspection is serial if there is one thread or no session factory.
+     *
+     * @return number of inspection threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public SessionFactory getSessionFactory() {
+        return sessionFactory;
+    }
+
+    public void setSessionFactory(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
     public DialectResolver getDialectResolver() {
         return dialectResolver;
     }
@@ -37,16 +37,21 @@ import static com.nuodb.migrator.jdbc.metadata.Identifier.valueOf;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataType.DATABASE;
 
 /**
+ * Adds objects to the inspection results, lookups and additions are synchronized on the results, so that inspectors
+ * running concurrently share a single database model.
+ *
  * @author Sergey Bushik
  */
 public class InspectionResultsUtils {
 
     public static Database addDatabase(InspectionResults results) {
-        Database database = results.getObject(DATABASE);
-        if (database == null) {
-            results.addObject(database = new Database());
+        synchronized (results) {
+            Database database = results.getObject(DATABASE);
+            if (database == null) {
+                results.addObject(database = new Database());
+            }
+            return database;
         }
-        return database;
     }
 
     public static Catalog addCatalog(InspectionResults results, String catalogName) {
@@ -54,18 +59,20 @@ public class InspectionResultsUtils {
     }
 
     public static Catalog addCatalog(InspectionResults results, String catalogName, boolean addObject) {
-        Database database = addDatabase(results);
-        Catalog catalog;
-        Identifier catalogId = valueOf(catalogName);
-        if (database.hasCatalog(catalogId)) {
-            catalog = database.getCatalog(catalogId);
-        } else {
-            catalog = database.addCatalog(catalogId);
-            if (addObject) {
-                results.addObject(catalog);
+        synchronized (results) {
+            Database database = addDatabase(results);
+            Catalog catalog;
+            Identifier catalogId = valueOf(catalogName);
+            if (database.hasCatalog(catalogId)) {
+                catalog = database.getCatalog(catalogId);
+            } else {
+                catalog = database.addCatalog(catalogId);
+                if (addObject) {
+                    results.addObject(catalog);
+                }
             }
+            return catalog;
         }
-        return catalog;
     }
 
     public static Schema addSchema(InspectionResults results, String catalogName, String schemaName) {
@@ -74,18 +81,20 @@ public class InspectionResultsUtils {
 
     public static Schema addSchema(InspectionResults results, String catalogName, String schemaName,
                                    boolean addObject) {
-        Catalog catalog = addCatalog(results, catalogName, addObject);
-        Schema schema;
-        Identifier schemaId = valueOf(schemaName);
-        if (catalog.hasSchema(schemaId)) {
-            schema = catalog.getSchema(schemaId);
-        } else {
-            schema = catalog.addSchema(schemaId);
-            if (addObject) {
-                results.addObject(schema);
+        synchronized (results) {
+            Catalog catalog = addCatalog(results, catalogName, addObject);
+            Schema schema;
+            Identifier schemaId = valueOf(schemaName);
+            if (catalog.hasSchema(schemaId)) {
+                schema = catalog.getSchema(schemaId);
+            } else {
+                schema = catalog.addSchema(schemaId);
+                if (addObject) {
+                    results.addObject(schema);
+                }
             }
+            return schema;
         }
-        return schema;
     }
 
     public static Table addTable(InspectionResults results, String catalogName, String schemaName, String tableName) {
@@ -94,17 +103,47 @@ public class InspectionResultsUtils {
 
     public static Table addTable(InspectionResults results, String catalogName, String schemaName, String tableName,
                                  boolean addObject) {
-        Schema schema = addSchema(results, catalogName, schemaName, addObject);
-        Table table;
-        Identifier tableId = valueOf(tableName);
-        if (schema.hasTable(tableId)) {
-            table = schema.getTable(tableId);
-        } else {
-            table = schema.addTable(tableId);
-            if (addObject) {
-                results.addObject(table);
+        synchronized (results) {
+            Schema schema = addSchema(results, catalogName, schemaName, addObject);
+            Table table;
+            Identifier tableId = valueOf(tableName);
+            if (schema.hasTable(tableId)) {
+                table = schema.getTable(tableId);
+            } else {
+                table = schema.addTable(tableId);
+                if (addObject) {
+                    results.addObject(table);
+                }
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Adds table to the results unless the scope is restricted to the listed tables and the table is not one of them,
+     * which is the case for the rows returned by a schema wide query of a batch inspection.
+     *
+     * @param results     inspection results
+     * @param scope       inspection scope the table was read for
+     * @param catalogName catalog name of the table
+     * @param schemaName  schema name of the table
+     * @param tableName   table name
+     * @return table or null if the table is out of the scope
+     */
+    public static Table addTable(InspectionResults results, TableInspectionScope scope, String catalogName,
+                                 String schemaName, String tableName) {
+        if (scope instanceof TablesInspectionScope) {
+            TablesInspectionScope tablesScope = (TablesInspectionScope) scope;
+            boolean inScope = matches(tablesScope.getCatalog(), catalogName) &&
+                    matches(tablesScope.getSchema(), schemaName) && tablesScope.hasTable(tableName);
+            if (!inScope) {
+                return null;
             }
         }
-        return table;
+        return addTable(results, catalogName, schemaName, tableName);
+    }
+
+    private static boolean matches(String scopeName, String name) {
+        return scopeName == null || name == null || scopeName.equals(name);
     }
 }
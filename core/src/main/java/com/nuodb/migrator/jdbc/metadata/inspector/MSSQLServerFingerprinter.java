@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.query.ParameterizedQuery;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
+import com.nuodb.migrator.utils.StringUtils;
+
+import java.util.Collection;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Fingerprints tables and views with the time they were last modified by an ALTER statement.
+ *
+ * @author Sergey Bushik
+ */
+public class MSSQLServerFingerprinter extends FingerprinterBase {
+
+    @Override
+    protected ParameterizedQuery createQuery(TableInspectionScope inspectionScope) {
+        SelectQuery query = new SelectQuery();
+        query.columns("DB_NAME() AS TABLE_CAT", "SCHEMA_NAME(SCHEMA_ID) AS TABLE_SCHEM", "NAME AS TABLE_NAME",
+                "CONVERT(VARCHAR(32), MODIFY_DATE, 126) AS FINGERPRINT");
+        query.from("SYS.OBJECTS");
+        query.where("TYPE IN ('U','V')");
+        Collection<Object> parameters = newArrayList();
+        String schema = inspectionScope.getSchema();
+        if (!StringUtils.isEmpty(schema)) {
+            query.where("SCHEMA_NAME(SCHEMA_ID)=?");
+            parameters.add(schema);
+        }
+        return new ParameterizedQuery(query, parameters);
+    }
+}
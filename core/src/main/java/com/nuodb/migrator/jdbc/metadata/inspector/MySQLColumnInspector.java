@@ -51,7 +51,8 @@ import static org.apache.commons.lang3.StringUtils.containsAny;
 public class MySQLColumnInspector extends SimpleColumnInspector {
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+    protected void processResultSet(InspectionContext inspectionContext,
+                                    final TableInspectionScope tableInspectionScope,
                                     ResultSet resultSet) throws SQLException {
         super.processResultSet(inspectionContext, tableInspectionScope, resultSet);
         final InspectionResults inspectionResults = inspectionContext.getInspectionResults();
@@ -94,8 +95,11 @@ public class MySQLColumnInspector extends SimpleColumnInspector {
                         ResultSet columns = statement.executeQuery();
 
                         while (columns.next()) {
-                            Table table = addTable(inspectionResults, columns.getString("TABLE_SCHEMA"), null,
-                                    columns.getString("TABLE_NAME"));
+                            Table table = addTable(inspectionResults, tableInspectionScope,
+                                    columns.getString("TABLE_SCHEMA"), null, columns.getString("TABLE_NAME"));
+                            if (table == null) {
+                                continue;
+                            }
                             Column column = table.addColumn(columns.getString("COLUMN_NAME"));
                             column.setJdbcType(getJdbcType(column.getJdbcType(), columns.getString("COLUMN_TYPE")));
                         }
@@ -56,6 +56,10 @@ public class NuoDBColumnInspector extends TableInspectorBase<Table, TableInspect
             "SELECT * FROM SYSTEM.FIELDS AS F INNER JOIN SYSTEM.DATATYPES AS D ON F.DATATYPE = D.ID\n" +
                     "WHERE F.SCHEMA=? AND F.TABLENAME=? ORDER BY F.FIELDPOSITION ASC";
 
+    private static final String SCHEMA_QUERY =
+            "SELECT * FROM SYSTEM.FIELDS AS F INNER JOIN SYSTEM.DATATYPES AS D ON F.DATATYPE = D.ID\n" +
+                    "WHERE F.SCHEMA=? ORDER BY F.TABLENAME, F.FIELDPOSITION ASC";
+
     public NuoDBColumnInspector() {
         super(COLUMN, TableInspectionScope.class);
     }
@@ -64,17 +68,24 @@ public class NuoDBColumnInspector extends TableInspectorBase<Table, TableInspect
     protected Query createQuery(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope) {
         Collection<Object> parameters = newArrayList();
         parameters.add(tableInspectionScope.getSchema());
-        parameters.add(tableInspectionScope.getTable());
-        return new ParameterizedQuery(newQuery(QUERY), parameters);
+        String table = tableInspectionScope.getTable();
+        if (table != null) {
+            parameters.add(table);
+        }
+        return new ParameterizedQuery(newQuery(table != null ? QUERY : SCHEMA_QUERY), parameters);
     }
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, ResultSet columns) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+                                    ResultSet columns) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         Dialect dialect = inspectionContext.getDialect();
         while (columns.next()) {
-            Table table = addTable(inspectionResults, null, columns.getString("SCHEMA"),
+            Table table = addTable(inspectionResults, tableInspectionScope, null, columns.getString("SCHEMA"),
                     columns.getString("TABLENAME"));
+            if (table == null) {
+                continue;
+            }
 
             Column column = table.addColumn(columns.getString("FIELD"));
             JdbcType jdbcType = new JdbcType();
@@ -105,6 +116,11 @@ public class NuoDBColumnInspector extends TableInspectorBase<Table, TableInspect
         }
     }
 
+    @Override
+    protected boolean supportsBatch() {
+        return true;
+    }
+
     @Override
     protected boolean supportsScope(TableInspectionScope tableInspectionScope) {
         return tableInspectionScope.getSchema() != null && tableInspectionScope.getTable() != null;
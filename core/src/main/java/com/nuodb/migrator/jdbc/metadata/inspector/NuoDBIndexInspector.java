@@ -56,11 +56,15 @@ public class NuoDBIndexInspector extends TableInspectorBase<Table, TableInspecti
     }
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, ResultSet indexes) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+                                    ResultSet indexes) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         while (indexes.next()) {
-            Table table = addTable(inspectionResults, null, indexes.getString("SCHEMA"),
+            Table table = addTable(inspectionResults, tableInspectionScope, null, indexes.getString("SCHEMA"),
                     indexes.getString("TABLENAME"));
+            if (table == null) {
+                continue;
+            }
             Identifier identifier = valueOf(indexes.getString("INDEXNAME"));
             Index index = table.getIndex(identifier);
             if (index == null) {
@@ -72,6 +76,11 @@ public class NuoDBIndexInspector extends TableInspectorBase<Table, TableInspecti
         }
     }
 
+    @Override
+    protected boolean supportsBatch() {
+        return true;
+    }
+
     @Override
     protected boolean supportsScope(TableInspectionScope tableInspectionScope) {
         return tableInspectionScope.getSchema() != null && tableInspectionScope.getTable() != null;
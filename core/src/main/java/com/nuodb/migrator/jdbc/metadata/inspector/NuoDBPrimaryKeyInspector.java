@@ -55,11 +55,15 @@ public class NuoDBPrimaryKeyInspector extends TableInspectorBase<Table, TableIns
     }
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, ResultSet primaryKeys) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+                                    ResultSet primaryKeys) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         while (primaryKeys.next()) {
-            Table table = addTable(inspectionResults, null, primaryKeys.getString("SCHEMA"),
+            Table table = addTable(inspectionResults, tableInspectionScope, null, primaryKeys.getString("SCHEMA"),
                     primaryKeys.getString("TABLENAME"));
+            if (table == null) {
+                continue;
+            }
 
             Identifier identifier = valueOf(primaryKeys.getString("INDEXNAME"));
             PrimaryKey primaryKey = table.getPrimaryKey();
@@ -71,6 +75,11 @@ public class NuoDBPrimaryKeyInspector extends TableInspectorBase<Table, TableIns
         }
     }
 
+    @Override
+    protected boolean supportsBatch() {
+        return true;
+    }
+
     @Override
     protected boolean supportsScope(TableInspectionScope tableInspectionScope) {
         return tableInspectionScope.getSchema() != null && tableInspectionScope.getTable() != null;
@@ -134,8 +134,9 @@ public class OracleIndexInspector extends SimpleIndexInspector {
         }
         return expression;
     }
-}
-
-
-
 
+    @Override
+    protected boolean supportsBatch() {
+        return true;
+    }
+}
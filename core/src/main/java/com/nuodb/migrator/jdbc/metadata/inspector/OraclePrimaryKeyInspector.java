@@ -64,6 +64,9 @@ public class OraclePrimaryKeyInspector extends SimplePrimaryKeyInspector {
         }
         return new ParameterizedQuery(query, parameters);
     }
-}
-
 
+    @Override
+    protected boolean supportsBatch() {
+        return true;
+    }
+}
@@ -58,11 +58,15 @@ public class SimpleColumnInspector extends TableInspectorBase<Table, TableInspec
     }
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, ResultSet columns) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+                                    ResultSet columns) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         while (columns.next()) {
-            Table table = addTable(inspectionResults, columns.getString("TABLE_CAT"),
+            Table table = addTable(inspectionResults, tableInspectionScope, columns.getString("TABLE_CAT"),
                     columns.getString("TABLE_SCHEM"), columns.getString("TABLE_NAME"));
+            if (table == null) {
+                continue;
+            }
             Column column = table.addColumn(columns.getString("COLUMN_NAME"));
             processColumn(inspectionContext, columns, column);
             inspectionResults.addObject(column);
@@ -91,6 +95,11 @@ public class SimpleColumnInspector extends TableInspectorBase<Table, TableInspec
         column.setDefaultValue(valueOf(columns.getString("COLUMN_DEF")));
     }
 
+    @Override
+    protected boolean supportsBatch() {
+        return true;
+    }
+
     @Override
     protected boolean supportsScope(TableInspectionScope tableInspectionScope) {
         return tableInspectionScope.getTable() != null;
@@ -59,14 +59,18 @@ public class SimpleIndexInspector extends TableInspectorBase<Table, TableInspect
     }
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, ResultSet indexes) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+                                    ResultSet indexes) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         while (indexes.next()) {
             if (indexes.getShort("TYPE") == tableIndexStatistic) {
                 continue;
             }
-            Table table = addTable(inspectionResults, indexes.getString("TABLE_CAT"),
+            Table table = addTable(inspectionResults, tableInspectionScope, indexes.getString("TABLE_CAT"),
                     indexes.getString("TABLE_SCHEM"), indexes.getString("TABLE_NAME"));
+            if (table == null) {
+                continue;
+            }
             Identifier identifier = valueOf(indexes.getString("INDEX_NAME"));
             Index index = table.hasIndex(identifier) ? table.getIndex(identifier) :
                     table.addIndex(new Index(identifier));
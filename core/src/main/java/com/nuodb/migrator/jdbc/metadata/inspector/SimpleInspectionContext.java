@@ -31,19 +31,29 @@ import com.nuodb.migrator.jdbc.dialect.Dialect;
 import com.nuodb.migrator.jdbc.dialect.DialectResolver;
 import com.nuodb.migrator.jdbc.metadata.MetaData;
 import com.nuodb.migrator.jdbc.metadata.MetaDataType;
+import com.nuodb.migrator.jdbc.session.Session;
 import org.slf4j.Logger;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newTreeSet;
 import static com.nuodb.migrator.context.ContextUtils.createService;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataHandlerUtils.getHandler;
+import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionManager.CONCURRENT_TYPES;
+import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.apache.commons.lang3.ArrayUtils.contains;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -99,6 +109,11 @@ public class SimpleInspectionContext implements InspectionContext {
         return inspectionResults;
     }
 
+    @Override
+    public boolean isBatch() {
+        return inspectionManager.isBatch();
+    }
+
     @Override
     public void init() throws SQLException {
     }
@@ -135,18 +150,102 @@ public class SimpleInspectionContext implements InspectionContext {
         }
     }
 
+    /**
+     * Inspects objects of each type in turn, objects of the concurrent types are inspected last, each type on its own
+     * session, if the inspection manager has more than one thread and a session factory.
+     *
+     * @param scope       inspection scope
+     * @param objectTypes types of the objects to inspect
+     * @throws SQLException if inspection fails
+     */
     @Override
     public void inspect(InspectionScope scope, MetaDataType... objectTypes) throws SQLException {
+        Collection<MetaDataType> concurrentTypes = newArrayList();
         for (MetaDataType objectType : newTreeSet(asList(objectTypes))) {
-            Inspector inspector = findInspector(objectType);
-            if (logger.isDebugEnabled()) {
-                logger.debug(format("Inspecting %s", objectType));
-            }
-            if (inspector.supportsScope(this, scope)) {
-                inspector.inspectScope(this, scope);
+            if (contains(CONCURRENT_TYPES, objectType)) {
+                concurrentTypes.add(objectType);
             } else {
-                inspector.inspect(this);
+                inspectType(scope, objectType);
+            }
+        }
+        if (concurrentTypes.size() > 1 && inspectionManager.getThreads() > 1 &&
+                inspectionManager.getSessionFactory() != null) {
+            inspectConcurrently(scope, concurrentTypes);
+        } else {
+            for (MetaDataType objectType : concurrentTypes) {
+                inspectType(scope, objectType);
+            }
+        }
+    }
+
+    protected void inspectType(InspectionScope scope, MetaDataType objectType) throws SQLException {
+        Inspector inspector = findInspector(objectType);
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Inspecting %s", objectType));
+        }
+        if (inspector.supportsScope(this, scope)) {
+            inspector.inspectScope(this, scope);
+        } else {
+            inspector.inspect(this);
+        }
+    }
+
+    protected void inspectConcurrently(final InspectionScope scope,
+                                       Collection<MetaDataType> objectTypes) throws SQLException {
+        ExecutorService executorService = newFixedThreadPool(min(inspectionManager.getThreads(), objectTypes.size()));
+        try {
+            Collection<Future<Object>> futures = newArrayList();
+            for (final MetaDataType objectType : objectTypes) {
+                futures.add(executorService.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        inspectSession(scope, objectType);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Object> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new InspectorException(exception);
+                } catch (ExecutionException exception) {
+                    Throwable cause = exception.getCause();
+                    if (cause instanceof SQLException) {
+                        throw (SQLException) cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else {
+                        throw new InspectorException(cause);
+                    }
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Inspects objects of the given type on a session opened from the session factory of the inspection manager,
+     * objects are added to the shared inspection results.
+     *
+     * @param scope      inspection scope
+     * @param objectType type of the objects to inspect
+     * @throws SQLException if inspection fails
+     */
+    protected void inspectSession(InspectionScope scope, MetaDataType objectType) throws SQLException {
+        Session session = inspectionManager.getSessionFactory().openSession();
+        try {
+            InspectionContext inspectionContext = inspectionManager.createInspectionContext(
+                    session.getConnection(), inspectionResults, objectType);
+            try {
+                inspectionContext.inspect(scope, objectType);
+            } finally {
+                inspectionManager.closeInspectionContext(inspectionContext);
             }
+        } finally {
+            session.close();
         }
     }
 
@@ -40,11 +40,15 @@ import org.apache.commons.lang3.ObjectUtils;
 import java.util.Collection;
 import java.util.Set;
 
+import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Multimaps.newSetMultimap;
 import static com.google.common.collect.Sets.newLinkedHashSet;
 
 
 /**
+ * Inspection results safe for use by inspectors running concurrently, collections of objects are returned as copies
+ * made under the lock.
+ *
  * @author Sergey Bushik
  */
 @SuppressWarnings("unchecked")
@@ -59,19 +63,19 @@ public class SimpleInspectionResults implements InspectionResults {
             });
 
     @Override
-    public void addObject(MetaData object) {
+    public synchronized void addObject(MetaData object) {
         objects.put(object.getObjectType(), object);
     }
 
     @Override
-    public void addObjects(Collection<? extends MetaData> objects) {
+    public synchronized void addObjects(Collection<? extends MetaData> objects) {
         for (MetaData object : objects) {
             addObject(object);
         }
     }
 
     @Override
-    public <M extends MetaData> M getObject(MetaDataType objectType) {
+    public synchronized <M extends MetaData> M getObject(MetaDataType objectType) {
         Set<MetaData> objectsByType = objects.get(objectType);
         return !objectsByType.isEmpty() ? (M) objectsByType.iterator().next() : null;
     }
@@ -82,7 +86,7 @@ public class SimpleInspectionResults implements InspectionResults {
     }
 
     @Override
-    public <M extends Identifiable> M getObject(MetaDataType objectType, final Identifier identifier) {
+    public synchronized <M extends Identifiable> M getObject(MetaDataType objectType, final Identifier identifier) {
         Optional<MetaData> identifiable = Iterables.tryFind(objects.get(objectType), new Predicate<MetaData>() {
             @Override
             public boolean apply(MetaData object) {
@@ -94,17 +98,17 @@ public class SimpleInspectionResults implements InspectionResults {
     }
 
     @Override
-    public <M extends MetaData> Collection<M> getObjects(MetaDataType objectType) {
-        return (Collection<M>) objects.get(objectType);
+    public synchronized <M extends MetaData> Collection<M> getObjects(MetaDataType objectType) {
+        return (Collection<M>) newArrayList(objects.get(objectType));
     }
 
     @Override
-    public Collection<? extends MetaData> getObjects() {
-        return objects.values();
+    public synchronized Collection<? extends MetaData> getObjects() {
+        return newArrayList(objects.values());
     }
 
     @Override
-    public void removeObject(MetaData object) {
+    public synchronized void removeObject(MetaData object) {
         objects.remove(object.getObjectType(), object);
     }
 }
@@ -157,6 +157,11 @@ public class SimpleManagedInspectionContext<M extends MetaData, I extends Inspec
         return inspectionContext.getInspectionResults();
     }
 
+    @Override
+    public boolean isBatch() {
+        return inspectionContext.isBatch();
+    }
+
     @Override
     public void inspect(InspectionScope scope) throws SQLException {
         inspectionContext.inspect(scope);
@@ -31,6 +31,16 @@ import com.nuodb.migrator.jdbc.metadata.MetaData;
 import com.nuodb.migrator.jdbc.metadata.MetaDataType;
 import com.nuodb.migrator.jdbc.metadata.Table;
 
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.util.Arrays.asList;
+
 /**
  * @author Sergey Bushik
  */
@@ -51,6 +61,68 @@ public abstract class TableInspectorBase<M extends MetaData, T extends TableInsp
         super(objectType, parentObjectType, inspectionScopeClass);
     }
 
+    /**
+     * Inspects tables from the same schema in a batch with a single schema wide query, if batch inspection is on and
+     * is supported by the inspector, otherwise issues a query per table.
+     *
+     * @param inspectionContext inspection context
+     * @param objects           tables to inspect
+     * @throws SQLException if inspection fails
+     */
+    @Override
+    public void inspectObjects(InspectionContext inspectionContext,
+                               Collection<? extends M> objects) throws SQLException {
+        if (inspectionContext.isBatch() && supportsBatch()) {
+            inspectScopes(inspectionContext, (Collection<? extends T>) createBatchInspectionScopes(objects));
+        } else {
+            super.inspectObjects(inspectionContext, objects);
+        }
+    }
+
+    /**
+     * Tells whether inspector reads objects of a whole schema when the table of the scope is not set
+     *
+     * @return true if inspector is capable of batch inspection
+     */
+    protected boolean supportsBatch() {
+        return false;
+    }
+
+    /**
+     * Groups tables by schema, tables of each schema are inspected with one scope, a table which is the only one from
+     * its schema is inspected with a table scope.
+     *
+     * @param objects tables to inspect
+     * @return inspection scopes
+     */
+    protected Collection<? extends TableInspectionScope> createBatchInspectionScopes(Collection<? extends M> objects) {
+        Map<List<String>, Collection<Table>> schemaTables = newLinkedHashMap();
+        for (M object : objects) {
+            Table table = (Table) object;
+            List<String> schema = asList(table.getCatalog().getName(), table.getSchema().getName());
+            Collection<Table> tables = schemaTables.get(schema);
+            if (tables == null) {
+                schemaTables.put(schema, tables = newArrayList());
+            }
+            tables.add(table);
+        }
+        Collection<TableInspectionScope> inspectionScopes = newArrayList();
+        for (Map.Entry<List<String>, Collection<Table>> entry : schemaTables.entrySet()) {
+            Collection<Table> tables = entry.getValue();
+            if (tables.size() == 1) {
+                inspectionScopes.add(createTableInspectionScope(getOnlyElement(tables)));
+            } else {
+                TablesInspectionScope inspectionScope = new TablesInspectionScope(
+                        entry.getKey().get(0), entry.getKey().get(1));
+                for (Table table : tables) {
+                    inspectionScope.addTable(table.getName());
+                }
+                inspectionScopes.add(inspectionScope);
+            }
+        }
+        return inspectionScopes;
+    }
+
     protected T createInspectionScope(M object) {
         return (T) createTableInspectionScope((Table) object);
     }
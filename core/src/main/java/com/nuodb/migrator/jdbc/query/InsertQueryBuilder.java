@@ -47,6 +47,7 @@ public class InsertQueryBuilder implements QueryBuilder<InsertQuery> {
     private Table table;
     private boolean qualifyNames = QUALIFY_NAMES;
     private Collection<String> columns = Lists.newArrayList();
+    private int rows = 1;
 
     @Override
     public InsertQuery build() {
@@ -54,6 +55,7 @@ public class InsertQueryBuilder implements QueryBuilder<InsertQuery> {
         insertQuery.setInsertType(insertType);
         insertQuery.setQualifyNames(qualifyNames);
         insertQuery.setInto(table);
+        insertQuery.setRows(rows);
         Database database = table.getDatabase();
         if (dialect != null) {
             insertQuery.setDialect(dialect);
@@ -97,4 +99,9 @@ public class InsertQueryBuilder implements QueryBuilder<InsertQuery> {
         this.columns = columns;
         return this;
     }
+
+    public InsertQueryBuilder rows(int rows) {
+        this.rows = rows;
+        return this;
+    }
 }
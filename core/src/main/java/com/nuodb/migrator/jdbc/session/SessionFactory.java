@@ -42,4 +42,21 @@ public interface SessionFactory {
     void addSessionObserver(SessionObserver sessionObserver);
 
     void removeSessionObserver(SessionObserver sessionObserver);
+
+    /**
+     * Tells whether closed sessions are kept open and handed out by subsequent {@link #openSession()} calls, so that
+     * session observers are run once per connection rather than once per session
+     *
+     * @return true if sessions are reused
+     */
+    boolean isReuseSessions();
+
+    void setReuseSessions(boolean reuseSessions);
+
+    /**
+     * Closes sessions kept for reuse
+     *
+     * @throws SQLException if closing of a session failed
+     */
+    void close() throws SQLException;
 }
@@ -27,19 +27,30 @@
  */
 package com.nuodb.migrator.jdbc.session;
 
+import org.slf4j.Logger;
+
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.Map;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Queues.newArrayDeque;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * @author Sergey Bushik
  */
 public abstract class SessionFactoryBase implements SessionFactory {
 
+    private transient final Logger logger = getLogger(getClass());
+
     private Collection<SessionObserver> sessionObservers = newArrayList();
+    private final Deque<Session> sessions = newArrayDeque();
+    private boolean reuseSessions;
+    private boolean closed;
 
     @Override
     public Session openSession() throws SQLException {
@@ -48,11 +59,21 @@ public abstract class SessionFactoryBase implements SessionFactory {
 
     @Override
     public Session openSession(Map<Object, Object> context) throws SQLException {
-        Session session = open(context);
-        afterOpen(session);
+        Session session = reuseSession();
+        if (session != null) {
+            session.clear();
+            session.putAll(context);
+        } else {
+            session = open(context);
+            afterOpen(session);
+        }
         return session;
     }
 
+    protected synchronized Session reuseSession() {
+        return reuseSessions ? sessions.pollLast() : null;
+    }
+
     protected abstract Session open(Map<Object, Object> context) throws SQLException;
 
     @Override
@@ -78,8 +99,83 @@ public abstract class SessionFactoryBase implements SessionFactory {
     }
 
     public void closeSession(Session session) throws SQLException {
-        beforeClose(session);
-        close(session);
+        if (!releaseSession(session)) {
+            beforeClose(session);
+            close(session);
+        }
+    }
+
+    /**
+     * Keeps session for reuse if its connection is open, uncommitted changes are rolled back like it's done by the
+     * connection pool when the connection is returned. Session which connection fails the rollback is not reused
+     *
+     * @param session to release
+     * @return true if session is kept for reuse
+     */
+    protected boolean releaseSession(Session session) {
+        synchronized (this) {
+            if (sessions.contains(session)) {
+                return true;
+            }
+            if (!reuseSessions || closed) {
+                return false;
+            }
+        }
+        try {
+            Connection connection = session.getConnection();
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+            }
+        } catch (SQLException exception) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Session is closed as its connection failed to roll back", exception);
+            }
+            return false;
+        }
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            sessions.addLast(session);
+            return true;
+        }
+    }
+
+    @Override
+    public synchronized boolean isReuseSessions() {
+        return reuseSessions;
+    }
+
+    @Override
+    public synchronized void setReuseSessions(boolean reuseSessions) {
+        this.reuseSessions = reuseSessions;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        Collection<Session> sessions;
+        synchronized (this) {
+            closed = true;
+            sessions = newArrayList(this.sessions);
+            this.sessions.clear();
+        }
+        SQLException failure = null;
+        for (Session session : sessions) {
+            try {
+                beforeClose(session);
+                close(session);
+            } catch (SQLException exception) {
+                if (failure == null) {
+                    failure = exception;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
     }
 
     protected abstract void close(Session session) throws SQLException;
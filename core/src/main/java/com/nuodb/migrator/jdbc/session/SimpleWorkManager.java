@@ -55,6 +55,7 @@ public class SimpleWorkManager<L extends WorkListener> implements WorkManager<L>
     private Map<Work, Throwable> failures = synchronizedMap(
             Maps.<Work, Throwable>newLinkedHashMap());
     private List<L> listeners = newCopyOnWriteArrayList();
+    private volatile boolean failed;
 
     @Override
     public boolean hasListeners() {
@@ -153,6 +154,7 @@ public class SimpleWorkManager<L extends WorkListener> implements WorkManager<L>
             logger.warn(format("%s work failed with error %s",
                     work.getName(), failure.getMessage()));
         }
+        failed = true;
         failures.put(work, failure);
         onFailure(work, failure);
     }
@@ -188,6 +190,15 @@ public class SimpleWorkManager<L extends WorkListener> implements WorkManager<L>
         return failures;
     }
 
+    /**
+     * Checks if any of the works has failed, reads volatile flag and is cheap enough to be called for each row
+     *
+     * @return true if failure of a work was registered
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
     public boolean isThrowFailureOnClose() {
         return throwFailureOnClose;
     }
@@ -0,0 +1,375 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.split;
+
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.FetchMode;
+import com.nuodb.migrator.jdbc.dialect.KeySampleHandler;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
+import com.nuodb.migrator.jdbc.query.StatementAction;
+import com.nuodb.migrator.jdbc.query.StatementFactory;
+import com.nuodb.migrator.jdbc.query.StatementTemplate;
+import org.apache.commons.lang3.mutable.MutableLong;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.jdbc.query.QueryLimitUtils.getCount;
+import static java.lang.Integer.MAX_VALUE;
+import static java.lang.Math.min;
+
+/**
+ * Splits table rows into key ranges using primary key or unique not null index. Each split is restricted with
+ * {@code key > :lower AND key <= :upper} predicate, where upper key of the split is found by seeking the index from the
+ * lower key for the configured number of rows, so the cost of every split is the same regardless of its position in
+ * the table, unlike {@link LimitQuerySplitter} which scans & discards all the rows preceding the offset.
+ * <p/>
+ * If key sample handler & approximate row count strategy are provided all key ranges are planned up front from the
+ * sample of keys taken once, so that splits can be executed concurrently right away. Splitter falls back to seeking
+ * the keys if the table is too small to be split or the sample is empty.
+ *
+ * @author Sergey Bushik
+ */
+public class KeyQuerySplitter extends QuerySplitterBase<PreparedStatement> {
+
+    /**
+     * Number of sampled keys per planned split
+     */
+    public static final int SAMPLE_SIZE = 20;
+    /**
+     * Upper bound for the number of sampled keys
+     */
+    public static final int MAX_SAMPLE_SIZE = 100000;
+
+    private final Dialect dialect;
+    private final List<Column> key;
+    private final RowCountStrategy rowCountStrategy;
+    private final KeySampleHandler keySampleHandler;
+
+    private boolean keyRangesPlanned;
+    private List<KeyRange> keyRanges;
+    private int keyRangeIndex = -1;
+    private KeyRange keyRange;
+
+    protected KeyQuerySplitter(Dialect dialect, SelectQuery query, Collection<Column> key, QueryLimit queryLimit) {
+        this(dialect, query, key, queryLimit, null, null);
+    }
+
+    protected KeyQuerySplitter(Dialect dialect, SelectQuery query, Collection<Column> key, QueryLimit queryLimit,
+                               RowCountStrategy rowCountStrategy, KeySampleHandler keySampleHandler) {
+        super(query, queryLimit, null);
+        this.dialect = dialect;
+        this.key = newArrayList(key);
+        this.rowCountStrategy = rowCountStrategy;
+        this.keySampleHandler = keySampleHandler;
+    }
+
+    @Override
+    protected boolean hasNextQuerySplit(Connection connection, int splitIndex) throws SQLException {
+        return getKeyRange(connection, splitIndex) != null;
+    }
+
+    @Override
+    protected QueryLimit createQueryLimit(Connection connection, int splitIndex) throws SQLException {
+        return getKeyRange(connection, splitIndex);
+    }
+
+    /**
+     * Returns key range for the split with the given index, ranges are planned sequentially as the lower key of the
+     * next range is the upper key of the previous one.
+     *
+     * @param connection to seek split keys with.
+     * @param splitIndex index of the split.
+     * @return key range or null if there are no more splits.
+     * @throws SQLException if seeking of the keys fails.
+     */
+    protected KeyRange getKeyRange(Connection connection, int splitIndex) throws SQLException {
+        if (!keyRangesPlanned) {
+            keyRanges = keySampleHandler != null && rowCountStrategy != null ? createKeyRanges(connection) : null;
+            keyRangesPlanned = true;
+        }
+        if (keyRanges != null) {
+            return splitIndex < keyRanges.size() ? keyRanges.get(splitIndex) : null;
+        }
+        if (keyRangeIndex != splitIndex) {
+            if (splitIndex == 0) {
+                keyRange = createKeyRange(connection, null);
+            } else if (keyRange != null && keyRange.hasUpperKey()) {
+                keyRange = createKeyRange(connection, keyRange.getUpperKey());
+            } else {
+                keyRange = null;
+            }
+            keyRangeIndex = splitIndex;
+        }
+        return keyRange;
+    }
+
+    /**
+     * Plans key ranges from the sorted sample of keys, the number of ranges is derived from approximate row count and
+     * the number of rows per split. Boundaries of the ranges are sample quantiles.
+     *
+     * @param connection to sample keys with.
+     * @return planned key ranges or null if key ranges should be found by seeking the keys.
+     * @throws SQLException if row count or key sample queries fail.
+     */
+    protected List<KeyRange> createKeyRanges(Connection connection) throws SQLException {
+        long count = getCount(getQueryLimit());
+        long rowCount = rowCountStrategy.getRowCount(connection);
+        long splits = rowCount / count + (rowCount % count > 0 ? 1 : 0);
+        int sampleSize = (int) min(splits * SAMPLE_SIZE, MAX_SAMPLE_SIZE);
+        if (splits <= 1 || sampleSize >= rowCount) {
+            return null;
+        }
+        List<Object[]> keys = keySampleHandler.getKeySample(connection, sampleSize * 100D / rowCount);
+        if (keys.isEmpty()) {
+            return null;
+        }
+        int ranges = (int) min(splits, keys.size() + 1);
+        List<KeyRange> keyRanges = newArrayList();
+        Object[] lowerKey = null;
+        for (int range = 1; range < ranges; range++) {
+            Object[] upperKey = keys.get((int) ((long) range * keys.size() / ranges));
+            keyRanges.add(new KeyRange(lowerKey, upperKey, count));
+            lowerKey = upperKey;
+        }
+        keyRanges.add(new KeyRange(lowerKey, null, count));
+        return keyRanges;
+    }
+
+    protected KeyRange createKeyRange(Connection connection, final Object[] lowerKey) throws SQLException {
+        final long count = getCount(getQueryLimit());
+        final MutableLong rows = new MutableLong();
+        Object[] upperKey = new StatementTemplate(connection).executeStatement(
+                new StatementFactory<PreparedStatement>() {
+                    @Override
+                    public PreparedStatement createStatement(Connection connection) throws SQLException {
+                        return createKeyStatement(connection, lowerKey, count);
+                    }
+                }, new StatementAction<PreparedStatement, Object[]>() {
+                    @Override
+                    public Object[] executeStatement(PreparedStatement statement) throws SQLException {
+                        ResultSet resultSet = statement.executeQuery();
+                        Object[] key = null;
+                        while (rows.longValue() < count && resultSet.next()) {
+                            key = getKey(resultSet);
+                            rows.increment();
+                        }
+                        return key;
+                    }
+                }
+        );
+        KeyRange keyRange;
+        if (lowerKey != null && rows.longValue() == 0) {
+            keyRange = null;
+        } else if (rows.longValue() < count) {
+            keyRange = new KeyRange(lowerKey, null, count);
+        } else {
+            keyRange = new KeyRange(lowerKey, upperKey, count);
+        }
+        return keyRange;
+    }
+
+    /**
+     * Creates statement seeking at most count keys following lower key in ascending order.
+     */
+    protected PreparedStatement createKeyStatement(Connection connection, Object[] lowerKey,
+                                                   long count) throws SQLException {
+        SelectQuery keyQuery = createQuery(getQuery(), false);
+        for (Column column : key) {
+            keyQuery.column(column);
+        }
+        if (lowerKey != null) {
+            keyQuery.where(getKeyFilter(">", ">"));
+        }
+        keyQuery.orderBy(getKeyColumns());
+        Dialect dialect = getDialect();
+        PreparedStatement statement;
+        if (dialect.supportsLimit()) {
+            statement = connection.prepareStatement(dialect.createLimitHandler(
+                    keyQuery.toString(), new QueryLimit(count)).getLimitQuery(false));
+        } else {
+            statement = connection.prepareStatement(keyQuery.toString());
+            statement.setMaxRows((int) min(count, MAX_VALUE));
+        }
+        dialect.setFetchMode(statement, new FetchMode(true));
+        if (lowerKey != null) {
+            bindKey(statement, lowerKey, 1);
+        }
+        return statement;
+    }
+
+    @Override
+    public boolean isParameterized() {
+        return true;
+    }
+
+    @Override
+    protected PreparedStatement prepareStatement(Connection connection, QueryLimit queryLimit,
+                                                 int splitIndex) throws SQLException {
+        KeyRange keyRange = (KeyRange) queryLimit;
+        SelectQuery rangeQuery = createQuery(getQuery(), true);
+        if (keyRange.hasLowerKey()) {
+            rangeQuery.where(getKeyFilter(">", ">"));
+        }
+        if (keyRange.hasUpperKey()) {
+            rangeQuery.where(getKeyFilter("<", "<="));
+        }
+        PreparedStatement statement = connection.prepareStatement(rangeQuery.toString());
+        int column = 1;
+        if (keyRange.hasLowerKey()) {
+            column += bindKey(statement, keyRange.getLowerKey(), column);
+        }
+        if (keyRange.hasUpperKey()) {
+            bindKey(statement, keyRange.getUpperKey(), column);
+        }
+        return statement;
+    }
+
+    @Override
+    protected PreparedStatement createStatement(Connection connection, QueryLimit queryLimit,
+                                                int splitIndex) throws SQLException {
+        return prepareStatement(connection, queryLimit, splitIndex);
+    }
+
+    @Override
+    protected ResultSet executeStatement(PreparedStatement statement, QueryLimit queryLimit,
+                                         int splitIndex) throws SQLException {
+        return statement.executeQuery();
+    }
+
+    /**
+     * Copies source query optionally including selected columns, existing filters are enclosed in parentheses so
+     * that key filters appended with AND operator are applied to all of them.
+     */
+    protected SelectQuery createQuery(SelectQuery query, boolean columns) {
+        SelectQuery copy = new SelectQuery();
+        copy.setDialect(query.getDialect());
+        copy.setQualifyNames(query.isQualifyNames());
+        copy.setFrom(newArrayList(query.getFrom()));
+        copy.setJoin(newArrayList(query.getJoin()));
+        if (columns) {
+            copy.setColumns(newArrayList(query.getColumns()));
+        }
+        for (String filter : query.getWhere()) {
+            copy.where("(" + filter + ")");
+        }
+        return copy;
+    }
+
+    /**
+     * Renders lexicographical comparison of the key with the bound key, for composite key (k1, k2) compared using >
+     * operator it's {@code (k1 > ? OR (k1 = ? AND k2 > ?))}.
+     *
+     * @param operator     applied to all key columns but the last one.
+     * @param lastOperator applied to the last key column.
+     * @return key filter.
+     */
+    protected String getKeyFilter(String operator, String lastOperator) {
+        List<String> columns = getKeyColumns();
+        StringBuilder filter = new StringBuilder();
+        if (columns.size() > 1) {
+            filter.append('(');
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                filter.append(" OR (");
+            }
+            for (int j = 0; j < i; j++) {
+                filter.append(columns.get(j)).append(" = ? AND ");
+            }
+            filter.append(columns.get(i)).append(' ');
+            filter.append(i == columns.size() - 1 ? lastOperator : operator).append(" ?");
+            if (i > 0) {
+                filter.append(')');
+            }
+        }
+        if (columns.size() > 1) {
+            filter.append(')');
+        }
+        return filter.toString();
+    }
+
+    /**
+     * Binds key values in the order expected by the filter returned from {@link #getKeyFilter(String, String)}
+     *
+     * @return number of bound parameters.
+     */
+    protected int bindKey(PreparedStatement statement, Object[] key, int column) throws SQLException {
+        int parameters = 0;
+        for (int i = 0; i < key.length; i++) {
+            for (int j = 0; j <= i; j++) {
+                statement.setObject(column + parameters++, key[j]);
+            }
+        }
+        return parameters;
+    }
+
+    protected Object[] getKey(ResultSet resultSet) throws SQLException {
+        Object[] values = new Object[key.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = resultSet.getObject(i + 1);
+        }
+        return values;
+    }
+
+    protected List<String> getKeyColumns() {
+        List<String> columns = newArrayList();
+        for (Column column : key) {
+            columns.add(column.getName(getDialect()));
+        }
+        return columns;
+    }
+
+    @Override
+    public SelectQuery getQuery() {
+        return (SelectQuery) super.getQuery();
+    }
+
+    public Dialect getDialect() {
+        return dialect;
+    }
+
+    public Collection<Column> getKey() {
+        return key;
+    }
+
+    public RowCountStrategy getRowCountStrategy() {
+        return rowCountStrategy;
+    }
+
+    public KeySampleHandler getKeySampleHandler() {
+        return keySampleHandler;
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.split;
+
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+
+import java.util.Arrays;
+
+/**
+ * Query limit restricting a split to the rows with the key in the (lower key, upper key] range. Open bounds are
+ * represented by null keys, so the range with both keys equal to null selects all rows.
+ *
+ * @author Sergey Bushik
+ */
+public class KeyRange extends QueryLimit {
+
+    private Object[] lowerKey;
+    private Object[] upperKey;
+
+    public KeyRange(Object[] lowerKey, Object[] upperKey) {
+        this.lowerKey = lowerKey;
+        this.upperKey = upperKey;
+    }
+
+    public KeyRange(Object[] lowerKey, Object[] upperKey, Long count) {
+        super(count);
+        this.lowerKey = lowerKey;
+        this.upperKey = upperKey;
+    }
+
+    public boolean hasLowerKey() {
+        return lowerKey != null;
+    }
+
+    public Object[] getLowerKey() {
+        return lowerKey;
+    }
+
+    public boolean hasUpperKey() {
+        return upperKey != null;
+    }
+
+    public Object[] getUpperKey() {
+        return upperKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof KeyRange)) return false;
+        if (!super.equals(o)) return false;
+
+        KeyRange that = (KeyRange) o;
+
+        if (!Arrays.equals(lowerKey, that.lowerKey)) return false;
+        if (!Arrays.equals(upperKey, that.upperKey)) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + Arrays.hashCode(lowerKey);
+        result = 31 * result + Arrays.hashCode(upperKey);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + Arrays.toString(lowerKey) + ", " + Arrays.toString(upperKey) + "]";
+    }
+}
@@ -34,6 +34,7 @@ import com.nuodb.migrator.jdbc.query.StatementCallback;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
 /**
  * @author Sergey Bushik
@@ -49,4 +50,12 @@ public interface QuerySplitter<S extends Statement> {
     QuerySplit getNextQuerySplit(Connection connection) throws SQLException;
 
     QuerySplit getNextQuerySplit(Connection connection, StatementCallback<S> callback) throws SQLException;
+
+    /**
+     * Restores query limits of the splits planned previously, splits are created from the restored query limits
+     * instead of being planned again, so that the same splits are produced regardless of the current table rows
+     *
+     * @param queryLimits query limits of the splits in the order of split indexes
+     */
+    void setQueryLimits(List<QueryLimit> queryLimits);
 }
@@ -36,6 +36,7 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
 /**
  * @author Sergey Bushik
@@ -46,6 +47,7 @@ public abstract class QuerySplitterBase<S extends Statement> implements QuerySpl
     private Query query;
     private QueryLimit queryLimit;
     private ParametersBinder parametersBinder;
+    private List<QueryLimit> queryLimits;
 
     private int splitIndex;
 
@@ -67,7 +69,7 @@ public abstract class QuerySplitterBase<S extends Statement> implements QuerySpl
 
     @Override
     public boolean hasNextQuerySplit(Connection connection) throws SQLException {
-        return hasNextQuerySplit(connection, splitIndex);
+        return queryLimits != null ? splitIndex < queryLimits.size() : hasNextQuerySplit(connection, splitIndex);
     }
 
     protected abstract boolean hasNextQuerySplit(Connection connection, int splitIndex) throws SQLException;
@@ -84,7 +86,14 @@ public abstract class QuerySplitterBase<S extends Statement> implements QuerySpl
 
     protected QuerySplit createNextQuerySplit(Connection connection,
                                               StatementCallback<S> callback) throws SQLException {
-        return createQuerySplit(connection, callback, createQueryLimit(connection, splitIndex), splitIndex++);
+        QueryLimit queryLimit = queryLimits != null ?
+                queryLimits.get(splitIndex) : createQueryLimit(connection, splitIndex);
+        return createQuerySplit(connection, callback, queryLimit, splitIndex++);
+    }
+
+    @Override
+    public void setQueryLimits(List<QueryLimit> queryLimits) {
+        this.queryLimits = queryLimits;
     }
 
     protected abstract QueryLimit createQueryLimit(Connection connection, int splitIndex) throws SQLException;
@@ -28,13 +28,24 @@
 package com.nuodb.migrator.jdbc.split;
 
 import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.KeySampleHandler;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.Index;
+import com.nuodb.migrator.jdbc.metadata.PrimaryKey;
 import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
 
+import java.sql.PreparedStatement;
 import java.sql.Statement;
+import java.util.Collection;
 
+import static com.nuodb.migrator.jdbc.dialect.RowCountType.APPROX;
 import static com.nuodb.migrator.jdbc.dialect.RowCountType.EXACT;
+import static com.nuodb.migrator.jdbc.query.QueryLimitUtils.getCount;
+import static java.sql.Types.*;
+import static org.apache.commons.lang3.ArrayUtils.contains;
 
 /**
  * Static factories for creating query splitters.
@@ -43,6 +54,14 @@ import static com.nuodb.migrator.jdbc.dialect.RowCountType.EXACT;
  */
 public class QuerySplitters {
 
+    /**
+     * Types of the columns which can be compared reliably and bound back to the split query as is
+     */
+    private static final int[] KEY_TYPES = new int[]{
+            TINYINT, SMALLINT, INTEGER, BIGINT, DECIMAL, NUMERIC,
+            CHAR, VARCHAR, NCHAR, NVARCHAR, DATE, TIME, TIMESTAMP
+    };
+
     public static boolean supportsLimitSplitter(Dialect dialect, Table table, String filter) {
         return dialect.supportsLimitOffset() && dialect.supportsRowCount(table, null, filter, EXACT);
     }
@@ -55,4 +74,59 @@ public class QuerySplitters {
     public static QuerySplitter<Statement> newNoLimitSplitter(Query query) {
         return new NoLimitQuerySplitter(query, null);
     }
+
+    public static boolean supportsKeySplitter(Table table, QueryLimit queryLimit) {
+        return getCount(queryLimit) > 0 && getSplitKey(table) != null;
+    }
+
+    /**
+     * Returns primary key columns or columns of the narrowest unique index on not null columns to split table rows by.
+     *
+     * @param table to find split key for.
+     * @return key columns or null if table has no suitable key.
+     */
+    public static Collection<Column> getSplitKey(Table table) {
+        PrimaryKey primaryKey = table.getPrimaryKey();
+        if (primaryKey != null && isSplitKey(primaryKey.getColumns(), false)) {
+            return primaryKey.getColumns();
+        }
+        Collection<Column> splitKey = null;
+        for (Index index : table.getIndexes()) {
+            Collection<Column> columns = index.getColumns();
+            if (index.isUnique() && index.getExpression() == null && isSplitKey(columns, true) &&
+                    (splitKey == null || splitKey.size() > columns.size())) {
+                splitKey = columns;
+            }
+        }
+        return splitKey;
+    }
+
+    private static boolean isSplitKey(Collection<Column> columns, boolean notNull) {
+        if (columns == null || columns.isEmpty()) {
+            return false;
+        }
+        for (Column column : columns) {
+            if ((notNull && column.isNullable()) || !contains(KEY_TYPES, column.getTypeCode())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static QuerySplitter<PreparedStatement> newKeySplitter(Dialect dialect, SelectQuery query,
+                                                                  Collection<Column> key, QueryLimit queryLimit) {
+        return new KeyQuerySplitter(dialect, query, key, queryLimit);
+    }
+
+    public static boolean supportsKeySample(Dialect dialect, Table table, Collection<Column> key, String filter) {
+        return dialect.supportsKeySample(table, key, filter) &&
+                dialect.supportsRowCount(table, null, filter, APPROX);
+    }
+
+    public static QuerySplitter<PreparedStatement> newKeySplitter(Dialect dialect, SelectQuery query,
+                                                                  Collection<Column> key, QueryLimit queryLimit,
+                                                                  RowCountStrategy rowCountStrategy,
+                                                                  KeySampleHandler keySampleHandler) {
+        return new KeyQuerySplitter(dialect, query, key, queryLimit, rowCountStrategy, keySampleHandler);
+    }
 }
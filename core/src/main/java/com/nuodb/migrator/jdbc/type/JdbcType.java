@@ -29,12 +29,14 @@ package com.nuodb.migrator.jdbc.type;
 
 import com.nuodb.migrator.utils.ObjectUtils;
 
+import java.io.Serializable;
+
 import static com.nuodb.migrator.jdbc.type.JdbcTypeOptions.newOptions;
 
 /**
  * @author Sergey Bushik
  */
-public class JdbcType implements Cloneable {
+public class JdbcType implements Cloneable, Serializable {
 
     private JdbcTypeDesc jdbcTypeDesc;
     private JdbcTypeOptions jdbcTypeOptions;
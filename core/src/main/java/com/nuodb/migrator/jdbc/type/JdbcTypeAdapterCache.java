@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.type;
+
+/**
+ * Remembers adapter resolved for the last value class. Values of a column are typically of the same class, so the
+ * registry is looked up once per column rather than for every value.
+ *
+ * @author Sergey Bushik
+ */
+class JdbcTypeAdapterCache {
+
+    private final JdbcTypeRegistry jdbcTypeRegistry;
+    private final Class typeClass;
+    private Entry entry;
+
+    JdbcTypeAdapterCache(JdbcTypeRegistry jdbcTypeRegistry, Class typeClass) {
+        this.jdbcTypeRegistry = jdbcTypeRegistry;
+        this.typeClass = typeClass;
+    }
+
+    public JdbcTypeAdapter getJdbcTypeAdapter(Class valueClass) {
+        Entry entry = this.entry;
+        if (entry == null || entry.valueClass != valueClass) {
+            this.entry = entry = new Entry(valueClass, jdbcTypeRegistry.getJdbcTypeAdapter(valueClass, typeClass));
+        }
+        return entry.jdbcTypeAdapter;
+    }
+
+    static class Entry {
+
+        private final Class valueClass;
+        private final JdbcTypeAdapter jdbcTypeAdapter;
+
+        Entry(Class valueClass, JdbcTypeAdapter jdbcTypeAdapter) {
+            this.valueClass = valueClass;
+            this.jdbcTypeAdapter = jdbcTypeAdapter;
+        }
+    }
+}
@@ -29,12 +29,14 @@ package com.nuodb.migrator.jdbc.type;
 
 import com.nuodb.migrator.utils.ObjectUtils;
 
+import java.io.Serializable;
+
 import static org.apache.commons.lang3.StringUtils.equalsIgnoreCase;
 
 /**
  * @author Sergey Bushik
  */
-public class JdbcTypeDesc {
+public class JdbcTypeDesc implements Serializable {
 
     private int typeCode;
     private String typeName;
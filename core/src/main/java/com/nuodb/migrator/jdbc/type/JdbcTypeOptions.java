@@ -29,10 +29,12 @@ package com.nuodb.migrator.jdbc.type;
 
 import com.nuodb.migrator.utils.ObjectUtils;
 
+import java.io.Serializable;
+
 /**
  * @author Sergey Bushik
  */
-public class JdbcTypeOptions {
+public class JdbcTypeOptions implements Serializable {
 
     private Long size;
     private Integer scale;
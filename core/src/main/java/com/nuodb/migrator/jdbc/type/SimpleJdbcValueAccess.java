@@ -47,6 +47,7 @@ public class SimpleJdbcValueAccess<T> implements JdbcValueAccess<T> {
     private Connection connection;
     private int index;
     private Field field;
+    private Field target;
 
     public SimpleJdbcValueAccess(JdbcValueGetter<T> jdbcValueGetter, Connection connection, ResultSet resultSet,
                                  int index, Field field) throws SQLException {
@@ -73,7 +74,11 @@ public class SimpleJdbcValueAccess<T> implements JdbcValueAccess<T> {
 
     @Override
     public Field getField() {
-        return field.toField();
+        Field field = this.target;
+        if (field == null) {
+            this.target = field = this.field.toField();
+        }
+        return field;
     }
 
     @Override
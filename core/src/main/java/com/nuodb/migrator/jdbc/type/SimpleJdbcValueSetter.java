@@ -42,17 +42,19 @@ public class SimpleJdbcValueSetter implements JdbcValueSetter {
 
     private final JdbcTypeRegistry jdbcTypeRegistry;
     private final JdbcTypeValue jdbcTypeValue;
+    private final JdbcTypeAdapterCache jdbcTypeAdapterCache;
 
     public SimpleJdbcValueSetter(JdbcTypeRegistry jdbcTypeRegistry, JdbcTypeValue jdbcTypeValue) {
         this.jdbcTypeRegistry = jdbcTypeRegistry;
         this.jdbcTypeValue = jdbcTypeValue;
+        this.jdbcTypeAdapterCache = new JdbcTypeAdapterCache(jdbcTypeRegistry, jdbcTypeValue.getValueClass());
     }
 
     @Override
     public <X> void setValue(PreparedStatement statement, Connection connection, int index, Field field,
                              X value, Map<String, Object> options) throws SQLException {
-        JdbcTypeAdapter<X> adapter = jdbcTypeRegistry.getJdbcTypeAdapter(value != null ? value.getClass() : null,
-                jdbcTypeValue.getValueClass());
+        JdbcTypeAdapter<X> adapter = jdbcTypeAdapterCache.getJdbcTypeAdapter(
+                value != null ? value.getClass() : null);
         if (adapter != null) {
             value = adapter.wrap(value, connection);
         }
@@ -29,9 +29,12 @@ package com.nuodb.migrator.job;
 
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistryResolver;
+import com.nuodb.migrator.jdbc.connection.ConnectionProvider;
 import com.nuodb.migrator.jdbc.connection.ConnectionProviderFactory;
 import com.nuodb.migrator.jdbc.dialect.DialectResolver;
 import com.nuodb.migrator.jdbc.metadata.inspector.InspectionManager;
+import com.nuodb.migrator.spec.ConnectionSpec;
+import com.nuodb.migrator.spec.DriverConnectionSpec;
 import com.nuodb.migrator.spec.JobSpec;
 
 import static com.nuodb.migrator.context.ContextUtils.createService;
@@ -102,6 +105,26 @@ public abstract class HasServicesJobBase<J extends JobSpec> extends HasJobSpecBa
         this.connectionProviderFactory = connectionProviderFactory;
     }
 
+    /**
+     * Creates connection provider with the pool fitting a connection per thread plus the session held by the job,
+     * unless pool size is set on the driver connection spec explicitly. The passed connection spec is left intact
+     *
+     * @param connectionSpec to create connection provider for
+     * @param threads        number of threads working with the connections
+     * @return connection provider
+     */
+    public ConnectionProvider createConnectionProvider(ConnectionSpec connectionSpec, int threads) {
+        if (connectionSpec instanceof DriverConnectionSpec) {
+            DriverConnectionSpec driverConnectionSpec = (DriverConnectionSpec) connectionSpec;
+            if (driverConnectionSpec.getPoolSize() == null) {
+                driverConnectionSpec = new DriverConnectionSpec(driverConnectionSpec);
+                driverConnectionSpec.setPoolSize(threads + 2);
+                connectionSpec = driverConnectionSpec;
+            }
+        }
+        return createConnectionProviderFactory().createConnectionProvider(connectionSpec);
+    }
+
     public ValueFormatRegistryResolver getValueFormatRegistryResolver() {
         return valueFormatRegistryResolver;
     }
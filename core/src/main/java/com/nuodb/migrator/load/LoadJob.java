@@ -29,6 +29,7 @@ package com.nuodb.migrator.load;
 
 import com.nuodb.migrator.MigratorException;
 import com.nuodb.migrator.backup.loader.*;
+import com.nuodb.migrator.jdbc.commit.AsyncCommitStrategy;
 import com.nuodb.migrator.jdbc.commit.CommitStrategy;
 import com.nuodb.migrator.jdbc.dialect.TranslationConfig;
 import com.nuodb.migrator.jdbc.metadata.filter.MetaDataFilterManager;
@@ -44,6 +45,9 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.TimeZone;
 
+import static com.nuodb.migrator.backup.loader.BackupLoader.INDEX_THREADS;
+import static com.nuodb.migrator.backup.loader.BackupLoader.INSERT_ROWS;
+import static com.nuodb.migrator.backup.loader.BackupLoader.PREFETCH_SIZE;
 import static com.nuodb.migrator.backup.loader.BackupLoader.THREADS;
 import static com.nuodb.migrator.jdbc.session.SessionFactories.newSessionFactory;
 import static com.nuodb.migrator.jdbc.session.SessionObservers.newSessionTimeZoneSetter;
@@ -77,6 +81,8 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         backupLoader.setIdentifierNormalizer(getIdentifierNormalizer());
         backupLoader.setIdentifierQuoting(getIdentifierQuoting());
         backupLoader.setInsertTypeFactory(createInsertTypeMapper());
+        backupLoader.setInsertRows(getInsertRows() != null ? getInsertRows() : INSERT_ROWS);
+        backupLoader.setResume(isResume());
         backupLoader.setInspectionManager(createInspectionManager());
         backupLoader.setMetaDataSpec(getMetaDataSpec());
         backupLoader.setMigrationModes(getMigrationModes());
@@ -88,6 +94,8 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         backupLoader.setTargetSessionFactory(createTargetSessionFactory());
         backupLoader.setTimeZone(getTimeZone());
         backupLoader.setThreads(getThreads() != null ? getThreads() : THREADS);
+        backupLoader.setIndexThreads(getIndexThreads() != null ? getIndexThreads() : INDEX_THREADS);
+        backupLoader.setPrefetchSize(getPrefetchSize() != null ? getPrefetchSize() : PREFETCH_SIZE);
         backupLoader.setTranslationConfig(getTranslationConfig());
         backupLoader.setValueFormatRegistryResolver(createValueFormatRegistryResolver());
         setBackupLoader(backupLoader);
@@ -97,10 +105,21 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         return new SimpleInsertTypeFactory(getInsertType(), getTableInsertTypes());
     }
 
+    /**
+     * Creates target session factory with a connection per loading thread, or two of them if the commit strategy
+     * executes batches in background with a separate connection
+     *
+     * @return target session factory
+     */
     protected SessionFactory createTargetSessionFactory() {
-        SessionFactory targetSessionFactory =
-                newSessionFactory(createConnectionProviderFactory().
-                createConnectionProvider(getTargetSpec()), createDialectResolver());
+        int threads = getThreads() != null ? getThreads() : THREADS;
+        CommitStrategy commitStrategy = getCommitStrategy();
+        if (commitStrategy == null || commitStrategy instanceof AsyncCommitStrategy) {
+            threads *= 2;
+        }
+        SessionFactory targetSessionFactory = newSessionFactory(
+                createConnectionProvider(getTargetSpec(), threads), createDialectResolver());
+        targetSessionFactory.setReuseSessions(true);
         targetSessionFactory.addSessionObserver(newSessionTimeZoneSetter(getTimeZone()));
         return targetSessionFactory;
     }
@@ -161,6 +180,14 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         return getJobSpec().getInsertType();
     }
 
+    protected Integer getInsertRows() {
+        return getJobSpec().getInsertRows();
+    }
+
+    protected boolean isResume() {
+        return getJobSpec().isResume();
+    }
+
     protected Parallelizer getParallelizer() {
         return getJobSpec().getParallelizer();
     }
@@ -184,4 +211,12 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
     protected Integer getThreads() {
         return getJobSpec().getThreads();
     }
+
+    protected Integer getIndexThreads() {
+        return getJobSpec().getIndexThreads();
+    }
+
+    protected Integer getPrefetchSize() {
+        return getJobSpec().getPrefetchSize();
+    }
 }
\ No newline at end of file
@@ -38,7 +38,7 @@ import com.nuodb.migrator.jdbc.metadata.generator.NamingStrategy;
 import com.nuodb.migrator.jdbc.metadata.generator.ScriptExporter;
 import com.nuodb.migrator.jdbc.metadata.generator.ScriptGeneratorManager;
 import com.nuodb.migrator.jdbc.metadata.generator.SessionScriptExporter;
-import com.nuodb.migrator.jdbc.metadata.inspector.InspectionScope;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionCache;
 import com.nuodb.migrator.jdbc.metadata.inspector.TableInspectionScope;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
@@ -46,6 +46,7 @@ import com.nuodb.migrator.jdbc.type.JdbcTypeNameMap;
 import com.nuodb.migrator.job.ScriptGeneratorJobBase;
 import com.nuodb.migrator.spec.ConnectionSpec;
 import com.nuodb.migrator.spec.JdbcTypeSpec;
+import com.nuodb.migrator.spec.MetaDataSpec;
 import com.nuodb.migrator.spec.ResourceSpec;
 import com.nuodb.migrator.spec.SchemaJobSpec;
 import com.nuodb.migrator.utils.PrioritySet;
@@ -142,10 +143,21 @@ public class SchemaJob extends ScriptGeneratorJobBase<SchemaJobSpec> {
     }
 
     protected Database inspect() throws SQLException {
-        InspectionScope inspectionScope = new TableInspectionScope(
+        TableInspectionScope inspectionScope = new TableInspectionScope(
                 getSourceSpec().getCatalog(), getSourceSpec().getSchema(), getTableTypes());
-        return createInspectionManager().inspect(
-                getSourceSession().getConnection(), inspectionScope, TYPES).getObject(DATABASE);
+        InspectionCache inspectionCache = createInspectionCache();
+        if (inspectionCache != null) {
+            return inspectionCache.inspect(createInspectionManager(),
+                    getSourceSession().getConnection(), inspectionScope, TYPES);
+        } else {
+            return createInspectionManager().inspect(
+                    getSourceSession().getConnection(), inspectionScope, TYPES).getObject(DATABASE);
+        }
+    }
+
+    protected InspectionCache createInspectionCache() {
+        MetaDataSpec metaDataSpec = getMetaDataSpec();
+        return metaDataSpec != null ? metaDataSpec.createInspectionCache() : null;
     }
 
     protected ScriptGeneratorManager createScriptGeneratorManager() throws SQLException {
@@ -39,6 +39,17 @@ public class ConnectionSpecBase extends SpecBase implements ConnectionSpec {
     private Boolean autoCommit = DEFAULT_AUTO_COMMIT;
     private Integer transactionIsolation;
 
+    public ConnectionSpecBase() {
+    }
+
+    public ConnectionSpecBase(ConnectionSpecBase connectionSpec) {
+        super(connectionSpec);
+        this.catalog = connectionSpec.catalog;
+        this.schema = connectionSpec.schema;
+        this.autoCommit = connectionSpec.autoCommit;
+        this.transactionIsolation = connectionSpec.transactionIsolation;
+    }
+
     @Override
     public String getCatalog() {
         return catalog;
@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.spec;
+
+import com.nuodb.migrator.jdbc.commit.BatchCommitStrategy;
+import com.nuodb.migrator.jdbc.commit.CommitStrategy;
+import com.nuodb.migrator.jdbc.metadata.filter.MetaDataFilterManager;
+import com.nuodb.migrator.jdbc.query.InsertType;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.nuodb.migrator.spec.MigrationMode.DATA;
+import static com.nuodb.migrator.spec.MigrationMode.SCHEMA;
+
+/**
+ * @author Sergey Bushik
+ */
+public class CopyJobSpec extends ScriptGeneratorJobSpecBase {
+
+    private CommitStrategy commitStrategy = new BatchCommitStrategy();
+    private InsertType insertType;
+    private Integer insertRows;
+    private Collection<MigrationMode> migrationModes = newHashSet(DATA, SCHEMA);
+    private QueryLimit queryLimit;
+    private Collection<TableSpec> tableSpecs = newArrayList();
+    private Long fetchMemory;
+    private Integer queueSize;
+    private ConnectionSpec sourceSpec;
+    private Map<String, InsertType> tableInsertTypes = newHashMap();
+    private TimeZone timeZone;
+    private Integer threads;
+    private Integer indexThreads;
+
+    public CommitStrategy getCommitStrategy() {
+        return commitStrategy;
+    }
+
+    public void setCommitStrategy(CommitStrategy commitStrategy) {
+        this.commitStrategy = commitStrategy;
+    }
+
+    public InsertType getInsertType() {
+        return insertType;
+    }
+
+    public void setInsertType(InsertType insertType) {
+        this.insertType = insertType;
+    }
+
+    public Integer getInsertRows() {
+        return insertRows;
+    }
+
+    public void setInsertRows(Integer insertRows) {
+        this.insertRows = insertRows;
+    }
+
+    /**
+     * Source tables are filtered with the same filter manager as target tables
+     *
+     * @return meta data filter manager of the meta data spec
+     */
+    @Override
+    public MetaDataFilterManager getMetaDataFilterManager() {
+        return getMetaDataSpec().getMetaDataFilterManager();
+    }
+
+    @Override
+    public void setMetaDataFilterManager(MetaDataFilterManager metaDataFilterManager) {
+        getMetaDataSpec().setMetaDataFilterManager(metaDataFilterManager);
+    }
+
+    public Collection<MigrationMode> getMigrationModes() {
+        return migrationModes;
+    }
+
+    public void setMigrationModes(Collection<MigrationMode> migrationModes) {
+        this.migrationModes = migrationModes;
+    }
+
+    public QueryLimit getQueryLimit() {
+        return queryLimit;
+    }
+
+    public void setQueryLimit(QueryLimit queryLimit) {
+        this.queryLimit = queryLimit;
+    }
+
+    public Collection<TableSpec> getTableSpecs() {
+        return tableSpecs;
+    }
+
+    public void setTableSpecs(Collection<TableSpec> tableSpecs) {
+        this.tableSpecs = tableSpecs;
+    }
+
+    public Long getFetchMemory() {
+        return fetchMemory;
+    }
+
+    public void setFetchMemory(Long fetchMemory) {
+        this.fetchMemory = fetchMemory;
+    }
+
+    public Integer getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(Integer queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public ConnectionSpec getSourceSpec() {
+        return sourceSpec;
+    }
+
+    public void setSourceSpec(ConnectionSpec sourceSpec) {
+        this.sourceSpec = sourceSpec;
+    }
+
+    public Map<String, InsertType> getTableInsertTypes() {
+        return tableInsertTypes;
+    }
+
+    public void setTableInsertTypes(Map<String, InsertType> tableInsertTypes) {
+        this.tableInsertTypes = newHashMap(tableInsertTypes);
+    }
+
+    public TimeZone getTimeZone() {
+        return timeZone;
+    }
+
+    public void setTimeZone(TimeZone timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    public Integer getThreads() {
+        return threads;
+    }
+
+    public void setThreads(Integer threads) {
+        this.threads = threads;
+    }
+
+    public Integer getIndexThreads() {
+        return indexThreads;
+    }
+
+    public void setIndexThreads(Integer indexThreads) {
+        this.indexThreads = indexThreads;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        if (!super.equals(o)) return false;
+
+        CopyJobSpec that = (CopyJobSpec) o;
+
+        if (commitStrategy != null ? !commitStrategy.equals(that.commitStrategy) : that.commitStrategy != null)
+            return false;
+        if (insertType != that.insertType) return false;
+        if (insertRows != null ? !insertRows.equals(that.insertRows) : that.insertRows != null) return false;
+        if (migrationModes != null ? !migrationModes.equals(that.migrationModes) : that.migrationModes != null)
+            return false;
+        if (queryLimit != null ? !queryLimit.equals(that.queryLimit) : that.queryLimit != null) return false;
+        if (tableSpecs != null ? !tableSpecs.equals(that.tableSpecs) : that.tableSpecs != null) return false;
+        if (fetchMemory != null ? !fetchMemory.equals(that.fetchMemory) : that.fetchMemory != null) return false;
+        if (queueSize != null ? !queueSize.equals(that.queueSize) : that.queueSize != null) return false;
+        if (sourceSpec != null ? !sourceSpec.equals(that.sourceSpec) : that.sourceSpec != null) return false;
+        if (tableInsertTypes != null ? !tableInsertTypes.equals(that.tableInsertTypes) : that.tableInsertTypes != null)
+            return false;
+        if (timeZone != null ? !timeZone.equals(that.timeZone) : that.timeZone != null) return false;
+        if (threads != null ? !threads.equals(that.threads) : that.threads != null) return false;
+        if (indexThreads != null ? !indexThreads.equals(that.indexThreads) : that.indexThreads != null) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + (commitStrategy != null ? commitStrategy.hashCode() : 0);
+        result = 31 * result + (insertType != null ? insertType.hashCode() : 0);
+        result = 31 * result + (insertRows != null ? insertRows.hashCode() : 0);
+        result = 31 * result + (migrationModes != null ? migrationModes.hashCode() : 0);
+        result = 31 * result + (queryLimit != null ? queryLimit.hashCode() : 0);
+        result = 31 * result + (tableSpecs != null ? tableSpecs.hashCode() : 0);
+        result = 31 * result + (fetchMemory != null ? fetchMemory.hashCode() : 0);
+        result = 31 * result + (queueSize != null ? queueSize.hashCode() : 0);
+        result = 31 * result + (sourceSpec != null ? sourceSpec.hashCode() : 0);
+        result = 31 * result + (tableInsertTypes != null ? tableInsertTypes.hashCode() : 0);
+        result = 31 * result + (timeZone != null ? timeZone.hashCode() : 0);
+        result = 31 * result + (threads != null ? threads.hashCode() : 0);
+        result = 31 * result + (indexThreads != null ? indexThreads.hashCode() : 0);
+        return result;
+    }
+}
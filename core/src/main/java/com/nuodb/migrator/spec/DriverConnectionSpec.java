@@ -44,6 +44,22 @@ public class DriverConnectionSpec extends ConnectionSpecBase {
     private String username;
     private transient String password;
     private Map<String, Object> properties = newHashMap();
+    private Integer poolSize;
+    private Integer statementCacheSize;
+
+    public DriverConnectionSpec() {
+    }
+
+    public DriverConnectionSpec(DriverConnectionSpec connectionSpec) {
+        super(connectionSpec);
+        this.driver = connectionSpec.driver;
+        this.url = connectionSpec.url;
+        this.username = connectionSpec.username;
+        this.password = connectionSpec.password;
+        this.properties = connectionSpec.properties != null ? newHashMap(connectionSpec.properties) : null;
+        this.poolSize = connectionSpec.poolSize;
+        this.statementCacheSize = connectionSpec.statementCacheSize;
+    }
 
     @Override
     public String getCatalog() {
@@ -113,6 +129,32 @@ public class DriverConnectionSpec extends ConnectionSpecBase {
         this.properties = properties;
     }
 
+    /**
+     * Max number of open connections in the pool, connections are opened eagerly on the first connection request
+     *
+     * @return pool size or null if the default should be used
+     */
+    public Integer getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(Integer poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Max number of prepared statements cached per connection, zero turns caching off
+     *
+     * @return statement cache size or null if the default should be used
+     */
+    public Integer getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(Integer statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -127,6 +169,9 @@ public class DriverConnectionSpec extends ConnectionSpecBase {
         if (properties != null ? !properties.equals(that.properties) : that.properties != null) return false;
         if (url != null ? !url.equals(that.url) : that.url != null) return false;
         if (username != null ? !username.equals(that.username) : that.username != null) return false;
+        if (poolSize != null ? !poolSize.equals(that.poolSize) : that.poolSize != null) return false;
+        if (statementCacheSize != null ? !statementCacheSize.equals(that.statementCacheSize) :
+                that.statementCacheSize != null) return false;
 
         return true;
     }
@@ -139,6 +184,8 @@ public class DriverConnectionSpec extends ConnectionSpecBase {
         result = 31 * result + (username != null ? username.hashCode() : 0);
         result = 31 * result + (password != null ? password.hashCode() : 0);
         result = 31 * result + (properties != null ? properties.hashCode() : 0);
+        result = 31 * result + (poolSize != null ? poolSize.hashCode() : 0);
+        result = 31 * result + (statementCacheSize != null ? statementCacheSize.hashCode() : 0);
         return result;
     }
 }
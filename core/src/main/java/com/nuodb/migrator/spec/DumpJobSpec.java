@@ -51,9 +51,13 @@ public class DumpJobSpec extends JobSpecBase {
     private TimeZone timeZone;
     private ConnectionSpec sourceSpec;
     private ResourceSpec outputSpec;
+    private String compression;
+    private boolean resume;
     private MetaDataSpec metaDataSpec = new MetaDataSpec();
     private Collection<QuerySpec> querySpecs = newArrayList();
     private QueryLimit queryLimit;
+    private Collection<TableSpec> tableSpecs = newArrayList();
+    private Long fetchMemory;
 
     public void addListener(BackupWriterListener listener) {
         listeners.add(listener);
@@ -107,6 +111,22 @@ public class DumpJobSpec extends JobSpecBase {
         this.outputSpec = outputSpec;
     }
 
+    public String getCompression() {
+        return compression;
+    }
+
+    public void setCompression(String compression) {
+        this.compression = compression;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
     public MetaDataSpec getMetaDataSpec() {
         return metaDataSpec;
     }
@@ -155,6 +175,22 @@ public class DumpJobSpec extends JobSpecBase {
         this.queryLimit = queryLimit;
     }
 
+    public Collection<TableSpec> getTableSpecs() {
+        return tableSpecs;
+    }
+
+    public void setTableSpecs(Collection<TableSpec> tableSpecs) {
+        this.tableSpecs = tableSpecs;
+    }
+
+    public Long getFetchMemory() {
+        return fetchMemory;
+    }
+
+    public void setFetchMemory(Long fetchMemory) {
+        this.fetchMemory = fetchMemory;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -167,8 +203,12 @@ public class DumpJobSpec extends JobSpecBase {
         if (migrationModes != null ? !migrationModes.equals(that.migrationModes) : that.migrationModes != null)
             return false;
         if (outputSpec != null ? !outputSpec.equals(that.outputSpec) : that.outputSpec != null) return false;
+        if (compression != null ? !compression.equals(that.compression) : that.compression != null) return false;
+        if (resume != that.resume) return false;
         if (queryLimit != null ? !queryLimit.equals(that.queryLimit) : that.queryLimit != null) return false;
         if (querySpecs != null ? !querySpecs.equals(that.querySpecs) : that.querySpecs != null) return false;
+        if (tableSpecs != null ? !tableSpecs.equals(that.tableSpecs) : that.tableSpecs != null) return false;
+        if (fetchMemory != null ? !fetchMemory.equals(that.fetchMemory) : that.fetchMemory != null) return false;
         if (sourceSpec != null ? !sourceSpec.equals(that.sourceSpec) : that.sourceSpec != null) return false;
         if (threads != null ? !threads.equals(that.threads) : that.threads != null) return false;
         if (timeZone != null ? !timeZone.equals(that.timeZone) : that.timeZone != null) return false;
@@ -184,9 +224,13 @@ public class DumpJobSpec extends JobSpecBase {
         result = 31 * result + (timeZone != null ? timeZone.hashCode() : 0);
         result = 31 * result + (sourceSpec != null ? sourceSpec.hashCode() : 0);
         result = 31 * result + (outputSpec != null ? outputSpec.hashCode() : 0);
+        result = 31 * result + (compression != null ? compression.hashCode() : 0);
+        result = 31 * result + (resume ? 1 : 0);
         result = 31 * result + (metaDataSpec != null ? metaDataSpec.hashCode() : 0);
         result = 31 * result + (querySpecs != null ? querySpecs.hashCode() : 0);
         result = 31 * result + (queryLimit != null ? queryLimit.hashCode() : 0);
+        result = 31 * result + (tableSpecs != null ? tableSpecs.hashCode() : 0);
+        result = 31 * result + (fetchMemory != null ? fetchMemory.hashCode() : 0);
         return result;
     }
 }
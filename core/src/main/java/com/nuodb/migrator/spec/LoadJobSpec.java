@@ -52,7 +52,9 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
 
     private CommitStrategy commitStrategy = new BatchCommitStrategy();
     private ResourceSpec inputSpec;
+    private boolean resume;
     private InsertType insertType;
+    private Integer insertRows;
     private Collection<BackupLoaderListener> listeners = newArrayList();
     private Collection<MigrationMode> migrationModes = newHashSet(DATA, SCHEMA);
     private Parallelizer parallelizer = new TableLevelParallelizer();
@@ -60,6 +62,8 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
     private ConnectionSpec targetSpec;
     private TimeZone timeZone;
     private Integer threads;
+    private Integer indexThreads;
+    private Integer prefetchSize;
 
     public CommitStrategy getCommitStrategy() {
         return commitStrategy;
@@ -77,6 +81,14 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
         this.inputSpec = inputSpec;
     }
 
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
     public InsertType getInsertType() {
         return insertType;
     }
@@ -85,6 +97,14 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
         this.insertType = insertType;
     }
 
+    public Integer getInsertRows() {
+        return insertRows;
+    }
+
+    public void setInsertRows(Integer insertRows) {
+        this.insertRows = insertRows;
+    }
+
     public void addListener(BackupLoaderListener listener) {
         listeners.add(listener);
     }
@@ -129,6 +149,22 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
         this.threads = threads;
     }
 
+    public Integer getIndexThreads() {
+        return indexThreads;
+    }
+
+    public void setIndexThreads(Integer indexThreads) {
+        this.indexThreads = indexThreads;
+    }
+
+    public Integer getPrefetchSize() {
+        return prefetchSize;
+    }
+
+    public void setPrefetchSize(Integer prefetchSize) {
+        this.prefetchSize = prefetchSize;
+    }
+
     public Map<String, InsertType> getTableInsertTypes() {
         return tableInsertTypes;
     }
@@ -156,7 +192,9 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
         if (commitStrategy != null ? !commitStrategy.equals(that.commitStrategy) : that.commitStrategy != null)
             return false;
         if (inputSpec != null ? !inputSpec.equals(that.inputSpec) : that.inputSpec != null) return false;
+        if (resume != that.resume) return false;
         if (insertType != that.insertType) return false;
+        if (insertRows != null ? !insertRows.equals(that.insertRows) : that.insertRows != null) return false;
         if (migrationModes != null ? !migrationModes.equals(that.migrationModes) : that.migrationModes != null)
             return false;
         if (tableInsertTypes != null ? !tableInsertTypes.equals(that.tableInsertTypes) : that.tableInsertTypes != null)
@@ -164,6 +202,8 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
         if (targetSpec != null ? !targetSpec.equals(that.targetSpec) : that.targetSpec != null) return false;
         if (timeZone != null ? !timeZone.equals(that.timeZone) : that.timeZone != null) return false;
         if (threads != null ? !threads.equals(that.threads) : that.threads != null) return false;
+        if (indexThreads != null ? !indexThreads.equals(that.indexThreads) : that.indexThreads != null) return false;
+        if (prefetchSize != null ? !prefetchSize.equals(that.prefetchSize) : that.prefetchSize != null) return false;
 
         return true;
     }
@@ -173,12 +213,16 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
         int result = super.hashCode();
         result = 31 * result + (commitStrategy != null ? commitStrategy.hashCode() : 0);
         result = 31 * result + (inputSpec != null ? inputSpec.hashCode() : 0);
+        result = 31 * result + (resume ? 1 : 0);
         result = 31 * result + (insertType != null ? insertType.hashCode() : 0);
+        result = 31 * result + (insertRows != null ? insertRows.hashCode() : 0);
         result = 31 * result + (migrationModes != null ? migrationModes.hashCode() : 0);
         result = 31 * result + (tableInsertTypes != null ? tableInsertTypes.hashCode() : 0);
         result = 31 * result + (targetSpec != null ? targetSpec.hashCode() : 0);
         result = 31 * result + (timeZone != null ? timeZone.hashCode() : 0);
         result = 31 * result + (threads != null ? threads.hashCode() : 0);
+        result = 31 * result + (indexThreads != null ? indexThreads.hashCode() : 0);
+        result = 31 * result + (prefetchSize != null ? prefetchSize.hashCode() : 0);
         return result;
     }
 }
@@ -30,7 +30,9 @@ package com.nuodb.migrator.spec;
 import com.nuodb.migrator.jdbc.metadata.MetaDataType;
 import com.nuodb.migrator.jdbc.metadata.filter.MetaDataFilter;
 import com.nuodb.migrator.jdbc.metadata.filter.MetaDataFilterManager;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionCache;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collection;
 
@@ -49,6 +51,8 @@ public class MetaDataSpec extends SpecBase {
     private Collection<MetaDataType> objectTypes = OBJECT_TYPES;
     private MetaDataFilterManager metaDataFilterManager = new MetaDataFilterManager();
     private String[] tableTypes = TABLE_TYPES;
+    private String inspectionCache;
+    private boolean refreshInspectionCache;
 
     public Collection<MetaDataType> getObjectTypes() {
         return objectTypes;
@@ -79,6 +83,39 @@ public class MetaDataSpec extends SpecBase {
         this.tableTypes = tableTypes;
     }
 
+    /**
+     * Path to the file with inspected meta data, which is reused by the subsequent runs against the same source and
+     * refreshed incrementally for the tables changed since the previous run
+     *
+     * @return path to the inspection cache or null if meta data is always inspected
+     */
+    public String getInspectionCache() {
+        return inspectionCache;
+    }
+
+    public void setInspectionCache(String inspectionCache) {
+        this.inspectionCache = inspectionCache;
+    }
+
+    public boolean isRefreshInspectionCache() {
+        return refreshInspectionCache;
+    }
+
+    public void setRefreshInspectionCache(boolean refreshInspectionCache) {
+        this.refreshInspectionCache = refreshInspectionCache;
+    }
+
+    /**
+     * Creates cache of the inspected source meta data if its path is set
+     *
+     * @return inspection cache or null
+     */
+    public InspectionCache createInspectionCache() {
+        String inspectionCache = getInspectionCache();
+        return inspectionCache != null ? new InspectionCache(new File(inspectionCache),
+                isRefreshInspectionCache()) : null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -91,6 +128,9 @@ public class MetaDataSpec extends SpecBase {
         if (metaDataFilterManager != null ? !metaDataFilterManager.equals(that.metaDataFilterManager) :
                 that.metaDataFilterManager != null) return false;
         if (!Arrays.equals(tableTypes, that.tableTypes)) return false;
+        if (refreshInspectionCache != that.refreshInspectionCache) return false;
+        if (inspectionCache != null ? !inspectionCache.equals(that.inspectionCache) :
+                that.inspectionCache != null) return false;
 
         return true;
     }
@@ -101,6 +141,8 @@ public class MetaDataSpec extends SpecBase {
         result = 31 * result + (objectTypes != null ? objectTypes.hashCode() : 0);
         result = 31 * result + (metaDataFilterManager != null ? metaDataFilterManager.hashCode() : 0);
         result = 31 * result + (tableTypes != null ? Arrays.hashCode(tableTypes) : 0);
+        result = 31 * result + (inspectionCache != null ? inspectionCache.hashCode() : 0);
+        result = 31 * result + (refreshInspectionCache ? 1 : 0);
         return result;
     }
 }
@@ -39,6 +39,15 @@ public class SpecBase implements Spec {
     private String type;
     private Map<String, Object> attributes = newHashMap();
 
+    public SpecBase() {
+    }
+
+    public SpecBase(SpecBase spec) {
+        this.id = spec.id;
+        this.type = spec.type;
+        this.attributes = spec.attributes != null ? newHashMap(spec.attributes) : null;
+    }
+
     public String getId() {
         return id;
     }
@@ -36,6 +36,7 @@ public class TableSpec {
     private String table;
     private Collection<String> columns;
     private String filter;
+    private Integer fetchSize;
 
     public TableSpec(String table) {
         this.table = table;
@@ -70,6 +71,14 @@ public class TableSpec {
         this.filter = filter;
     }
 
+    public Integer getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(Integer fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -78,6 +87,7 @@ public class TableSpec {
         TableSpec that = (TableSpec) o;
 
         if (columns != null ? !columns.equals(that.columns) : that.columns != null) return false;
+        if (fetchSize != null ? !fetchSize.equals(that.fetchSize) : that.fetchSize != null) return false;
         if (filter != null ? !filter.equals(that.filter) : that.filter != null) return false;
         if (table != null ? !table.equals(that.table) : that.table != null) return false;
 
@@ -89,6 +99,7 @@ public class TableSpec {
         int result = table != null ? table.hashCode() : 0;
         result = 31 * result + (columns != null ? columns.hashCode() : 0);
         result = 31 * result + (filter != null ? filter.hashCode() : 0);
+        result = 31 * result + (fetchSize != null ? fetchSize.hashCode() : 0);
         return result;
     }
 
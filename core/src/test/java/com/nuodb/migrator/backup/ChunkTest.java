@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Sergey Bushik
+ */
+public class ChunkTest {
+
+    @Test
+    public void testFlushRowCount() {
+        RowSet rowSet = new TableRowSet();
+        Chunk chunk1 = new Chunk();
+        Chunk chunk2 = new Chunk();
+        rowSet.addChunk(chunk1);
+        rowSet.addChunk(chunk2);
+        for (int row = 0; row < 5; row++) {
+            chunk1.incrementRowCount();
+            chunk2.incrementRowCount();
+        }
+        assertEquals(rowSet.getRowCount(), 0);
+
+        chunk1.flushRowCount();
+        assertEquals(rowSet.getRowCount(), 5);
+
+        chunk1.incrementRowCount();
+        chunk1.flushRowCount();
+        chunk2.flushRowCount();
+        chunk2.flushRowCount();
+        assertEquals(chunk1.getRowCount(), 6);
+        assertEquals(chunk2.getRowCount(), 5);
+        assertEquals(rowSet.getRowCount(), 11);
+    }
+}
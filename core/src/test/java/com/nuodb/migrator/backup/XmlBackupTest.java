@@ -87,6 +87,13 @@ public class XmlBackupTest {
         backup.setDatabase(new Database());
         backup.setRowSets(Lists.<RowSet>newArrayList(new TableRowSet()));
 
+        // compressed backup read
+        Backup compressedBackup = new Backup();
+        compressedBackup.setFormat("csv");
+        compressedBackup.setCompression("gzip");
+        compressedBackup.setVersion(getVersion());
+        compressedBackup.setDatabase(new Database());
+
         // database read
         Database database = new Database();
         database.setDriverInfo(new DriverInfo());
@@ -156,6 +163,10 @@ public class XmlBackupTest {
                 "<database/>\n" +
                 "<row-set/>\n" +
                 "</backup>", backup, defaultEquality()
+        }, {
+                "<backup version=\"" + getVersion() + "\" format=\"csv\" compression=\"gzip\">\n" +
+                "<database/>\n" +
+                "</backup>", compressedBackup, defaultEquality()
         }, {
                 "<database>\n" +
                 "<driver-info/>\n" +
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.compression;
+
+import com.nuodb.migrator.backup.BackupException;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.GZIPInputStream;
+
+import static com.nuodb.migrator.backup.compression.Compressions.getCompression;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.io.IOUtils.toByteArray;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+public class CompressionTest {
+
+    private static final int BLOCK_SIZE = 1024;
+
+    @DataProvider(name = "compress")
+    public Object[][] createCompressData() {
+        return new Object[][]{
+                {"gzip", true}, {"gzip", false},
+                {"deflate", true}, {"deflate", false},
+                {"fast", true}, {"fast", false}
+        };
+    }
+
+    @Test(dataProvider = "compress")
+    public void testCompress(String name, boolean async) throws Exception {
+        ExecutorService executor = newFixedThreadPool(2);
+        try {
+            BlockCompressionBase compression = (BlockCompressionBase) getCompression(name, executor);
+            compression.setBlockSize(BLOCK_SIZE);
+            compression.setAsync(async);
+            assertEquals(compression.getName(), name);
+
+            byte[] data = createData(BLOCK_SIZE * 5 + 17);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            OutputStream output = compression.compress(buffer);
+            output.write(data, 0, 100);
+            output.write(data[100]);
+            output.write(data, 101, data.length - 101);
+            output.close();
+            assertTrue(buffer.size() < data.length);
+
+            InputStream input = compression.decompress(new ByteArrayInputStream(buffer.toByteArray()));
+            assertEquals(toByteArray(input), data);
+            input.close();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testAbandon() throws Exception {
+        ExecutorService executor = newFixedThreadPool(1);
+        BlockCompressionBase compression = (BlockCompressionBase) getCompression("deflate", executor);
+        compression.setBlockSize(BLOCK_SIZE);
+        OutputStream output = compression.compress(new ByteArrayOutputStream());
+        output.write(createData(BLOCK_SIZE * 3));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, SECONDS));
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        Compression compression = getCompression("deflate");
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        compression.compress(buffer).close();
+        assertEquals(buffer.size(), 0);
+        assertEquals(toByteArray(compression.decompress(new ByteArrayInputStream(buffer.toByteArray()))).length, 0);
+    }
+
+    @Test
+    public void testGzipMembers() throws IOException {
+        BlockCompressionBase compression = (BlockCompressionBase) getCompression("gzip");
+        compression.setBlockSize(BLOCK_SIZE);
+        byte[] data = createData(BLOCK_SIZE * 3);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        OutputStream output = compression.compress(buffer);
+        output.write(data);
+        output.close();
+        assertEquals(toByteArray(new GZIPInputStream(new ByteArrayInputStream(buffer.toByteArray()))), data);
+    }
+
+    @Test
+    public void testNone() {
+        assertNull(getCompression(null));
+        assertNull(getCompression("none"));
+    }
+
+    @Test(expectedExceptions = BackupException.class)
+    public void testUnsupported() {
+        getCompression("lzma");
+    }
+
+    protected byte[] createData(int length) {
+        Random random = new Random(length);
+        byte[] data = new byte[length];
+        for (int index = 0; index < length; index++) {
+            data[index] = (byte) ('a' + random.nextInt(4));
+        }
+        return data;
+    }
+}
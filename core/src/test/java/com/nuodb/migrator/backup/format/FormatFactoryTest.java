@@ -27,16 +27,24 @@
  */
 package com.nuodb.migrator.backup.format;
 
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.value.Value;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Map;
 
 import static com.google.common.collect.Maps.newHashMap;
 import static com.nuodb.migrator.backup.format.Format.ATTRIBUTE_BUFFERING;
 import static com.nuodb.migrator.backup.format.Format.ATTRIBUTE_BUFFER_SIZE;
+import static com.nuodb.migrator.backup.format.Format.ATTRIBUTE_MAX_ROWS;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 /**
  * @author Sergey Bushik
@@ -63,4 +71,26 @@ public class FormatFactoryTest {
         Output output = formatFactory.createOutput("csv", inputAttributes);
         assertEquals(output.isBuffering(), buffering);
     }
+
+    @Test
+    public void testMaxRows() {
+        Map<String, Object> outputAttributes = newHashMap();
+        outputAttributes.put(ATTRIBUTE_MAX_ROWS, "2");
+        RowSet rowSet = new RowSet();
+        rowSet.addColumn("column", STRING);
+        Output output = formatFactory.createOutput("csv", outputAttributes);
+        output.setRowSet(rowSet);
+        for (int chunk = 0; chunk < 2; chunk++) {
+            output.setOutputStream(new ByteArrayOutputStream());
+            output.init();
+            output.writeStart();
+            for (int row = 0; row < 2; row++) {
+                assertTrue(output.canWrite());
+                output.writeValues(new Value[]{string("value")});
+            }
+            assertFalse(output.canWrite());
+            output.writeEnd();
+            output.close();
+        }
+    }
 }
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.binary;
+
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.value.Value;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.*;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * @author Sergey Bushik
+ */
+public class BinaryFormatTest {
+
+    @DataProvider(name = "values")
+    public Object[][] createValues() {
+        Timestamp timestamp = Timestamp.valueOf("2014-03-21 12:30:15.123456789");
+        return new Object[][]{
+                {new Value[]{string("string"), binary(new byte[]{1, 2, 3}), int32(-1), int64(Long.MAX_VALUE)}},
+                {new Value[]{float64(0.1), decimal(new BigDecimal("-12345678901234567890.0123")),
+                        timestamp(timestamp), date(Date.valueOf("2014-03-21"))}},
+                {new Value[]{bool(true), STRING_NULL, BINARY_NULL, string("")}}
+        };
+    }
+
+    @Test(dataProvider = "values")
+    public void testReadWrite(Value[] values) throws Exception {
+        RowSet rowSet = new RowSet();
+        for (int index = 0; index < values.length; index++) {
+            rowSet.addColumn("column" + index, values[index].getValueType() == BINARY ? BINARY : STRING);
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BinaryOutput output = new BinaryOutput();
+        output.setRowSet(rowSet);
+        output.setOutputStream(outputStream);
+        output.init();
+        output.writeStart();
+        output.writeValues(values);
+        output.writeValues(values);
+        output.writeEnd();
+        output.close();
+
+        BinaryInput input = new BinaryInput();
+        input.setRowSet(rowSet);
+        input.setInputStream(new ByteArrayInputStream(outputStream.toByteArray()));
+        input.init();
+        input.readStart();
+        for (int row = 0; row < 2; row++) {
+            Value[] result = input.readValues();
+            for (int index = 0; index < values.length; index++) {
+                assertEquals(result[index].isNull(), values[index].isNull());
+                if (!values[index].isNull()) {
+                    assertEquals(result[index], values[index]);
+                }
+            }
+        }
+        assertNull(input.readValues());
+        input.readEnd();
+        input.close();
+    }
+}
@@ -0,0 +1,316 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.csv;
+
+import com.google.common.io.InputSupplier;
+import com.nuodb.migrator.backup.Column;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.LobStore;
+import com.nuodb.migrator.backup.format.value.Value;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.csv.QuoteMode;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.backup.format.csv.CsvFormat.*;
+import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.*;
+import static org.apache.commons.csv.CSVFormat.newFormat;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+/**
+ * @author Sergey Bushik
+ */
+public class CsvFormatTest {
+
+    private static final char[] ALPHABET = {'a', 'n', ' ', ',', '"', '|', '#', '\r', '\n'};
+
+    @DataProvider(name = "values")
+    public Object[][] createValues() {
+        return new Object[][]{
+                {"false", new Value[]{string("string"), binary(new byte[]{1, 2, 3}), STRING_NULL, string("")}},
+                {"false", new Value[]{string("a,b"), string("a\nb\r\nc"), string("a|nb||"), string("#a")}},
+                {"false", new Value[]{string("\"a\""), string("\""), BINARY_NULL, string(" a ")}},
+                {"true", new Value[]{string("string"), binary(new byte[]{1, 2, 3}), STRING_NULL, string("")}},
+                {"true", new Value[]{string("a,b"), string("a\nb\r\nc"), string("\"a\""), string("#a")}},
+                {"true", new Value[]{STRING_NULL, string("\""), BINARY_NULL, string(" a ")}},
+                {"false", new Value[]{binary(new byte[0]), binary(new byte[]{-1, 0, 1, 2})}},
+                {"true", new Value[]{binary(new byte[0]), binary(new byte[]{-1, 0, 1, 2})}}
+        };
+    }
+
+    @Test(dataProvider = "values")
+    public void testReadWrite(String quoting, Value[] values) throws Exception {
+        RowSet rowSet = new RowSet();
+        for (int index = 0; index < values.length; index++) {
+            rowSet.addColumn("column" + index, values[index].getValueType() == BINARY ? BINARY : STRING);
+        }
+        Map<String, Object> attributes = newHashMap();
+        attributes.put(ATTRIBUTE_QUOTING, quoting);
+        attributes.put(ATTRIBUTE_ENCODING, "UTF-8");
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CsvOutput output = new CsvOutput();
+        output.setAttributes(attributes);
+        output.setRowSet(rowSet);
+        output.setOutputStream(outputStream);
+        output.init();
+        output.writeStart();
+        output.writeValues(values);
+        output.writeValues(values);
+        output.writeEnd();
+        output.close();
+
+        CsvInput input = new CsvInput();
+        input.setAttributes(attributes);
+        input.setRowSet(rowSet);
+        input.setInputStream(new ByteArrayInputStream(outputStream.toByteArray()));
+        input.init();
+        input.readStart();
+        for (int row = 0; row < 2; row++) {
+            Value[] result = input.readValues();
+            for (int index = 0; index < values.length; index++) {
+                assertEquals(result[index].isNull(), values[index].isNull());
+                if (!values[index].isNull()) {
+                    assertEquals(result[index], values[index]);
+                }
+            }
+        }
+        assertNull(input.readValues());
+        input.readEnd();
+        input.close();
+    }
+
+    /**
+     * Verifies streamed LOB values are written to the LOB store and read back, while inline values of LOB columns
+     * starting with the reference marker are kept in the chunk
+     */
+    @Test
+    public void testLobs() throws Exception {
+        RowSet rowSet = new RowSet();
+        rowSet.addColumn("blob", BINARY);
+        rowSet.addColumn("clob", STRING);
+        for (Column column : rowSet.getColumns()) {
+            column.setLob(true);
+        }
+        final byte[] bytes = new byte[]{-1, 0, 1, 2};
+        final String string = "@\u00e9,\n";
+        Value[] lobs = new Value[]{
+                blob(new InputSupplier<InputStream>() {
+                    @Override
+                    public InputStream getInput() {
+                        return new ByteArrayInputStream(bytes);
+                    }
+                }),
+                clob(new InputSupplier<Reader>() {
+                    @Override
+                    public Reader getInput() {
+                        return new StringReader(string);
+                    }
+                })
+        };
+        Value[] values = new Value[]{binary(bytes), string("@lob")};
+        final Map<String, ByteArrayOutputStream> files = newHashMap();
+        LobStore lobStore = new LobStore() {
+            @Override
+            public String nextName() {
+                return "chunk." + (files.size() + 1) + ".lob";
+            }
+
+            @Override
+            public OutputStream openOutput(String name) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                files.put(name, output);
+                return output;
+            }
+
+            @Override
+            public InputStream openInput(String name) {
+                return new ByteArrayInputStream(files.get(name).toByteArray());
+            }
+        };
+        Map<String, Object> attributes = newHashMap();
+        attributes.put(ATTRIBUTE_ENCODING, "UTF-8");
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CsvOutput output = new CsvOutput();
+        output.setAttributes(attributes);
+        output.setRowSet(rowSet);
+        output.setLobStore(lobStore);
+        output.setOutputStream(outputStream);
+        output.init();
+        output.writeStart();
+        output.writeValues(lobs);
+        output.writeValues(values);
+        output.writeEnd();
+        output.close();
+        assertEquals(files.size(), 2);
+
+        CsvInput input = new CsvInput();
+        input.setAttributes(attributes);
+        input.setRowSet(rowSet);
+        input.setLobStore(lobStore);
+        input.setInputStream(new ByteArrayInputStream(outputStream.toByteArray()));
+        input.init();
+        input.readStart();
+        Value[] result = input.readValues();
+        assertEquals(result[0].asBytes(), bytes);
+        assertEquals(result[1].asString(), string);
+        result = input.readValues();
+        assertFalse(isLob(result[0]));
+        assertEquals(result, values);
+        assertNull(input.readValues());
+        input.readEnd();
+        input.close();
+    }
+
+    /**
+     * Verifies tokenizer splits random input into the same records as commons-csv parser does
+     */
+    @Test
+    public void testTokenizer() throws Exception {
+        Random random = new Random(0);
+        for (int test = 0; test < 2000; test++) {
+            StringBuilder csv = new StringBuilder();
+            int length = random.nextInt(24);
+            for (int index = 0; index < length; index++) {
+                csv.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+            }
+            boolean quoting = random.nextBoolean();
+            assertEquals(tokenize(csv.toString(), quoting), parse(csv.toString(), quoting), csv.toString());
+        }
+    }
+
+    /**
+     * Verifies writer produces the same output as commons-csv printer
+     */
+    @Test
+    public void testWriter() throws Exception {
+        Random random = new Random(0);
+        for (int test = 0; test < 2000; test++) {
+            boolean quoting = random.nextBoolean();
+            CSVFormat format = newFormat(',').withEscape('|').withCommentMarker(COMMENT_MARKER).
+                    withRecordSeparator(LINE_SEPARATOR_CRLF);
+            if (quoting) {
+                format = format.withQuoteMode(QuoteMode.MINIMAL).withQuote('"');
+            }
+            StringWriter expected = new StringWriter();
+            CSVPrinter printer = new CSVPrinter(expected, format);
+            StringWriter actual = new StringWriter();
+            CsvWriter writer = new CsvWriter(actual, ',', quoting ? '"' : null, '|', LINE_SEPARATOR_CRLF);
+            for (int record = random.nextInt(3); record >= 0; record--) {
+                for (int value = random.nextInt(4); value >= 0; value--) {
+                    if (random.nextInt(4) == 0) {
+                        byte[] bytes = random.nextInt(5) == 0 ? null : new byte[random.nextInt(8)];
+                        if (bytes != null) {
+                            random.nextBytes(bytes);
+                        }
+                        printer.print(BASE64.encode(bytes));
+                        writer.writeBase64(bytes);
+                    } else {
+                        String string = random.nextInt(5) == 0 ? null : random(random);
+                        printer.print(string);
+                        writer.writeValue(string);
+                    }
+                }
+                printer.println();
+                writer.writeRecordEnd();
+            }
+            assertEquals(actual.toString(), expected.toString());
+        }
+    }
+
+    protected String random(Random random) {
+        StringBuilder value = new StringBuilder();
+        for (int index = random.nextInt(8); index > 0; index--) {
+            value.append(random.nextInt(3) == 0 ? (char) (32 + random.nextInt(95)) :
+                    ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return value.toString();
+    }
+
+    protected List<Object> parse(String csv, boolean quoting) throws Exception {
+        CSVFormat format = newFormat(',').withEscape('|').withCommentMarker(COMMENT_MARKER);
+        if (quoting) {
+            format = format.withQuote('"');
+        }
+        List<Object> records = newArrayList();
+        try {
+            Iterator<CSVRecord> iterator = new CSVParser(new StringReader(csv), format).iterator();
+            while (iterator.hasNext()) {
+                records.add(newArrayList(iterator.next().iterator()));
+            }
+        } catch (RuntimeException exception) {
+            records.add("failure");
+        }
+        return records;
+    }
+
+    protected List<Object> tokenize(String csv, boolean quoting) throws Exception {
+        CsvTokenizer tokenizer = new CsvTokenizer(new StringReader(csv), ',', quoting ? '"' : null, '|',
+                COMMENT_MARKER, 3);
+        List<Object> records = newArrayList();
+        try {
+            List<String> record = newArrayList();
+            while (tokenizer.readValue()) {
+                record.add(tokenizer.getValue());
+                if (tokenizer.isEndOfRecord()) {
+                    records.add(record);
+                    record = newArrayList();
+                }
+            }
+            if (!record.isEmpty()) {
+                records.add(record);
+            }
+        } catch (RuntimeException exception) {
+            records.add("failure");
+        }
+        return records;
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.nuodb.migrator.jdbc.model.SimpleField;
+import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
+import org.testng.annotations.Test;
+
+import java.sql.Types;
+
+import static com.nuodb.migrator.backup.format.value.ValueUtils.int32;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+@SuppressWarnings("unchecked")
+public class JdbcValueFormatTest {
+
+    private JdbcValueFormat valueFormat = new JdbcValueFormat();
+
+    @Test
+    public void testIntegerValueCodec() throws Exception {
+        JdbcValueAccess<Object> access = createJdbcValueAccess(Types.INTEGER);
+        ValueCodec valueCodec = valueFormat.createValueCodec(access, null);
+        assertTrue(valueCodec instanceof JdbcValueFormat.IntegerValueCodec);
+        verify(access, times(2)).getField();
+
+        when(access.getValue(null)).thenReturn(1);
+        assertEquals(valueCodec.getValue().asString(), "1");
+
+        valueCodec.setValue(int32(2));
+        valueCodec.setValue(string("3"));
+        verify(access).setValue(2, null);
+        verify(access).setValue(3, null);
+        verify(access, times(2)).getField();
+    }
+
+    @Test(expectedExceptions = ValueFormatException.class)
+    public void testUnsupportedValueCodec() {
+        JdbcValueAccess<Object> access = createJdbcValueAccess(Types.ARRAY);
+        valueFormat.createValueCodec(access, null).setValue(string("value"));
+    }
+
+    private static JdbcValueAccess<Object> createJdbcValueAccess(int typeCode) {
+        SimpleField field = new SimpleField();
+        field.setName("field");
+        field.setTypeCode(typeCode);
+        JdbcValueAccess<Object> access = mock(JdbcValueAccess.class);
+        when(access.getField()).thenReturn(field);
+        return access;
+    }
+}
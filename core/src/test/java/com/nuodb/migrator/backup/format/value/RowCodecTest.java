@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.int64;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+/**
+ * @author Sergey Bushik
+ */
+public class RowCodecTest {
+
+    private ValueCodec valueCodec1;
+    private ValueCodec valueCodec2;
+    private RowCodec rowCodec;
+
+    @BeforeMethod
+    public void setUp() {
+        valueCodec1 = mock(ValueCodec.class);
+        valueCodec2 = mock(ValueCodec.class);
+
+        List<ValueHandle> valueHandles = newArrayList(createValueHandle(valueCodec1), createValueHandle(valueCodec2));
+        ValueHandleList valueHandleList = mock(ValueHandleList.class);
+        when(valueHandleList.size()).thenReturn(valueHandles.size());
+        when(valueHandleList.iterator()).thenReturn(valueHandles.iterator());
+        rowCodec = new RowCodec(valueHandleList);
+    }
+
+    private static ValueHandle createValueHandle(ValueCodec valueCodec) {
+        ValueHandle valueHandle = mock(ValueHandle.class);
+        when(valueHandle.getValueCodec()).thenReturn(valueCodec);
+        return valueHandle;
+    }
+
+    @Test
+    public void testGetValues() {
+        Value value1 = string("value");
+        Value value2 = int64(1L);
+        when(valueCodec1.getValue()).thenReturn(value1);
+        when(valueCodec2.getValue()).thenReturn(value2);
+
+        Value[] values = new Value[rowCodec.size()];
+        rowCodec.getValues(values);
+        assertEquals(values.length, 2);
+        assertSame(values[0], value1);
+        assertSame(values[1], value2);
+    }
+
+    @Test
+    public void testSetValues() {
+        Value[] values = new Value[]{string("value"), int64(1L)};
+        rowCodec.setValues(values);
+        verify(valueCodec1).setValue(values[0]);
+        verify(valueCodec2).setValue(values[1]);
+    }
+}
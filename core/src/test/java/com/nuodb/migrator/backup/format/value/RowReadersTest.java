@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupException;
+import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.FormatFactory;
+import com.nuodb.migrator.backup.format.Input;
+import com.nuodb.migrator.utils.concurrent.ForkJoinPool;
+import com.nuodb.migrator.utils.concurrent.RecursiveTask;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.nuodb.migrator.backup.format.value.RowReaders.newParallelRowReaders;
+import static com.nuodb.migrator.backup.format.value.RowReaders.newPrefetchRowReader;
+import static com.nuodb.migrator.backup.format.value.RowReaders.newPrefetchRowReaders;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static java.util.Arrays.asList;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+/**
+ * @author Sergey Bushik
+ */
+public class RowReadersTest {
+
+    private static final int ROWS = 2;
+
+    private RowSet rowSet;
+    private BackupOps backupOps;
+    private FormatFactory formatFactory;
+    private ForkJoinPool executor;
+
+    @BeforeMethod
+    public void setUp() {
+        executor = new ForkJoinPool(1);
+        Backup backup = new Backup("csv");
+        rowSet = new RowSet();
+        backup.addRowSet(rowSet);
+        backupOps = mock(BackupOps.class);
+        formatFactory = mock(FormatFactory.class);
+        when(formatFactory.createInput(anyString(), anyMap())).thenAnswer(new Answer<Input>() {
+            @Override
+            public Input answer(InvocationOnMock invocation) throws Throwable {
+                Input input = mock(Input.class);
+                when(input.readValues()).thenReturn(new Value[]{string("value")}, new Value[]{string("value")}, null);
+                return input;
+            }
+        });
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    protected void addChunks(int chunks) {
+        for (int index = 0; index < chunks; index++) {
+            Chunk chunk = new Chunk();
+            chunk.setName("chunk" + index);
+            chunk.setRowCount(ROWS);
+            rowSet.addChunk(chunk);
+        }
+    }
+
+    @Test
+    public void testChunkPerReader() {
+        addChunks(3);
+        List<RowReader> rowReaders = newParallelRowReaders(rowSet, backupOps, formatFactory, null, 2);
+        assertEquals(rowReaders.size(), 2);
+        assertNotSame(rowReaders.get(0), rowReaders.get(1));
+
+        Map<Chunk, Long> chunkRows = newHashMap();
+        for (RowReader rowReader : rowReaders) {
+            Row row;
+            while ((row = rowReader.readRow()) != null) {
+                Long rows = chunkRows.get(row.getChunk());
+                rows = rows != null ? rows : 0L;
+                assertEquals(row.getNumber(), (long) rows);
+                chunkRows.put(row.getChunk(), rows + 1);
+            }
+        }
+        assertEquals(chunkRows.size(), 3);
+        for (Long rows : chunkRows.values()) {
+            assertEquals((long) rows, ROWS);
+        }
+    }
+
+    @Test
+    public void testSharedReader() {
+        addChunks(1);
+        List<RowReader> rowReaders = newParallelRowReaders(rowSet, backupOps, formatFactory, null, 3);
+        assertEquals(rowReaders.size(), 3);
+        assertSame(rowReaders.get(0), rowReaders.get(1));
+        assertSame(rowReaders.get(0), rowReaders.get(2));
+        for (int row = 0; row < ROWS; row++) {
+            assertEquals(rowReaders.get(row).readRow().getNumber(), row);
+        }
+        assertNull(rowReaders.get(2).readRow());
+    }
+
+    @Test
+    public void testOffsets() {
+        addChunks(3);
+        Map<String, Long> offsets = newHashMap();
+        offsets.put("chunk0", (long) ROWS);
+        offsets.put("chunk1", 1L);
+        List<RowReader> rowReaders = newParallelRowReaders(rowSet, backupOps, formatFactory, null, 1, offsets);
+        List<String> rows = newArrayList();
+        Row row;
+        while ((row = rowReaders.get(0).readRow()) != null) {
+            rows.add(row.getChunk().getName() + ":" + row.getNumber());
+        }
+        assertEquals(rows, asList("chunk1:1", "chunk2:0", "chunk2:1"));
+        verify(formatFactory, times(2)).createInput(anyString(), anyMap());
+    }
+
+    @Test
+    public void testPrefetchRowReaders() {
+        addChunks(3);
+        List<RowReader> rowReaders = newPrefetchRowReaders(
+                newParallelRowReaders(rowSet, backupOps, formatFactory, null, 4), 1, executor);
+        assertEquals(rowReaders.size(), 4);
+        assertNotSame(rowReaders.get(0), rowReaders.get(1));
+        assertSame(rowReaders.get(0), rowReaders.get(3));
+
+        int rows = 0;
+        for (RowReader rowReader : newHashSet(rowReaders)) {
+            while (rowReader.readRow() != null) {
+                rows++;
+            }
+            rowReader.close();
+        }
+        assertEquals(rows, 3 * ROWS);
+    }
+
+    /**
+     * Reads rows on the only worker of the pool, which runs the prefetching tasks as well
+     */
+    @Test
+    public void testPrefetchOnPool() {
+        addChunks(3);
+        int rows = executor.invoke(new RecursiveTask<Integer>() {
+            @Override
+            protected Integer compute() {
+                int rows = 0;
+                for (RowReader rowReader : newHashSet(newPrefetchRowReaders(
+                        newParallelRowReaders(rowSet, backupOps, formatFactory, null, 2), 1, executor))) {
+                    while (rowReader.readRow() != null) {
+                        rows++;
+                    }
+                    rowReader.close();
+                }
+                return rows;
+            }
+        });
+        assertEquals(rows, 3 * ROWS);
+    }
+
+    @Test(expectedExceptions = BackupException.class)
+    public void testPrefetchFailure() {
+        RowReader rowReader = mock(RowReader.class);
+        when(rowReader.readRow()).thenThrow(new BackupException("Failure"));
+        RowReader prefetchRowReader = newPrefetchRowReader(rowReader, 1, executor);
+        try {
+            prefetchRowReader.readRow();
+        } finally {
+            prefetchRowReader.close();
+        }
+    }
+}
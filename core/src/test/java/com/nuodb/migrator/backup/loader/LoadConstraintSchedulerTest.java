@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.ForeignKey;
+import com.nuodb.migrator.jdbc.metadata.Index;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import org.mockito.InOrder;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Sergey Bushik
+ */
+public class LoadConstraintSchedulerTest {
+
+    private BackupLoader backupLoader;
+    private BackupLoaderManager backupLoaderManager;
+    private Table table1;
+    private Table table2;
+    private LoadConstraint loadIndex1;
+    private LoadConstraint loadIndex2;
+    private LoadConstraint loadIndex3;
+    private LoadConstraint loadForeignKey;
+
+    @BeforeMethod
+    public void setUp() {
+        table1 = new Table("t1");
+        table2 = new Table("t2");
+        Index index1 = createIndex(table1, "i1", "c1");
+        Index index2 = createIndex(table2, "i2", "c1");
+        Index index3 = createIndex(table2, "i3", "c1", "c2");
+        ForeignKey foreignKey = new ForeignKey("fk1");
+        foreignKey.setForeignTable(table1);
+        foreignKey.setPrimaryTable(table2);
+        foreignKey.addReference(table2.getColumn("c1"), table1.getColumn("c1"));
+
+        LoadConstraints loadConstraints = new LoadConstraints();
+        loadConstraints.addIndex(index1);
+        loadConstraints.addIndex(index2);
+        loadConstraints.addIndex(index3);
+        loadConstraints.addForeignKey(foreignKey);
+        loadIndex1 = new LoadConstraint(index1);
+        loadIndex2 = new LoadConstraint(index2);
+        loadIndex3 = new LoadConstraint(index3);
+        loadForeignKey = new LoadConstraint(foreignKey);
+
+        BackupLoaderContext backupLoaderContext = new SimpleBackupLoaderContext();
+        backupLoaderContext.setLoadConstraints(loadConstraints);
+        backupLoaderContext.setSourceTables(newArrayList(table1, table2));
+
+        backupLoader = mock(BackupLoader.class);
+        backupLoaderManager = mock(BackupLoaderManager.class);
+        when(backupLoaderManager.getBackupLoaderContext()).thenReturn(backupLoaderContext);
+    }
+
+    protected Index createIndex(Table table, String name, String... columns) {
+        Index index = new Index(name);
+        int position = 0;
+        for (String columnName : columns) {
+            Column column = table.hasColumn(columnName) ? table.getColumn(columnName) : table.addColumn(columnName);
+            column.setSize(16L);
+            index.addColumn(column, position++);
+        }
+        table.addIndex(index);
+        return index;
+    }
+
+    @Test
+    public void testLoadConstraints() {
+        LoadConstraintScheduler loadConstraintScheduler =
+                new LoadConstraintScheduler(backupLoader, backupLoaderManager, 1);
+        InOrder inOrder = inOrder(backupLoader, backupLoaderManager);
+
+        loadConstraintScheduler.loadTable(table1, 10);
+        inOrder.verify(backupLoader).loadConstraint(loadIndex1, backupLoaderManager);
+
+        // index threads are busy, indexes of the second table are queued
+        loadConstraintScheduler.loadTable(table2, 1000);
+        verify(backupLoader, times(1)).loadConstraint(any(LoadConstraint.class), eq(backupLoaderManager));
+
+        // wider index of the same table is started first
+        loadConstraintScheduler.loadConstraintDone(loadIndex1);
+        inOrder.verify(backupLoader).loadConstraint(loadIndex3, backupLoaderManager);
+        loadConstraintScheduler.loadConstraintDone(loadIndex3);
+        inOrder.verify(backupLoader).loadConstraint(loadIndex2, backupLoaderManager);
+
+        // foreign key is started once keys of both tables are loaded
+        loadConstraintScheduler.loadConstraintDone(loadIndex2);
+        inOrder.verify(backupLoader).loadConstraint(loadForeignKey, backupLoaderManager);
+        verify(backupLoaderManager, never()).loadConstraintsDone();
+
+        loadConstraintScheduler.loadConstraintDone(loadForeignKey);
+        inOrder.verify(backupLoaderManager).loadConstraintsDone();
+    }
+}
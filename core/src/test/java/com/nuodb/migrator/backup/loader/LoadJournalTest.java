@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.backup.Chunk;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+import static java.io.File.createTempFile;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+public class LoadJournalTest {
+
+    private File file;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        file = createTempFile("nuodb-migrator", "journal");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testResume() {
+        Chunk chunk = new Chunk();
+        chunk.setName("table.csv");
+
+        LoadJournal loadJournal = new LoadJournal(file);
+        loadJournal.open(false);
+        loadJournal.loadSchema();
+        loadJournal.commitRow(chunk, 0);
+        loadJournal.commitRow(chunk, 2);
+        loadJournal.commitRow(chunk, 3);
+        loadJournal.flush();
+        loadJournal.commitRow(chunk, 1);
+        loadJournal.commitRow(chunk, 5);
+        loadJournal.flush();
+        loadJournal.close();
+
+        loadJournal = new LoadJournal(file);
+        loadJournal.open(true);
+        assertTrue(loadJournal.isSchemaLoaded());
+        assertEquals(loadJournal.getLoadedRows().get("table.csv"), Long.valueOf(4));
+        assertFalse(loadJournal.isLoaded(chunk, 4));
+        assertTrue(loadJournal.isLoaded(chunk, 5));
+        assertFalse(loadJournal.isLoaded(chunk, 6));
+        loadJournal.commitRow(chunk, 4);
+        loadJournal.flush();
+        loadJournal.close();
+
+        loadJournal = new LoadJournal(file);
+        loadJournal.open(true);
+        assertEquals(loadJournal.getLoadedRows().get("table.csv"), Long.valueOf(6));
+        loadJournal.close();
+
+        loadJournal = new LoadJournal(file);
+        loadJournal.open(false);
+        assertFalse(loadJournal.isSchemaLoaded());
+        assertNull(loadJournal.getLoadedRows().get("table.csv"));
+        loadJournal.delete();
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testCommitRows() {
+        Chunk chunk = new Chunk();
+        chunk.setName("table.csv");
+
+        LoadJournal loadJournal = new LoadJournal(file);
+        loadJournal.open(false);
+        loadJournal.commitRows(chunk, 10, 19);
+        loadJournal.commitRows(chunk, 30, 39);
+        loadJournal.commitRows(chunk, 0, 4);
+        loadJournal.flush();
+        loadJournal.commitRows(chunk, 5, 9);
+        loadJournal.commitRows(chunk, 20, 24);
+        loadJournal.flush();
+        loadJournal.close();
+
+        loadJournal = new LoadJournal(file);
+        loadJournal.open(true);
+        assertEquals(loadJournal.getLoadedRows().get("table.csv"), Long.valueOf(25));
+        assertFalse(loadJournal.isLoaded(chunk, 29));
+        assertTrue(loadJournal.isLoaded(chunk, 30));
+        assertTrue(loadJournal.isLoaded(chunk, 39));
+        assertFalse(loadJournal.isLoaded(chunk, 40));
+        loadJournal.commitRows(chunk, 25, 29);
+        loadJournal.flush();
+        loadJournal.close();
+
+        loadJournal = new LoadJournal(file);
+        loadJournal.open(true);
+        assertEquals(loadJournal.getLoadedRows().get("table.csv"), Long.valueOf(40));
+        loadJournal.delete();
+    }
+
+    @Test
+    public void testMergeRows() {
+        Chunk chunk = new Chunk();
+        chunk.setName("table.csv");
+
+        LoadJournal loadJournal = new LoadJournal(file);
+        loadJournal.open(false);
+        loadJournal.commitRows(chunk, 20, 29);
+        loadJournal.commitRows(chunk, 40, 49);
+        loadJournal.commitRows(chunk, 30, 34);
+        loadJournal.commitRows(chunk, 10, 14);
+        loadJournal.commitRows(chunk, 35, 39);
+        loadJournal.flush();
+        loadJournal.close();
+
+        loadJournal = new LoadJournal(file);
+        loadJournal.open(true);
+        assertEquals(loadJournal.getLoadedRows().get("table.csv"), Long.valueOf(0));
+        assertFalse(loadJournal.isLoaded(chunk, 9));
+        assertTrue(loadJournal.isLoaded(chunk, 14));
+        assertFalse(loadJournal.isLoaded(chunk, 15));
+        assertFalse(loadJournal.isLoaded(chunk, 19));
+        assertTrue(loadJournal.isLoaded(chunk, 20));
+        assertTrue(loadJournal.isLoaded(chunk, 35));
+        assertTrue(loadJournal.isLoaded(chunk, 49));
+        assertFalse(loadJournal.isLoaded(chunk, 50));
+        loadJournal.commitRows(chunk, 0, 9);
+        loadJournal.commitRows(chunk, 15, 19);
+        loadJournal.flush();
+        loadJournal.close();
+
+        loadJournal = new LoadJournal(file);
+        loadJournal.open(true);
+        assertEquals(loadJournal.getLoadedRows().get("table.csv"), Long.valueOf(50));
+        loadJournal.delete();
+    }
+}
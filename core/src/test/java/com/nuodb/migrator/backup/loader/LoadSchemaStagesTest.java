@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.dialect.PostgreSQLDialect;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.Database;
+import com.nuodb.migrator.jdbc.metadata.Identifiable;
+import com.nuodb.migrator.jdbc.metadata.Schema;
+import com.nuodb.migrator.jdbc.metadata.Sequence;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.metadata.generator.GroupScriptsBy;
+import com.nuodb.migrator.jdbc.metadata.generator.ScriptGeneratorManager;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.NUODB;
+import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.POSTGRE_SQL;
+import static com.nuodb.migrator.jdbc.metadata.Identifier.valueOf;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.SEQUENCE;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.TABLE;
+import static com.nuodb.migrator.jdbc.session.SessionUtils.createSession;
+import static java.sql.Types.INTEGER;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Sergey Bushik
+ */
+public class LoadSchemaStagesTest {
+
+    private BackupLoader backupLoader;
+    private ScriptGeneratorManager scriptGeneratorManager;
+    private Database database;
+    private Sequence sequence;
+    private Table table1;
+    private Table table2;
+
+    @BeforeMethod
+    public void setUp() throws SQLException {
+        scriptGeneratorManager = new ScriptGeneratorManager();
+        scriptGeneratorManager.setSourceSession(createSession(new PostgreSQLDialect(POSTGRE_SQL)));
+        scriptGeneratorManager.setTargetDialect(new NuoDBDialect(NUODB));
+        scriptGeneratorManager.setObjectTypes(newArrayList(SEQUENCE, TABLE));
+        backupLoader = new BackupLoader();
+
+        database = new Database();
+        Schema schema = database.addCatalog("catalog").addSchema("schema");
+        sequence = new Sequence(valueOf("seq1"));
+        schema.addSequence(sequence);
+        table1 = createTable(schema, "t1");
+        table2 = createTable(schema, "t2");
+    }
+
+    protected Table createTable(Schema schema, String name) {
+        Table table = schema.addTable(name);
+        Column column = table.addColumn("id");
+        column.setTypeCode(INTEGER);
+        column.setTypeName("INTEGER");
+        column.setNullable(false);
+        column.setPosition(1);
+        return table;
+    }
+
+    @Test
+    public void testGroupScriptsByTable() throws Exception {
+        backupLoader.setGroupScriptsBy(GroupScriptsBy.TABLE);
+        List<Collection<LoadSchemaScript>> stages = backupLoader.getLoadSchemaStages(
+                database, newArrayList(table1, table2), scriptGeneratorManager);
+
+        assertEquals(stages.size(), 2);
+        assertEquals(getObjects(stages.get(0)), newArrayList(sequence));
+        assertEquals(getObjects(stages.get(1)), newArrayList(table1, table2));
+    }
+
+    @Test
+    public void testGroupScriptsByMetaData() throws Exception {
+        backupLoader.setGroupScriptsBy(GroupScriptsBy.META_DATA);
+        List<Collection<LoadSchemaScript>> stages = backupLoader.getLoadSchemaStages(
+                database, newArrayList(table1, table2), scriptGeneratorManager);
+
+        assertEquals(getObjects(stages.get(0)), newArrayList(sequence));
+        assertEquals(getObjects(stages.get(stages.size() - 1)), newArrayList(table1, table2));
+        assertEquals(scriptGeneratorManager.getObjectTypes(), newArrayList(SEQUENCE, TABLE));
+    }
+
+    protected Collection<Identifiable> getObjects(Collection<LoadSchemaScript> stage) {
+        Collection<Identifiable> objects = newArrayList();
+        for (LoadSchemaScript loadSchemaScript : stage) {
+            objects.add(loadSchemaScript.getObject());
+        }
+        return objects;
+    }
+}
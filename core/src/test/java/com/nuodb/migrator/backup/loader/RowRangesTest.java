@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.backup.Chunk;
+import org.mockito.InOrder;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Sergey Bushik
+ */
+public class RowRangesTest {
+
+    @Test
+    public void testCommit() throws Exception {
+        Chunk chunk1 = new Chunk();
+        Chunk chunk2 = new Chunk();
+        RowRanges rowRanges = new RowRanges(2);
+        try {
+            for (long number = 0; number < 5; number++) {
+                rowRanges.add(chunk1, number);
+            }
+            rowRanges.add(chunk2, 0);
+            rowRanges.add(chunk1, 6);
+            rowRanges.add(chunk2, 1);
+            rowRanges.add(chunk1, 7);
+            assertEquals(rowRanges.getRows(), 9);
+
+            LoadJournal loadJournal = mock(LoadJournal.class);
+            assertEquals(rowRanges.commit(3, loadJournal), 3);
+            assertEquals(rowRanges.commit(4, loadJournal), 4);
+            rowRanges.add(chunk1, 8);
+            assertEquals(rowRanges.commit(10, loadJournal), 3);
+            assertEquals(rowRanges.getRows(), 0);
+
+            InOrder order = inOrder(loadJournal);
+            order.verify(loadJournal).commitRows(chunk1, 0, 2);
+            order.verify(loadJournal).commitRows(chunk1, 3, 4);
+            order.verify(loadJournal).commitRows(chunk2, 0, 0);
+            order.verify(loadJournal).commitRows(chunk1, 6, 6);
+            order.verify(loadJournal).commitRows(chunk2, 1, 1);
+            order.verify(loadJournal).commitRows(chunk1, 7, 8);
+        } finally {
+            rowRanges.release();
+        }
+    }
+}
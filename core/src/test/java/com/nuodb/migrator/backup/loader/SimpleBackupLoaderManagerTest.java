@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.format.value.Row;
+import com.nuodb.migrator.backup.format.value.RowQueue;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.jdbc.session.Work;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+public class SimpleBackupLoaderManagerTest {
+
+    private SimpleBackupLoaderManager backupLoaderManager;
+
+    @BeforeMethod
+    public void setUp() {
+        backupLoaderManager = new SimpleBackupLoaderManager();
+        backupLoaderManager.setBackupLoaderContext(mock(BackupLoaderContext.class));
+    }
+
+    @Test
+    public void testRowListener() {
+        BackupLoaderListener listener = spy(new BackupLoaderAdapter());
+        when(listener.isRowListener()).thenReturn(false);
+        BackupLoaderListener rowListener = mock(BackupLoaderListener.class);
+        when(rowListener.isRowListener()).thenReturn(true);
+        backupLoaderManager.addListener(listener);
+        backupLoaderManager.addListener(rowListener);
+        assertTrue(backupLoaderManager.hasRowListeners());
+
+        Chunk chunk = new Chunk();
+        chunk.setRowCount(2);
+        Work work = mock(Work.class);
+        LoadTable loadTable = mock(LoadTable.class);
+        backupLoaderManager.afterLoadRow(work, loadTable, new Row(chunk, new Value[0], 0));
+        backupLoaderManager.afterLoadRow(work, loadTable, new Row(chunk, new Value[0], 1));
+        backupLoaderManager.loadProgress(work, loadTable, 2);
+
+        verify(listener, never()).onLoadRow(any(LoadRowEvent.class));
+        verify(listener).onLoadProgress(any(LoadProgressEvent.class));
+        verify(rowListener, times(2)).onLoadRow(any(LoadRowEvent.class));
+        verify(rowListener).onLoadProgress(any(LoadProgressEvent.class));
+
+        backupLoaderManager.removeListener(rowListener);
+        assertFalse(backupLoaderManager.hasRowListeners());
+    }
+
+    @Test
+    public void testAdapterRowListener() {
+        BackupLoaderListener listener = spy(new BackupLoaderAdapter());
+        backupLoaderManager.addListener(listener);
+        assertTrue(backupLoaderManager.hasRowListeners());
+
+        Chunk chunk = new Chunk();
+        chunk.setRowCount(1);
+        backupLoaderManager.afterLoadRow(mock(Work.class), mock(LoadTable.class), new Row(chunk, new Value[0], 0));
+        verify(listener).onLoadRow(any(LoadRowEvent.class));
+    }
+
+    @Test
+    public void testQueuedChunkEnd() {
+        BackupLoaderListener listener = mock(BackupLoaderListener.class);
+        backupLoaderManager.addListener(listener);
+
+        Chunk chunk = new Chunk();
+        RowQueue rowQueue = new RowQueue(3);
+        rowQueue.writeStart();
+        chunk.incrementRowCount();
+        rowQueue.writeRow(new Row(chunk, new Value[0], 0), false);
+
+        Work work = mock(Work.class);
+        LoadTable loadTable = mock(LoadTable.class);
+        Row row = rowQueue.readRow();
+        backupLoaderManager.beforeLoadRow(work, loadTable, row);
+        backupLoaderManager.afterLoadRow(work, loadTable, row);
+        verify(listener).onLoadStart(any(LoadChunkEvent.class));
+        verify(listener, never()).onLoadEnd(any(LoadChunkEvent.class));
+
+        chunk.incrementRowCount();
+        rowQueue.writeRow(new Row(chunk, new Value[0], 1), true);
+        rowQueue.writeEnd();
+        row = rowQueue.readRow();
+        backupLoaderManager.beforeLoadRow(work, loadTable, row);
+        backupLoaderManager.afterLoadRow(work, loadTable, row);
+        verify(listener).onLoadEnd(any(LoadChunkEvent.class));
+    }
+
+    @Test
+    public void testCanExecute() {
+        Work work = mock(Work.class);
+        assertTrue(backupLoaderManager.canExecute(work));
+        backupLoaderManager.failure(work, new Exception());
+        assertFalse(backupLoaderManager.canExecute(work));
+    }
+}
@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.writer;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.Column;
+import com.nuodb.migrator.jdbc.dialect.KeySampleHandler;
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
+import com.nuodb.migrator.jdbc.split.KeyRange;
+import com.nuodb.migrator.jdbc.split.QuerySplit;
+import com.nuodb.migrator.backup.writer.WriteJournal.WriteSplit;
+import com.nuodb.migrator.jdbc.split.QuerySplitter;
+import com.nuodb.migrator.jdbc.split.RowCountStrategy;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createTable;
+import static com.nuodb.migrator.jdbc.query.Queries.newQuery;
+import static com.nuodb.migrator.jdbc.split.QuerySplitters.newKeySplitter;
+import static java.io.File.createTempFile;
+import static java.sql.Types.INTEGER;
+import static java.util.Arrays.asList;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+/**
+ * @author Sergey Bushik
+ */
+public class WriteJournalTest {
+
+    private File file;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        file = createTempFile("nuodb-migrator", "journal");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        file.delete();
+    }
+
+    protected QuerySplit createQuerySplit(int splitIndex, Object lowerKey, Object upperKey) {
+        QuerySplit querySplit = mock(QuerySplit.class);
+        when(querySplit.getSplitIndex()).thenReturn(splitIndex);
+        when(querySplit.getQueryLimit()).thenReturn(new KeyRange(
+                lowerKey != null ? new Object[]{lowerKey} : null, upperKey != null ? new Object[]{upperKey} : null));
+        return querySplit;
+    }
+
+    @Test
+    public void testResume() {
+        Column column1 = new Column("id", STRING);
+        Column column2 = new Column("data\tcolumn", BINARY);
+        column2.setLob(true);
+        Chunk chunk = new Chunk();
+        chunk.setName("schema.table.1.csv");
+        chunk.setRowCount(100);
+        chunk.setSize(4096L);
+
+        WriteJournal writeJournal = new WriteJournal(file);
+        writeJournal.open(false);
+        writeJournal.writeSplit("schema.table", createQuerySplit(0, null, 100), asList(column1, column2),
+                asList(chunk));
+        writeJournal.close();
+
+        writeJournal = new WriteJournal(file);
+        writeJournal.open(true);
+        WriteSplit writeSplit = writeJournal.getWriteSplit("schema.table", createQuerySplit(0, null, 100));
+        assertEquals(writeSplit.getColumns(), asList(column1, column2));
+        Chunk resumed = writeSplit.getChunks().iterator().next();
+        assertEquals(resumed.getName(), chunk.getName());
+        assertEquals(resumed.getRowCount(), chunk.getRowCount());
+        assertEquals(resumed.getSize(), chunk.getSize());
+        assertNull(writeJournal.getWriteSplit("schema.table", createQuerySplit(1, 100, null)));
+        writeJournal.close();
+    }
+
+    @Test
+    public void testSyncInterval() {
+        final List<Boolean> forces = newArrayList();
+        WriteJournal writeJournal = new WriteJournal(file) {
+            @Override
+            protected void write(List<String> record, boolean force) {
+                super.write(record, force);
+                forces.add(force);
+            }
+        };
+        writeJournal.open(false);
+        for (int splitIndex = 0; splitIndex < 3; splitIndex++) {
+            Chunk chunk = new Chunk();
+            chunk.setName("schema.table." + (splitIndex + 1) + ".csv");
+            chunk.setSize(0L);
+            writeJournal.writeSplit("schema.table", createQuerySplit(splitIndex, splitIndex, splitIndex + 1),
+                    asList(new Column("id", STRING)), asList(chunk));
+        }
+        writeJournal.close();
+        assertEquals(forces, asList(true, false, false));
+
+        writeJournal = new WriteJournal(file);
+        writeJournal.open(true);
+        assertNotNull(writeJournal.getWriteSplit("schema.table", createQuerySplit(2, 2, 3)));
+        writeJournal.close();
+    }
+
+    @Test(expectedExceptions = BackupWriterException.class)
+    public void testChangedSplit() {
+        Chunk chunk = new Chunk();
+        chunk.setName("schema.table.1.csv");
+        chunk.setSize(0L);
+
+        WriteJournal writeJournal = new WriteJournal(file);
+        writeJournal.open(false);
+        writeJournal.writeSplit("schema.table", createQuerySplit(0, null, 100), asList(new Column("id", STRING)),
+                asList(chunk));
+        writeJournal.close();
+
+        writeJournal = new WriteJournal(file);
+        writeJournal.open(true);
+        try {
+            writeJournal.getWriteSplit("schema.table", createQuerySplit(0, null, 200));
+        } finally {
+            writeJournal.close();
+        }
+    }
+
+    protected KeySampleHandler createKeySampleHandler(Connection connection, int step) throws Exception {
+        List<Object[]> keys = newArrayList();
+        for (int key = step; key <= 1000; key += step) {
+            keys.add(new Object[]{key});
+        }
+        KeySampleHandler keySampleHandler = mock(KeySampleHandler.class);
+        when(keySampleHandler.getKeySample(same(connection), anyDouble())).thenReturn(keys);
+        return keySampleHandler;
+    }
+
+    protected QuerySplitter createQuerySplitter(Connection connection,
+                                                KeySampleHandler keySampleHandler) throws Exception {
+        Table table = createTable(null, "schema", "table");
+        table.addColumn("id").setTypeCode(INTEGER);
+        RowCountStrategy rowCountStrategy = mock(RowCountStrategy.class);
+        when(rowCountStrategy.getRowCount(connection)).thenReturn(1000L);
+        return newKeySplitter(new NuoDBDialect(), (SelectQuery) newQuery(table, table.getColumns(), null),
+                table.getColumns(), new QueryLimit(250L), rowCountStrategy, keySampleHandler);
+    }
+
+    @Test
+    public void testResumePlan() throws Exception {
+        Connection connection = mock(Connection.class);
+        Chunk chunk = new Chunk();
+        chunk.setName("schema.table.1.csv");
+        chunk.setSize(0L);
+
+        WriteJournal writeJournal = new WriteJournal(file);
+        writeJournal.open(false);
+        QuerySplitter querySplitter = createQuerySplitter(connection, createKeySampleHandler(connection, 10));
+        List<QueryLimit> queryLimits = newArrayList();
+        while (querySplitter.hasNextQuerySplit(connection)) {
+            QuerySplit querySplit = querySplitter.getNextQuerySplit(connection);
+            writeJournal.writePlan("schema.table", querySplit, querySplitter.hasNextQuerySplit(connection));
+            queryLimits.add(querySplit.getQueryLimit());
+        }
+        writeJournal.writeSplit("schema.table", createQuerySplit(0, null, 260), asList(new Column("id", STRING)),
+                asList(chunk));
+        writeJournal.close();
+
+        writeJournal = new WriteJournal(file);
+        writeJournal.open(true);
+        KeySampleHandler keySampleHandler = createKeySampleHandler(connection, 20);
+        querySplitter = createQuerySplitter(connection, keySampleHandler);
+        querySplitter.setQueryLimits(writeJournal.getPlan("schema.table"));
+        List<QueryLimit> resumedQueryLimits = newArrayList();
+        while (querySplitter.hasNextQuerySplit(connection)) {
+            QuerySplit querySplit = querySplitter.getNextQuerySplit(connection);
+            WriteSplit writeSplit = writeJournal.getWriteSplit("schema.table", querySplit);
+            if (querySplit.getSplitIndex() == 0) {
+                assertNotNull(writeSplit);
+            } else {
+                assertNull(writeSplit);
+            }
+            resumedQueryLimits.add(querySplit.getQueryLimit());
+        }
+        writeJournal.close();
+        assertEquals(resumedQueryLimits, queryLimits);
+        verify(keySampleHandler, never()).getKeySample(same(connection), anyDouble());
+    }
+
+    @Test
+    public void testIncompletePlan() {
+        Chunk chunk = new Chunk();
+        chunk.setName("schema.table.1.csv");
+        chunk.setSize(0L);
+
+        WriteJournal writeJournal = new WriteJournal(file);
+        writeJournal.open(false);
+        writeJournal.writePlan("schema.table", createQuerySplit(0, null, 100), true);
+        writeJournal.writeSplit("schema.table", createQuerySplit(0, null, 100), asList(new Column("id", STRING)),
+                asList(chunk));
+        writeJournal.close();
+
+        writeJournal = new WriteJournal(file);
+        writeJournal.open(true);
+        assertNull(writeJournal.getPlan("schema.table"));
+        assertNull(writeJournal.getWriteSplit("schema.table", createQuerySplit(0, null, 200)));
+        writeJournal.close();
+    }
+}
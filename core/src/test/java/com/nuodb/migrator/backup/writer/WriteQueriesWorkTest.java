@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.writer;
+
+import com.nuodb.migrator.backup.QueryRowSet;
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.jdbc.session.Session;
+import com.nuodb.migrator.jdbc.split.RowCountStrategy;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static com.nuodb.migrator.jdbc.query.Queries.newQuery;
+import static com.nuodb.migrator.jdbc.split.QuerySplitters.newLimitSplitter;
+import static com.nuodb.migrator.jdbc.split.QuerySplitters.newNoLimitSplitter;
+import static com.nuodb.migrator.jdbc.split.RowCountStrategies.newCachingStrategy;
+import static java.util.Arrays.asList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Sergey Bushik
+ */
+public class WriteQueriesWorkTest {
+
+    private Connection connection;
+    private WriteQueriesWork writeQueriesWork;
+
+    @BeforeMethod
+    public void setUp() {
+        connection = mock(Connection.class);
+        Session session = mock(Session.class);
+        when(session.getConnection()).thenReturn(connection);
+
+        BackupWriterContext backupWriterContext = mock(BackupWriterContext.class);
+        when(backupWriterContext.getSourceSession()).thenReturn(session);
+        BackupWriterManager backupWriterManager = mock(BackupWriterManager.class);
+        when(backupWriterManager.getBackupWriterContext()).thenReturn(backupWriterContext);
+        writeQueriesWork = new WriteQueriesWork(backupWriterManager);
+    }
+
+    protected RowCountStrategy createRowCountStrategy(long rowCount) throws SQLException {
+        RowCountStrategy rowCountStrategy = mock(RowCountStrategy.class);
+        when(rowCountStrategy.getRowCount(connection)).thenReturn(rowCount);
+        return rowCountStrategy;
+    }
+
+    protected WriteQuery createWriteQuery(String query, RowCountStrategy rowCountStrategy) {
+        return new WriteQuery(newLimitSplitter(mock(Dialect.class), newCachingStrategy(rowCountStrategy),
+                newQuery(query), new QueryLimit(10L)), new QueryRowSet(query));
+    }
+
+    @Test
+    public void testGetWriteQueries() throws Exception {
+        RowCountStrategy rowCountStrategy = createRowCountStrategy(10);
+        WriteQuery writeQuery1 = createWriteQuery("SELECT * FROM t1", rowCountStrategy);
+        WriteQuery writeQuery2 = new WriteQuery(newNoLimitSplitter(newQuery("SELECT * FROM t2")),
+                new QueryRowSet("SELECT * FROM t2"));
+        WriteQuery writeQuery3 = createWriteQuery("SELECT * FROM t3", createRowCountStrategy(1000));
+        WriteQuery writeQuery4 = createWriteQuery("SELECT * FROM t4", createRowCountStrategy(100));
+
+        assertEquals(writeQueriesWork.getWriteQueries(
+                asList(writeQuery1, writeQuery2, writeQuery3, writeQuery4), connection),
+                asList(writeQuery3, writeQuery4, writeQuery1, writeQuery2));
+
+        assertEquals(writeQueriesWork.getRowCount(writeQuery1, connection), Long.valueOf(10));
+        verify(rowCountStrategy, times(1)).getRowCount(connection);
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.cli.run;
+
+import com.google.common.collect.Maps;
+import com.nuodb.migrator.cli.parse.Parser;
+import com.nuodb.migrator.cli.parse.parser.ParserImpl;
+import com.nuodb.migrator.jdbc.commit.BatchCommitStrategy;
+import com.nuodb.migrator.jdbc.query.InsertType;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.spec.CopyJobSpec;
+import com.nuodb.migrator.spec.DriverConnectionSpec;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.TimeZone;
+
+import static com.nuodb.migrator.jdbc.JdbcConstants.NUODB_DRIVER;
+import static org.mockito.Mockito.spy;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Sergey Bushik
+ */
+public class CliCopyJobTest {
+
+    private Parser parser;
+    private CliCopyJob cliCopyJob;
+
+    @BeforeMethod
+    public void setUp() {
+        parser = spy(new ParserImpl());
+        cliCopyJob = spy(new CliCopyJob());
+    }
+
+    @Test
+    public void testParse() {
+        String[] arguments = {
+                "--source.driver=com.mysql.jdbc.Driver",
+                "--source.url=jdbc:mysql://localhost:3306/test",
+                "--source.username=root",
+                "--source.password=",
+                "--source.catalog=test",
+
+                "--target.url=jdbc:com.nuodb://localhost/test?schema=hockey",
+                "--target.username=dba",
+                "--target.password=goalie",
+
+                "--table.deployments.insert",
+                "--table.deployments_nodes.replace",
+                "--time.zone=GMT+2",
+                "--query.limit=10000",
+                "--queue.size=500"
+        };
+        parser.parse(arguments, cliCopyJob);
+
+        assertEquals(cliCopyJob.getJobSpec(), createCopySpec());
+    }
+
+    private CopyJobSpec createCopySpec() {
+        CopyJobSpec copyJobSpec = new CopyJobSpec();
+
+        DriverConnectionSpec sourceSpec = new DriverConnectionSpec();
+        sourceSpec.setDriver("com.mysql.jdbc.Driver");
+        sourceSpec.setUrl("jdbc:mysql://localhost:3306/test");
+        sourceSpec.setUsername("root");
+        sourceSpec.setCatalog("test");
+        copyJobSpec.setSourceSpec(sourceSpec);
+
+        DriverConnectionSpec targetSpec = new DriverConnectionSpec();
+        targetSpec.setDriver(NUODB_DRIVER);
+        targetSpec.setUrl("jdbc:com.nuodb://localhost/test?schema=hockey");
+        targetSpec.setUsername("dba");
+        targetSpec.setPassword("goalie");
+        copyJobSpec.setTargetSpec(targetSpec);
+
+        copyJobSpec.setInsertType(InsertType.INSERT);
+        Map<String, InsertType> tableInsertTypes = Maps.newHashMap();
+        tableInsertTypes.put("deployments", InsertType.INSERT);
+        tableInsertTypes.put("deployments_nodes", InsertType.REPLACE);
+        copyJobSpec.setTableInsertTypes(tableInsertTypes);
+        copyJobSpec.setTimeZone(TimeZone.getTimeZone("GMT+2"));
+        copyJobSpec.setQueryLimit(new QueryLimit(10000L));
+        copyJobSpec.setQueueSize(500);
+        copyJobSpec.setCommitStrategy(new BatchCommitStrategy());
+        return copyJobSpec;
+    }
+}
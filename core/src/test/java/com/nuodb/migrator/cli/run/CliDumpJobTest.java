@@ -68,6 +68,8 @@ public class CliDumpJobTest {
 
                 "--output.path=/tmp/dump.cat",
                 "--output.type=xml",
+                "--output.compression=gzip",
+                "--resume",
 
                 "--output.csv.encoding=cp1251",
                 "--output.csv.delimiter=,",
@@ -78,7 +80,9 @@ public class CliDumpJobTest {
                 "--table.type=SYSTEM TABLE",
 
                 "--query=SELECT id, name, definition FROM definitions",
-                "--time.zone=GMT"
+                "--time.zone=GMT",
+                "--fetch.memory=1048576",
+                "--table.users.fetch.size=500"
         };
         parser.parse(arguments, cliDumpJob);
 
@@ -112,9 +116,16 @@ public class CliDumpJobTest {
         outputSpec.setAttributes(attributes);
 
         dumpSpec.setOutputSpec(outputSpec);
+        dumpSpec.setCompression("gzip");
+        dumpSpec.setResume(true);
         dumpSpec.setQuerySpecs(asList(new QuerySpec("SELECT id, name, definition FROM definitions")));
         dumpSpec.setTableTypes(new String[]{"TABLE", "SYSTEM TABLE"});
         dumpSpec.setTimeZone(TimeZone.getTimeZone("GMT"));
+        dumpSpec.setFetchMemory(1048576L);
+
+        TableSpec tableSpec = new TableSpec("users");
+        tableSpec.setFetchSize(500);
+        dumpSpec.setTableSpecs(asList(tableSpec));
         return dumpSpec;
     }
 }
@@ -69,6 +69,7 @@ public class CliLoadJobTest {
                 "--target.password=goalie",
 
                 "--input.path=/tmp/dump.cat",
+                "--resume",
                 "--input.csv.encoding=cp1251",
                 "--input.csv.delimiter= ",
                 "--input.csv.quoting=true",
@@ -76,6 +77,7 @@ public class CliLoadJobTest {
 
                 "--table.deployments.insert",
                 "--table.deployments_nodes.replace",
+                "--insert.rows=100",
                 "--time.zone=GMT+2"
         };
         parser.parse(arguments, cliLoadJob);
@@ -103,12 +105,14 @@ public class CliLoadJobTest {
         attributes.put(CsvFormat.ATTRIBUTE_ESCAPE, "|");
         inputSpec.setAttributes(attributes);
         loadJobSpec.setInputSpec(inputSpec);
+        loadJobSpec.setResume(true);
         loadJobSpec.setInsertType(InsertType.INSERT);
 
         Map<String, InsertType> tableInsertTypes = Maps.newHashMap();
         tableInsertTypes.put("deployments", InsertType.INSERT);
         tableInsertTypes.put("deployments_nodes", InsertType.REPLACE);
         loadJobSpec.setTableInsertTypes(tableInsertTypes);
+        loadJobSpec.setInsertRows(100);
         loadJobSpec.setTimeZone(TimeZone.getTimeZone("GMT+2"));
         loadJobSpec.setCommitStrategy(new BatchCommitStrategy());
         return loadJobSpec;
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.copy;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+import com.google.common.io.InputSupplier;
+import com.nuodb.migrator.backup.format.value.LobValue;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.writer.BackupWriterContext;
+import com.nuodb.migrator.backup.writer.BackupWriterManager;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static com.nuodb.migrator.backup.format.value.ValueUtils.blob;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.clob;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.isLob;
+import static com.nuodb.migrator.copy.CopyQueryWork.LOB_SIZE;
+import static org.apache.commons.lang3.StringUtils.repeat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+public class CopyQueryWorkTest {
+
+    private TempLobStore lobStore;
+    private CopyQueryWork copyQueryWork;
+
+    @BeforeMethod
+    public void setUp() {
+        BackupWriterManager backupWriterManager = mock(BackupWriterManager.class);
+        when(backupWriterManager.getBackupWriterContext()).thenReturn(mock(BackupWriterContext.class));
+        lobStore = new TempLobStore();
+        copyQueryWork = new CopyQueryWork(null, null, false, backupWriterManager, null, lobStore);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        lobStore.close();
+    }
+
+    @Test
+    public void testInlineBlob() throws Exception {
+        byte[] bytes = new byte[LOB_SIZE - 1];
+        Arrays.fill(bytes, (byte) 1);
+        Value value = copyQueryWork.copyValue(blob(createInput(bytes)));
+        assertFalse(isLob(value));
+        assertEquals(value.asBytes(), bytes);
+    }
+
+    @Test
+    public void testCopyBlob() throws Exception {
+        byte[] bytes = new byte[LOB_SIZE + 1];
+        Arrays.fill(bytes, (byte) 1);
+        Value value = copyQueryWork.copyValue(blob(createInput(bytes)));
+        assertTrue(isLob(value));
+        assertEquals(value.asBytes(), bytes);
+    }
+
+    @Test
+    public void testInlineClob() throws Exception {
+        String chars = repeat('c', LOB_SIZE);
+        Value value = copyQueryWork.copyValue(clob(createReader(chars.substring(1))));
+        assertFalse(isLob(value));
+        assertEquals(value.asString(), chars.substring(1));
+    }
+
+    @Test
+    public void testCopyClob() throws Exception {
+        String chars = repeat('\u0436', LOB_SIZE) + "c";
+        Value value = copyQueryWork.copyValue(clob(createReader(chars)));
+        assertTrue(isLob(value));
+        assertEquals(CharStreams.toString(((LobValue) value).getReader()), chars);
+    }
+
+    @Test(expectedExceptions = CopyException.class)
+    public void testClose() throws Exception {
+        byte[] bytes = new byte[LOB_SIZE + 1];
+        Value value = copyQueryWork.copyValue(blob(createInput(bytes)));
+        lobStore.close();
+        ByteStreams.toByteArray(((LobValue) value).getInputStream());
+    }
+
+    private static InputSupplier<InputStream> createInput(final byte[] bytes) {
+        return new InputSupplier<InputStream>() {
+            @Override
+            public InputStream getInput() {
+                return new ByteArrayInputStream(bytes);
+            }
+        };
+    }
+
+    private static InputSupplier<Reader> createReader(final String chars) {
+        return new InputSupplier<Reader>() {
+            @Override
+            public Reader getInput() {
+                return new StringReader(chars);
+            }
+        };
+    }
+}
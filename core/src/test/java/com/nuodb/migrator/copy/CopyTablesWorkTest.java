@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.copy;
+
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.LobStore;
+import com.nuodb.migrator.backup.format.value.Row;
+import com.nuodb.migrator.backup.format.value.RowQueue;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.loader.BackupLoaderContext;
+import com.nuodb.migrator.backup.loader.BackupLoaderManager;
+import com.nuodb.migrator.backup.loader.LoadTable;
+import com.nuodb.migrator.backup.loader.LoadTables;
+import com.nuodb.migrator.backup.writer.BackupWriterManager;
+import com.nuodb.migrator.backup.writer.WriteQuery;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.session.Session;
+import com.nuodb.migrator.jdbc.session.Work;
+import com.nuodb.migrator.utils.concurrent.ForkJoinPool;
+import com.nuodb.migrator.utils.concurrent.RecursiveAction;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collection;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Copies more tables than there are threads through the row queues of a single row, so that both source and target
+ * threads are mostly waiting on the queues.
+ *
+ * @author Sergey Bushik
+ */
+public class CopyTablesWorkTest {
+
+    private static final int THREADS = 4;
+    private static final int TABLES = 9;
+    private static final int SPLITS = 3;
+    private static final int ROWS = 200;
+
+    private ForkJoinPool sourcePool;
+    private ForkJoinPool targetPool;
+    private BackupLoaderManager backupLoaderManager;
+    private TestCopyLoader copyLoader;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        sourcePool = new ForkJoinPool(THREADS);
+        targetPool = new ForkJoinPool(THREADS);
+
+        copyLoader = new TestCopyLoader();
+        copyLoader.setThreads(THREADS);
+        copyLoader.setQueueSize(1);
+        copyLoader.setCopyWriter(createCopyWriter());
+
+        LoadTables loadTables = new LoadTables();
+        for (int table = 0; table < TABLES; table++) {
+            loadTables.addLoadTable(new LoadTable(new RowSet(), mock(Table.class), null,
+                    copyLoader.getTableThreads()));
+        }
+        BackupLoaderContext backupLoaderContext = mock(BackupLoaderContext.class);
+        when(backupLoaderContext.getTargetSession()).thenReturn(mock(Session.class));
+        when(backupLoaderContext.getLoadTables()).thenReturn(loadTables);
+        backupLoaderManager = mock(BackupLoaderManager.class);
+        when(backupLoaderManager.getBackupLoaderContext()).thenReturn(backupLoaderContext);
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                Work work = (Work) invocation.getArguments()[0];
+                try {
+                    work.init((Session) invocation.getArguments()[1]);
+                    work.execute();
+                } finally {
+                    work.close();
+                }
+                return null;
+            }
+        }).when(backupLoaderManager).execute(any(Work.class), any(Session.class));
+    }
+
+    /**
+     * Every query split writes its rows on the source pool
+     *
+     * @return copy writer filling the row queues
+     * @throws Exception never
+     */
+    protected CopyWriter createCopyWriter() throws Exception {
+        CopyWriter copyWriter = mock(CopyWriter.class);
+        when(copyWriter.copyQuery(any(WriteQuery.class), any(RowQueue.class), any(LobStore.class),
+                any(BackupWriterManager.class))).
+                thenAnswer(new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        final RowQueue rowQueue = (RowQueue) invocation.getArguments()[1];
+                        for (int split = 0; split < SPLITS; split++) {
+                            rowQueue.writeStart();
+                            sourcePool.execute(new Runnable() {
+                                @Override
+                                public void run() {
+                                    try {
+                                        for (int row = 0; row < ROWS; row++) {
+                                            rowQueue.writeRow(new Row(null, new Value[0], row));
+                                        }
+                                    } finally {
+                                        rowQueue.writeEnd();
+                                    }
+                                }
+                            });
+                        }
+                        return null;
+                    }
+                });
+        return copyWriter;
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        sourcePool.shutdownNow();
+        targetPool.shutdownNow();
+    }
+
+    @Test(timeOut = 60000L)
+    public void testCopyMoreTablesThanThreads() throws Exception {
+        final CopyTablesWork copyTablesWork = new CopyTablesWork(copyLoader, backupLoaderManager);
+        targetPool.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    copyTablesWork.execute();
+                } catch (Exception exception) {
+                    throw new CopyException(exception);
+                }
+            }
+        }).get();
+
+        assertEquals(copyLoader.rows.get(), TABLES * SPLITS * ROWS);
+        assertEquals(copyLoader.tables.get(), 0);
+        assertTrue(copyLoader.maxTables.get() <= copyLoader.getTables());
+        verify(backupLoaderManager).loadDataDone();
+    }
+
+    static class TestCopyLoader extends CopyLoader {
+
+        private final AtomicInteger rows = new AtomicInteger();
+        private final AtomicInteger tables = new AtomicInteger();
+        private final AtomicInteger maxTables = new AtomicInteger();
+
+        @Override
+        protected WriteQuery getWriteQuery(LoadTable loadTable) {
+            return null;
+        }
+
+        @Override
+        protected boolean canCopy(BackupLoaderManager backupLoaderManager) {
+            return true;
+        }
+
+        @Override
+        protected CopyTableWork copyTable(LoadTable loadTable, BackupLoaderManager backupLoaderManager,
+                                          Semaphore permits) throws Exception {
+            int copied = tables.incrementAndGet();
+            while (true) {
+                int max = maxTables.get();
+                if (copied <= max || maxTables.compareAndSet(max, copied)) {
+                    break;
+                }
+            }
+            return super.copyTable(loadTable, backupLoaderManager, permits);
+        }
+
+        @Override
+        protected CopyTableWork createCopyTableWork(LoadTable loadTable, BackupLoaderManager backupLoaderManager,
+                                                    RowQueue rowQueue, TempLobStore lobStore, Semaphore permits) {
+            return new DrainTableWork(loadTable, backupLoaderManager, rowQueue, lobStore, permits);
+        }
+
+        /**
+         * Drains the row queue by the table threads instead of loading the rows to the target table
+         */
+        class DrainTableWork extends CopyTableWork {
+
+            DrainTableWork(LoadTable loadTable, BackupLoaderManager backupLoaderManager, RowQueue rowQueue,
+                           TempLobStore lobStore, Semaphore permits) {
+                super(loadTable, backupLoaderManager, rowQueue, lobStore, permits);
+            }
+
+            @Override
+            public void execute() throws Exception {
+                Collection<RecursiveAction> drains = newArrayList();
+                for (int thread = 0; thread < getLoadTable().getThreads(); thread++) {
+                    RecursiveAction drain = new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            while (getRowQueue().readRow() != null) {
+                                rows.incrementAndGet();
+                            }
+                        }
+                    };
+                    drain.fork();
+                    drains.add(drain);
+                }
+                for (RecursiveAction drain : drains) {
+                    drain.join();
+                }
+                tables.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.commit;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+/**
+ * @author Sergey Bushik
+ */
+public class BatchCommitStrategyTest {
+
+    private BatchCommitStrategy commitStrategy;
+    private PreparedStatement statement;
+    private PreparedStatement nextStatement;
+    private Connection connection;
+    private Connection nextConnection;
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void setUp() throws SQLException {
+        commitStrategy = new BatchCommitStrategy();
+        commitStrategy.setBatchSize(2);
+        statement = mock(PreparedStatement.class);
+        connection = mock(Connection.class);
+        when(statement.getConnection()).thenReturn(connection);
+        nextStatement = mock(PreparedStatement.class);
+        nextConnection = mock(Connection.class);
+        when(nextStatement.getConnection()).thenReturn(nextConnection);
+        executor = newSingleThreadExecutor();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testBatchSize() throws SQLException {
+        CommitExecutor commitExecutor = commitStrategy.createCommitExecutor(statement, null);
+        for (int update = 0; update < 5; update++) {
+            commitExecutor.execute();
+        }
+        verify(statement, times(2)).executeBatch();
+        verify(connection, times(2)).commit();
+
+        commitExecutor.finish();
+        verify(statement, times(3)).executeBatch();
+        verify(connection, times(3)).commit();
+        assertEquals(((JournaledCommitExecutor) commitExecutor).getCommitted(), 5);
+    }
+
+    @Test
+    public void testNextStatement() throws SQLException {
+        AsyncCommitExecutor commitExecutor = commitStrategy.createCommitExecutor(
+                statement, nextStatement, null, executor);
+        commitExecutor.execute();
+        commitExecutor.execute();
+        assertSame(commitExecutor.getStatement(), nextStatement);
+        commitExecutor.execute();
+        commitExecutor.execute();
+        assertSame(commitExecutor.getStatement(), statement);
+        commitExecutor.execute();
+        commitExecutor.finish();
+
+        verify(statement, times(3)).addBatch();
+        verify(statement, times(2)).executeBatch();
+        verify(connection, times(2)).commit();
+        verify(nextStatement, times(2)).addBatch();
+        verify(nextStatement, times(1)).executeBatch();
+        verify(nextConnection, times(1)).commit();
+        assertEquals(commitExecutor.getCommitted(), 5);
+    }
+
+    @Test(expectedExceptions = SQLException.class)
+    public void testBatchFailure() throws SQLException {
+        doThrow(new SQLException()).when(statement).executeBatch();
+        AsyncCommitExecutor commitExecutor = commitStrategy.createCommitExecutor(
+                statement, nextStatement, null, executor);
+        commitExecutor.execute();
+        commitExecutor.execute();
+        commitExecutor.execute();
+        try {
+            commitExecutor.finish();
+        } finally {
+            assertEquals(commitExecutor.getCommitted(), 0);
+            commitExecutor.close();
+        }
+    }
+}
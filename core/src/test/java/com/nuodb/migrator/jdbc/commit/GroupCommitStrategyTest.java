@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.commit;
+
+import com.nuodb.migrator.jdbc.commit.GroupCommitStrategy.GroupCommitExecutor;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.jdbc.commit.GroupCommitStrategy.ATTRIBUTE_BATCH_SIZE;
+import static com.nuodb.migrator.jdbc.commit.GroupCommitStrategy.ATTRIBUTE_COMMIT_INTERVAL;
+import static com.nuodb.migrator.jdbc.commit.GroupCommitStrategy.ATTRIBUTE_COMMIT_SIZE;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Sergey Bushik
+ */
+public class GroupCommitStrategyTest {
+
+    private GroupCommitStrategy commitStrategy;
+    private PreparedStatement statement;
+    private Connection connection;
+
+    @BeforeMethod
+    public void setUp() throws SQLException {
+        commitStrategy = new GroupCommitStrategy();
+        statement = mock(PreparedStatement.class);
+        connection = mock(Connection.class);
+        when(statement.getConnection()).thenReturn(connection);
+    }
+
+    @Test
+    public void testSetAttributes() {
+        Map<String, Object> attributes = newHashMap();
+        attributes.put(ATTRIBUTE_BATCH_SIZE, "100");
+        attributes.put(ATTRIBUTE_COMMIT_SIZE, "5000");
+        attributes.put(ATTRIBUTE_COMMIT_INTERVAL, "2000");
+        commitStrategy.setAttributes(attributes);
+
+        assertEquals(commitStrategy.getBatchSize(), 100);
+        assertEquals(commitStrategy.getCommitSize(), 5000);
+        assertEquals(commitStrategy.getCommitInterval(), 2000);
+    }
+
+    @Test
+    public void testCommitSize() throws SQLException {
+        commitStrategy.setBatchSize(2);
+        commitStrategy.setCommitSize(4);
+        GroupCommitExecutor commitExecutor = (GroupCommitExecutor) commitStrategy.createCommitExecutor(
+                statement, null);
+        for (int update = 0; update < 9; update++) {
+            commitExecutor.execute();
+        }
+        verify(statement, times(9)).addBatch();
+        verify(statement, times(4)).executeBatch();
+        verify(connection, times(2)).commit();
+
+        commitExecutor.finish();
+        verify(statement, times(5)).executeBatch();
+        verify(connection, times(3)).commit();
+        assertEquals(commitExecutor.getBatches(), 5);
+        assertEquals(commitExecutor.getCommits(), 3);
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.connection;
+
+import com.nuodb.migrator.utils.aop.AopProxy;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+public class LoggingConnectionProviderTest {
+
+    private static final String QUERY = "INSERT INTO T (C) VALUES (?)";
+
+    @Test
+    public void testLoggingDisabled() throws Exception {
+        QueryLogger queryLogger = mock(QueryLogger.class);
+        when(queryLogger.isEnabled()).thenReturn(false);
+        PreparedStatement statement = mock(PreparedStatement.class);
+
+        Connection connection = createConnection(queryLogger, statement);
+        assertTrue(connection instanceof ConnectionProxy);
+        assertSame(connection.prepareStatement(QUERY), statement);
+    }
+
+    @Test
+    public void testLoggingEnabled() throws Exception {
+        QueryLogger queryLogger = mock(QueryLogger.class);
+        when(queryLogger.isEnabled()).thenReturn(true);
+        PreparedStatement statement = mock(PreparedStatement.class);
+
+        PreparedStatement proxy = createConnection(queryLogger, statement).prepareStatement(QUERY);
+        assertTrue(proxy instanceof AopProxy);
+        proxy.setInt(1, 10);
+        proxy.execute();
+        verify(queryLogger).log("INSERT INTO T (C) VALUES (10)");
+    }
+
+    protected Connection createConnection(QueryLogger queryLogger, PreparedStatement statement) throws Exception {
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(QUERY)).thenReturn(statement);
+        ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+        when(connectionProvider.getConnection()).thenReturn(connection);
+        return new LoggingConnectionProvider(connectionProvider,
+                new SimpleQueryFormatFactory(), queryLogger).getConnection();
+    }
+}
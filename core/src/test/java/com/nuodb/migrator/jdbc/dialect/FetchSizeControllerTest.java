@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.dialect;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+public class FetchSizeControllerTest {
+
+    private FetchSizeController fetchSizeController;
+    private ResultSet resultSet;
+
+    @BeforeMethod
+    public void setUp() {
+        fetchSizeController = new FetchSizeController(1000);
+        fetchSizeController.setSampleRows(2);
+        fetchSizeController.setMinFetchSize(5);
+        fetchSizeController.setMaxFetchSize(50);
+        resultSet = mock(ResultSet.class);
+    }
+
+    @Test
+    public void testAdjustFetchSize() throws SQLException {
+        when(resultSet.getFetchSize()).thenReturn(100);
+        fetchSizeController.fetchRow(resultSet, 30);
+        assertFalse(fetchSizeController.isAdjusted());
+        fetchSizeController.fetchRow(resultSet, 50);
+        assertTrue(fetchSizeController.isAdjusted());
+        verify(resultSet).setFetchSize(25);
+    }
+
+    @Test
+    public void testFetchSizeBounds() throws SQLException {
+        fetchSizeController.fetchRow(resultSet, 1);
+        fetchSizeController.fetchRow(resultSet, 1);
+        assertEquals(fetchSizeController.getFetchSize(), 50);
+
+        FetchSizeController wideRows = new FetchSizeController(1000);
+        wideRows.setMinFetchSize(5);
+        wideRows.fetchRow(resultSet, 1000000);
+        assertEquals(wideRows.getFetchSize(), 5);
+    }
+
+    @Test
+    public void testStreamingResultSet() throws SQLException {
+        when(resultSet.getFetchSize()).thenReturn(Integer.MIN_VALUE);
+        fetchSizeController.fetchRow(resultSet, 10);
+        fetchSizeController.fetchRow(resultSet, 10);
+        assertTrue(fetchSizeController.isAdjusted());
+        verify(resultSet, never()).setFetchSize(anyInt());
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.metadata.Database;
+import com.nuodb.migrator.jdbc.metadata.ForeignKey;
+import com.nuodb.migrator.jdbc.metadata.MetaDataType;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.metadata.resolver.ServiceResolver;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.util.Collection;
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.*;
+import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionCache.getKey;
+import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+@SuppressWarnings("unchecked")
+public class InspectionCacheTest {
+
+    private static final MetaDataType[] OBJECT_TYPES = new MetaDataType[]{
+            DATABASE, CATALOG, SCHEMA, TABLE, COLUMN, FOREIGN_KEY};
+
+    private File file;
+    private Connection connection;
+    private TableInspectionScope inspectionScope;
+    private InspectionManager inspectionManager;
+    private Fingerprinter fingerprinter;
+    private Map<String, String> fingerprints;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        file = File.createTempFile("inspection", ".cache");
+        file.delete();
+        connection = mock(Connection.class);
+        inspectionScope = new TableInspectionScope("catalog", "schema", new String[]{Table.TABLE});
+
+        InspectionResults inspectionResults = new SimpleInspectionResults();
+        Table table1 = addTable(inspectionResults, "catalog", "schema", "table1");
+        table1.addColumn("id");
+        Table table2 = addTable(inspectionResults, "catalog", "schema", "table2");
+        table2.addColumn("table1_id");
+        ForeignKey foreignKey = new ForeignKey("fk_table1");
+        foreignKey.setPrimaryTable(table1);
+        foreignKey.setForeignTable(table2);
+        foreignKey.addReference(table1.getColumn("id"), table2.getColumn("table1_id"));
+        table2.addForeignKey(foreignKey);
+        Table table3 = addTable(inspectionResults, "catalog", "schema", "table3");
+        table3.addColumn("id");
+
+        inspectionManager = mock(InspectionManager.class);
+        given(inspectionManager.inspect(eq(connection), eq(inspectionScope), (MetaDataType[]) anyVararg())).
+                willReturn(inspectionResults);
+
+        fingerprints = newHashMap();
+        fingerprints.put(getKey("catalog", "schema", "table1"), "1");
+        fingerprints.put(getKey("catalog", "schema", "table2"), "1");
+        fingerprints.put(getKey("catalog", "schema", "table3"), "1");
+        fingerprinter = mock(Fingerprinter.class);
+        given(fingerprinter.getFingerprints(connection, inspectionScope)).willReturn(fingerprints);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        file.delete();
+    }
+
+    protected InspectionCache createInspectionCache(boolean refresh) throws Exception {
+        InspectionCache inspectionCache = new InspectionCache(file, refresh);
+        ServiceResolver<Fingerprinter> fingerprinterResolver = mock(ServiceResolver.class);
+        given(fingerprinterResolver.resolve(connection)).willReturn(fingerprinter);
+        inspectionCache.setFingerprinterResolver(fingerprinterResolver);
+        return inspectionCache;
+    }
+
+    /**
+     * Verifies that meta data cached by the first run is read back by the next run with no full inspection
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testInspectCached() throws Exception {
+        assertNotNull(createInspectionCache(false).inspect(inspectionManager, connection, inspectionScope,
+                OBJECT_TYPES));
+        assertTrue(file.exists());
+
+        Database database = createInspectionCache(false).inspect(inspectionManager, connection, inspectionScope,
+                OBJECT_TYPES);
+        verify(inspectionManager, times(1)).inspect(eq(connection), eq(inspectionScope),
+                (MetaDataType[]) anyVararg());
+        assertEquals(database.getTables().size(), 3);
+        Table table2 = database.getCatalog("catalog").getSchema("schema").getTable("table2");
+        assertEquals(table2.getForeignKeys().iterator().next().getPrimaryTable(),
+                database.getCatalog("catalog").getSchema("schema").getTable("table1"));
+        verify(inspectionManager, never()).inspect(eq(connection), any(InspectionResults.class),
+                any(Collection.class), (MetaDataType[]) anyVararg());
+    }
+
+    /**
+     * Verifies that changed table and the table referencing it are removed from the cached meta data to be inspected
+     * again, while unchanged table is kept
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testInspectChanged() throws Exception {
+        createInspectionCache(false).inspect(inspectionManager, connection, inspectionScope, OBJECT_TYPES);
+
+        fingerprints.put(getKey("catalog", "schema", "table1"), "2");
+        Database database = createInspectionCache(false).inspect(inspectionManager, connection, inspectionScope,
+                OBJECT_TYPES);
+        assertEquals(database.getTables().size(), 1);
+        assertTrue(database.getCatalog("catalog").getSchema("schema").hasTable("table3"));
+        assertFalse(database.getCatalog("catalog").getSchema("schema").hasTable("table1"));
+        verify(inspectionManager).inspect(eq(connection), any(InspectionResults.class), eq(inspectionScope),
+                eq(DATABASE), eq(CATALOG), eq(SCHEMA), eq(TABLE));
+    }
+
+    /**
+     * Verifies that refresh switch forces full inspection
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testInspectRefresh() throws Exception {
+        createInspectionCache(false).inspect(inspectionManager, connection, inspectionScope, OBJECT_TYPES);
+        createInspectionCache(true).inspect(inspectionManager, connection, inspectionScope, OBJECT_TYPES);
+        verify(inspectionManager, times(2)).inspect(eq(connection), eq(inspectionScope),
+                (MetaDataType[]) anyVararg());
+    }
+}
@@ -1,6 +1,8 @@
 package com.nuodb.migrator.jdbc.metadata.inspector;
 
 import com.nuodb.migrator.jdbc.metadata.MetaDataType;
+import com.nuodb.migrator.jdbc.session.Session;
+import com.nuodb.migrator.jdbc.session.SessionFactory;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.testng.annotations.BeforeMethod;
@@ -9,6 +11,8 @@ import org.testng.annotations.Test;
 
 import java.sql.Connection;
 
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.INDEX;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.PRIMARY_KEY;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Matchers.any;
@@ -69,4 +73,37 @@ public class InspectionManagerTest {
         assertNotNull(inspectionManager.inspect(mock(Connection.class), objectType));
         verify(inspector).inspectScope(any(InspectionContext.class), any(InspectionScope.class));
     }
+
+    /**
+     * Verifies that indexes and primary keys are inspected each on its own session opened from the session factory
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testInspectConcurrently() throws Exception {
+        Session session = mock(Session.class);
+        given(session.getConnection()).willReturn(mock(Connection.class));
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        given(sessionFactory.openSession()).willReturn(session);
+
+        inspectionManager.setThreads(2);
+        inspectionManager.setSessionFactory(sessionFactory);
+
+        Inspector indexInspector = mock(Inspector.class);
+        when(indexInspector.supports(INDEX)).thenReturn(true);
+        when(indexInspector.supportsScope(any(InspectionContext.class), any(InspectionScope.class))).thenReturn(true);
+        inspectionManager.addInspector(indexInspector);
+
+        Inspector primaryKeyInspector = mock(Inspector.class);
+        when(primaryKeyInspector.supports(PRIMARY_KEY)).thenReturn(true);
+        when(primaryKeyInspector.supportsScope(any(InspectionContext.class), any(InspectionScope.class))).
+                thenReturn(true);
+        inspectionManager.addInspector(primaryKeyInspector);
+
+        assertNotNull(inspectionManager.inspect(mock(Connection.class), INDEX, PRIMARY_KEY));
+        verify(sessionFactory, times(2)).openSession();
+        verify(session, times(2)).close();
+        verify(indexInspector).inspectScope(any(InspectionContext.class), any(InspectionScope.class));
+        verify(primaryKeyInspector).inspectScope(any(InspectionContext.class), any(InspectionScope.class));
+    }
 }
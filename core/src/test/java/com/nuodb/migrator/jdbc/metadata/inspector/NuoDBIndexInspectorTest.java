@@ -27,7 +27,9 @@
  */
 package com.nuodb.migrator.jdbc.metadata.inspector;
 
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
 import com.nuodb.migrator.jdbc.metadata.Index;
+import com.nuodb.migrator.jdbc.metadata.MetaData;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import org.testng.annotations.Test;
 
@@ -36,13 +38,19 @@ import java.sql.ResultSet;
 import java.util.Collection;
 
 import static com.google.common.collect.Iterables.get;
+import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.jdbc.metadata.Identifier.valueOf;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataType.INDEX;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createTable;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.testng.Assert.assertEquals;
 
 /**
@@ -91,4 +99,41 @@ public class NuoDBIndexInspectorTest extends InspectorTestBase {
 
         assertEquals(get(indexes, 0), index);
     }
+
+    /**
+     * Verifies that indexes of the tables from the same schema are read with a single schema wide query and indexes
+     * of the tables out of the inspected ones are skipped
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testInspectBatch() throws Exception {
+        willResolveDialect(getInspectionManager(), new NuoDBDialect());
+
+        PreparedStatement query = mock(PreparedStatement.class);
+        given(getConnection().prepareStatement(anyString(), anyInt(), anyInt())).willReturn(query);
+
+        String schemaName = "schema";
+        ResultSet resultSet = mock(ResultSet.class);
+        given(query.executeQuery()).willReturn(resultSet);
+        given(resultSet.next()).willReturn(true, true, false);
+        given(resultSet.getString("SCHEMA")).willReturn(schemaName);
+        given(resultSet.getString("TABLENAME")).willReturn("table1", "table3");
+        given(resultSet.getString("FIELD")).willReturn("column");
+        given(resultSet.getString("INDEXNAME")).willReturn("unique");
+        given(resultSet.getInt("INDEXTYPE")).willReturn(NuoDBIndex.UNIQUE);
+
+        Collection<MetaData> tables = newArrayList();
+        tables.add(createTable(null, schemaName, "table1"));
+        tables.add(createTable(null, schemaName, "table2"));
+        InspectionResults inspectionResults = getInspectionManager().inspect(getConnection(), tables, INDEX);
+
+        verify(getConnection(), times(1)).prepareStatement(anyString(), anyInt(), anyInt());
+        verify(query).setObject(1, schemaName);
+        verify(query, never()).setObject(eq(2), any());
+
+        Collection<Index> indexes = inspectionResults.getObjects(INDEX);
+        assertEquals(indexes.size(), 1);
+        assertEquals(get(indexes, 0).getTable().getName(), "table1");
+    }
 }
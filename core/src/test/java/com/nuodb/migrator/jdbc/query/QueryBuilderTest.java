@@ -83,6 +83,23 @@ public class QueryBuilderTest {
         assertEquals(insertQuery.toString(), query);
     }
 
+    @Test
+    public void testMultiRowInsertQueryBuilder() {
+        Table table = createTable(null, "schema", "table");
+        table.addColumn("column1");
+        table.addColumn("column2");
+        InsertQueryBuilder insertQueryBuilder = new InsertQueryBuilder();
+        insertQueryBuilder.into(table);
+        insertQueryBuilder.dialect(new NuoDBDialect());
+        insertQueryBuilder.insertType(REPLACE);
+        insertQueryBuilder.rows(3);
+        InsertQuery insertQuery = insertQueryBuilder.build();
+
+        assertEquals(insertQuery.getRows(), 3);
+        assertEquals(insertQuery.toString(),
+                "REPLACE INTO \"schema\".\"table\" (\"column1\", \"column2\") VALUES (?, ?), (?, ?), (?, ?)");
+    }
+
     @DataProvider(name = "selectQueryBuilder")
     public Object[][] createSelectQueryBuilderData() {
         Table table = createTable(null, "schema", "table");
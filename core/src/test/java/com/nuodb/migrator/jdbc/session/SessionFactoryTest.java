@@ -27,9 +27,12 @@
  */
 package com.nuodb.migrator.jdbc.session;
 
+import com.nuodb.migrator.jdbc.connection.ConnectionProvider;
 import com.nuodb.migrator.jdbc.dialect.Dialect;
 import com.nuodb.migrator.jdbc.dialect.MySQLDialect;
 import com.nuodb.migrator.spec.DriverConnectionSpec;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -39,6 +42,9 @@ import java.sql.SQLException;
 import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.MYSQL;
 import static com.nuodb.migrator.jdbc.session.SessionFactories.newSessionFactory;
 import static java.lang.String.format;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.testng.Assert.*;
 
 /**
@@ -64,4 +70,50 @@ public class SessionFactoryTest {
         Connection connection = session.getConnection();
         fail(format("Connection less session should not return a connection %s", connection));
     }
+
+    @Test
+    public void testCloseSession() throws Exception {
+        SessionObserver sessionObserver = mock(SessionObserver.class);
+        SessionFactory sessionFactory = createSessionFactory(sessionObserver);
+        Session session = sessionFactory.openSession();
+        session.close();
+
+        assertNotSame(sessionFactory.openSession(), session);
+        verify(sessionObserver).afterOpen(session);
+        verify(sessionObserver).beforeClose(session);
+    }
+
+    @Test
+    public void testReuseSession() throws Exception {
+        SessionObserver sessionObserver = mock(SessionObserver.class);
+        SessionFactory sessionFactory = createSessionFactory(sessionObserver);
+        sessionFactory.setReuseSessions(true);
+        Session session = sessionFactory.openSession();
+        session.put("key", "value");
+        session.close();
+        session.close();
+
+        assertSame(sessionFactory.openSession(), session);
+        assertNull(session.get("key"));
+        assertNotSame(sessionFactory.openSession(), session);
+        verify(sessionObserver).afterOpen(session);
+        verify(session.getConnection()).rollback();
+
+        session.close();
+        sessionFactory.close();
+        verify(sessionObserver).beforeClose(session);
+    }
+
+    protected SessionFactory createSessionFactory(SessionObserver sessionObserver) throws SQLException {
+        ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+        when(connectionProvider.getConnection()).thenAnswer(new Answer<Connection>() {
+            @Override
+            public Connection answer(InvocationOnMock invocation) throws Throwable {
+                return mock(Connection.class);
+            }
+        });
+        SessionFactory sessionFactory = newSessionFactory(connectionProvider, mock(Dialect.class));
+        sessionFactory.addSessionObserver(sessionObserver);
+        return sessionFactory;
+    }
 }
@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2014, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.split;
+
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.KeySampleHandler;
+import com.nuodb.migrator.jdbc.dialect.MSSQLServer2005Dialect;
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.dialect.OracleDialect;
+import com.nuodb.migrator.jdbc.dialect.PostgreSQLDialect;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.DatabaseInfo;
+import com.nuodb.migrator.jdbc.metadata.PrimaryKey;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createIndex;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createTable;
+import static com.nuodb.migrator.jdbc.query.Queries.newQuery;
+import static com.nuodb.migrator.jdbc.split.QuerySplitters.getSplitKey;
+import static com.nuodb.migrator.jdbc.split.QuerySplitters.newKeySplitter;
+import static com.nuodb.migrator.jdbc.split.QuerySplitters.supportsKeySplitter;
+import static java.sql.Types.BLOB;
+import static java.sql.Types.INTEGER;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+/**
+ * @author Sergey Bushik
+ */
+public class KeyQuerySplitterTest {
+
+    private Table table;
+    private Column id;
+    private Column name;
+    private Dialect dialect;
+
+    @BeforeMethod
+    public void setUp() {
+        dialect = new NuoDBDialect();
+        table = createTable(null, "schema", "table");
+        id = table.addColumn("id");
+        id.setTypeCode(INTEGER);
+        name = table.addColumn("name");
+        name.setTypeCode(INTEGER);
+        name.setNullable(true);
+    }
+
+    @Test
+    public void testGetSplitKey() {
+        assertNull(getSplitKey(table));
+
+        Column data = table.addColumn("data");
+        data.setTypeCode(BLOB);
+        table.addIndex(createIndex("idx_data", newArrayList(data), true));
+        table.addIndex(createIndex("idx_name", newArrayList(name), true));
+        assertNull(getSplitKey(table));
+        assertFalse(supportsKeySplitter(table, new QueryLimit(100L)));
+
+        table.addIndex(createIndex("idx_id_name", newArrayList(id, name), true));
+        table.addIndex(createIndex("idx_id", newArrayList(id), true));
+        assertEquals(getSplitKey(table), newArrayList(id));
+        assertTrue(supportsKeySplitter(table, new QueryLimit(100L)));
+        assertFalse(supportsKeySplitter(table, null));
+
+        PrimaryKey primaryKey = new PrimaryKey();
+        primaryKey.addColumn(name, 0);
+        primaryKey.addColumn(id, 1);
+        table.setPrimaryKey(primaryKey);
+        assertEquals(getSplitKey(table), newArrayList(name, id));
+    }
+
+    @Test
+    public void testKeyFilter() {
+        KeyQuerySplitter querySplitter = createQuerySplitter(newArrayList(id, name), 2);
+        assertEquals(querySplitter.getKeyFilter(">", ">"),
+                "(\"id\" > ? OR (\"id\" = ? AND \"name\" > ?))");
+        assertEquals(querySplitter.getKeyFilter("<", "<="),
+                "(\"id\" < ? OR (\"id\" = ? AND \"name\" <= ?))");
+    }
+
+    @Test
+    public void testQuerySplits() throws Exception {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        ResultSet keys1 = mock(ResultSet.class);
+        when(keys1.next()).thenReturn(true, true, false);
+        when(keys1.getObject(1)).thenReturn(1, 2);
+        ResultSet keys2 = mock(ResultSet.class);
+        when(keys2.next()).thenReturn(true, false);
+        when(keys2.getObject(1)).thenReturn(3);
+        when(statement.executeQuery()).thenReturn(keys1, keys2);
+
+        KeyQuerySplitter querySplitter = createQuerySplitter(newArrayList(id), 2);
+        assertTrue(querySplitter.hasNextQuerySplit(connection));
+        QuerySplit querySplit1 = querySplitter.getNextQuerySplit(connection);
+        assertEquals(querySplit1.getQueryLimit(), new KeyRange(null, new Object[]{2}, 2L));
+        verify(connection).prepareStatement(
+                "SELECT \"id\" FROM \"schema\".\"table\" WHERE (\"id\" > 0) ORDER BY \"id\" LIMIT 2");
+
+        assertTrue(querySplitter.hasNextQuerySplit(connection));
+        QuerySplit querySplit2 = querySplitter.getNextQuerySplit(connection);
+        assertEquals(querySplit2.getQueryLimit(), new KeyRange(new Object[]{2}, null, 2L));
+        verify(connection).prepareStatement(
+                "SELECT \"id\" FROM \"schema\".\"table\" WHERE (\"id\" > 0) AND \"id\" > ? ORDER BY \"id\" LIMIT 2");
+        verify(statement).setObject(1, 2);
+        assertFalse(querySplitter.hasNextQuerySplit(connection));
+
+        querySplit1.getResultSet(connection);
+        verify(connection).prepareStatement("SELECT \"id\", \"name\" FROM \"schema\".\"table\" " +
+                "WHERE (\"id\" > 0) AND \"id\" <= ?");
+        querySplit2.getResultSet(connection);
+        verify(connection).prepareStatement("SELECT \"id\", \"name\" FROM \"schema\".\"table\" " +
+                "WHERE (\"id\" > 0) AND \"id\" > ?");
+    }
+
+    @Test
+    public void testPlannedQuerySplits() throws Exception {
+        Connection connection = mock(Connection.class);
+        RowCountStrategy rowCountStrategy = mock(RowCountStrategy.class);
+        when(rowCountStrategy.getRowCount(connection)).thenReturn(1000L);
+        KeySampleHandler keySampleHandler = mock(KeySampleHandler.class);
+        List<Object[]> keys = newArrayList();
+        for (int key = 10; key <= 1000; key += 10) {
+            keys.add(new Object[]{key});
+        }
+        when(keySampleHandler.getKeySample(same(connection), anyDouble())).thenReturn(keys);
+
+        SelectQuery query = (SelectQuery) newQuery(table, table.getColumns(), null);
+        QuerySplitter querySplitter = newKeySplitter(dialect, query, newArrayList(id),
+                new QueryLimit(250L), rowCountStrategy, keySampleHandler);
+        List<QueryLimit> keyRanges = newArrayList();
+        while (querySplitter.hasNextQuerySplit(connection)) {
+            keyRanges.add(querySplitter.getNextQuerySplit(connection).getQueryLimit());
+        }
+        verify(keySampleHandler).getKeySample(connection, 8D);
+        verify(connection, never()).prepareStatement(anyString());
+        assertEquals(keyRanges, newArrayList(
+                new KeyRange(null, new Object[]{260}, 250L),
+                new KeyRange(new Object[]{260}, new Object[]{510}, 250L),
+                new KeyRange(new Object[]{510}, new Object[]{760}, 250L),
+                new KeyRange(new Object[]{760}, null, 250L)));
+    }
+
+    @DataProvider(name = "keySampleQuery")
+    public Object[][] createKeySampleQueryData() {
+        return new Object[][]{
+                {new PostgreSQLDialect(new DatabaseInfo("PostgreSQL", "9.5", 9, 5)),
+                        "SELECT \"id\" FROM \"schema\".\"table\" TABLESAMPLE SYSTEM (0.5) ORDER BY \"id\""},
+                {new OracleDialect(new DatabaseInfo("Oracle")),
+                        "SELECT \"id\" FROM \"schema\".\"table\" SAMPLE BLOCK (0.5) ORDER BY \"id\""},
+                {new MSSQLServer2005Dialect(new DatabaseInfo("Microsoft SQL Server")),
+                        "SELECT [id] FROM [schema].[table] TABLESAMPLE SYSTEM (0.5 PERCENT) ORDER BY [id]"}
+        };
+    }
+
+    @Test(dataProvider = "keySampleQuery")
+    public void testKeySampleQuery(Dialect dialect, String query) {
+        assertTrue(dialect.supportsKeySample(table, newArrayList(id), null));
+        KeySampleHandler keySampleHandler = dialect.createKeySampleHandler(table, newArrayList(id), null);
+        assertEquals(keySampleHandler.getKeySampleQuery(0.5).toString(), query);
+    }
+
+    protected KeyQuerySplitter createQuerySplitter(Collection<Column> key, long count) {
+        SelectQuery query = (SelectQuery) newQuery(table, table.getColumns(), "\"id\" > 0");
+        query.setDialect(dialect);
+        return (KeyQuerySplitter) newKeySplitter(dialect, query, key, new QueryLimit(count));
+    }
+}